@@ -6,6 +6,10 @@
  */
 package com.oracle.nosql.spring.data;
 
+import com.oracle.nosql.spring.data.config.HandlePoolStrategy;
+import com.oracle.nosql.spring.data.config.TableCreationMode;
+import com.oracle.nosql.spring.data.config.WriteBehindOverflowPolicy;
+
 public class Constants {
     public static final String DEFAULT_TABLE_NAME = "";
     public static final boolean DEFAULT_AUTO_CREATE_TABLE = true;
@@ -22,12 +26,50 @@ public class Constants {
     public static final int DEFAULT_TIMESTAMP_PRECISION = 3;
     public static final String DEFAULT_TABLE_CONSISTENCY = "EVENTUAL";
     public static final String DEFAULT_TABLE_DURABILITY = "COMMIT_NO_SYNC";
+    public static final boolean DEFAULT_TABLE_RATE_LIMITING = false;
+    public static final double DEFAULT_TABLE_RATE_LIMITING_PERCENTAGE = 100.0;
+    public static final int DEFAULT_RETRY_MAX_RETRIES = 10;
+    public static final long DEFAULT_RETRY_INITIAL_BACKOFF_MS = 100L;
+    public static final long DEFAULT_RETRY_MAX_BACKOFF_MS = 5000L;
+    public static final long DEFAULT_RETRY_MAX_TIME_MS = 60000L;
+    public static final double DEFAULT_HEDGE_PERCENTILE = 0.95;
+    public static final long DEFAULT_HEDGE_MIN_DELAY_MS = 2L;
+    public static final double DEFAULT_HEDGE_MAX_RATE = 0.05;
+    public static final int DEFAULT_HEDGE_MAX_PARALLELISM = 8;
+    public static final TableCreationMode DEFAULT_TABLE_CREATION_MODE =
+        TableCreationMode.SYNC;
+    public static final int DEFAULT_TABLE_CREATION_PARALLELISM = 8;
+    public static final long DEFAULT_TABLE_CREATION_TIMEOUT_MS = 300000L;
+    public static final boolean DEFAULT_DIRTY_TRACKING = false;
+    public static final int DEFAULT_WRITE_BEHIND_CAPACITY = 10000;
+    public static final int DEFAULT_WRITE_BEHIND_BATCH_SIZE = 50;
+    public static final long DEFAULT_WRITE_BEHIND_FLUSH_INTERVAL_MS = 1000L;
+    public static final WriteBehindOverflowPolicy
+        DEFAULT_WRITE_BEHIND_OVERFLOW_POLICY = WriteBehindOverflowPolicy.BLOCK;
+    public static final int DEFAULT_WRITE_BEHIND_MAX_FLUSH_ATTEMPTS = 5;
+    public static final int DEFAULT_SCAN_PARALLELISM = 16;
+    public static final int DEFAULT_BULK_LOAD_PARALLELISM = 8;
+    public static final int DEFAULT_BULK_LOAD_BATCH_SIZE = 50;
+    public static final int DEFAULT_BULK_LOAD_CHUNK_SIZE = 1000;
+    public static final int DEFAULT_RESULT_CACHE_CAPACITY = 1000;
+    public static final long DEFAULT_CACHEABLE_TTL_MS = 60000L;
+    public static final boolean DEFAULT_READ_COALESCING = false;
+    public static final long DEFAULT_READ_BATCH_WINDOW_MS = 0L;
+    public static final int DEFAULT_READ_BATCH_SIZE = 100;
+    public static final int DEFAULT_READ_BATCH_PARALLELISM = 8;
+    public static final int DEFAULT_HANDLE_POOL_SIZE = 1;
+    public static final HandlePoolStrategy DEFAULT_HANDLE_POOL_STRATEGY =
+        HandlePoolStrategy.ROUND_ROBIN;
 
     public static final int NOTSET_TABLE_READ_UNITS = -1;
     public static final int NOTSET_TABLE_WRITE_UNITS = -1;
     public static final int NOTSET_TABLE_STORAGE_GB = -1;
     public static final int NOTSET_TABLE_TIMEOUT_MS = 0;
     public static final int NOTSET_TABLE_TTL = 0;
+    public static final int NOTSET_QUERY_BATCH_SIZE = 0;
+    public static final int NOTSET_QUERY_MAX_READ_KB = 0;
+    public static final long NOTSET_QUERY_MAX_MEMORY_CONSUMPTION = 0L;
+    public static final long NOTSET_QUERY_TOTAL_TIMEOUT_MS = 0L;
 
     public static final boolean NOTSET_SHARD_KEY = true;
     public static final int NOTSET_PRIMARY_KEY_ORDER = -1;
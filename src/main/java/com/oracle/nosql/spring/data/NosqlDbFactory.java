@@ -7,6 +7,8 @@
 package com.oracle.nosql.spring.data;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import oracle.nosql.driver.AuthorizationProvider;
 import oracle.nosql.driver.NoSQLHandle;
@@ -14,54 +16,197 @@ import oracle.nosql.driver.NoSQLHandleConfig;
 import oracle.nosql.driver.NoSQLHandleFactory;
 import oracle.nosql.driver.ops.Request;
 
+import com.oracle.nosql.spring.data.config.HandlePoolStrategy;
 import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.config.NosqlHedgingPolicy;
+import com.oracle.nosql.spring.data.config.NosqlRetryPolicy;
+import com.oracle.nosql.spring.data.config.TableCreationMode;
+import com.oracle.nosql.spring.data.core.TableRateLimiter;
 import com.oracle.nosql.spring.data.core.mapping.NosqlCapacityMode;
 
+import io.micrometer.observation.ObservationRegistry;
+
 import org.springframework.util.Assert;
 
 /**
  * Factory class for connecting to an Oracle NoSQL Database on premise
  * database or cloud service.
  */
-public class NosqlDbFactory {
+public class NosqlDbFactory implements AutoCloseable {
 
     private static final String libraryVersion = findVersion();
     private  static final String userAgent = findUserAgent();
 
     private final NosqlDbConfig config;
+    /* handle given to the constructor, used instead of creating one */
+    private final NoSQLHandle providedHandle;
     private volatile NoSQLHandle handle;
+    private volatile NoSQLHandle readHandle;
+    private volatile NoSQLHandle writeHandle;
+    private final TableRateLimiter.Registry tableRateLimiters =
+        new TableRateLimiter.Registry();
 
     public NosqlDbFactory(NosqlDbConfig config) {
         Assert.notNull(config, "NosqlDbConfig should not be null.");
         validateConfig(config);
 
         this.config = config;
+        this.providedHandle = null;
     }
 
+    /**
+     * Creates a factory whose templates use the given handle instead of
+     * creating one from config, for example a handle standing in for the
+     * database in tests. The read and write handle configs and the handle
+     * pool size of config are not used. The handle is closed by
+     * {@link #close()}.
+     *
+     * @since 2.3.0
+     */
+    public NosqlDbFactory(NosqlDbConfig config, NoSQLHandle handle) {
+        Assert.notNull(config, "NosqlDbConfig should not be null.");
+        Assert.notNull(handle, "Handle should not be null.");
+        validateConfig(config);
+
+        this.config = config;
+        this.providedHandle = handle;
+    }
+
+    /**
+     * Returns the handle used by the templates, created on the first call.
+     * It is a {@link NosqlHandlePool} when
+     * {@link NosqlDbConfig#getHandlePoolSize()} is more than 1.
+     */
     public NoSQLHandle getNosqlClient() {
+        if (providedHandle != null) {
+            return providedHandle;
+        }
         if ( handle == null ) {
             synchronized (this) {
                 if (handle == null) {
-                    NoSQLHandleConfig nosqlConfig =
-                        config.getNosqlHandleConfig();
-                    String prevUserAgent =
-                        nosqlConfig.getExtensionUserAgent();
-                    String newUserAgent = null;
-                    if (prevUserAgent == null) {
-                        newUserAgent = userAgent;
-                    } else if (!prevUserAgent.contains(Constants.USER_AGENT)) {
-                        newUserAgent = userAgent + " " + prevUserAgent;
-                    } else {
-                        newUserAgent = prevUserAgent;
-                    }
-                    nosqlConfig.setExtensionUserAgent(newUserAgent);
-                    handle = NoSQLHandleFactory.createNoSQLHandle(nosqlConfig);
+                    handle = createHandle(config.getNosqlHandleConfig());
                 }
             }
         }
         return handle;
     }
 
+    /**
+     * Returns the handle used by the templates for gets and read only
+     * queries, created on the first call from
+     * {@link NosqlDbConfig#getReadHandleConfig()}. It is the handle returned
+     * by {@link #getNosqlClient()} if there is no read profile.
+     *
+     * @since 2.3.0
+     */
+    public NoSQLHandle getNosqlReadClient() {
+        if (providedHandle != null || config.getReadHandleConfig() == null) {
+            return getNosqlClient();
+        }
+        if (readHandle == null) {
+            synchronized (this) {
+                if (readHandle == null) {
+                    readHandle = createHandle(config.getReadHandleConfig());
+                }
+            }
+        }
+        return readHandle;
+    }
+
+    /**
+     * Returns the handle used by the templates for puts, deletes and
+     * queries doing writes, created on the first call from
+     * {@link NosqlDbConfig#getWriteHandleConfig()}. It is the handle
+     * returned by {@link #getNosqlClient()} if there is no write profile.
+     *
+     * @since 2.3.0
+     */
+    public NoSQLHandle getNosqlWriteClient() {
+        if (providedHandle != null ||
+            config.getWriteHandleConfig() == null) {
+            return getNosqlClient();
+        }
+        if (writeHandle == null) {
+            synchronized (this) {
+                if (writeHandle == null) {
+                    writeHandle = createHandle(config.getWriteHandleConfig());
+                }
+            }
+        }
+        return writeHandle;
+    }
+
+    private NoSQLHandle createHandle(NoSQLHandleConfig nosqlConfig) {
+        String prevUserAgent = nosqlConfig.getExtensionUserAgent();
+        String newUserAgent = null;
+        if (prevUserAgent == null) {
+            newUserAgent = userAgent;
+        } else if (!prevUserAgent.contains(Constants.USER_AGENT)) {
+            newUserAgent = userAgent + " " + prevUserAgent;
+        } else {
+            newUserAgent = prevUserAgent;
+        }
+        nosqlConfig.setExtensionUserAgent(newUserAgent);
+
+        if (config.getHandlePoolSize() == 1) {
+            return NoSQLHandleFactory.createNoSQLHandle(nosqlConfig);
+        }
+        List<NoSQLHandle> handles = new ArrayList<>();
+        try {
+            for (int i = 0; i < config.getHandlePoolSize(); i++) {
+                handles.add(NoSQLHandleFactory.createNoSQLHandle(nosqlConfig));
+            }
+        } catch (RuntimeException re) {
+            handles.forEach(NoSQLHandle::close);
+            throw re;
+        }
+        return new NosqlHandlePool(handles, config.getHandlePoolStrategy());
+    }
+
+    /**
+     * Returns the handle pool, or null if the factory uses a single handle
+     * or its handle is not created yet.
+     *
+     * @since 2.3.0
+     */
+    public NosqlHandlePool getHandlePool() {
+        NoSQLHandle h = providedHandle != null ? providedHandle : handle;
+        return h instanceof NosqlHandlePool ? (NosqlHandlePool) h : null;
+    }
+
+    /**
+     * Closes the handles of the factory, if created. Templates using them
+     * can't be used anymore. Called by Spring when the factory is a bean.
+     *
+     * @since 2.3.0
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            close(providedHandle);
+            close(handle);
+        } finally {
+            try {
+                close(readHandle);
+            } finally {
+                try {
+                    close(writeHandle);
+                } finally {
+                    handle = null;
+                    readHandle = null;
+                    writeHandle = null;
+                    tableRateLimiters.clear();
+                }
+            }
+        }
+    }
+
+    private static void close(NoSQLHandle h) {
+        if (h != null) {
+            h.close();
+        }
+    }
+
     private void validateConfig(NosqlDbConfig config) {
         Assert.notNull(config, "NosqlDbConfig should " +
             "not be null.");
@@ -73,6 +218,16 @@ public class NosqlDbFactory {
         Assert.notNull(config.getNosqlHandleConfig().getAuthorizationProvider(),
             "NosqlDbConfig should " +
             "have a non-null authorization provider.");
+        for (NoSQLHandleConfig profile : new NoSQLHandleConfig[] {
+            config.getReadHandleConfig(), config.getWriteHandleConfig()}) {
+            if (profile != null) {
+                Assert.notNull(profile.getServiceURL(), "Read and write " +
+                    "handle configs should have a non-null endpoint.");
+                Assert.notNull(profile.getAuthorizationProvider(), "Read " +
+                    "and write handle configs should have a non-null " +
+                    "authorization provider.");
+            }
+        }
     }
 
     /**
@@ -196,6 +351,147 @@ public class NosqlDbFactory {
         return config.getDefaultWriteUnits();
     }
 
+    /**
+     * Returns the config value {@link NosqlDbConfig#isTableRateLimiting()}.
+     */
+    public boolean isTableRateLimiting() {
+        return config.isTableRateLimiting();
+    }
+
+    /**
+     * Returns the config value
+     * {@link NosqlDbConfig#getTableRateLimitingPercentage()}.
+     */
+    public double getTableRateLimitingPercentage() {
+        return config.getTableRateLimitingPercentage();
+    }
+
+    /**
+     * Returns the client side rate limiters of the tables used by the
+     * templates of this factory, see {@link #isTableRateLimiting()}.
+     *
+     * @since 2.3.0
+     */
+    public TableRateLimiter.Registry getTableRateLimiters() {
+        return tableRateLimiters;
+    }
+
+    /**
+     * Returns the config value {@link NosqlDbConfig#getRetryPolicy()}.
+     */
+    public NosqlRetryPolicy getRetryPolicy() {
+        return config.getRetryPolicy();
+    }
+
+    /**
+     * Returns the config value {@link NosqlDbConfig#getHedgingPolicy()}.
+     */
+    public NosqlHedgingPolicy getHedgingPolicy() {
+        return config.getHedgingPolicy();
+    }
+
+    /**
+     * Returns the config value
+     * {@link NosqlDbConfig#getObservationRegistry()}.
+     */
+    public ObservationRegistry getObservationRegistry() {
+        return config.getObservationRegistry();
+    }
+
+    /**
+     * Returns the config value {@link NosqlDbConfig#getTableCreationMode()}.
+     */
+    public TableCreationMode getTableCreationMode() {
+        return config.getTableCreationMode();
+    }
+
+    /**
+     * Returns the config value
+     * {@link NosqlDbConfig#getTableCreationParallelism()}.
+     */
+    public int getTableCreationParallelism() {
+        return config.getTableCreationParallelism();
+    }
+
+    /**
+     * Returns the config value {@link NosqlDbConfig#getTableCreationTimeout()}.
+     */
+    public long getTableCreationTimeout() {
+        return config.getTableCreationTimeout();
+    }
+
+    /**
+     * Returns the config value {@link NosqlDbConfig#isDirtyTracking()}.
+     */
+    public boolean isDirtyTracking() {
+        return config.isDirtyTracking();
+    }
+
+    /**
+     * Returns the config value {@link NosqlDbConfig#getResultCacheCapacity()}.
+     */
+    public int getResultCacheCapacity() {
+        return config.getResultCacheCapacity();
+    }
+
+    /**
+     * Returns the config value {@link NosqlDbConfig#isReadCoalescing()}.
+     */
+    public boolean isReadCoalescing() {
+        return config.isReadCoalescing();
+    }
+
+    /**
+     * Returns the config value {@link NosqlDbConfig#getScanParallelism()}.
+     */
+    public int getScanParallelism() {
+        return config.getScanParallelism();
+    }
+
+    /**
+     * Returns the config value {@link NosqlDbConfig#getReadBatchWindow()}.
+     */
+    public long getReadBatchWindow() {
+        return config.getReadBatchWindow();
+    }
+
+    /**
+     * Returns the config value {@link NosqlDbConfig#getReadBatchSize()}.
+     */
+    public int getReadBatchSize() {
+        return config.getReadBatchSize();
+    }
+
+    /**
+     * Returns the config value
+     * {@link NosqlDbConfig#getReadBatchParallelism()}.
+     */
+    public int getReadBatchParallelism() {
+        return config.getReadBatchParallelism();
+    }
+
+    /**
+     * Returns the config value {@link NosqlDbConfig#getHandlePoolSize()}.
+     */
+    public int getHandlePoolSize() {
+        return config.getHandlePoolSize();
+    }
+
+    /**
+     * Returns the config value {@link NosqlDbConfig#getHandlePoolStrategy()}.
+     */
+    public HandlePoolStrategy getHandlePoolStrategy() {
+        return config.getHandlePoolStrategy();
+    }
+
+    /**
+     * Returns the default request timeout in milliseconds of the
+     * underlying {@link NoSQLHandleConfig}.
+     */
+    public int getRequestTimeout() {
+        return config.getNosqlHandleConfig().getDefaultRequestTimeout();
+    }
+
     /**
      * Pulls the version string from the manifest. The version is added
      * by maven.
@@ -0,0 +1,334 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+import oracle.nosql.driver.NoSQLHandle;
+import oracle.nosql.driver.StatsControl;
+import oracle.nosql.driver.UserInfo;
+import oracle.nosql.driver.ops.AddReplicaRequest;
+import oracle.nosql.driver.ops.DeleteRequest;
+import oracle.nosql.driver.ops.DeleteResult;
+import oracle.nosql.driver.ops.DropReplicaRequest;
+import oracle.nosql.driver.ops.GetIndexesRequest;
+import oracle.nosql.driver.ops.GetIndexesResult;
+import oracle.nosql.driver.ops.GetRequest;
+import oracle.nosql.driver.ops.GetResult;
+import oracle.nosql.driver.ops.GetTableRequest;
+import oracle.nosql.driver.ops.ListTablesRequest;
+import oracle.nosql.driver.ops.ListTablesResult;
+import oracle.nosql.driver.ops.MultiDeleteRequest;
+import oracle.nosql.driver.ops.MultiDeleteResult;
+import oracle.nosql.driver.ops.PrepareRequest;
+import oracle.nosql.driver.ops.PrepareResult;
+import oracle.nosql.driver.ops.PutRequest;
+import oracle.nosql.driver.ops.PutResult;
+import oracle.nosql.driver.ops.QueryIterableResult;
+import oracle.nosql.driver.ops.QueryRequest;
+import oracle.nosql.driver.ops.QueryResult;
+import oracle.nosql.driver.ops.ReplicaStatsRequest;
+import oracle.nosql.driver.ops.ReplicaStatsResult;
+import oracle.nosql.driver.ops.SystemRequest;
+import oracle.nosql.driver.ops.SystemResult;
+import oracle.nosql.driver.ops.SystemStatusRequest;
+import oracle.nosql.driver.ops.TableRequest;
+import oracle.nosql.driver.ops.TableResult;
+import oracle.nosql.driver.ops.TableUsageRequest;
+import oracle.nosql.driver.ops.TableUsageResult;
+import oracle.nosql.driver.ops.WriteMultipleRequest;
+import oracle.nosql.driver.ops.WriteMultipleResult;
+
+import com.oracle.nosql.spring.data.config.HandlePoolStrategy;
+
+import org.springframework.util.Assert;
+
+/**
+ * A {@link NoSQLHandle} dispatching each request to one of several handles,
+ * each with its own connection pool, so that many concurrent requests don't
+ * contend on a single handle. Handles are chosen according to a
+ * {@link HandlePoolStrategy}. The number of requests in flight and sent is
+ * tracked per handle.<p>
+ *
+ * The batches of a query are sent to the handle of its first batch, until
+ * the query request is done: the driver runs the batches of advanced
+ * queries with the client kept in the request, they are counted on the
+ * handle running them. The results of each batch are computed before
+ * {@link #query(QueryRequest)} returns, so that they are counted in flight.
+ * The batches of {@link #queryIterable(QueryRequest)} are sent by the
+ * iterable to the handle that created it, they are only counted in flight
+ * while it is created.
+ *
+ * @since 2.3.0
+ */
+public class NosqlHandlePool implements NoSQLHandle {
+
+    private final NoSQLHandle[] handles;
+    private final HandlePoolStrategy strategy;
+    private final AtomicIntegerArray inFlight;
+    private final AtomicLongArray requests;
+    private final AtomicLong next = new AtomicLong();
+    /* handles of the queries with more batches, not kept once unused */
+    private final Map<QueryRequest, Integer> queries =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    public NosqlHandlePool(List<NoSQLHandle> handles,
+        HandlePoolStrategy strategy) {
+        Assert.notEmpty(handles, "Handles should not be empty.");
+        Assert.notNull(strategy, "Strategy should not be null.");
+        this.handles = handles.toArray(new NoSQLHandle[0]);
+        this.strategy = strategy;
+        inFlight = new AtomicIntegerArray(this.handles.length);
+        requests = new AtomicLongArray(this.handles.length);
+    }
+
+    /**
+     * Returns the number of handles of the pool.
+     */
+    public int getSize() {
+        return handles.length;
+    }
+
+    public HandlePoolStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Returns the number of requests in flight on the handle at index.
+     */
+    public int getInFlight(int index) {
+        return inFlight.get(index);
+    }
+
+    /**
+     * Returns the number of requests sent to the handle at index.
+     */
+    public long getRequestCount(int index) {
+        return requests.get(index);
+    }
+
+    /**
+     * Returns the handle at index.
+     */
+    public NoSQLHandle getHandle(int index) {
+        return handles[index];
+    }
+
+    private int select() {
+        int start = (int) (next.getAndIncrement() % handles.length);
+        if (strategy == HandlePoolStrategy.ROUND_ROBIN) {
+            return start;
+        }
+        // scan from a rotating start, so that ties are spread
+        int best = start;
+        int min = inFlight.get(start);
+        for (int i = 1; i < handles.length && min > 0; i++) {
+            int index = (start + i) % handles.length;
+            int n = inFlight.get(index);
+            if (n < min) {
+                min = n;
+                best = index;
+            }
+        }
+        return best;
+    }
+
+    private <R> R execute(Function<NoSQLHandle, R> op) {
+        return execute(select(), op);
+    }
+
+    private <R> R execute(int index, Function<NoSQLHandle, R> op) {
+        inFlight.incrementAndGet(index);
+        requests.incrementAndGet(index);
+        try {
+            return op.apply(handles[index]);
+        } finally {
+            inFlight.decrementAndGet(index);
+        }
+    }
+
+    @Override
+    public DeleteResult delete(DeleteRequest request) {
+        return execute(h -> h.delete(request));
+    }
+
+    @Override
+    public GetResult get(GetRequest request) {
+        return execute(h -> h.get(request));
+    }
+
+    @Override
+    public PutResult put(PutRequest request) {
+        return execute(h -> h.put(request));
+    }
+
+    @Override
+    public WriteMultipleResult writeMultiple(WriteMultipleRequest request) {
+        return execute(h -> h.writeMultiple(request));
+    }
+
+    @Override
+    public MultiDeleteResult multiDelete(MultiDeleteRequest request) {
+        return execute(h -> h.multiDelete(request));
+    }
+
+    @Override
+    public QueryResult query(QueryRequest request) {
+        Integer pinned = queries.get(request);
+        int index = pinned != null ? pinned : select();
+        QueryResult result = execute(index, h -> {
+            QueryResult res = h.query(request);
+            // the driver computes the results of advanced queries on first
+            // access, they are counted in flight on the handle running them
+            res.getResults();
+            return res;
+        });
+        if (request.isDone()) {
+            queries.remove(request);
+        } else if (pinned == null) {
+            queries.put(request, index);
+        }
+        return result;
+    }
+
+    @Override
+    public QueryIterableResult queryIterable(QueryRequest request) {
+        return execute(h -> h.queryIterable(request));
+    }
+
+    @Override
+    public PrepareResult prepare(PrepareRequest request) {
+        return execute(h -> h.prepare(request));
+    }
+
+    @Override
+    public TableResult tableRequest(TableRequest request) {
+        return execute(h -> h.tableRequest(request));
+    }
+
+    @Override
+    public TableResult doTableRequest(TableRequest request, int timeoutMs,
+        int pollIntervalMs) {
+        return execute(h -> h.doTableRequest(request, timeoutMs,
+            pollIntervalMs));
+    }
+
+    @Override
+    public SystemResult systemRequest(SystemRequest request) {
+        return execute(h -> h.systemRequest(request));
+    }
+
+    @Override
+    public SystemResult systemStatus(SystemStatusRequest request) {
+        return execute(h -> h.systemStatus(request));
+    }
+
+    @Override
+    public TableResult getTable(GetTableRequest request) {
+        return execute(h -> h.getTable(request));
+    }
+
+    @Override
+    public TableUsageResult getTableUsage(TableUsageRequest request) {
+        return execute(h -> h.getTableUsage(request));
+    }
+
+    @Override
+    public ListTablesResult listTables(ListTablesRequest request) {
+        return execute(h -> h.listTables(request));
+    }
+
+    @Override
+    public GetIndexesResult getIndexes(GetIndexesRequest request) {
+        return execute(h -> h.getIndexes(request));
+    }
+
+    @Override
+    public String[] listNamespaces() {
+        return execute(NoSQLHandle::listNamespaces);
+    }
+
+    @Override
+    public String[] listRoles() {
+        return execute(NoSQLHandle::listRoles);
+    }
+
+    @Override
+    public UserInfo[] listUsers() {
+        return execute(NoSQLHandle::listUsers);
+    }
+
+    @Override
+    public SystemResult doSystemRequest(String statement, int timeoutMs,
+        int pollIntervalMs) {
+        return execute(h -> h.doSystemRequest(statement, timeoutMs,
+            pollIntervalMs));
+    }
+
+    @Override
+    public TableResult addReplica(AddReplicaRequest request) {
+        return execute(h -> h.addReplica(request));
+    }
+
+    @Override
+    public TableResult dropReplica(DropReplicaRequest request) {
+        return execute(h -> h.dropReplica(request));
+    }
+
+    @Override
+    public ReplicaStatsResult getReplicaStats(ReplicaStatsRequest request) {
+        return execute(h -> h.getReplicaStats(request));
+    }
+
+    /**
+     * Returns the stats control of the first handle, each handle having its
+     * own, see {@link #getHandle(int)}.
+     */
+    @Override
+    public StatsControl getStatsControl() {
+        return handles[0].getStatsControl();
+    }
+
+    /**
+     * Closes all the handles of the pool.
+     */
+    @Override
+    public void close() {
+        RuntimeException failure = null;
+        for (NoSQLHandle handle : handles) {
+            try {
+                handle.close();
+            } catch (RuntimeException re) {
+                if (failure == null) {
+                    failure = re;
+                } else {
+                    failure.addSuppressed(re);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("NosqlHandlePool{strategy=")
+            .append(strategy).append(", inFlight=[");
+        for (int i = 0; i < handles.length; i++) {
+            sb.append(i == 0 ? "" : ", ").append(inFlight.get(i));
+        }
+        return sb.append("]}").toString();
+    }
+}
@@ -0,0 +1,27 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.config;
+
+/**
+ * How requests are dispatched to the handles of a
+ * {@link com.oracle.nosql.spring.data.NosqlHandlePool}, set with
+ * {@link NosqlDbConfig#setHandlePoolStrategy(HandlePoolStrategy)}.
+ *
+ * @since 2.3.0
+ */
+public enum HandlePoolStrategy {
+    /**
+     * Requests are sent to the handles in turn.
+     */
+    ROUND_ROBIN,
+
+    /**
+     * Requests are sent to the handle with the fewest requests in flight,
+     * which favors handles that are not slowed down by long requests.
+     */
+    LEAST_OUTSTANDING
+}
@@ -20,6 +20,8 @@ import com.oracle.nosql.spring.data.NosqlDbFactory;
 import com.oracle.nosql.spring.data.core.mapping.NosqlCapacityMode;
 import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
 
+import io.micrometer.observation.ObservationRegistry;
+
 
 public class NosqlDbConfig {
 
@@ -33,6 +35,31 @@ public class NosqlDbConfig {
     private NosqlCapacityMode defaultCapacityMode = NosqlCapacityMode.PROVISIONED;
     private int defaultReadUnits = 50;
     private int defaultWriteUnits = 50;
+    private boolean tableRateLimiting = Constants.DEFAULT_TABLE_RATE_LIMITING;
+    private double tableRateLimitingPercentage =
+        Constants.DEFAULT_TABLE_RATE_LIMITING_PERCENTAGE;
+    private NosqlRetryPolicy retryPolicy;
+    private NosqlHedgingPolicy hedgingPolicy;
+    private ObservationRegistry observationRegistry;
+    private TableCreationMode tableCreationMode =
+        Constants.DEFAULT_TABLE_CREATION_MODE;
+    private int tableCreationParallelism =
+        Constants.DEFAULT_TABLE_CREATION_PARALLELISM;
+    private long tableCreationTimeout =
+        Constants.DEFAULT_TABLE_CREATION_TIMEOUT_MS;
+    private boolean dirtyTracking = Constants.DEFAULT_DIRTY_TRACKING;
+    private int scanParallelism = Constants.DEFAULT_SCAN_PARALLELISM;
+    private int resultCacheCapacity = Constants.DEFAULT_RESULT_CACHE_CAPACITY;
+    private boolean readCoalescing = Constants.DEFAULT_READ_COALESCING;
+    private long readBatchWindow = Constants.DEFAULT_READ_BATCH_WINDOW_MS;
+    private int readBatchSize = Constants.DEFAULT_READ_BATCH_SIZE;
+    private int readBatchParallelism =
+        Constants.DEFAULT_READ_BATCH_PARALLELISM;
+    private int handlePoolSize = Constants.DEFAULT_HANDLE_POOL_SIZE;
+    private HandlePoolStrategy handlePoolStrategy =
+        Constants.DEFAULT_HANDLE_POOL_STRATEGY;
+    private NoSQLHandleConfig readHandleConfig;
+    private NoSQLHandleConfig writeHandleConfig;
 
     public NosqlDbConfig(String endpoint,
         AuthorizationProvider authorizationProvider) {
@@ -346,4 +373,437 @@ public class NosqlDbConfig {
     public int getDefaultWriteUnits() {
         return defaultWriteUnits;
     }
-}
\ No newline at end of file
+
+    /**
+     * Enables or disables client side rate limiting of the requests made by
+     * templates and repositories based on the read and write units of each
+     * table. Limiters are shared by the templates of a factory, see
+     * {@link com.oracle.nosql.spring.data.core.TableRateLimiter}. By default
+     * this is set to {@link Constants#DEFAULT_TABLE_RATE_LIMITING}.<p>
+     *
+     * Note: This is applied on top of the driver rate limiting, see
+     * {@link NoSQLHandleConfig#setRateLimitingEnabled(boolean)}, which is
+     * enabled by {@link #createCloudConfig(String, String)} and
+     * {@link #createCloudSimConfig(String)}. Usually only one of them should
+     * be enabled.
+     */
+    public NosqlDbConfig setTableRateLimiting(boolean enabled) {
+        tableRateLimiting = enabled;
+        return this;
+    }
+
+    /**
+     * Returns true if client side table rate limiting is enabled. By default
+     * this is set to {@link Constants#DEFAULT_TABLE_RATE_LIMITING}.
+     */
+    public boolean isTableRateLimiting() {
+        return tableRateLimiting;
+    }
+
+    /**
+     * Sets the percentage (0 - 100] of each table read and write units used
+     * by the client side rate limiters of a factory. This is useful when more
+     * than one application instance share the same tables. By default this
+     * is set to {@link Constants#DEFAULT_TABLE_RATE_LIMITING_PERCENTAGE}.
+     */
+    public NosqlDbConfig setTableRateLimitingPercentage(double percentage) {
+        if (percentage <= 0.0 || percentage > 100.0) {
+            throw new IllegalArgumentException("Rate limiting percentage " +
+                "must be greater than 0 and less than or equal to 100.");
+        }
+        tableRateLimitingPercentage = percentage;
+        return this;
+    }
+
+    /**
+     * Returns the percentage of table units used by the client side rate
+     * limiters. By default this is set to
+     * {@link Constants#DEFAULT_TABLE_RATE_LIMITING_PERCENTAGE}.
+     */
+    public double getTableRateLimitingPercentage() {
+        return tableRateLimitingPercentage;
+    }
+
+    /**
+     * Sets the retry policy applied by templates and repositories around
+     * idempotent operations, on top of the driver retries. If null, which is
+     * the default, operations are not retried, their errors are converted
+     * and thrown right away.
+     */
+    public NosqlDbConfig setRetryPolicy(NosqlRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    /**
+     * Returns the retry policy or null if not set.
+     */
+    public NosqlRetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Sets the hedging policy applied by templates to gets and to the first
+     * batch of simple read only queries. If null, which is the default,
+     * reads are not hedged.
+     */
+    public NosqlDbConfig setHedgingPolicy(NosqlHedgingPolicy hedgingPolicy) {
+        this.hedgingPolicy = hedgingPolicy;
+        return this;
+    }
+
+    /**
+     * Returns the hedging policy or null if not set.
+     */
+    public NosqlHedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
+    /**
+     * Sets the Micrometer registry of the observations of repository
+     * method invocations and of the requests sent by templates, see
+     * {@link com.oracle.nosql.spring.data.core.NosqlObservations}. If null,
+     * which is the default, nothing is observed.
+     *
+     * @since 2.3.0
+     */
+    public NosqlDbConfig setObservationRegistry(
+        ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+        return this;
+    }
+
+    /**
+     * Returns the observation registry or null if not set.
+     *
+     * @since 2.3.0
+     */
+    public ObservationRegistry getObservationRegistry() {
+        return observationRegistry;
+    }
+
+    /**
+     * Sets how repositories check and create the tables of their entities.
+     * By default this is set to
+     * {@link Constants#DEFAULT_TABLE_CREATION_MODE}.
+     */
+    public NosqlDbConfig setTableCreationMode(TableCreationMode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Table creation mode must " +
+                "not be null.");
+        }
+        tableCreationMode = mode;
+        return this;
+    }
+
+    /**
+     * Returns how repositories check and create the tables of their
+     * entities. By default this is set to
+     * {@link Constants#DEFAULT_TABLE_CREATION_MODE}.
+     */
+    public TableCreationMode getTableCreationMode() {
+        return tableCreationMode;
+    }
+
+    /**
+     * Sets the maximum number of tables checked and created concurrently in
+     * {@link TableCreationMode#PARALLEL} mode. By default this is set to
+     * {@link Constants#DEFAULT_TABLE_CREATION_PARALLELISM}.
+     */
+    public NosqlDbConfig setTableCreationParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Table creation parallelism " +
+                "must be greater than 0.");
+        }
+        tableCreationParallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of tables checked and created concurrently
+     * in {@link TableCreationMode#PARALLEL} mode. By default this is set to
+     * {@link Constants#DEFAULT_TABLE_CREATION_PARALLELISM}.
+     */
+    public int getTableCreationParallelism() {
+        return tableCreationParallelism;
+    }
+
+    /**
+     * Sets the time in milliseconds the application context waits for all
+     * tables to be checked and created in {@link TableCreationMode#PARALLEL}
+     * mode. By default this is set to
+     * {@link Constants#DEFAULT_TABLE_CREATION_TIMEOUT_MS}.
+     */
+    public NosqlDbConfig setTableCreationTimeout(long milliseconds) {
+        if (milliseconds <= 0) {
+            throw new IllegalArgumentException("Table creation timeout " +
+                "must be greater than 0.");
+        }
+        tableCreationTimeout = milliseconds;
+        return this;
+    }
+
+    /**
+     * Returns the time in milliseconds the application context waits for
+     * all tables to be checked and created in
+     * {@link TableCreationMode#PARALLEL} mode. By default this is set to
+     * {@link Constants#DEFAULT_TABLE_CREATION_TIMEOUT_MS}.
+     */
+    public long getTableCreationTimeout() {
+        return tableCreationTimeout;
+    }
+
+    /**
+     * Enables or disables dirty tracking of the entities read or saved
+     * through {@link com.oracle.nosql.spring.data.core.NosqlTemplate}.
+     * When enabled, saving an entity that didn't change since it was read
+     * or saved is skipped and saving an entity with few changed fields
+     * writes only those fields. By default this is set to
+     * {@link Constants#DEFAULT_DIRTY_TRACKING}.<p>
+     *
+     * Note: Enabling it costs a hash of each row read. The template must be
+     * the only writer of the tables of tracked entities, changes by other
+     * templates or clients are not detected. Entities of tables with a TTL
+     * are not tracked.
+     */
+    public NosqlDbConfig setDirtyTracking(boolean dirtyTracking) {
+        this.dirtyTracking = dirtyTracking;
+        return this;
+    }
+
+    /**
+     * Returns true if dirty tracking of entities is enabled. By default
+     * this is set to {@link Constants#DEFAULT_DIRTY_TRACKING}.
+     */
+    public boolean isDirtyTracking() {
+        return dirtyTracking;
+    }
+
+    /**
+     * Sets the maximum number of results held by the cache of repository
+     * methods annotated with
+     * {@link com.oracle.nosql.spring.data.repository.NosqlCacheable}, 0
+     * disables the cache. By default this is set to
+     * {@link Constants#DEFAULT_RESULT_CACHE_CAPACITY}.
+     */
+    public NosqlDbConfig setResultCacheCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Result cache capacity must " +
+                "not be negative.");
+        }
+        resultCacheCapacity = capacity;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of results held by the cache of repository
+     * methods annotated with
+     * {@link com.oracle.nosql.spring.data.repository.NosqlCacheable}. By
+     * default this is set to {@link Constants#DEFAULT_RESULT_CACHE_CAPACITY}.
+     */
+    public int getResultCacheCapacity() {
+        return resultCacheCapacity;
+    }
+
+    /**
+     * Sets whether concurrent identical reads are coalesced: gets of the
+     * same key, and read only queries with the same statement and bindings,
+     * issued while an identical request is in flight wait for it and share
+     * its result instead of sending their own request. Each caller still
+     * converts its own copy of the entities. By default this is set to
+     * {@link Constants#DEFAULT_READ_COALESCING}.
+     */
+    public NosqlDbConfig setReadCoalescing(boolean readCoalescing) {
+        this.readCoalescing = readCoalescing;
+        return this;
+    }
+
+    /**
+     * Returns whether concurrent identical reads are coalesced. By default
+     * this is set to {@link Constants#DEFAULT_READ_COALESCING}.
+     */
+    public boolean isReadCoalescing() {
+        return readCoalescing;
+    }
+
+    /**
+     * Sets the maximum number of threads running the range queries of the
+     * parallelScan calls of a template, all scans together. Range queries
+     * beyond run in the thread calling parallelScan. By default this is
+     * set to {@link Constants#DEFAULT_SCAN_PARALLELISM}.
+     */
+    public NosqlDbConfig setScanParallelism(int scanParallelism) {
+        if (scanParallelism <= 0) {
+            throw new IllegalArgumentException("Scan parallelism must be " +
+                "greater than 0.");
+        }
+        this.scanParallelism = scanParallelism;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of threads running the range queries of the
+     * parallelScan calls of a template. By default this is set to
+     * {@link Constants#DEFAULT_SCAN_PARALLELISM}.
+     */
+    public int getScanParallelism() {
+        return scanParallelism;
+    }
+
+    /**
+     * Sets the time window in milliseconds during which findById calls on a
+     * template are collected and read together with a single query, 0
+     * disables read batching. A batch is read earlier once it reaches
+     * {@link #getReadBatchSize()} keys. By default this is set to
+     * {@link Constants#DEFAULT_READ_BATCH_WINDOW_MS}.
+     */
+    public NosqlDbConfig setReadBatchWindow(long readBatchWindowMs) {
+        if (readBatchWindowMs < 0) {
+            throw new IllegalArgumentException("Read batch window must not " +
+                "be negative.");
+        }
+        readBatchWindow = readBatchWindowMs;
+        return this;
+    }
+
+    /**
+     * Returns the time window in milliseconds during which findById calls
+     * are collected and read together, 0 if read batching is disabled. By
+     * default this is set to {@link Constants#DEFAULT_READ_BATCH_WINDOW_MS}.
+     */
+    public long getReadBatchWindow() {
+        return readBatchWindow;
+    }
+
+    /**
+     * Sets the maximum number of keys read by a batch of findById calls.
+     * By default this is set to {@link Constants#DEFAULT_READ_BATCH_SIZE}.
+     */
+    public NosqlDbConfig setReadBatchSize(int readBatchSize) {
+        if (readBatchSize <= 0) {
+            throw new IllegalArgumentException("Read batch size must be " +
+                "greater than 0.");
+        }
+        this.readBatchSize = readBatchSize;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of keys read by a batch of findById calls.
+     * By default this is set to {@link Constants#DEFAULT_READ_BATCH_SIZE}.
+     */
+    public int getReadBatchSize() {
+        return readBatchSize;
+    }
+
+    /**
+     * Sets the maximum number of threads of a template reading batches of
+     * findById calls, batches beyond wait for a thread. By default this is
+     * set to {@link Constants#DEFAULT_READ_BATCH_PARALLELISM}.
+     */
+    public NosqlDbConfig setReadBatchParallelism(int readBatchParallelism) {
+        if (readBatchParallelism <= 0) {
+            throw new IllegalArgumentException("Read batch parallelism must " +
+                "be greater than 0.");
+        }
+        this.readBatchParallelism = readBatchParallelism;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of threads of a template reading batches of
+     * findById calls. By default this is set to
+     * {@link Constants#DEFAULT_READ_BATCH_PARALLELISM}.
+     */
+    public int getReadBatchParallelism() {
+        return readBatchParallelism;
+    }
+
+    /**
+     * Sets the number of {@link oracle.nosql.driver.NoSQLHandle}s created by
+     * the factory, each with its own connections. With more than one handle
+     * requests are dispatched among them by a
+     * {@link com.oracle.nosql.spring.data.NosqlHandlePool}. By default this
+     * is set to {@link Constants#DEFAULT_HANDLE_POOL_SIZE}.
+     */
+    public NosqlDbConfig setHandlePoolSize(int handlePoolSize) {
+        if (handlePoolSize <= 0) {
+            throw new IllegalArgumentException("Handle pool size must be " +
+                "greater than 0.");
+        }
+        this.handlePoolSize = handlePoolSize;
+        return this;
+    }
+
+    /**
+     * Returns the number of handles created by the factory. By default this
+     * is set to {@link Constants#DEFAULT_HANDLE_POOL_SIZE}.
+     */
+    public int getHandlePoolSize() {
+        return handlePoolSize;
+    }
+
+    /**
+     * Sets how requests are dispatched to the handles when there is more
+     * than one. By default this is set to
+     * {@link Constants#DEFAULT_HANDLE_POOL_STRATEGY}.
+     */
+    public NosqlDbConfig setHandlePoolStrategy(HandlePoolStrategy strategy) {
+        if (strategy == null) {
+            throw new IllegalArgumentException("Handle pool strategy must " +
+                "not be null.");
+        }
+        handlePoolStrategy = strategy;
+        return this;
+    }
+
+    /**
+     * Returns how requests are dispatched to the handles. By default this is
+     * set to {@link Constants#DEFAULT_HANDLE_POOL_STRATEGY}.
+     */
+    public HandlePoolStrategy getHandlePoolStrategy() {
+        return handlePoolStrategy;
+    }
+
+    /**
+     * Sets the config of the handle used for gets and read only queries,
+     * for instance with short timeouts and a retry handler failing fast,
+     * so that reads don't wait behind writes. The config must have the same
+     * endpoint and authorization as the main config. Null, the default,
+     * uses the main handle.
+     */
+    public NosqlDbConfig setReadHandleConfig(
+        NoSQLHandleConfig readHandleConfig) {
+        this.readHandleConfig = readHandleConfig;
+        return this;
+    }
+
+    /**
+     * Returns the config of the handle used for reads, or null if reads use
+     * the main handle.
+     */
+    public NoSQLHandleConfig getReadHandleConfig() {
+        return readHandleConfig;
+    }
+
+    /**
+     * Sets the config of the handle used for puts, deletes and queries doing
+     * writes, for instance with long timeouts and a larger connection pool
+     * for bulk writes. The config must have the same endpoint and
+     * authorization as the main config. Null, the default, uses the main
+     * handle. Table and DDL requests always use the main handle.
+     */
+    public NosqlDbConfig setWriteHandleConfig(
+        NoSQLHandleConfig writeHandleConfig) {
+        this.writeHandleConfig = writeHandleConfig;
+        return this;
+    }
+
+    /**
+     * Returns the config of the handle used for writes, or null if writes
+     * use the main handle.
+     */
+    public NoSQLHandleConfig getWriteHandleConfig() {
+        return writeHandleConfig;
+    }
+}
@@ -0,0 +1,134 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.config;
+
+import com.oracle.nosql.spring.data.Constants;
+
+/**
+ * Hedging policy applied by templates to gets and to the first batch of
+ * simple read only queries, to cut tail latency.<p>
+ *
+ * When a read hasn't completed after the given percentile of the recent
+ * read latencies of its table, a duplicate read is sent, on another handle
+ * if a {@link com.oracle.nosql.spring.data.NosqlHandlePool} is used, and
+ * the first successful response is returned. The other response is
+ * discarded, driver requests can't be cancelled once sent. No read is
+ * hedged until enough latencies of the table are known.<p>
+ *
+ * The read runs in the calling thread and the hedge in a thread of the
+ * template, the calling thread being interrupted when the hedge wins. The
+ * delay is never less than minDelayMs. Hedges are limited to maxRate times
+ * the number of reads, bounding the extra load on the store, and to
+ * maxParallelism hedges running at a time, later ones waiting for a
+ * thread.<p>
+ *
+ * Set it using {@link NosqlDbConfig#setHedgingPolicy(NosqlHedgingPolicy)}.
+ *
+ * @since 2.3.0
+ */
+public class NosqlHedgingPolicy {
+
+    private double percentile = Constants.DEFAULT_HEDGE_PERCENTILE;
+    private long minDelayMs = Constants.DEFAULT_HEDGE_MIN_DELAY_MS;
+    private double maxRate = Constants.DEFAULT_HEDGE_MAX_RATE;
+    private int maxParallelism = Constants.DEFAULT_HEDGE_MAX_PARALLELISM;
+
+    /**
+     * Returns the percentile of the recent read latencies after which a
+     * read is hedged. By default this is set to
+     * {@link Constants#DEFAULT_HEDGE_PERCENTILE}.
+     */
+    public double getPercentile() {
+        return percentile;
+    }
+
+    /**
+     * Sets the percentile of the recent read latencies after which a read
+     * is hedged, between 0 and 1 excluded, for example 0.95. By default
+     * this is set to {@link Constants#DEFAULT_HEDGE_PERCENTILE}.
+     */
+    public NosqlHedgingPolicy setPercentile(double percentile) {
+        if (!(percentile > 0 && percentile < 1)) {
+            throw new IllegalArgumentException("Percentile must be between " +
+                "0 and 1 excluded.");
+        }
+        this.percentile = percentile;
+        return this;
+    }
+
+    /**
+     * Returns the minimum delay in milliseconds before a read is hedged. By
+     * default this is set to {@link Constants#DEFAULT_HEDGE_MIN_DELAY_MS}.
+     */
+    public long getMinDelayMs() {
+        return minDelayMs;
+    }
+
+    /**
+     * Sets the minimum delay in milliseconds before a read is hedged. By
+     * default this is set to {@link Constants#DEFAULT_HEDGE_MIN_DELAY_MS}.
+     */
+    public NosqlHedgingPolicy setMinDelayMs(long minDelayMs) {
+        if (minDelayMs < 0) {
+            throw new IllegalArgumentException("Min delay must not be " +
+                "negative.");
+        }
+        this.minDelayMs = minDelayMs;
+        return this;
+    }
+
+    /**
+     * Returns the maximum ratio of hedges to reads. By default this is set
+     * to {@link Constants#DEFAULT_HEDGE_MAX_RATE}.
+     */
+    public double getMaxRate() {
+        return maxRate;
+    }
+
+    /**
+     * Sets the maximum ratio of hedges to reads, between 0 excluded and 1.
+     * By default this is set to {@link Constants#DEFAULT_HEDGE_MAX_RATE}.
+     */
+    public NosqlHedgingPolicy setMaxRate(double maxRate) {
+        if (!(maxRate > 0 && maxRate <= 1)) {
+            throw new IllegalArgumentException("Max rate must be between 0 " +
+                "excluded and 1.");
+        }
+        this.maxRate = maxRate;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of hedges running at a time. By default
+     * this is set to {@link Constants#DEFAULT_HEDGE_MAX_PARALLELISM}.
+     */
+    public int getMaxParallelism() {
+        return maxParallelism;
+    }
+
+    /**
+     * Sets the maximum number of hedges running at a time, that is the
+     * number of threads sending hedges. By default this is set to
+     * {@link Constants#DEFAULT_HEDGE_MAX_PARALLELISM}.
+     */
+    public NosqlHedgingPolicy setMaxParallelism(int maxParallelism) {
+        if (maxParallelism <= 0) {
+            throw new IllegalArgumentException("Max parallelism must be " +
+                "greater than 0.");
+        }
+        this.maxParallelism = maxParallelism;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "NosqlHedgingPolicy{percentile=" + percentile +
+            ", minDelayMs=" + minDelayMs +
+            ", maxRate=" + maxRate +
+            ", maxParallelism=" + maxParallelism + "}";
+    }
+}
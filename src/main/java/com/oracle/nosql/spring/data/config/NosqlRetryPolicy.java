@@ -0,0 +1,156 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.config;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import oracle.nosql.driver.NoSQLException;
+import oracle.nosql.driver.RequestTimeoutException;
+
+import com.oracle.nosql.spring.data.Constants;
+
+/**
+ * Retry policy applied by templates and repositories around gets, puts,
+ * deletes and query batches, on top of the retries done by the driver
+ * within a single request timeout.<p>
+ *
+ * Only idempotent operations are retried: gets, deletes, puts of rows that
+ * don't generate their id and batches of read only queries. An operation is
+ * retried when it fails with an exception for which
+ * {@link NoSQLException#okToRetry()} returns true, for example throttling
+ * exceptions, or with a {@link RequestTimeoutException}.<p>
+ *
+ * The delay before retry n (starting at 0) is a random value between 0 and
+ * min(maxBackoff, initialBackoff * 2^n), i.e. exponential backoff with full
+ * jitter. No more retries are done once maxRetries is reached or when the
+ * next delay would exceed the total retry time budget.<p>
+ *
+ * Set it using {@link NosqlDbConfig#setRetryPolicy(NosqlRetryPolicy)}.
+ *
+ * @since 2.3.0
+ */
+public class NosqlRetryPolicy {
+
+    private int maxRetries = Constants.DEFAULT_RETRY_MAX_RETRIES;
+    private long initialBackoffMs = Constants.DEFAULT_RETRY_INITIAL_BACKOFF_MS;
+    private long maxBackoffMs = Constants.DEFAULT_RETRY_MAX_BACKOFF_MS;
+    private long maxRetryTimeMs = Constants.DEFAULT_RETRY_MAX_TIME_MS;
+
+    /**
+     * Returns the maximum number of retries of an operation. By default this
+     * is set to {@link Constants#DEFAULT_RETRY_MAX_RETRIES}.
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Sets the maximum number of retries of an operation. By default this
+     * is set to {@link Constants#DEFAULT_RETRY_MAX_RETRIES}.
+     */
+    public NosqlRetryPolicy setMaxRetries(int maxRetries) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("Max retries must not be " +
+                "negative.");
+        }
+        this.maxRetries = maxRetries;
+        return this;
+    }
+
+    /**
+     * Returns the backoff of the first retry in milliseconds. By default
+     * this is set to {@link Constants#DEFAULT_RETRY_INITIAL_BACKOFF_MS}.
+     */
+    public long getInitialBackoffMs() {
+        return initialBackoffMs;
+    }
+
+    /**
+     * Sets the backoff of the first retry in milliseconds, it doubles with
+     * each following retry. By default this is set to
+     * {@link Constants#DEFAULT_RETRY_INITIAL_BACKOFF_MS}.
+     */
+    public NosqlRetryPolicy setInitialBackoffMs(long initialBackoffMs) {
+        if (initialBackoffMs <= 0) {
+            throw new IllegalArgumentException("Initial backoff must be " +
+                "greater than 0.");
+        }
+        this.initialBackoffMs = initialBackoffMs;
+        return this;
+    }
+
+    /**
+     * Returns the maximum backoff of a retry in milliseconds. By default
+     * this is set to {@link Constants#DEFAULT_RETRY_MAX_BACKOFF_MS}.
+     */
+    public long getMaxBackoffMs() {
+        return maxBackoffMs;
+    }
+
+    /**
+     * Sets the maximum backoff of a retry in milliseconds. By default this
+     * is set to {@link Constants#DEFAULT_RETRY_MAX_BACKOFF_MS}.
+     */
+    public NosqlRetryPolicy setMaxBackoffMs(long maxBackoffMs) {
+        if (maxBackoffMs <= 0) {
+            throw new IllegalArgumentException("Max backoff must be " +
+                "greater than 0.");
+        }
+        this.maxBackoffMs = maxBackoffMs;
+        return this;
+    }
+
+    /**
+     * Returns the total time budget in milliseconds for an operation,
+     * including all its retries. By default this is set to
+     * {@link Constants#DEFAULT_RETRY_MAX_TIME_MS}.
+     */
+    public long getMaxRetryTimeMs() {
+        return maxRetryTimeMs;
+    }
+
+    /**
+     * Sets the total time budget in milliseconds for an operation,
+     * including all its retries. By default this is set to
+     * {@link Constants#DEFAULT_RETRY_MAX_TIME_MS}.
+     */
+    public NosqlRetryPolicy setMaxRetryTimeMs(long maxRetryTimeMs) {
+        if (maxRetryTimeMs <= 0) {
+            throw new IllegalArgumentException("Max retry time must be " +
+                "greater than 0.");
+        }
+        this.maxRetryTimeMs = maxRetryTimeMs;
+        return this;
+    }
+
+    /**
+     * Returns true if the operation that failed with nse may be retried.
+     */
+    public boolean isRetryable(NoSQLException nse) {
+        return nse.okToRetry() || nse instanceof RequestTimeoutException;
+    }
+
+    /**
+     * Returns the delay in milliseconds before retry number retry, starting
+     * at 0.
+     */
+    public long getBackoffMs(int retry) {
+        long ceiling = initialBackoffMs << Math.min(retry, 30);
+        if (ceiling <= 0 || ceiling > maxBackoffMs) {
+            ceiling = maxBackoffMs;
+        }
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "NosqlRetryPolicy{maxRetries=" + maxRetries +
+            ", initialBackoffMs=" + initialBackoffMs +
+            ", maxBackoffMs=" + maxBackoffMs +
+            ", maxRetryTimeMs=" + maxRetryTimeMs + "}";
+    }
+}
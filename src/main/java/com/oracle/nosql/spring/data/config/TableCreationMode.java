@@ -0,0 +1,36 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.config;
+
+/**
+ * How repositories check and create the tables of their entities, set with
+ * {@link NosqlDbConfig#setTableCreationMode(TableCreationMode)}.
+ *
+ * @since 2.3.0
+ */
+public enum TableCreationMode {
+    /**
+     * Each repository checks and creates its table in its constructor, one
+     * repository after the other.
+     */
+    SYNC,
+
+    /**
+     * Tables of all repositories are checked and created concurrently in
+     * the background. Once all singletons are instantiated the application
+     * context waits for all of them, up to
+     * {@link NosqlDbConfig#getTableCreationTimeout()}. Operations on a table
+     * that is not ready yet wait for it.
+     */
+    PARALLEL,
+
+    /**
+     * The table of a repository is checked and created on the first
+     * operation using it.
+     */
+    LAZY
+}
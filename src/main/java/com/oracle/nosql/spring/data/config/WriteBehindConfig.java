@@ -0,0 +1,164 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.config;
+
+import com.oracle.nosql.spring.data.Constants;
+
+/**
+ * Buffer and flush settings of a
+ * {@link com.oracle.nosql.spring.data.core.WriteBehindNosqlTemplate}.<p>
+ *
+ * The buffer holds at most capacity distinct keys. It is flushed when it
+ * holds batchSize keys or every flushInterval milliseconds, whichever comes
+ * first. Rows of the same table and shard key are written together, at
+ * most batchSize rows per request. Rows whose write fails stay buffered and
+ * are written by the next flushes, after maxFlushAttempts failed flushes
+ * they are handled according to the overflow policy.
+ *
+ * @since 2.3.0
+ */
+public class WriteBehindConfig {
+
+    /* max number of operations in a WriteMultipleRequest */
+    private static final int MAX_BATCH_SIZE = 50;
+
+    private int capacity = Constants.DEFAULT_WRITE_BEHIND_CAPACITY;
+    private int batchSize = Constants.DEFAULT_WRITE_BEHIND_BATCH_SIZE;
+    private long flushIntervalMs =
+        Constants.DEFAULT_WRITE_BEHIND_FLUSH_INTERVAL_MS;
+    private WriteBehindOverflowPolicy overflowPolicy =
+        Constants.DEFAULT_WRITE_BEHIND_OVERFLOW_POLICY;
+    private int maxFlushAttempts =
+        Constants.DEFAULT_WRITE_BEHIND_MAX_FLUSH_ATTEMPTS;
+
+    /**
+     * Returns the maximum number of distinct keys buffered. By default this
+     * is set to {@link Constants#DEFAULT_WRITE_BEHIND_CAPACITY}.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Sets the maximum number of distinct keys buffered. By default this is
+     * set to {@link Constants#DEFAULT_WRITE_BEHIND_CAPACITY}.
+     */
+    public WriteBehindConfig setCapacity(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater " +
+                "than 0.");
+        }
+        this.capacity = capacity;
+        return this;
+    }
+
+    /**
+     * Returns the number of buffered keys that triggers a flush, also the
+     * maximum number of rows written by a single request. By default this is
+     * set to {@link Constants#DEFAULT_WRITE_BEHIND_BATCH_SIZE}.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the number of buffered keys that triggers a flush, also the
+     * maximum number of rows written by a single request, at most 50. By
+     * default this is set to {@link Constants#DEFAULT_WRITE_BEHIND_BATCH_SIZE}.
+     */
+    public WriteBehindConfig setBatchSize(int batchSize) {
+        if (batchSize <= 0 || batchSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch size must be between " +
+                "1 and " + MAX_BATCH_SIZE + ".");
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Returns the maximum time in milliseconds a write stays buffered. By
+     * default this is set to
+     * {@link Constants#DEFAULT_WRITE_BEHIND_FLUSH_INTERVAL_MS}.
+     */
+    public long getFlushInterval() {
+        return flushIntervalMs;
+    }
+
+    /**
+     * Sets the maximum time in milliseconds a write stays buffered. By
+     * default this is set to
+     * {@link Constants#DEFAULT_WRITE_BEHIND_FLUSH_INTERVAL_MS}.
+     */
+    public WriteBehindConfig setFlushInterval(long milliseconds) {
+        if (milliseconds <= 0) {
+            throw new IllegalArgumentException("Flush interval must be " +
+                "greater than 0.");
+        }
+        this.flushIntervalMs = milliseconds;
+        return this;
+    }
+
+    /**
+     * Returns what happens to writes of new keys when the buffer is full.
+     * By default this is set to
+     * {@link Constants#DEFAULT_WRITE_BEHIND_OVERFLOW_POLICY}.
+     */
+    public WriteBehindOverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Sets what happens to writes of new keys when the buffer is full. By
+     * default this is set to
+     * {@link Constants#DEFAULT_WRITE_BEHIND_OVERFLOW_POLICY}.
+     */
+    public WriteBehindConfig setOverflowPolicy(
+        WriteBehindOverflowPolicy overflowPolicy) {
+        if (overflowPolicy == null) {
+            throw new IllegalArgumentException("Overflow policy should not " +
+                "be null.");
+        }
+        this.overflowPolicy = overflowPolicy;
+        return this;
+    }
+
+    /**
+     * Returns the number of flushes that fail to write a row before it is
+     * handled according to the overflow policy. By default this is set to
+     * {@link Constants#DEFAULT_WRITE_BEHIND_MAX_FLUSH_ATTEMPTS}.
+     */
+    public int getMaxFlushAttempts() {
+        return maxFlushAttempts;
+    }
+
+    /**
+     * Sets the number of flushes that fail to write a row before it is
+     * handled according to the overflow policy: with
+     * {@link WriteBehindOverflowPolicy#DROP} the row is dropped, otherwise
+     * it stays buffered and is written by the next flushes, new writes
+     * blocking or being written through once the buffer is full. By
+     * default this is set to
+     * {@link Constants#DEFAULT_WRITE_BEHIND_MAX_FLUSH_ATTEMPTS}.
+     */
+    public WriteBehindConfig setMaxFlushAttempts(int maxFlushAttempts) {
+        if (maxFlushAttempts <= 0) {
+            throw new IllegalArgumentException("Max flush attempts must be " +
+                "greater than 0.");
+        }
+        this.maxFlushAttempts = maxFlushAttempts;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "WriteBehindConfig{capacity=" + capacity +
+            ", batchSize=" + batchSize +
+            ", flushInterval=" + flushIntervalMs +
+            ", overflowPolicy=" + overflowPolicy +
+            ", maxFlushAttempts=" + maxFlushAttempts + "}";
+    }
+}
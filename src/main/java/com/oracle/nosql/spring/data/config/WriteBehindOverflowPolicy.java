@@ -0,0 +1,34 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.config;
+
+/**
+ * What a {@link com.oracle.nosql.spring.data.core.WriteBehindNosqlTemplate}
+ * does with a write to a new key when its buffer is full, set with
+ * {@link WriteBehindConfig#setOverflowPolicy(WriteBehindOverflowPolicy)}.
+ * Writes to a key already buffered always replace the buffered write.
+ *
+ * @since 2.3.0
+ */
+public enum WriteBehindOverflowPolicy {
+    /**
+     * The caller waits until the buffer is flushed, applying backpressure to
+     * the writers.
+     */
+    BLOCK,
+
+    /**
+     * The row is written synchronously by the caller, bypassing the buffer.
+     */
+    WRITE_THROUGH,
+
+    /**
+     * The write is dropped and counted, only suitable for data where losing
+     * updates is acceptable.
+     */
+    DROP
+}
@@ -0,0 +1,301 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.core;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import oracle.nosql.driver.values.FieldValue;
+import oracle.nosql.driver.values.MapValue;
+
+/**
+ * Keeps a snapshot of the entities read or written by a template, used to
+ * skip saves of unchanged entities and to write only the changed fields of
+ * entities with few changes.<p>
+ *
+ * A snapshot is a 64 bit hash of each top level field of the row the
+ * entity converts to, JSON fields are hashed separately. Entities read are
+ * hashed from the row read. Entities are tracked by identity and weakly
+ * referenced, an entity no longer used by the application is no longer
+ * tracked. Every write to a table through the template, including
+ * queries that write and table drops, invalidates the snapshots of the
+ * table taken before it. Entities of tables with a TTL set in
+ * {@link com.oracle.nosql.spring.data.core.mapping.NosqlTable#ttl()} are
+ * not tracked, their rows may expire.<p>
+ *
+ * Enable it using
+ * {@link com.oracle.nosql.spring.data.config.NosqlDbConfig#setDirtyTracking(boolean)}.<p>
+ *
+ * Note: Dirty tracking requires the template to be the only writer of the
+ * tables of the tracked entities. Changes made by other templates or
+ * clients, and expiry of rows of tables created with a TTL outside of the
+ * template, are not detected: saving an entity unchanged since it was read
+ * doesn't overwrite them.
+ *
+ * @since 2.3.0
+ */
+public class DirtyTracker {
+
+    /* max ratio of changed fields for a partial update */
+    static final double PARTIAL_UPDATE_MAX_RATIO = 0.5;
+
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    private final Map<EntityReference, Snapshot> snapshots =
+        new ConcurrentHashMap<>();
+    /* number of writes to each table through the template */
+    private final Map<String, AtomicLong> writeCounts =
+        new ConcurrentHashMap<>();
+    /* number of writes done by the current thread, to all tables */
+    private final ThreadLocal<long[]> ownWriteCounts =
+        ThreadLocal.withInitial(() -> new long[1]);
+
+    private final LongAdder writesAvoided = new LongAdder();
+    private final LongAdder partialUpdates = new LongAdder();
+    private final LongAdder fullWrites = new LongAdder();
+
+    /**
+     * Tracks the entity read with the given field hashes, see
+     * {@link #hashFields(MapValue)}. The write count is the one of the table
+     * before the read, see {@link #getWriteCount(String)}.
+     */
+    void track(Object entity, Map<String, Long> hashes, long writeCount) {
+        expunge();
+        snapshots.put(new EntityReference(entity, queue),
+            new Snapshot(hashes, writeCount));
+    }
+
+    /**
+     * Tracks the entity written by the current thread since the given mark.
+     * The entity is no longer tracked if other writes to the table happened
+     * meanwhile, the row may not be the one written.
+     */
+    void trackWritten(WriteMark mark, Object entity,
+        Map<String, Long> hashes) {
+        long writeCount = getWriteCount(mark.tableName);
+        if (writeCount - mark.writeCount ==
+            ownWriteCounts.get()[0] - mark.ownWriteCount) {
+            track(entity, hashes, writeCount);
+        } else {
+            untrack(entity);
+        }
+    }
+
+    /**
+     * Returns the mark of the table to call
+     * {@link #trackWritten(WriteMark, Object, Map)} with after a write.
+     */
+    WriteMark beforeWrite(String tableName) {
+        return new WriteMark(tableName, getWriteCount(tableName),
+            ownWriteCounts.get()[0]);
+    }
+
+    /**
+     * Returns the field hashes of the entity snapshot or null if the
+     * entity is not tracked or its table was written since the snapshot.
+     */
+    Map<String, Long> getSnapshot(String tableName, Object entity) {
+        expunge();
+        Snapshot snapshot = snapshots.get(new EntityReference(entity, null));
+        if (snapshot == null ||
+            snapshot.writeCount != getWriteCount(tableName)) {
+            return null;
+        }
+        return snapshot.hashes;
+    }
+
+    /**
+     * Invalidates the snapshots of the entities of the table, called after
+     * every write to the table, successful or not.
+     */
+    void written(String tableName) {
+        writeCounts.computeIfAbsent(tableName, k -> new AtomicLong())
+            .incrementAndGet();
+        ownWriteCounts.get()[0]++;
+    }
+
+    /**
+     * Returns the number of writes to the table through the template.
+     */
+    long getWriteCount(String tableName) {
+        AtomicLong count = writeCounts.get(tableName);
+        return count == null ? 0 : count.get();
+    }
+
+    void writeAvoided() {
+        writesAvoided.increment();
+    }
+
+    void partialUpdate() {
+        partialUpdates.increment();
+    }
+
+    void fullWrite() {
+        fullWrites.increment();
+    }
+
+    private void untrack(Object entity) {
+        snapshots.remove(new EntityReference(entity, null));
+    }
+
+    private void expunge() {
+        Reference<?> ref;
+        while ((ref = queue.poll()) != null) {
+            snapshots.remove(ref);
+        }
+    }
+
+    /**
+     * Returns the hash of each top level field of a row, fields of the JSON
+     * column are named {@code kv_json_.<field>}.
+     */
+    static Map<String, Long> hashFields(MapValue row) {
+        Map<String, Long> hashes = new HashMap<>();
+        for (Map.Entry<String, FieldValue> field : row.entrySet()) {
+            if (NosqlTemplateBase.JSON_COLUMN.equals(field.getKey()) &&
+                field.getValue() instanceof MapValue) {
+                for (Map.Entry<String, FieldValue> jsonField :
+                    field.getValue().asMap().entrySet()) {
+                    hashes.put(NosqlTemplateBase.JSON_COLUMN + "." +
+                        jsonField.getKey(), hash(jsonField.getValue()));
+                }
+            } else {
+                hashes.put(field.getKey(), hash(field.getValue()));
+            }
+        }
+        return Collections.unmodifiableMap(hashes);
+    }
+
+    /**
+     * Returns the fields that differ between two hashes of the same entity,
+     * including fields present in only one of them.
+     */
+    static Set<String> getChangedFields(Map<String, Long> snapshot,
+        Map<String, Long> current) {
+        Set<String> changed = new HashSet<>();
+        current.forEach((field, hash) -> {
+            if (!hash.equals(snapshot.get(field))) {
+                changed.add(field);
+            }
+        });
+        for (String field : snapshot.keySet()) {
+            if (!current.containsKey(field)) {
+                changed.add(field);
+            }
+        }
+        return changed;
+    }
+
+    /* 64 bit FNV-1a hash of the JSON representation */
+    private static long hash(FieldValue value) {
+        String json = value == null ? "null" : value.toJson();
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < json.length(); i++) {
+            h ^= json.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * Returns the number of saves skipped because the entity didn't change.
+     */
+    public long getWritesAvoidedCount() {
+        return writesAvoided.sum();
+    }
+
+    /**
+     * Returns the number of saves done as partial updates of the changed
+     * fields.
+     */
+    public long getPartialUpdateCount() {
+        return partialUpdates.sum();
+    }
+
+    /**
+     * Returns the number of saves of tracked entities that rewrote the whole
+     * row.
+     */
+    public long getFullWriteCount() {
+        return fullWrites.sum();
+    }
+
+    /**
+     * Returns the number of entities currently tracked.
+     */
+    public int getTrackedCount() {
+        expunge();
+        return snapshots.size();
+    }
+
+    @Override
+    public String toString() {
+        return "DirtyTracker{tracked=" + getTrackedCount() +
+            ", writesAvoided=" + getWritesAvoidedCount() +
+            ", partialUpdates=" + getPartialUpdateCount() +
+            ", fullWrites=" + getFullWriteCount() + "}";
+    }
+
+    private static final class Snapshot {
+        private final Map<String, Long> hashes;
+        private final long writeCount;
+
+        Snapshot(Map<String, Long> hashes, long writeCount) {
+            this.hashes = hashes;
+            this.writeCount = writeCount;
+        }
+    }
+
+    /* Write count of a table before a write of the current thread. */
+    static final class WriteMark {
+        private final String tableName;
+        private final long writeCount;
+        private final long ownWriteCount;
+
+        private WriteMark(String tableName, long writeCount,
+            long ownWriteCount) {
+            this.tableName = tableName;
+            this.writeCount = writeCount;
+            this.ownWriteCount = ownWriteCount;
+        }
+    }
+
+    /* Weak reference to an entity with identity equality. */
+    private static final class EntityReference extends WeakReference<Object> {
+        private final int hash;
+
+        EntityReference(Object entity, ReferenceQueue<Object> queue) {
+            super(entity, queue);
+            hash = System.identityHashCode(entity);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof EntityReference)) {
+                return false;
+            }
+            Object entity = get();
+            return entity != null && entity == ((EntityReference) obj).get();
+        }
+    }
+}
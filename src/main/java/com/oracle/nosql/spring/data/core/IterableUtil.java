@@ -7,10 +7,11 @@
 package com.oracle.nosql.spring.data.core;
 
 import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import oracle.nosql.driver.NoSQLException;
-import oracle.nosql.driver.NoSQLHandle;
 import oracle.nosql.driver.ops.PreparedStatement;
 import oracle.nosql.driver.ops.QueryRequest;
 import oracle.nosql.driver.ops.QueryResult;
@@ -29,14 +30,24 @@ import org.springframework.lang.NonNull;
  * on the results of a QueryRequest.
  */
 public class IterableUtil {
+    private static final Logger log =
+        LoggerFactory.getLogger(IterableUtil.IteratorImpl.class);
 
     public static class IterableImpl implements Iterable<MapValue> {
         final IteratorImpl iter;
 
-        IterableImpl(NoSQLHandle nosqlClient,
+        IterableImpl(Function<QueryRequest, QueryResult> batchExecutor,
             LruCache<String, PreparedStatement> psCache,
             QueryRequest queryRequest) {
-            this.iter = new IteratorImpl(nosqlClient, psCache, queryRequest);
+            this(batchExecutor, psCache, queryRequest, null);
+        }
+
+        IterableImpl(Function<QueryRequest, QueryResult> batchExecutor,
+            LruCache<String, PreparedStatement> psCache,
+            QueryRequest queryRequest,
+            Function<QueryRequest, FirstBatch> firstBatchLoader) {
+            this.iter = new IteratorImpl(batchExecutor, psCache, queryRequest,
+                firstBatchLoader);
         }
 
         @Override
@@ -47,21 +58,31 @@ public class IterableUtil {
 
 
     public static class IteratorImpl implements Iterator<MapValue> {
-        private static final Logger log =
-            LoggerFactory.getLogger(IteratorImpl.class);
 
-        final NoSQLHandle nosqlClient;
+        final Function<QueryRequest, QueryResult> batchExecutor;
         final LruCache<String, PreparedStatement> psCache;
         final QueryRequest queryRequest;
+        final Function<QueryRequest, FirstBatch> firstBatchLoader;
         QueryResult queryResult;
         Iterator<MapValue> iterator;
-
-        IteratorImpl(NoSQLHandle nosqlClient,
+        boolean last;
+
+        /**
+         * @param batchExecutor executes one query batch, usually
+         * {@link oracle.nosql.driver.NoSQLHandle#query(QueryRequest)}
+         * wrapped by the template.
+         * @param firstBatchLoader returns the first batch of the query,
+         * possibly shared with concurrent identical queries, or null to
+         * execute it with batchExecutor. May be null.
+         */
+        IteratorImpl(Function<QueryRequest, QueryResult> batchExecutor,
             LruCache<String, PreparedStatement> psCache,
-            QueryRequest queryRequest) {
-            this.nosqlClient = nosqlClient;
+            QueryRequest queryRequest,
+            Function<QueryRequest, FirstBatch> firstBatchLoader) {
+            this.batchExecutor = batchExecutor;
             this.psCache = psCache;
             this.queryRequest = queryRequest;
+            this.firstBatchLoader = firstBatchLoader;
         }
 
         @Override
@@ -82,15 +103,26 @@ public class IterableUtil {
                 return true;
             }
 
-            if (iterator != null &&
-                !iterator.hasNext() && queryRequest.isDone()) {
+            if (iterator != null && !iterator.hasNext() &&
+                (last || queryRequest.isDone())) {
                 return false;
             }
 
             // get more results from server
             try {
+                if (iterator == null && firstBatchLoader != null) {
+                    FirstBatch firstBatch =
+                        firstBatchLoader.apply(queryRequest);
+                    if (firstBatch != null) {
+                        iterator = firstBatch.results.iterator();
+                        last = firstBatch.last;
+                        if (iterator.hasNext() || last) {
+                            return iterator.hasNext();
+                        }
+                    }
+                }
                 do {
-                    queryResult = nosqlClient.query(queryRequest);
+                    queryResult = batchExecutor.apply(queryRequest);
                     iterator = queryResult.getResults().iterator();
                 } // if results is empty try again if not done
                 while (!iterator.hasNext() && !queryRequest.isDone());
@@ -103,19 +135,44 @@ public class IterableUtil {
 
                 return true;
             } catch (NoSQLException nse) {
-                String sql = queryRequest.getPreparedStatement() != null ?
-                    queryRequest.getPreparedStatement().getSQLText() :
-                    queryRequest.getStatement();
-                log.error("Query: {}", sql);
-                log.error(nse.getMessage());
-
-                psCache.remove(sql);
-                log.info("Removed from prepared statements cache: '{}'", sql);
-                throw MappingNosqlConverter.convert(nse);
+                throw convertQueryException(psCache, queryRequest, nse);
             }
         }
     }
 
+    /**
+     * First batch of results of a query. When last is true the query has no
+     * more results, otherwise the next batches are read with the query
+     * request.
+     */
+    static final class FirstBatch {
+        final List<MapValue> results;
+        final boolean last;
+
+        FirstBatch(List<MapValue> results, boolean last) {
+            this.results = results;
+            this.last = last;
+        }
+    }
+
+    /**
+     * Logs the failure of a query batch, removes its statement from the
+     * prepared statements cache and returns the converted exception.
+     */
+    static RuntimeException convertQueryException(
+        LruCache<String, PreparedStatement> psCache,
+        QueryRequest queryRequest, NoSQLException nse) {
+        String sql = queryRequest.getPreparedStatement() != null ?
+            queryRequest.getPreparedStatement().getSQLText() :
+            queryRequest.getStatement();
+        log.error("Query: {}", sql);
+        log.error(nse.getMessage());
+
+        psCache.remove(sql);
+        log.info("Removed from prepared statements cache: '{}'", sql);
+        return MappingNosqlConverter.convert(nse);
+    }
+
     public static <T> Iterable<T> getIterableFromStream(
         Stream<T> stream) {
         return new StreamIterable<>(stream);
@@ -0,0 +1,681 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import oracle.nosql.driver.ops.WriteMultipleResult;
+import oracle.nosql.driver.values.BinaryValue;
+import oracle.nosql.driver.values.BooleanValue;
+import oracle.nosql.driver.values.DoubleValue;
+import oracle.nosql.driver.values.FieldValue;
+import oracle.nosql.driver.values.IntegerValue;
+import oracle.nosql.driver.values.JsonNullValue;
+import oracle.nosql.driver.values.LongValue;
+import oracle.nosql.driver.values.MapValue;
+import oracle.nosql.driver.values.NullValue;
+import oracle.nosql.driver.values.NumberValue;
+import oracle.nosql.driver.values.StringValue;
+import oracle.nosql.driver.values.TimestampValue;
+
+import com.oracle.nosql.spring.data.Constants;
+import com.oracle.nosql.spring.data.core.mapping.NosqlPersistentEntity;
+import com.oracle.nosql.spring.data.core.mapping.NosqlPersistentProperty;
+import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Loads large JSON Lines or CSV inputs into the table of an entity, parsing
+ * and writing rows in parallel.<p>
+ *
+ * Each JSON Lines record is a JSON object of the entity properties, nested
+ * objects and arrays included, with composite keys either nested under the
+ * id property or as top level fields. CSV inputs start with a header line
+ * naming the entity properties, one record per line, values may be quoted
+ * with double quotes but may not span lines, values of object and array
+ * properties are JSON text.<p>
+ *
+ * Records are converted to rows the way {@link NosqlTemplate} stores
+ * entities: key fields and {@link
+ * com.oracle.nosql.spring.data.core.mapping.NosqlColumn} fields in their
+ * columns and the other properties in the JSON column, top level values
+ * being coerced to the property types. Input lines are read sequentially in
+ * chunks, chunks are parsed and written concurrently by up to parallelism
+ * threads, rows of a chunk with the same shard key being written together
+ * with WriteMultipleRequests of up to batchSize rows.<p>
+ *
+ * When a checkpoint file is set, the number of input lines loaded without
+ * gaps is saved to it after each chunk and a later load of the same input
+ * skips them. Rows written after the checkpoint may be written again on
+ * resume, which is harmless since rows are put.
+ * <pre>
+ *     NosqlBulkLoader.Report report =
+ *         new NosqlBulkLoader(template, Customer.class)
+ *             .setParallelism(16)
+ *             .setCheckpoint(Paths.get("customers.ckpt"))
+ *             .loadJsonLines(Paths.get("customers.jsonl"));
+ * </pre>
+ *
+ * Entities with generated ids are written one row per request.
+ *
+ * @since 2.3.0
+ */
+public class NosqlBulkLoader {
+
+    private static final Logger LOG =
+        LoggerFactory.getLogger(NosqlBulkLoader.class);
+
+    /* max number of operations in a WriteMultipleRequest */
+    private static final int MAX_BATCH_SIZE = 50;
+
+    private final NosqlTemplate template;
+    private final NosqlEntityInformation<?, ?> entityInformation;
+    private final NosqlPersistentEntity<?> persistentEntity;
+
+    private int parallelism = Constants.DEFAULT_BULK_LOAD_PARALLELISM;
+    private int batchSize = Constants.DEFAULT_BULK_LOAD_BATCH_SIZE;
+    private int chunkSize = Constants.DEFAULT_BULK_LOAD_CHUNK_SIZE;
+    private Path checkpoint;
+
+    public NosqlBulkLoader(NosqlTemplate template, Class<?> entityClass) {
+        Assert.notNull(template, "Template should not be null.");
+        Assert.notNull(entityClass, "Entity class should not be null.");
+        this.template = template;
+        this.entityInformation =
+            template.getNosqlEntityInformation(entityClass);
+        this.persistentEntity = template.getConverter().getMappingContext()
+            .getRequiredPersistentEntity(entityClass);
+    }
+
+    /**
+     * Sets the maximum number of chunks parsed and written concurrently. By
+     * default this is set to {@link Constants#DEFAULT_BULK_LOAD_PARALLELISM}.
+     */
+    public NosqlBulkLoader setParallelism(int parallelism) {
+        Assert.isTrue(parallelism > 0, "Parallelism should be greater than " +
+            "0.");
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of rows written by a single request, at most
+     * 50. By default this is set to
+     * {@link Constants#DEFAULT_BULK_LOAD_BATCH_SIZE}.
+     */
+    public NosqlBulkLoader setBatchSize(int batchSize) {
+        Assert.isTrue(batchSize > 0 && batchSize <= MAX_BATCH_SIZE,
+            "Batch size should be between 1 and " + MAX_BATCH_SIZE + ".");
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Sets the number of input lines parsed and written by a task, also the
+     * granularity of checkpoints. By default this is set to
+     * {@link Constants#DEFAULT_BULK_LOAD_CHUNK_SIZE}.
+     */
+    public NosqlBulkLoader setChunkSize(int chunkSize) {
+        Assert.isTrue(chunkSize > 0, "Chunk size should be greater than 0.");
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Sets the file the progress is saved to and resumed from, null to
+     * disable checkpoints. The file is deleted once the load completes.
+     */
+    public NosqlBulkLoader setCheckpoint(Path checkpoint) {
+        this.checkpoint = checkpoint;
+        return this;
+    }
+
+    /**
+     * Loads a JSON Lines file, one JSON object per line.
+     */
+    public Report loadJsonLines(Path path) throws IOException {
+        Assert.notNull(path, "Path should not be null.");
+        try (BufferedReader reader =
+                 Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return load(reader, false);
+        }
+    }
+
+    /**
+     * Loads a UTF-8 JSON Lines stream, one JSON object per line. The stream
+     * is not closed.
+     */
+    public Report loadJsonLines(InputStream in) throws IOException {
+        Assert.notNull(in, "Input stream should not be null.");
+        return load(new BufferedReader(
+            new InputStreamReader(in, StandardCharsets.UTF_8)), false);
+    }
+
+    /**
+     * Loads a CSV file whose first line names the properties.
+     */
+    public Report loadCsv(Path path) throws IOException {
+        Assert.notNull(path, "Path should not be null.");
+        try (BufferedReader reader =
+                 Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return load(reader, true);
+        }
+    }
+
+    /**
+     * Loads a UTF-8 CSV stream whose first line names the properties. The
+     * stream is not closed.
+     */
+    public Report loadCsv(InputStream in) throws IOException {
+        Assert.notNull(in, "Input stream should not be null.");
+        return load(new BufferedReader(
+            new InputStreamReader(in, StandardCharsets.UTF_8)), true);
+    }
+
+    private Report load(BufferedReader reader, boolean csv)
+        throws IOException {
+
+        long startMs = System.currentTimeMillis();
+        template.prepareTable(entityInformation);
+
+        List<String> header = null;
+        if (csv) {
+            String line = reader.readLine();
+            if (line == null) {
+                throw new IllegalArgumentException("CSV input has no " +
+                    "header.");
+            }
+            header = parseCsvLine(line, 1);
+        }
+        final List<String> columns = header;
+
+        long skipped = readCheckpoint();
+        for (long i = 0; i < skipped; i++) {
+            if (reader.readLine() == null) {
+                throw new IllegalStateException("Checkpoint " + checkpoint +
+                    " is beyond the end of the input.");
+            }
+        }
+
+        CustomizableThreadFactory threadFactory =
+            new CustomizableThreadFactory("nosql-bulk-load-" +
+                entityInformation.getTableName() + "-");
+        threadFactory.setDaemon(true);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+            threadFactory);
+        // bounds the chunks read ahead of the writers
+        Semaphore permits = new Semaphore(parallelism * 2);
+        AtomicReference<RuntimeException> error = new AtomicReference<>();
+        Progress progress = new Progress(skipped);
+        long firstLine = skipped + (csv ? 2 : 1);
+
+        try {
+            long chunkStart = skipped;
+            List<String> lines = new ArrayList<>(chunkSize);
+            String line;
+            while (error.get() == null) {
+                line = reader.readLine();
+                if (line != null) {
+                    lines.add(line);
+                }
+                if (lines.size() == chunkSize ||
+                    (line == null && !lines.isEmpty())) {
+                    List<String> chunk = lines;
+                    long start = chunkStart;
+                    permits.acquireUninterruptibly();
+                    executor.execute(() -> {
+                        try {
+                            if (error.get() == null) {
+                                loadChunk(chunk, columns,
+                                    firstLine + start - skipped, progress);
+                                progress.chunkDone(start, chunk.size());
+                            }
+                        } catch (RuntimeException re) {
+                            error.compareAndSet(null, re);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                    chunkStart += chunk.size();
+                    lines = new ArrayList<>(chunkSize);
+                }
+                if (line == null) {
+                    break;
+                }
+            }
+        } finally {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(Long.MAX_VALUE,
+                    TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                executor.shutdownNow();
+            }
+        }
+
+        if (error.get() != null) {
+            LOG.error("Bulk load of table {} failed after {} lines: {}",
+                entityInformation.getTableName(), progress.getLinesDone(),
+                error.get().getMessage());
+            throw error.get();
+        }
+        if (checkpoint != null) {
+            Files.deleteIfExists(checkpoint);
+        }
+
+        Report report = new Report(entityInformation.getTableName(),
+            progress.rows.sum(), skipped, progress.requests.sum(),
+            progress.writeUnits.sum(), System.currentTimeMillis() - startMs);
+        LOG.info("{}", report);
+        return report;
+    }
+
+    /* Parses and writes the lines of a chunk, firstLine is 1 based. */
+    private void loadChunk(List<String> lines, List<String> header,
+        long firstLine, Progress progress) {
+
+        // rows by shard key
+        Map<String, List<MapValue>> shards = new LinkedHashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            MapValue row;
+            try {
+                row = toRow(header == null ?
+                    FieldValue.createFromJson(line, null).asMap() :
+                    toRecord(header, parseCsvLine(line, firstLine + i)));
+            } catch (RuntimeException re) {
+                throw new IllegalArgumentException("Invalid record at line " +
+                    (firstLine + i) + ": " + re.getMessage(), re);
+            }
+            shards.computeIfAbsent(entityInformation.isAutoGeneratedId() ?
+                String.valueOf(i) : getShardKey(row),
+                k -> new ArrayList<>()).add(row);
+        }
+
+        for (List<MapValue> rows : shards.values()) {
+            for (int i = 0; i < rows.size(); i += batchSize) {
+                List<MapValue> batch =
+                    rows.subList(i, Math.min(i + batchSize, rows.size()));
+                if (batch.size() == 1) {
+                    progress.writeUnits.add(template.doPut(entityInformation,
+                        batch.get(0), false).getWriteUnits());
+                } else {
+                    WriteMultipleResult res =
+                        template.doPutMultiple(entityInformation, batch);
+                    if (!res.getSuccess()) {
+                        throw new IllegalStateException("Write multiple in " +
+                            "table " + entityInformation.getTableName() +
+                            " failed at operation " +
+                            res.getFailedOperationIndex());
+                    }
+                    progress.writeUnits.add(res.getWriteUnits());
+                }
+                progress.requests.increment();
+                progress.rows.add(batch.size());
+            }
+        }
+    }
+
+    /* Converts a record to a row, see class comment. */
+    private MapValue toRow(MapValue record) {
+        MapValue row = new MapValue();
+        MapValue json = new MapValue();
+
+        NosqlPersistentProperty idProperty = persistentEntity.getIdProperty();
+        FieldValue nestedKey = idProperty == null ? null :
+            record.get(idProperty.getName());
+        Map<String, FieldValue.Type> keys =
+            new LinkedHashMap<>(entityInformation.getShardKeys());
+        keys.putAll(entityInformation.getNonShardKeys());
+        for (Map.Entry<String, FieldValue.Type> key : keys.entrySet()) {
+            FieldValue value = record.get(key.getKey());
+            if (value == null && nestedKey instanceof MapValue) {
+                value = nestedKey.asMap().get(key.getKey());
+            }
+            if (value == null || value.isNull() || value.isJsonNull()) {
+                if (entityInformation.isAutoGeneratedId()) {
+                    continue;
+                }
+                throw new IllegalArgumentException("Missing key field " +
+                    key.getKey() + ".");
+            }
+            row.put(key.getKey(), coerce(value, key.getValue(), false));
+        }
+
+        for (Map.Entry<String, FieldValue> field : record.entrySet()) {
+            String name = field.getKey();
+            if (keys.containsKey(name) || (idProperty != null &&
+                idProperty.getName().equals(name))) {
+                continue;
+            }
+            FieldValue.Type columnType =
+                entityInformation.getColumns().get(name);
+            if (columnType != null) {
+                row.put(name, coerce(field.getValue(), columnType, false));
+                continue;
+            }
+            NosqlPersistentProperty prop =
+                persistentEntity.getPersistentProperty(name);
+            if (prop == null) {
+                throw new IllegalArgumentException("Unknown property " +
+                    name + ".");
+            }
+            json.put(name, coerce(field.getValue(), getJsonType(prop), true));
+        }
+        row.put(NosqlTemplateBase.JSON_COLUMN, json);
+        return row;
+    }
+
+    /* The type a property is stored as, null if it is not atomic. */
+    private static FieldValue.Type getJsonType(NosqlPersistentProperty prop) {
+        switch (prop.getTypeCode()) {
+        case INT:
+            return FieldValue.Type.INTEGER;
+        case LONG:
+            return FieldValue.Type.LONG;
+        case FLOAT:
+        case DOUBLE:
+            return FieldValue.Type.DOUBLE;
+        case BIGINTEGER:
+        case BIGDECIMAL:
+            return FieldValue.Type.NUMBER;
+        case BOOLEAN:
+            return FieldValue.Type.BOOLEAN;
+        case STRING:
+        case ENUM:
+        case BYTEARRAY:
+            return FieldValue.Type.STRING;
+        case DATE:
+        case TIMESTAMP:
+        case INSTANT:
+            return FieldValue.Type.TIMESTAMP;
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Coerces a parsed value to type. String values of non atomic types,
+     * i.e. type is null, are parsed as JSON.
+     */
+    private static FieldValue coerce(FieldValue value, FieldValue.Type type,
+        boolean inJson) {
+        if (value == null || value.isNull() || value.isJsonNull()) {
+            return inJson ? JsonNullValue.getInstance() :
+                NullValue.getInstance();
+        }
+        String str = value.getType() == FieldValue.Type.STRING ?
+            value.getString() : null;
+        if (type == null) {
+            String trimmed = str == null ? null : str.trim();
+            if (trimmed != null && (trimmed.startsWith("{") ||
+                trimmed.startsWith("["))) {
+                return FieldValue.createFromJson(trimmed, null);
+            }
+            return value;
+        }
+
+        switch (type) {
+        case INTEGER:
+            return new IntegerValue(toBigDecimal(value, str).intValueExact());
+        case LONG:
+            return new LongValue(toBigDecimal(value, str).longValueExact());
+        case DOUBLE:
+            return new DoubleValue(toBigDecimal(value, str).doubleValue());
+        case NUMBER:
+            return new NumberValue(toBigDecimal(value, str));
+        case BOOLEAN:
+            return str == null ? value :
+                BooleanValue.getInstance(Boolean.parseBoolean(str.trim()));
+        case STRING:
+            return str == null ? new StringValue(value.toJson()) : value;
+        case TIMESTAMP:
+            return str == null ?
+                new TimestampValue(toBigDecimal(value, null).longValueExact()) :
+                new TimestampValue(str.trim());
+        case BINARY:
+            return str == null ? value :
+                new BinaryValue(BinaryValue.decodeBase64(str.trim()));
+        default:
+            return value;
+        }
+    }
+
+    private static BigDecimal toBigDecimal(FieldValue value, String str) {
+        return new BigDecimal(str != null ? str.trim() : value.toJson());
+    }
+
+    private static MapValue toRecord(List<String> header,
+        List<String> values) {
+        if (values.size() != header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() +
+                " values but found " + values.size() + ".");
+        }
+        MapValue record = new MapValue();
+        for (int i = 0; i < header.size(); i++) {
+            String value = values.get(i);
+            // empty unquoted values are nulls
+            record.put(header.get(i), value == null ?
+                JsonNullValue.getInstance() : new StringValue(value));
+        }
+        return record;
+    }
+
+    /**
+     * Splits a CSV line, values may be quoted with double quotes and quotes
+     * in quoted values are doubled. Empty unquoted values are returned as
+     * null.
+     */
+    static List<String> parseCsvLine(String line, long lineNumber) {
+        List<String> values = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        sb.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    sb.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                values.add(sb.length() == 0 && !wasQuoted ? null :
+                    sb.toString());
+                sb.setLength(0);
+                wasQuoted = false;
+            } else {
+                sb.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted value " +
+                "at line " + lineNumber + ".");
+        }
+        values.add(sb.length() == 0 && !wasQuoted ? null : sb.toString());
+        return values;
+    }
+
+    private String getShardKey(MapValue row) {
+        StringBuilder sb = new StringBuilder();
+        for (String key : entityInformation.getShardKeys().keySet()) {
+            sb.append(row.get(key)).append('|');
+        }
+        return sb.toString();
+    }
+
+    private long readCheckpoint() throws IOException {
+        if (checkpoint == null || !Files.exists(checkpoint)) {
+            return 0;
+        }
+        String content = new String(Files.readAllBytes(checkpoint),
+            StandardCharsets.UTF_8).trim();
+        try {
+            long lines = Long.parseLong(content);
+            LOG.info("Resuming bulk load of table {} after {} lines",
+                entityInformation.getTableName(), lines);
+            return lines;
+        } catch (NumberFormatException nfe) {
+            throw new IllegalStateException("Invalid checkpoint file " +
+                checkpoint + ": " + content, nfe);
+        }
+    }
+
+    private void writeCheckpoint(long lines) {
+        try {
+            Path tmp = checkpoint.resolveSibling(
+                checkpoint.getFileName() + ".tmp");
+            Files.write(tmp, Long.toString(lines)
+                .getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, checkpoint, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Failed to write checkpoint " +
+                checkpoint, ioe);
+        }
+    }
+
+    /* Tracks the lines loaded without gaps and the write counters. */
+    private final class Progress {
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder writeUnits = new LongAdder();
+        /* start line and size of the chunks done after a gap */
+        private final TreeMap<Long, Integer> pending = new TreeMap<>();
+        private long linesDone;
+
+        Progress(long linesDone) {
+            this.linesDone = linesDone;
+        }
+
+        synchronized void chunkDone(long start, int size) {
+            pending.put(start, size);
+            long before = linesDone;
+            while (!pending.isEmpty() && pending.firstKey() == linesDone) {
+                linesDone += pending.pollFirstEntry().getValue();
+            }
+            if (linesDone == before) {
+                return;
+            }
+            if (checkpoint != null) {
+                writeCheckpoint(linesDone);
+            }
+            LOG.debug("Bulk load of table {}: {} lines done",
+                entityInformation.getTableName(), linesDone);
+        }
+
+        synchronized long getLinesDone() {
+            return linesDone;
+        }
+    }
+
+    /**
+     * Throughput report of a load.
+     */
+    public static final class Report {
+        private final String tableName;
+        private final long rows;
+        private final long skippedLines;
+        private final long requests;
+        private final long writeUnits;
+        private final long elapsedMs;
+
+        Report(String tableName, long rows, long skippedLines, long requests,
+            long writeUnits, long elapsedMs) {
+            this.tableName = tableName;
+            this.rows = rows;
+            this.skippedLines = skippedLines;
+            this.requests = requests;
+            this.writeUnits = writeUnits;
+            this.elapsedMs = elapsedMs;
+        }
+
+        public String getTableName() {
+            return tableName;
+        }
+
+        /**
+         * Returns the number of rows written by this load.
+         */
+        public long getRows() {
+            return rows;
+        }
+
+        /**
+         * Returns the number of input lines skipped because of a checkpoint.
+         */
+        public long getSkippedLines() {
+            return skippedLines;
+        }
+
+        /**
+         * Returns the number of write requests sent.
+         */
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getWriteUnits() {
+            return writeUnits;
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+
+        /**
+         * Returns the average number of rows written per second.
+         */
+        public double getRowsPerSecond() {
+            return elapsedMs == 0 ? rows : rows * 1000.0 / elapsedMs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Bulk load of table %s: %d rows in %d ms " +
+                    "(%.0f rows/s), %d requests, %d write units, %d lines " +
+                    "skipped", tableName, rows, elapsedMs, getRowsPerSecond(),
+                requests, writeUnits, skippedLines);
+        }
+    }
+}
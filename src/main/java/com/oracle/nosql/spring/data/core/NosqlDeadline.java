@@ -0,0 +1,168 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import oracle.nosql.driver.RequestTimeoutException;
+import oracle.nosql.driver.ops.QueryRequest;
+
+import org.springframework.util.Assert;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Total time budget of the queries run within a call, across all their
+ * batches. Without a deadline each query batch gets the full request
+ * timeout, so a query needing many batches can take many times the
+ * timeout. With a deadline, each batch gets the remaining time as its
+ * timeout and the query fails with a
+ * {@link org.springframework.dao.QueryTimeoutException} as soon as the
+ * time is over.<p>
+ *
+ * The deadline of a query is the one current when the query is created:
+ * <pre>
+ *     List&lt;Customer&gt; customers = NosqlDeadline.call(200, () -&gt;
+ *         repository.findByCity("Paris"));
+ *
+ *     Flux&lt;Customer&gt; flux = reactiveRepository.findByCity("Paris")
+ *         .contextWrite(NosqlDeadline.withTimeout(200));
+ * </pre>
+ * Repository methods can also set it with
+ * {@link com.oracle.nosql.spring.data.repository.QueryOptions#totalTimeout()}.
+ * Nested deadlines never extend the current one.
+ *
+ * @since 2.3.0
+ */
+public final class NosqlDeadline {
+
+    /**
+     * Key of the deadline in a Reactor context.
+     */
+    public static final String CONTEXT_KEY = NosqlDeadline.class.getName();
+
+    private static final ThreadLocal<NosqlDeadline> CURRENT =
+        new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private NosqlDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Returns a deadline timeoutMs milliseconds from now.
+     */
+    public static NosqlDeadline in(long timeoutMs) {
+        Assert.isTrue(timeoutMs > 0, "Timeout should be greater than 0.");
+        return new NosqlDeadline(System.nanoTime() +
+            TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+    }
+
+    /**
+     * Returns the deadline of the current thread, or null if there is none.
+     */
+    public static NosqlDeadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Returns the deadline of the Reactor context, or null if there is none.
+     */
+    public static NosqlDeadline fromContext(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, null);
+    }
+
+    /**
+     * Runs op with a deadline timeoutMs milliseconds from now, or the
+     * current deadline if it is earlier, and returns its result.
+     */
+    public static <T> T call(long timeoutMs, Supplier<T> op) {
+        NosqlDeadline outer = CURRENT.get();
+        CURRENT.set(earliest(outer, in(timeoutMs)));
+        try {
+            return op.get();
+        } finally {
+            if (outer == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(outer);
+            }
+        }
+    }
+
+    /**
+     * Runs op with a deadline timeoutMs milliseconds from now, or the
+     * current deadline if it is earlier.
+     */
+    public static void run(long timeoutMs, Runnable op) {
+        call(timeoutMs, () -> {
+            op.run();
+            return null;
+        });
+    }
+
+    /**
+     * Returns a function to pass to {@code contextWrite}, setting a deadline
+     * timeoutMs milliseconds from subscription, or keeping the one of the
+     * context if it is earlier.
+     */
+    public static Function<Context, Context> withTimeout(long timeoutMs) {
+        Assert.isTrue(timeoutMs > 0, "Timeout should be greater than 0.");
+        return context -> context.put(CONTEXT_KEY,
+            earliest(fromContext(context), in(timeoutMs)));
+    }
+
+    /**
+     * Returns the remaining time in milliseconds, 0 or less once the
+     * deadline passed.
+     */
+    public long getRemainingMs() {
+        return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Sets the remaining time as timeout of batch number batch of qReq if
+     * it is less than defaultTimeoutMs, or throws a RequestTimeoutException
+     * if the deadline passed.
+     */
+    void apply(QueryRequest qReq, int defaultTimeoutMs, int batch) {
+        long remainingMs = getRemainingMs();
+        if (remainingMs <= 0) {
+            throw new RequestTimeoutException("Query deadline exceeded " +
+                "before batch " + batch + ".");
+        }
+        if (remainingMs < defaultTimeoutMs) {
+            qReq.setTimeout((int) remainingMs);
+        } else {
+            qReq.setTimeout(defaultTimeoutMs);
+        }
+    }
+
+    /* Returns the earliest of a and b, either of which may be null. */
+    static NosqlDeadline earliest(NosqlDeadline a, NosqlDeadline b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return a.deadlineNanos - b.deadlineNanos <= 0 ? a : b;
+    }
+
+    @Override
+    public String toString() {
+        return "NosqlDeadline{remainingMs=" + getRemainingMs() + "}";
+    }
+}
@@ -0,0 +1,228 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.core;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+import oracle.nosql.driver.values.FieldValue;
+import oracle.nosql.driver.values.MapValue;
+
+import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Exports tables and query results as JSON Lines, one JSON object per row,
+ * writing query results as they are fetched, without converting them to
+ * entities. Memory use doesn't depend on the number of rows.<p>
+ *
+ * Rows with a JSON column, like rows of table exports and of
+ * {@code SELECT *} queries, are written flattened: key columns, typed
+ * columns and the fields of the JSON column are written as top level
+ * fields, the format read by {@link NosqlBulkLoader}. Other query results
+ * are written as returned. Output can be gzip compressed.<p>
+ *
+ * A table can be exported to several outputs concurrently, splitting the
+ * scan in ranges of the shard key like
+ * {@link NosqlTemplate#parallelScan(Class, int, java.util.function.Consumer)}.
+ * <pre>
+ *     long rows = new NosqlExporter(template)
+ *         .setCompressed(true)
+ *         .exportTable(Customer.class, outputStream);
+ * </pre>
+ * Streams and channels are flushed but not closed.
+ *
+ * @since 2.3.0
+ */
+public class NosqlExporter {
+
+    /* size of the char buffer in front of the output */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final NosqlTemplate template;
+    private boolean compressed;
+
+    public NosqlExporter(NosqlTemplate template) {
+        Assert.notNull(template, "Template should not be null.");
+        this.template = template;
+    }
+
+    /**
+     * Sets whether the output is gzip compressed, false by default.
+     */
+    public NosqlExporter setCompressed(boolean compressed) {
+        this.compressed = compressed;
+        return this;
+    }
+
+    /**
+     * Writes all rows of the entity table to out and returns the number of
+     * rows written.
+     */
+    public long exportTable(Class<?> entityClass, OutputStream out) {
+        Assert.notNull(entityClass, "entityClass should not be null");
+        Assert.notNull(out, "Output stream should not be null.");
+
+        NosqlEntityInformation<?, ?> entityInformation =
+            template.getNosqlEntityInformation(entityClass);
+        return write(template.doScanRange(entityInformation,
+            ScanRange.unbounded()), out);
+    }
+
+    /**
+     * Writes all rows of the entity table to channel and returns the number
+     * of rows written.
+     */
+    public long exportTable(Class<?> entityClass,
+        WritableByteChannel channel) {
+        Assert.notNull(channel, "Channel should not be null.");
+        return exportTable(entityClass, Channels.newOutputStream(channel));
+    }
+
+    /**
+     * Writes the rows of the entity table to the channels concurrently, one
+     * thread per channel, each channel receiving the rows of a range of the
+     * shard key. Channels may receive no rows if the table can't be split
+     * in as many ranges. Returns the total number of rows written.
+     */
+    public long exportTable(Class<?> entityClass,
+        List<? extends WritableByteChannel> channels) {
+        Assert.notNull(entityClass, "entityClass should not be null");
+        Assert.notEmpty(channels, "Channels should not be empty.");
+
+        NosqlEntityInformation<?, ?> entityInformation =
+            template.getNosqlEntityInformation(entityClass);
+        List<ScanRange> ranges = template.getScanRanges(entityInformation,
+            channels.size());
+
+        CustomizableThreadFactory threadFactory =
+            new CustomizableThreadFactory("nosql-export-" +
+                entityInformation.getTableName() + "-");
+        threadFactory.setDaemon(true);
+        ExecutorService executor = Executors.newFixedThreadPool(
+            channels.size(), threadFactory);
+        try {
+            List<Future<Long>> futures = new ArrayList<>(channels.size());
+            for (int i = 0; i < channels.size(); i++) {
+                // channels without a range still get a valid empty output
+                Iterable<MapValue> rows = i < ranges.size() ?
+                    template.doScanRange(entityInformation, ranges.get(i)) :
+                    new ArrayList<>();
+                OutputStream out = Channels.newOutputStream(channels.get(i));
+                futures.add(executor.submit(() -> write(rows, out)));
+            }
+            long count = 0;
+            for (Future<Long> future : futures) {
+                count += future.get();
+            }
+            return count;
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Export of table " +
+                entityInformation.getTableName() + " failed.", cause);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Export of table " +
+                entityInformation.getTableName() + " was interrupted.", ie);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Writes the results of a native query to out and returns the number of
+     * results written. The entity class gives the table defaults used to
+     * run the query, params are bound by name.
+     */
+    public long exportQuery(Class<?> entityClass, String query,
+        Map<String, Object> params, OutputStream out) {
+        Assert.notNull(entityClass, "entityClass should not be null");
+        Assert.hasText(query, "Query should not be null or empty.");
+        Assert.notNull(out, "Output stream should not be null.");
+
+        return write(template.runQueryJavaParams(
+            template.getNosqlEntityInformation(entityClass), query, params),
+            out);
+    }
+
+    /**
+     * Writes the results of a native query to channel and returns the
+     * number of results written.
+     */
+    public long exportQuery(Class<?> entityClass, String query,
+        Map<String, Object> params, WritableByteChannel channel) {
+        Assert.notNull(channel, "Channel should not be null.");
+        return exportQuery(entityClass, query, params,
+            Channels.newOutputStream(channel));
+    }
+
+    private long write(Iterable<MapValue> rows, OutputStream out) {
+        long count = 0;
+        try {
+            GZIPOutputStream gzip = compressed ?
+                new GZIPOutputStream(out, BUFFER_SIZE) : null;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(
+                gzip != null ? gzip : out, StandardCharsets.UTF_8),
+                BUFFER_SIZE);
+            for (MapValue row : rows) {
+                writer.write(flatten(row).toJson());
+                writer.write('\n');
+                count++;
+            }
+            writer.flush();
+            if (gzip != null) {
+                gzip.finish();
+            }
+            out.flush();
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Export failed after " + count +
+                " rows.", ioe);
+        }
+        return count;
+    }
+
+    /* Moves the fields of the JSON column to the top level. */
+    private static MapValue flatten(MapValue row) {
+        FieldValue json = row.get(NosqlTemplateBase.JSON_COLUMN);
+        if (!(json instanceof MapValue)) {
+            return row;
+        }
+        MapValue flat = new MapValue(row.size() + json.asMap().size());
+        for (Map.Entry<String, FieldValue> field : row.entrySet()) {
+            if (!NosqlTemplateBase.JSON_COLUMN.equals(field.getKey())) {
+                flat.put(field.getKey(), field.getValue());
+            }
+        }
+        for (Map.Entry<String, FieldValue> field : json.asMap().entrySet()) {
+            flat.put(field.getKey(), field.getValue());
+        }
+        return flat;
+    }
+}
@@ -0,0 +1,121 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.core;
+
+import java.util.regex.Pattern;
+
+import oracle.nosql.driver.ops.Result;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Names of the Micrometer observations made when an
+ * {@link ObservationRegistry} is set with
+ * {@link com.oracle.nosql.spring.data.config.NosqlDbConfig#setObservationRegistry(ObservationRegistry)},
+ * and of their key values. With a tracing bridge, like
+ * micrometer-tracing-bridge-otel for OpenTelemetry, each observation is a
+ * span:
+ * <ul>
+ *     <li>{@link #REPOSITORY_OBSERVATION} for each repository method
+ *     invocation</li>
+ *     <li>{@link #REQUEST_OBSERVATION} for each request sent by a
+ *     template: get, put, delete, writeMultiple, prepare of a statement
+ *     not in the cache, query batch and DDL. Requests sent by the thread
+ *     invoking a repository method are children of its span.</li>
+ * </ul>
+ * Statements are sanitized, string and number literals are replaced by
+ * {@code ?}.
+ *
+ * @since 2.3.0
+ */
+public final class NosqlObservations {
+
+    public static final String REPOSITORY_OBSERVATION =
+        "spring.data.nosql.repository";
+    public static final String REQUEST_OBSERVATION =
+        "spring.data.nosql.request";
+
+    /* low cardinality keys */
+    public static final String DB_SYSTEM = "db.system";
+    public static final String DB_SYSTEM_VALUE = "oracle_nosql";
+    public static final String OPERATION = "db.operation.name";
+    public static final String TABLE = "db.collection.name";
+    public static final String REPOSITORY_METHOD =
+        "spring.data.repository.method";
+
+    /* high cardinality keys */
+    public static final String STATEMENT = "db.query.text";
+    public static final String BATCH_NUMBER = "nosql.query.batch";
+    public static final String ROWS = "nosql.rows";
+    public static final String READ_UNITS = "nosql.read_units";
+    public static final String WRITE_UNITS = "nosql.write_units";
+
+    private static final Pattern LITERALS = Pattern.compile(
+        "'(?:[^'\\\\]|\\\\.|'')*'|\"(?:[^\"\\\\]|\\\\.)*\"|" +
+            "\\b\\d+(?:\\.\\d+)?(?:[eE][+-]?\\d+)?\\b");
+
+    private NosqlObservations() {
+    }
+
+    /**
+     * Returns the statement with its string and number literals replaced
+     * by {@code ?}, null if statement is null.
+     */
+    public static String sanitize(String statement) {
+        return statement == null ? null :
+            LITERALS.matcher(statement).replaceAll("?");
+    }
+
+    /**
+     * Returns a started observation of a request, Observation.NOOP if
+     * registry is null or a no-op registry. batch is the number of a query
+     * batch, starting at 1, or 0.
+     */
+    static Observation startRequest(ObservationRegistry registry,
+        String operation, String tableName, String statement, int batch) {
+        Observation observation = Observation.createNotStarted(
+            REQUEST_OBSERVATION, registry);
+        if (observation.isNoop()) {
+            return observation;
+        }
+        observation.contextualName("nosql " + operation +
+                (tableName != null ? " " + tableName : ""))
+            .lowCardinalityKeyValue(DB_SYSTEM, DB_SYSTEM_VALUE)
+            .lowCardinalityKeyValue(OPERATION, operation)
+            .lowCardinalityKeyValue(TABLE,
+                tableName != null ? tableName : "");
+        if (statement != null) {
+            observation.highCardinalityKeyValue(STATEMENT,
+                sanitize(statement));
+        }
+        if (batch > 0) {
+            observation.highCardinalityKeyValue(BATCH_NUMBER,
+                String.valueOf(batch));
+        }
+        return observation.start();
+    }
+
+    /**
+     * Stops the observation of a request with the units of result, which
+     * may be null.
+     */
+    static void stopRequest(Observation observation, Result result,
+        int rows) {
+        if (observation.isNoop()) {
+            return;
+        }
+        observation.highCardinalityKeyValue(ROWS, String.valueOf(rows));
+        if (result != null) {
+            observation.highCardinalityKeyValue(READ_UNITS,
+                    String.valueOf(result.getReadUnitsInternal()))
+                .highCardinalityKeyValue(WRITE_UNITS,
+                    String.valueOf(result.getWriteUnitsInternal()));
+        }
+        observation.stop();
+    }
+}
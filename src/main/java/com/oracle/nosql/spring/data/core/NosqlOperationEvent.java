@@ -0,0 +1,126 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import oracle.nosql.driver.ops.Result;
+
+/**
+ * Java Flight Recorder event of a request sent by a template: get, put,
+ * delete, writeMultiple, prepare, query batch or DDL. The duration includes
+ * retries, rate limiting and hedges. Events are recorded by any running
+ * recording unless disabled or given a threshold in its settings with the
+ * name com.oracle.nosql.spring.data.Operation. When no recording is
+ * running events cost an allocation the JIT usually removes.
+ *
+ * @since 2.3.0
+ */
+@Name("com.oracle.nosql.spring.data.Operation")
+@Label("NoSQL Operation")
+@Category({"Oracle NoSQL", "Spring Data"})
+@Description("Request sent to the Oracle NoSQL Database by a template")
+@StackTrace(false)
+final class NosqlOperationEvent extends Event {
+
+    static final String GET = "Get";
+    static final String PUT = "Put";
+    static final String DELETE = "Delete";
+    static final String WRITE_MULTIPLE = "WriteMultiple";
+    static final String PREPARE = "Prepare";
+    static final String QUERY = "Query";
+    static final String DDL = "DDL";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Table")
+    String tableName;
+
+    @Label("SQL Hash")
+    @Description("Hash code of the SQL or DDL statement, 0 for key " +
+        "operations")
+    int sqlHash;
+
+    @Label("Batch")
+    @Description("Number of the query batch, starting at 1, 0 for other " +
+        "operations")
+    int batch;
+
+    @Label("Rows")
+    @Description("Rows returned by gets and query batches, rows written " +
+        "by puts, deletes and writeMultiple")
+    int rows;
+
+    @Label("Read Units")
+    int readUnits;
+
+    @Label("Write Units")
+    int writeUnits;
+
+    @Label("Bytes Read")
+    @DataAmount
+    long bytesRead;
+
+    @Label("Bytes Written")
+    @DataAmount
+    long bytesWritten;
+
+    @Label("Error")
+    @Description("Class of the exception thrown, if the request failed")
+    String error;
+
+    /**
+     * Returns a started event, fields are only set if it is enabled.
+     */
+    static NosqlOperationEvent start(String operation, String tableName,
+        String statement, int batch) {
+        NosqlOperationEvent event = new NosqlOperationEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            event.operation = operation;
+            event.tableName = tableName;
+            event.sqlHash = statement == null ? 0 : statement.hashCode();
+            event.batch = batch;
+        }
+        return event;
+    }
+
+    /**
+     * Commits the event with the units and sizes of result, which may be
+     * null.
+     */
+    void finish(Result result, int rowCount) {
+        if (!shouldCommit()) {
+            return;
+        }
+        rows = rowCount;
+        if (result != null) {
+            readUnits = result.getReadUnitsInternal();
+            writeUnits = result.getWriteUnitsInternal();
+            bytesRead = result.getReadKBInternal() * 1024L;
+            bytesWritten = result.getWriteKBInternal() * 1024L;
+        }
+        commit();
+    }
+
+    /**
+     * Commits the event of a failed request.
+     */
+    void failed(Throwable t) {
+        if (shouldCommit()) {
+            error = t.getClass().getName();
+            commit();
+        }
+    }
+}
@@ -6,13 +6,18 @@
  */
 package com.oracle.nosql.spring.data.core;
 
+import java.util.function.Consumer;
+
 import oracle.nosql.driver.values.MapValue;
 
 import com.oracle.nosql.spring.data.NosqlDbFactory;
 import com.oracle.nosql.spring.data.core.convert.MappingNosqlConverter;
 import com.oracle.nosql.spring.data.core.query.NosqlQuery;
+import com.oracle.nosql.spring.data.core.query.Update;
 import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
 
+import io.micrometer.observation.ObservationRegistry;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -20,10 +25,23 @@ import org.springframework.data.domain.Sort;
 public interface NosqlOperations {
 
     /**
-     * Creates a table for the given entity type if it doesn't exist.
+     * Creates a table for the given entity type if it doesn't exist and
+     * the indexes declared with
+     * {@link com.oracle.nosql.spring.data.core.mapping.NosqlIndex} that
+     * don't exist on the table.
      */
     boolean createTableIfNotExists(NosqlEntityInformation<?, ?> entityInformation);
 
+    /**
+     * Checks and creates the table of the entity if it doesn't exist,
+     * according to the configured
+     * {@link com.oracle.nosql.spring.data.config.TableCreationMode}: right
+     * away, in the background or on first use. Used by repositories.
+     *
+     * @since 2.3.0
+     */
+    void prepareTable(NosqlEntityInformation<?, ?> entityInformation);
+
 
     /**
      * Clears the cache of prepared statements for this repository.
@@ -76,6 +94,29 @@ public interface NosqlOperations {
     <T, ID> void update(NosqlEntityInformation<T, ID> entityInformation,
         T entity);
 
+    /**
+     * Updates only the given fields of the row with the given id, without
+     * reading or rewriting the rest of the row. Returns the number of rows
+     * updated, 0 if there is no row with the id.
+     *
+     * @since 2.3.0
+     */
+    <T, ID> int updateFields(NosqlEntityInformation<T, ID> entityInformation,
+        ID id, Update update);
+
+    /**
+     * Atomically adds delta to the numeric field of the row with the given
+     * id, in one round trip and without rewriting the rest of the row.
+     * Field is a property path of the entity, a null or missing field is
+     * set to delta.
+     * Returns the new value of the field or null if there is no row with the
+     * id.
+     *
+     * @since 2.3.0
+     */
+    <T, ID> Number increment(NosqlEntityInformation<T, ID> entityInformation,
+        ID id, String field, Number delta);
+
     /**
      * Returns a result of all the entities in the table. Not recommended,
      * unless table is known to contain a small amount of rows. Instead use
@@ -154,4 +195,43 @@ public interface NosqlOperations {
 
     <T, ID> Iterable<T> delete(NosqlEntityInformation<T, ID> entityInformation,
         NosqlQuery query);
-}
\ No newline at end of file
+
+    /**
+     * Scans all the entities of the table using up to parallelism concurrent
+     * queries, each one over a range of the shard key, and passes them to
+     * consumer. The consumer is called concurrently from different threads
+     * and must be thread safe. At most one batch of results per query is
+     * kept in memory. Returns the number of entities scanned.
+     *
+     * @since 2.3.0
+     */
+    <T> long parallelScan(Class<T> entityClass, int parallelism,
+        Consumer<? super T> consumer);
+
+    /**
+     * Scans all the entities of the given table using up to parallelism
+     * concurrent queries, see
+     * {@link #parallelScan(Class, int, Consumer)}.
+     *
+     * @since 2.3.0
+     */
+    <T> long parallelScan(NosqlEntityInformation<T, ?> entityInformation,
+        int parallelism, Consumer<? super T> consumer);
+
+    /**
+     * Returns the cache of the results of repository methods annotated with
+     * {@link com.oracle.nosql.spring.data.repository.NosqlCacheable}, or
+     * null if it is disabled.
+     *
+     * @since 2.3.0
+     */
+    QueryResultCache getQueryResultCache();
+
+    /**
+     * Returns the registry of the observations of repository methods and
+     * requests, or null if nothing is observed.
+     *
+     * @since 2.3.0
+     */
+    ObservationRegistry getObservationRegistry();
+}
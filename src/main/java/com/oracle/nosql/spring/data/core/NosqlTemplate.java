@@ -7,11 +7,23 @@
 package com.oracle.nosql.spring.data.core;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -36,6 +48,7 @@ import com.oracle.nosql.spring.data.config.NosqlDbConfig;
 import com.oracle.nosql.spring.data.core.convert.MappingNosqlConverter;
 import com.oracle.nosql.spring.data.core.mapping.NosqlPersistentEntity;
 import com.oracle.nosql.spring.data.core.query.NosqlQuery;
+import com.oracle.nosql.spring.data.core.query.Update;
 import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
 
 import org.apache.commons.lang3.reflect.FieldUtils;
@@ -47,6 +60,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.lang.NonNull;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.Assert;
 
 public class NosqlTemplate
@@ -54,6 +68,10 @@ public class NosqlTemplate
     implements NosqlOperations {
 
     private final SpelAwareProxyProjectionFactory projectionFactory;
+    /* null when dirty tracking is disabled */
+    private final DirtyTracker dirtyTracker;
+    /* created on first parallel scan */
+    private ExecutorService scanExecutor;
 
 
     public static NosqlTemplate create(NosqlDbConfig nosqlDBConfig)
@@ -76,6 +94,17 @@ public class NosqlTemplate
 
         super(nosqlDbFactory, mappingNosqlConverter);
         this.projectionFactory = new SpelAwareProxyProjectionFactory();
+        this.dirtyTracker = nosqlDbFactory.isDirtyTracking() ?
+            new DirtyTracker() : null;
+    }
+
+    /**
+     * Returns the dirty tracker of this template, with the number of writes
+     * avoided, or null if dirty tracking is not enabled, see
+     * {@link NosqlDbConfig#setDirtyTracking(boolean)}.
+     */
+    public DirtyTracker getDirtyTracker() {
+        return dirtyTracker;
     }
 
     @Override
@@ -93,9 +122,7 @@ public class NosqlTemplate
     @Override
     public boolean createTableIfNotExists(
         NosqlEntityInformation<?, ?> entityInformation) {
-        boolean isTableExist = doCheckExistingTable(entityInformation);
-        // if table does not exist create
-        return (!isTableExist) ? doCreateTable(entityInformation) : true;
+        return doCreateTableIfNotExists(entityInformation);
     }
 
     @SuppressWarnings("unchecked")
@@ -124,6 +151,17 @@ public class NosqlTemplate
         final MapValue row = mappingNosqlConverter.convertObjToRow(
             entity, entityInformation.isAutoGeneratedId());
 
+        DirtyTracker.WriteMark mark = isTracked(entityInformation) ?
+            dirtyTracker.beforeWrite(entityInformation.getTableName()) : null;
+        Map<String, Long> hashes = null;
+        if (mark != null && !entityInformation.isAutoGeneratedId()) {
+            hashes = DirtyTracker.hashFields(row);
+            if (writeChangedFields(entityInformation, entity, row, hashes)) {
+                dirtyTracker.trackWritten(mark, entity, hashes);
+                return entity;
+            }
+        }
+
         PutResult putRes = doPut(entityInformation, row, false);
 
         FieldValue id;
@@ -137,8 +175,15 @@ public class NosqlTemplate
             // the result
             // id is set to the same object and returned
             entity = populateIdIfNecessary(entity, id);
+            if (mark != null) {
+                hashes = DirtyTracker.hashFields(
+                    row.put(entityInformation.getIdColumnName(), id));
+            }
         }
 
+        if (mark != null) {
+            dirtyTracker.trackWritten(mark, entity, hashes);
+        }
         return entity;
     }
 
@@ -167,7 +212,160 @@ public class NosqlTemplate
         final MapValue row = mappingNosqlConverter
             .convertObjToRow(entity, false);
 
-        doUpdate(entityInformation, row);
+        if (!isTracked(entityInformation)) {
+            doUpdate(entityInformation, row);
+            return;
+        }
+
+        DirtyTracker.WriteMark mark =
+            dirtyTracker.beforeWrite(entityInformation.getTableName());
+        Map<String, Long> hashes = DirtyTracker.hashFields(row);
+        if (writeChangedFields(entityInformation, entity, row, hashes) ||
+            doUpdate(entityInformation, row)) {
+            dirtyTracker.trackWritten(mark, entity, hashes);
+        }
+    }
+
+    /**
+     * Saves only what changed in a tracked entity: nothing if no field
+     * changed or only the changed fields if they are few enough. Returns
+     * false if the whole row must be written.
+     */
+    private boolean writeChangedFields(
+        NosqlEntityInformation<?, ?> entityInformation, Object entity,
+        MapValue row, Map<String, Long> hashes) {
+
+        String tableName = entityInformation.getTableName();
+        Map<String, Long> snapshot =
+            dirtyTracker.getSnapshot(tableName, entity);
+        if (snapshot == null) {
+            return false;
+        }
+
+        Set<String> changed = DirtyTracker.getChangedFields(snapshot, hashes);
+        if (changed.isEmpty()) {
+            LOG.debug("skip save of unchanged entity in table {}", tableName);
+            dirtyTracker.writeAvoided();
+            return true;
+        }
+        if (changed.size() >
+            hashes.size() * DirtyTracker.PARTIAL_UPDATE_MAX_RATIO) {
+            dirtyTracker.fullWrite();
+            return false;
+        }
+
+        String jsonPrefix = JSON_COLUMN + ".";
+        MapValue json = new MapValue();
+        Map<String, FieldValue> columnValues = new HashMap<>();
+        for (String field : changed) {
+            FieldValue value;
+            if (field.startsWith(jsonPrefix)) {
+                String name = field.substring(jsonPrefix.length());
+                value = row.get(JSON_COLUMN).asMap().get(name);
+                if (value != null) {
+                    json.put(name, value);
+                }
+            } else {
+                // key fields are never updated in place
+                value = entityInformation.getColumns().containsKey(field) ?
+                    row.get(field) : null;
+                if (value != null) {
+                    columnValues.put(field, value);
+                }
+            }
+            if (value == null) {
+                // removed fields need the whole row to be rewritten
+                dirtyTracker.fullWrite();
+                return false;
+            }
+        }
+
+        MapValue primaryKey = new MapValue();
+        entityInformation.getShardKeys().keySet()
+            .forEach(key -> primaryKey.put(key, row.get(key)));
+        entityInformation.getNonShardKeys().keySet()
+            .forEach(key -> primaryKey.put(key, row.get(key)));
+        Map<String, MapValue> jsonParents = json.size() == 0 ?
+            Collections.emptyMap() : Collections.singletonMap("", json);
+
+        LOG.debug("update {} changed fields in table {}", changed.size(),
+            tableName);
+        if (doUpdateFieldValues(entityInformation, primaryKey, columnValues,
+            jsonParents) == 0) {
+            // the row is gone, put it back
+            dirtyTracker.fullWrite();
+            return false;
+        }
+        dirtyTracker.partialUpdate();
+        return true;
+    }
+
+    /**
+     * Returns true if the entities of the table are dirty tracked: dirty
+     * tracking is enabled and the table has no TTL, since expired rows
+     * would look unchanged.
+     */
+    private boolean isTracked(NosqlEntityInformation<?, ?> entityInformation) {
+        return dirtyTracker != null &&
+            (entityInformation.getTtl() == null ||
+                entityInformation.getTtl().getValue() == 0);
+    }
+
+    /**
+     * Returns the write count of the table to track entities read from it
+     * with, or -1 if they are not tracked.
+     */
+    private long getWriteCount(NosqlEntityInformation<?, ?> entityInformation) {
+        return isTracked(entityInformation) ?
+            dirtyTracker.getWriteCount(entityInformation.getTableName()) : -1;
+    }
+
+    /**
+     * Reads the entity from a row and takes a snapshot of the row if the
+     * entity is tracked, writeCount is the one returned by
+     * {@link #getWriteCount(NosqlEntityInformation)} before the read.
+     */
+    private <T> T read(Class<T> type, MapValue row, long writeCount) {
+        T entity = getConverter().read(type, row);
+        if (writeCount >= 0 && entity != null) {
+            dirtyTracker.track(entity, DirtyTracker.hashFields(row),
+                writeCount);
+        }
+        return entity;
+    }
+
+    @Override
+    protected void tableWritten(String tableName) {
+        super.tableWritten(tableName);
+        if (dirtyTracker != null) {
+            dirtyTracker.written(tableName);
+        }
+    }
+
+    @Override
+    public <T, ID> int updateFields(
+        NosqlEntityInformation<T, ID> entityInformation, ID id,
+        Update update) {
+
+        Assert.notNull(entityInformation, "Entity information " +
+            "should not be null.");
+
+        LOG.debug("execute updateFields in table {}",
+            entityInformation.getTableName());
+        return doUpdateFields(entityInformation, id, update);
+    }
+
+    @Override
+    public <T, ID> Number increment(
+        NosqlEntityInformation<T, ID> entityInformation, ID id, String field,
+        Number delta) {
+
+        Assert.notNull(entityInformation, "Entity information " +
+            "should not be null.");
+
+        LOG.debug("execute increment in table {}",
+            entityInformation.getTableName());
+        return toNumber(doIncrement(entityInformation, id, field, delta));
     }
 
     @Override
@@ -234,11 +432,16 @@ public class NosqlTemplate
             .forEach(dr -> wmReq.add(dr, false));
 
         try {
-            nosqlClient.writeMultiple(wmReq);
+            record(NosqlOperationEvent.WRITE_MULTIPLE, tableName, null, 0,
+                () -> nosqlWriteClient.writeMultiple(wmReq),
+                res -> (int) res.getResults().stream()
+                    .filter(r -> r.getSuccess()).count());
         } catch (NoSQLException nse) {
             LOG.error("WriteMultiple: table: {}", wmReq.getTableName());
             LOG.error(nse.getMessage());
             throw MappingNosqlConverter.convert(nse);
+        } finally {
+            tableWritten(tableName);
         }
     }
 
@@ -259,6 +462,8 @@ public class NosqlTemplate
 
         TableResult tableRes = doTableRequest(null, tableReq);
         psCache.clear();
+        tableWritten(tableName);
+        nosqlDbFactory.getTableRateLimiters().remove(tableName);
 
         return tableRes.getTableState() == TableResult.State.DROPPED ||
             tableRes.getTableState() == TableResult.State.DROPPING;
@@ -296,10 +501,12 @@ public class NosqlTemplate
         final MapValue row = mappingNosqlConverter
             .convertIdToPrimaryKey(idColumnName, id);
 
-        GetResult getRes = doGet(entityInformation, row);
+        long writeCount = getWriteCount(entityInformation);
+        MapValue value = readBatcher != null ?
+            PointReadBatcher.join(readBatcher.get(entityInformation, row)) :
+            doGet(entityInformation, row).getValue();
 
-        return mappingNosqlConverter.read(entityInformation.getJavaType(),
-            getRes.getValue());
+        return read(entityInformation.getJavaType(), value, writeCount);
     }
 
     @Override
@@ -310,6 +517,21 @@ public class NosqlTemplate
             "should not be null.");
         Assert.notNull(ids, "Id list should not be null");
 
+        if (readBatcher != null) {
+            // all gets are queued first, so that they share batches
+            final String idColumnName = mappingNosqlConverter
+                .getIdProperty(entityInformation.getJavaType()).getName();
+            long writeCount = getWriteCount(entityInformation);
+            List<CompletableFuture<MapValue>> rows = new ArrayList<>();
+            ids.forEach(id -> rows.add(readBatcher.get(entityInformation,
+                mappingNosqlConverter.convertIdToPrimaryKey(idColumnName,
+                    id))));
+            return rows.stream()
+                .map(row -> read(entityInformation.getJavaType(),
+                    PointReadBatcher.join(row), writeCount))
+                .collect(Collectors.toList());
+        }
+
         //todo usage of limited parallel streams (10000+ fails) requires
         // external libs
         return IterableUtil.getIterableFromStream(
@@ -362,10 +584,11 @@ public class NosqlTemplate
         String sql = String.format(TEMPLATE_SELECT_ALL,
             entityInformation.getTableName());
 
+        long writeCount = getWriteCount(entityInformation);
         Iterable<MapValue> items = runQuery(entityInformation, sql);
         Stream<T> result = IterableUtil.getStreamFromIterable(items)
-                .map(d -> getConverter()
-                    .read(entityInformation.getJavaType(), d));
+                .map(d -> read(entityInformation.getJavaType(), d,
+                    writeCount));
         return IterableUtil.getIterableFromStream(result);
     }
 
@@ -409,11 +632,12 @@ public class NosqlTemplate
         sql += " " + orderBySql(entityInformation, sort);
 //        log.debug("findAll(" + tableName + ", " + sort + "): SQL: " + sql);
 
+        long writeCount = getWriteCount(entityInformation);
         Iterable<MapValue> items = runQuery(entityInformation, sql);
 
         return IterableUtil.getIterableFromStream(
             IterableUtil.getStreamFromIterable(items)
-            .map(d -> getConverter().read(entityInformation.getJavaType(), d)));
+            .map(d -> read(entityInformation.getJavaType(), d, writeCount)));
     }
 
     @Override
@@ -428,11 +652,12 @@ public class NosqlTemplate
         String sql = limitOffsetSql(entityInformation, pageable, params);
 //        log.debug("findAll(" + tableName + ", " + pageable + "): SQL: " + sql);
 
+        long writeCount = getWriteCount(entityInformation);
         Iterable<MapValue> items = runQueryNosqlParams(entityInformation, sql,
             params);
 
         List<T> result = IterableUtil.getStreamFromIterable(items)
-            .map(d -> getConverter().read(entityInformation.getJavaType(), d))
+            .map(d -> read(entityInformation.getJavaType(), d, writeCount))
             .collect(Collectors.toList());
 
         return new PageImpl<>(result, pageable, count(entityInformation));
@@ -505,6 +730,9 @@ public class NosqlTemplate
             if (parentPp != null && parentPp.isIdProperty()) {
                 return pp.getName();
             }
+            if (pp.isNosqlColumn() && pp.equals(parentPp)) {
+                return pp.getName();
+            }
         }
 
         return JSON_COLUMN + "." + property;
@@ -591,12 +819,15 @@ public class NosqlTemplate
             ? entityType
             : targetType;
 
+        // only entities are tracked, not projections
+        long writeCount = typeToRead == entityType &&
+            !targetType.isInterface() ? getWriteCount(entityInformation) : -1;
         Iterable<MapValue> results = doExecuteMapValueQuery(query,
             entityInformation);
 
         Stream<T> resStream = IterableUtil.getStreamFromIterable(results)
             .map(d -> {
-                Object source = getConverter().read(typeToRead, d);
+                Object source = read(typeToRead, d, writeCount);
                 return targetType.isInterface()
                     ? projectionFactory.createProjection(targetType, source)
                     : (T) source;
@@ -605,6 +836,113 @@ public class NosqlTemplate
         return IterableUtil.getIterableFromStream(resStream);
     }
 
+    @Override
+    public <T> long parallelScan(Class<T> entityClass, int parallelism,
+        Consumer<? super T> consumer) {
+        Assert.notNull(entityClass, "entityClass should not be null");
+
+        return parallelScan(getNosqlEntityInformation(entityClass),
+            parallelism, consumer);
+    }
+
+    @Override
+    public <T> long parallelScan(
+        NosqlEntityInformation<T, ?> entityInformation, int parallelism,
+        Consumer<? super T> consumer) {
+
+        Assert.notNull(entityInformation, "Entity information " +
+            "should not be null.");
+        Assert.notNull(consumer, "Consumer should not be null.");
+        Assert.isTrue(parallelism > 0, "Parallelism should be greater than " +
+            "0.");
+
+        List<ScanRange> ranges = getScanRanges(entityInformation,
+            parallelism);
+        AtomicLong count = new AtomicLong();
+        if (ranges.size() == 1) {
+            scanRange(entityInformation, ranges.get(0), consumer, count);
+            return count.get();
+        }
+
+        ExecutorService executor = getScanExecutor();
+        List<Future<?>> futures = new ArrayList<>(ranges.size());
+        try {
+            for (ScanRange range : ranges) {
+                futures.add(executor.submit(() ->
+                    scanRange(entityInformation, range, consumer, count)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Parallel scan of table " +
+                entityInformation.getTableName() + " failed.", cause);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Parallel scan of table " +
+                entityInformation.getTableName() + " was interrupted.", ie);
+        } finally {
+            // stops remaining scans if one of them failed
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return count.get();
+    }
+
+    private <T> void scanRange(NosqlEntityInformation<T, ?> entityInformation,
+        ScanRange range, Consumer<? super T> consumer, AtomicLong count) {
+        for (MapValue row : doScanRange(entityInformation, range)) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            consumer.accept(getConverter().read(
+                entityInformation.getJavaType(), row));
+            count.incrementAndGet();
+        }
+    }
+
+    /*
+     * At most scan parallelism threads are shared by the scans of this
+     * template and are not kept once the scans are done. Ranges submitted
+     * while all threads are busy, or once the template is destroyed, run
+     * in the calling thread.
+     */
+    private synchronized ExecutorService getScanExecutor() {
+        if (scanExecutor == null) {
+            int parallelism = nosqlDbFactory.getScanParallelism();
+            CustomizableThreadFactory threadFactory =
+                new CustomizableThreadFactory("nosql-scan-");
+            threadFactory.setDaemon(true);
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism,
+                parallelism, 30, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                threadFactory, (range, pool) -> range.run());
+            executor.allowCoreThreadTimeOut(true);
+            scanExecutor = executor;
+        }
+        return scanExecutor;
+    }
+
+    /**
+     * Stops the threads of the parallel scans.
+     */
+    @Override
+    public void destroy() {
+        synchronized (this) {
+            if (scanExecutor != null) {
+                scanExecutor.shutdown();
+            }
+        }
+        super.destroy();
+    }
+
     public NoSQLHandle getNosqlClient() {
         return nosqlClient;
     }
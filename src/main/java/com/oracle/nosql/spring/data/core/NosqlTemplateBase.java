@@ -6,19 +6,42 @@
  */
 package com.oracle.nosql.spring.data.core;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 import oracle.nosql.driver.NoSQLException;
 import oracle.nosql.driver.NoSQLHandle;
+import oracle.nosql.driver.RequestTimeoutException;
 import oracle.nosql.driver.TableNotFoundException;
 import oracle.nosql.driver.TimeToLive;
 import oracle.nosql.driver.ops.DeleteRequest;
 import oracle.nosql.driver.ops.DeleteResult;
+import oracle.nosql.driver.ops.GetIndexesRequest;
+import oracle.nosql.driver.ops.GetIndexesResult;
 import oracle.nosql.driver.ops.GetRequest;
 import oracle.nosql.driver.ops.GetResult;
 import oracle.nosql.driver.ops.GetTableRequest;
@@ -28,29 +51,50 @@ import oracle.nosql.driver.ops.PreparedStatement;
 import oracle.nosql.driver.ops.PutRequest;
 import oracle.nosql.driver.ops.PutResult;
 import oracle.nosql.driver.ops.QueryRequest;
+import oracle.nosql.driver.ops.QueryResult;
+import oracle.nosql.driver.ops.Result;
 import oracle.nosql.driver.ops.TableRequest;
 import oracle.nosql.driver.ops.TableResult;
+import oracle.nosql.driver.ops.WriteMultipleRequest;
+import oracle.nosql.driver.ops.WriteMultipleResult;
 import oracle.nosql.driver.util.LruCache;
 import oracle.nosql.driver.values.ArrayValue;
+import oracle.nosql.driver.values.DoubleValue;
 import oracle.nosql.driver.values.FieldValue;
 import oracle.nosql.driver.values.JsonOptions;
 import oracle.nosql.driver.values.JsonUtils;
+import oracle.nosql.driver.values.LongValue;
 import oracle.nosql.driver.values.MapValue;
+import oracle.nosql.driver.values.NumberValue;
 
 import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlRetryPolicy;
+import com.oracle.nosql.spring.data.config.TableCreationMode;
 import com.oracle.nosql.spring.data.core.convert.MappingNosqlConverter;
+import com.oracle.nosql.spring.data.core.mapping.NosqlIndexDefinition;
+import com.oracle.nosql.spring.data.core.mapping.NosqlPersistentProperty;
 import com.oracle.nosql.spring.data.core.query.NosqlQuery;
+import com.oracle.nosql.spring.data.core.query.Update;
 import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.data.mapping.PersistentPropertyPath;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 
 public abstract class NosqlTemplateBase
-    implements ApplicationContextAware {
+    implements ApplicationContextAware, SmartInitializingSingleton,
+    DisposableBean {
 
     public static final String JSON_COLUMN = "kv_json_";
 
@@ -72,15 +116,45 @@ public abstract class NosqlTemplateBase
     static final String TEMPLATE_COUNT =
         "SELECT count(*) FROM %s ";
     static final String TEMPLATE_UPDATE =
-        "DECLARE $id %s; $json JSON; " +
-        "UPDATE %s t SET t." + JSON_COLUMN + " = $json WHERE t.%s = $id";
+        "DECLARE $id %s; $json JSON; %s" +
+        "UPDATE %s t SET t." + JSON_COLUMN + " = $json%s WHERE t.%s = $id";
+    static final String TEMPLATE_UPDATE_FIELDS =
+        "DECLARE %s; UPDATE %s t %s WHERE %s";
+    /* sets a JSON field to a value if it is missing or null */
+    static final String TEMPLATE_PUT_MISSING =
+        "PUT t." + JSON_COLUMN + "%1$s CASE WHEN t." + JSON_COLUMN +
+        ".%2$s != null THEN {} ELSE {\"%3$s\" : %4$s} END";
+    static final String TEMPLATE_INCREMENT =
+        "DECLARE %1$s; UPDATE %2$s t %3$s WHERE %4$s " +
+        "RETURNING %5$s AS kv_value_";
+    static final String TEMPLATE_INCREMENT_COLUMN =
+        "SET %1$s = CASE WHEN %1$s IS NULL THEN $kv_delta_ " +
+        "ELSE %1$s + $kv_delta_ END";
+    static final String TEMPLATE_GET_MULTIPLE =
+        "DECLARE $kv_keys ARRAY(%s); SELECT * FROM %s t WHERE %s IN $kv_keys[]";
     static final String TEMPLATE_TTL_CREATE = "USING TTL %s";
+    static final String TEMPLATE_SCAN_BOUND =
+        "SELECT t.%s FROM %s t ORDER BY t.%s %s LIMIT 1";
 
     protected final NosqlDbFactory nosqlDbFactory;
     protected final NoSQLHandle nosqlClient;
+    protected final NoSQLHandle nosqlReadClient;
+    protected final NoSQLHandle nosqlWriteClient;
     protected final MappingNosqlConverter mappingNosqlConverter;
     protected LruCache<String, PreparedStatement> psCache;
     protected ApplicationContext applicationContext;
+    private final Map<String, TableRetryStats> retryStats =
+        new ConcurrentHashMap<>();
+    private final Map<String, PendingTable> pendingTables =
+        new ConcurrentHashMap<>();
+    private ThreadPoolExecutor tableCreationExecutor;
+    private final QueryResultCache queryResultCache;
+    private final SingleFlight<String, GetResult> getCoalescer;
+    private final SingleFlight<String, IterableUtil.FirstBatch>
+        queryCoalescer;
+    final PointReadBatcher readBatcher;
+    private final RequestHedger hedger;
+    private final ObservationRegistry observationRegistry;
 
     protected NosqlTemplateBase(NosqlDbFactory nosqlDbFactory,
         MappingNosqlConverter mappingNosqlConverter) {
@@ -88,12 +162,138 @@ public abstract class NosqlTemplateBase
         Assert.notNull(nosqlDbFactory, "NosqlDbFactory should not be null.");
         this.nosqlDbFactory = nosqlDbFactory;
         nosqlClient = nosqlDbFactory.getNosqlClient();
+        nosqlReadClient = nosqlDbFactory.getNosqlReadClient();
+        nosqlWriteClient = nosqlDbFactory.getNosqlWriteClient();
         this.mappingNosqlConverter = mappingNosqlConverter;
         LOG.debug("Create cache for prepared statements with capacity " +
             nosqlDbFactory.getQueryCacheCapacity() + " items and lifetime " +
             nosqlDbFactory.getQueryCacheLifetime() + " ms.");
         psCache = new LruCache<>(nosqlDbFactory.getQueryCacheCapacity(),
             nosqlDbFactory.getQueryCacheLifetime());
+        queryResultCache = nosqlDbFactory.getResultCacheCapacity() > 0 ?
+            new QueryResultCache(nosqlDbFactory.getResultCacheCapacity()) :
+            null;
+        getCoalescer = nosqlDbFactory.isReadCoalescing() ?
+            new SingleFlight<>() : null;
+        queryCoalescer = nosqlDbFactory.isReadCoalescing() ?
+            new SingleFlight<>() : null;
+        hedger = nosqlDbFactory.getHedgingPolicy() != null ?
+            new RequestHedger(nosqlDbFactory.getHedgingPolicy()) : null;
+        observationRegistry = nosqlDbFactory.getObservationRegistry();
+        readBatcher = nosqlDbFactory.getReadBatchWindow() > 0 ?
+            new PointReadBatcher(this, nosqlDbFactory.getReadBatchWindow(),
+                nosqlDbFactory.getReadBatchSize(),
+                nosqlDbFactory.getReadBatchParallelism()) : null;
+    }
+
+    /**
+     * Stops the threads of the template, called by Spring when the
+     * application context is closed. Subclasses stopping their own threads
+     * must call this method.
+     *
+     * @since 2.3.0
+     */
+    @Override
+    public void destroy() {
+        if (readBatcher != null) {
+            readBatcher.shutdown();
+        }
+        if (hedger != null) {
+            hedger.shutdown();
+        }
+    }
+
+    /**
+     * Returns the registry of the observations of repository methods and
+     * requests, or null if nothing is observed.
+     *
+     * @since 2.3.0
+     */
+    public ObservationRegistry getObservationRegistry() {
+        return observationRegistry;
+    }
+
+    /**
+     * Returns the cache of the results of repository methods annotated with
+     * {@link com.oracle.nosql.spring.data.repository.NosqlCacheable}, or
+     * null if it is disabled.
+     *
+     * @since 2.3.0
+     */
+    public QueryResultCache getQueryResultCache() {
+        return queryResultCache;
+    }
+
+    /**
+     * Returns the number of gets and query batches that shared the result
+     * of an identical request in flight instead of being sent, see
+     * {@link NosqlDbFactory#isReadCoalescing()}.
+     *
+     * @since 2.3.0
+     */
+    public long getCoalescedReadCount() {
+        return getCoalescer == null ? 0 :
+            getCoalescer.getSharedCount() + queryCoalescer.getSharedCount();
+    }
+
+    /**
+     * Returns the number of batches of findById calls read with a single
+     * query, see {@link NosqlDbFactory#getReadBatchWindow()}.
+     *
+     * @since 2.3.0
+     */
+    public long getReadBatchCount() {
+        return readBatcher == null ? 0 : readBatcher.getBatchCount();
+    }
+
+    /**
+     * Returns the number of distinct keys read by batches of findById
+     * calls.
+     *
+     * @since 2.3.0
+     */
+    public long getBatchedReadCount() {
+        return readBatcher == null ? 0 : readBatcher.getKeyCount();
+    }
+
+    /**
+     * Returns the number of hedged reads sent because the first read was
+     * slow, see {@link NosqlDbFactory#getHedgingPolicy()}.
+     *
+     * @since 2.3.0
+     */
+    public long getHedgeCount() {
+        return hedger == null ? 0 : hedger.getHedgeCount();
+    }
+
+    /**
+     * Returns the number of hedged reads whose result was returned, because
+     * they completed before the first read.
+     *
+     * @since 2.3.0
+     */
+    public long getHedgeWinCount() {
+        return hedger == null ? 0 : hedger.getHedgeWinCount();
+    }
+
+    /**
+     * Returns the number of hedged reads not sent because of the maximum
+     * hedge rate.
+     *
+     * @since 2.3.0
+     */
+    public long getHedgeDeniedCount() {
+        return hedger == null ? 0 : hedger.getHedgeDeniedCount();
+    }
+
+    /**
+     * Makes the cached query results of the table stale, called after every
+     * write to the table, successful or not.
+     */
+    protected void tableWritten(String tableName) {
+        if (queryResultCache != null) {
+            queryResultCache.invalidate(tableName);
+        }
     }
 
     @Override
@@ -102,6 +302,195 @@ public abstract class NosqlTemplateBase
         this.applicationContext = applicationContext;
     }
 
+    /**
+     * Waits for the tables being checked and created in the background in
+     * {@link TableCreationMode#PARALLEL} mode, once all singletons of the
+     * application context are instantiated.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (nosqlDbFactory.getTableCreationMode() ==
+            TableCreationMode.PARALLEL) {
+            awaitPendingTables();
+        }
+    }
+
+    /**
+     * Checks and creates the table of the entity, and its indexes, if it
+     * doesn't exist, as set by {@link NosqlDbFactory#getTableCreationMode()}:
+     * right away, in the background or on the first operation using the
+     * table.
+     *
+     * @since 2.3.0
+     */
+    public void prepareTable(NosqlEntityInformation<?, ?> entityInformation) {
+        Assert.notNull(entityInformation, "Entity information should not be " +
+            "null");
+
+        switch (nosqlDbFactory.getTableCreationMode()) {
+        case PARALLEL:
+            PendingTable pending = new PendingTable(entityInformation);
+            pending.background = true;
+            if (pendingTables.putIfAbsent(entityInformation.getTableName(),
+                pending) == null) {
+                getTableCreationExecutor().execute(pending::run);
+            }
+            break;
+        case LAZY:
+            pendingTables.putIfAbsent(entityInformation.getTableName(),
+                new PendingTable(entityInformation));
+            break;
+        default:
+            doCreateTableIfNotExists(entityInformation);
+        }
+    }
+
+    /**
+     * Waits up to {@link NosqlDbFactory#getTableCreationTimeout()} for all
+     * the tables being checked and created in the background. Throws
+     * IllegalStateException listing the tables that failed or are not ready.
+     *
+     * @since 2.3.0
+     */
+    public void awaitPendingTables() {
+        long timeoutMs = nosqlDbFactory.getTableCreationTimeout();
+        long start = System.currentTimeMillis();
+        List<String> errors = new ArrayList<>();
+        int count = 0;
+
+        for (Map.Entry<String, PendingTable> entry :
+            pendingTables.entrySet()) {
+            PendingTable pending = entry.getValue();
+            if (!pending.background) {
+                // lazy table, checked on first use
+                continue;
+            }
+            long remaining = timeoutMs - (System.currentTimeMillis() - start);
+            try {
+                pending.future.get(Math.max(remaining, 0),
+                    TimeUnit.MILLISECONDS);
+                pendingTables.remove(entry.getKey(), pending);
+                count++;
+            } catch (ExecutionException ee) {
+                pendingTables.replace(entry.getKey(), pending,
+                    new PendingTable(pending.entityInformation));
+                errors.add(entry.getKey() + ": " + ee.getCause().getMessage());
+            } catch (TimeoutException te) {
+                errors.add(entry.getKey() + ": not ready after " + timeoutMs +
+                    " ms");
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting " +
+                    "for tables.", ie);
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException("Check or creation of the " +
+                "following tables failed:\n" + String.join("\n", errors));
+        }
+        LOG.debug("{} tables ready in {} ms", count,
+            System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Waits for the table of the entity if it is being checked and created
+     * in the background, or checks and creates it if it was deferred to
+     * first use.
+     */
+    protected void ensureTableReady(
+        NosqlEntityInformation<?, ?> entityInformation) {
+        if (entityInformation == null || pendingTables.isEmpty()) {
+            return;
+        }
+        String tableName = entityInformation.getTableName();
+        PendingTable pending = pendingTables.get(tableName);
+        if (pending == null) {
+            return;
+        }
+
+        // the first caller of a lazy table runs the check, others wait
+        pending.run();
+        long timeoutMs = nosqlDbFactory.getTableCreationTimeout();
+        try {
+            pending.future.get(timeoutMs, TimeUnit.MILLISECONDS);
+            pendingTables.remove(tableName, pending);
+        } catch (ExecutionException ee) {
+            // retried on next use
+            pendingTables.replace(tableName, pending,
+                new PendingTable(entityInformation));
+            if (ee.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ee.getCause();
+            }
+            throw new IllegalStateException(ee.getCause());
+        } catch (TimeoutException te) {
+            throw MappingNosqlConverter.convert(new RequestTimeoutException(
+                (int) Math.min(timeoutMs, Integer.MAX_VALUE),
+                "Timed out waiting for table " + tableName));
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " +
+                "table " + tableName, ie);
+        }
+    }
+
+    private synchronized ThreadPoolExecutor getTableCreationExecutor() {
+        if (tableCreationExecutor == null) {
+            int parallelism = nosqlDbFactory.getTableCreationParallelism();
+            CustomizableThreadFactory threadFactory =
+                new CustomizableThreadFactory("nosql-table-");
+            threadFactory.setDaemon(true);
+            tableCreationExecutor = new ThreadPoolExecutor(parallelism,
+                parallelism, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                threadFactory);
+            // no threads are kept once all tables are ready
+            tableCreationExecutor.allowCoreThreadTimeOut(true);
+        }
+        return tableCreationExecutor;
+    }
+
+    /* A table checked and created in the background or on first use. */
+    private final class PendingTable {
+        private final NosqlEntityInformation<?, ?> entityInformation;
+        private final CompletableFuture<Boolean> future =
+            new CompletableFuture<>();
+        private final AtomicBoolean started = new AtomicBoolean();
+        /* submitted to the table creation executor, maybe not started */
+        private volatile boolean background;
+
+        PendingTable(NosqlEntityInformation<?, ?> entityInformation) {
+            this.entityInformation = entityInformation;
+        }
+
+        void run() {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                future.complete(doCreateTableIfNotExists(entityInformation));
+            } catch (RuntimeException re) {
+                LOG.error("Check or creation of table {} failed: {}",
+                    entityInformation.getTableName(), re.getMessage());
+                future.completeExceptionally(re);
+            }
+        }
+    }
+
+    /**
+     * Checks the table of the entity and creates it if it doesn't exist,
+     * then creates its missing indexes. Returns true if the table and the
+     * indexes are active.
+     */
+    protected boolean doCreateTableIfNotExists(
+        NosqlEntityInformation<?, ?> entityInformation) {
+        boolean isTableExist = doCheckExistingTable(entityInformation);
+        // if table does not exist create
+        boolean active = (!isTableExist) ? doCreateTable(entityInformation) :
+            true;
+        // create the missing declared indexes
+        return doCreateIndexes(entityInformation) && active;
+    }
+
     protected TableResult doTableRequest(
         NosqlEntityInformation<?, ?> entityInformation,
         TableRequest tableReq) {
@@ -114,9 +503,13 @@ public abstract class NosqlTemplateBase
         TableResult tableRes;
         try {
             LOG.debug("DDL: {}", tableReq.getStatement());
-            tableRes = nosqlClient.doTableRequest(tableReq,
-                nosqlDbFactory.getTableReqTimeout(),
-                nosqlDbFactory.getTableReqPollInterval());
+            tableRes = record(NosqlOperationEvent.DDL,
+                entityInformation != null ? entityInformation.getTableName() :
+                    tableReq.getTableName(), tableReq.getStatement(), 0,
+                () -> nosqlClient.doTableRequest(tableReq,
+                    nosqlDbFactory.getTableReqTimeout(),
+                    nosqlDbFactory.getTableReqPollInterval()),
+                res -> 0);
         } catch (NoSQLException nse) {
             LOG.error("DDL: {}", tableReq.getStatement());
             LOG.error(nse.getMessage());
@@ -158,6 +551,14 @@ public abstract class NosqlTemplateBase
             tableBuilder.append(key).append(" ").append(keyType)
                     .append(" ").append(autogen).append(",");
         });
+        entityInformation.getColumns().forEach((column, type) -> {
+            String columnType = type.name();
+            if (type == FieldValue.Type.TIMESTAMP) {
+                columnType += "(" + nosqlDbFactory.getTimestampPrecision() + ")";
+            }
+            tableBuilder.append(column).append(" ").append(columnType)
+                    .append(",");
+        });
         tableBuilder.append(JSON_COLUMN).append(" ").append("JSON").append(",");
 
         tableBuilder.append("PRIMARY KEY").append("("); //primary key open (
@@ -188,6 +589,7 @@ public abstract class NosqlTemplateBase
             .setTableLimits(entityInformation.getTableLimits(nosqlDbFactory));
 
         TableResult tableRes = doTableRequest(entityInformation, tableReq);
+        seedRateLimiter(entityInformation, tableRes);
 
         TableResult.State tableState = tableRes.getTableState();
         return tableState == TableResult.State.ACTIVE;
@@ -213,6 +615,7 @@ public abstract class NosqlTemplateBase
             if (tableResult == null) {
                 return false;
             }
+            seedRateLimiter(entityInformation, tableResult);
 
             /* If table already exist in the database compare and throw error if
                mismatch*/
@@ -264,6 +667,9 @@ public abstract class NosqlTemplateBase
 
             Map<String, String> entityOthersMap = new LinkedHashMap<>();
             entityOthersMap.put(JSON_COLUMN.toLowerCase(), "json");
+            entityInformation.getColumns().forEach((k, v) ->
+                    entityOthersMap.put(k.toLowerCase(),
+                            v.name().toLowerCase()));
 
             // convert maps to String. String format is {k1 v1, k2 v2 ...}
             String tableShards = "{" + tableShardMap.entrySet().stream()
@@ -308,6 +714,21 @@ public abstract class NosqlTemplateBase
                 errors.add(msg);
             }
 
+            // check typed columns exist and their types match
+            for (String column : entityInformation.getColumns().keySet()) {
+                String tableType = tableOthersMap.get(column.toLowerCase());
+                String entityType =
+                        entityOthersMap.get(column.toLowerCase());
+                if (tableType == null) {
+                    errors.add(String.format("'%s' column does not exist in " +
+                            "the table", column));
+                } else if (!tableType.equals(entityType)) {
+                    errors.add(String.format("Column %s type mismatch: " +
+                            "table=%s, entity=%s.", column, tableType,
+                            entityType));
+                }
+            }
+
             // check identity same
             FieldValue identity = tableSchema.get(identityField);
             if (identity != null && !entityInformation.isAutoGeneratedId()) {
@@ -318,6 +739,9 @@ public abstract class NosqlTemplateBase
                 errors.add("Identity information mismatch.");
             }
 
+            // check declared indexes that already exist match
+            checkExistingIndexes(entityInformation, errors);
+
             // TTL warning
             FieldValue ttlValue = tableSchema.get(ttlField);
             TimeToLive ttl = entityInformation.getTtl();
@@ -364,6 +788,81 @@ public abstract class NosqlTemplateBase
         return true;
     }
 
+    private void checkExistingIndexes(
+        NosqlEntityInformation<?, ?> entityInformation, List<String> errors) {
+        if (entityInformation.getIndexes().isEmpty()) {
+            return;
+        }
+        Map<String, GetIndexesResult.IndexInfo> tableIndexes =
+            doGetIndexes(entityInformation);
+        for (NosqlIndexDefinition index : entityInformation.getIndexes()) {
+            GetIndexesResult.IndexInfo info =
+                tableIndexes.get(index.getName().toLowerCase());
+            if (info != null &&
+                !index.matches(info.getFieldNames(), info.getFieldTypes())) {
+                errors.add(String.format("Index %s mismatch: table=%s, " +
+                    "entity=%s.", index.getName(),
+                    String.join(",", info.getFieldNames()),
+                    String.join(",", index.getFields())));
+            }
+        }
+    }
+
+    /**
+     * Returns the indexes of the entity table keyed by lower case index name.
+     */
+    protected Map<String, GetIndexesResult.IndexInfo> doGetIndexes(
+        NosqlEntityInformation<?, ?> entityInformation) {
+        GetIndexesRequest req = new GetIndexesRequest()
+            .setTableName(entityInformation.getTableName());
+        if (entityInformation.getTimeout() > 0) {
+            req.setTimeout(entityInformation.getTimeout());
+        }
+
+        GetIndexesResult res;
+        try {
+            res = nosqlClient.getIndexes(req);
+        } catch (NoSQLException nse) {
+            LOG.error("GetIndexes: Table: {}",
+                entityInformation.getTableName());
+            LOG.error(nse.getMessage());
+            throw MappingNosqlConverter.convert(nse);
+        }
+
+        Map<String, GetIndexesResult.IndexInfo> indexes = new HashMap<>();
+        if (res.getIndexes() != null) {
+            for (GetIndexesResult.IndexInfo info : res.getIndexes()) {
+                indexes.put(info.getIndexName().toLowerCase(), info);
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Creates the indexes declared on the entity that don't exist on its
+     * table. Returns true if all of them are active.
+     */
+    protected boolean doCreateIndexes(
+        NosqlEntityInformation<?, ?> entityInformation) {
+        if (entityInformation.getIndexes().isEmpty()) {
+            return true;
+        }
+        Map<String, GetIndexesResult.IndexInfo> tableIndexes =
+            doGetIndexes(entityInformation);
+
+        boolean active = true;
+        for (NosqlIndexDefinition index : entityInformation.getIndexes()) {
+            if (tableIndexes.containsKey(index.getName().toLowerCase())) {
+                continue;
+            }
+            TableRequest tableReq = new TableRequest().setStatement(
+                index.getCreateIndexDDL(entityInformation.getTableName()));
+            TableResult tableRes = doTableRequest(entityInformation, tableReq);
+            active &= tableRes.getTableState() == TableResult.State.ACTIVE;
+        }
+        return active;
+    }
+
     protected DeleteResult doDelete(
         NosqlEntityInformation<?, ?> entityInformation,
         MapValue primaryKey) {
@@ -378,15 +877,33 @@ public abstract class NosqlTemplateBase
 
         delReq.setDurability(entityInformation.getDurability());
 
+        ensureTableReady(entityInformation);
         DeleteResult delRes;
+        TableRateLimiter limiter = getRateLimiter(entityInformation);
 
         try {
-            delRes = nosqlClient.delete(delReq);
+            delRes = record(NosqlOperationEvent.DELETE,
+                entityInformation.getTableName(), null, 0,
+                () -> executeWithRetry(entityInformation.getTableName(), true,
+                    () -> {
+                        if (limiter == null) {
+                            return nosqlWriteClient.delete(delReq);
+                        }
+                        limiter.beforeWrite(
+                            getRequestTimeout(entityInformation));
+                        DeleteResult res = nosqlWriteClient.delete(delReq);
+                        limiter.afterRequest(res.getReadUnits(),
+                            res.getWriteUnits());
+                        return res;
+                    }),
+                res -> res.getSuccess() ? 1 : 0);
         } catch (NoSQLException nse) {
             LOG.error("Delete: table: {} key: {}", delReq.getTableName(),
                 primaryKey);
             LOG.error(nse.getMessage());
             throw MappingNosqlConverter.convert(nse);
+        } finally {
+            tableWritten(entityInformation.getTableName());
         }
 
         assert delRes != null;
@@ -413,37 +930,138 @@ public abstract class NosqlTemplateBase
 
         putReq.setDurability(entityInformation.getDurability());
 
+        // a put that generates the id is not idempotent
+        boolean idempotent = !entityInformation.isAutoGeneratedId() ||
+            row.get(entityInformation.getIdColumnName()) != null;
+
         PutResult putRes;
+        ensureTableReady(entityInformation);
+        TableRateLimiter limiter = getRateLimiter(entityInformation);
         try {
-            putRes = nosqlClient.put(putReq);
+            putRes = record(NosqlOperationEvent.PUT,
+                entityInformation.getTableName(), null, 0,
+                () -> executeWithRetry(entityInformation.getTableName(),
+                    idempotent, () -> {
+                        if (limiter == null) {
+                            return nosqlWriteClient.put(putReq);
+                        }
+                        limiter.beforeWrite(
+                            getRequestTimeout(entityInformation));
+                        PutResult res = nosqlWriteClient.put(putReq);
+                        limiter.afterRequest(res.getReadUnits(),
+                            res.getWriteUnits());
+                        return res;
+                    }),
+                res -> res.getVersion() != null ? 1 : 0);
         } catch (NoSQLException nse) {
             LOG.error("Put: table: {} key: {}", putReq.getTableName(),
                 row.get(entityInformation.getIdColumnName()));
             LOG.error(nse.getMessage());
             throw MappingNosqlConverter.convert(nse);
+        } finally {
+            tableWritten(entityInformation.getTableName());
         }
 
         assert putRes != null;
         return putRes;
     }
 
+    /**
+     * Puts rows of the same table and shard key with a single
+     * {@link WriteMultipleRequest}. The number of rows must not exceed the
+     * limit of a WriteMultipleRequest. Ids must not be generated.
+     */
+    protected WriteMultipleResult doPutMultiple(
+        NosqlEntityInformation<?, ?> entityInformation, List<MapValue> rows) {
+        WriteMultipleRequest wmReq = new WriteMultipleRequest();
+        if (entityInformation.getTimeout() > 0) {
+            wmReq.setTimeout(entityInformation.getTimeout());
+        }
+        wmReq.setDurability(entityInformation.getDurability());
+
+        for (MapValue row : rows) {
+            wmReq.add(new PutRequest()
+                .setTableName(entityInformation.getTableName())
+                .setValue(row), true);
+        }
+
+        WriteMultipleResult wmRes;
+        ensureTableReady(entityInformation);
+        TableRateLimiter limiter = getRateLimiter(entityInformation);
+        try {
+            wmRes = record(NosqlOperationEvent.WRITE_MULTIPLE,
+                entityInformation.getTableName(), null, 0,
+                () -> executeWithRetry(entityInformation.getTableName(), true,
+                    () -> {
+                        if (limiter == null) {
+                            return nosqlWriteClient.writeMultiple(wmReq);
+                        }
+                        limiter.beforeWrite(
+                            getRequestTimeout(entityInformation));
+                        WriteMultipleResult res =
+                            nosqlWriteClient.writeMultiple(wmReq);
+                        limiter.afterRequest(res.getReadUnits(),
+                            res.getWriteUnits());
+                        return res;
+                    }),
+                res -> res.getSuccess() ? rows.size() : 0);
+        } catch (NoSQLException nse) {
+            LOG.error("WriteMultiple: table: {} rows: {}",
+                entityInformation.getTableName(), rows.size());
+            LOG.error(nse.getMessage());
+            throw MappingNosqlConverter.convert(nse);
+        } finally {
+            tableWritten(entityInformation.getTableName());
+        }
+
+        assert wmRes != null;
+        return wmRes;
+    }
+
     protected GetResult doGet(NosqlEntityInformation<?, ?> entityInformation,
         MapValue primaryKey) {
 
-        GetRequest getReq = new GetRequest()
-            .setTableName(entityInformation.getTableName())
-            .setKey(primaryKey);
+        // hedges need their own request
+        Supplier<GetRequest> newRequest = () -> {
+            GetRequest req = new GetRequest()
+                .setTableName(entityInformation.getTableName())
+                .setKey(primaryKey);
 
-        if (entityInformation.getTimeout() > 0) {
-            getReq.setTimeout(entityInformation.getTimeout());
-        }
+            if (entityInformation.getTimeout() > 0) {
+                req.setTimeout(entityInformation.getTimeout());
+            }
 
-        getReq.setConsistency(entityInformation.getConsistency());
+            req.setConsistency(entityInformation.getConsistency());
+            return req;
+        };
+        GetRequest getReq = newRequest.get();
 
         GetResult getRes;
+        ensureTableReady(entityInformation);
+        TableRateLimiter limiter = getRateLimiter(entityInformation);
+        Function<GetRequest, GetResult> send = req -> executeWithRetry(
+            entityInformation.getTableName(), true, () -> {
+                if (limiter == null) {
+                    return nosqlReadClient.get(req);
+                }
+                limiter.beforeRead(getRequestTimeout(entityInformation));
+                GetResult res = nosqlReadClient.get(req);
+                limiter.afterRequest(res.getReadUnits(), res.getWriteUnits());
+                return res;
+            });
+        Supplier<GetResult> op = hedger == null ? () -> send.apply(getReq) :
+            () -> hedger.execute(getReq.getTableName(),
+                () -> send.apply(getReq),
+                () -> send.apply(newRequest.get()));
 
         try {
-            getRes = nosqlClient.get(getReq);
+            getRes = record(NosqlOperationEvent.GET,
+                entityInformation.getTableName(), null, 0,
+                () -> getCoalescer == null ? op.get() :
+                    getCoalescer.execute(getReq.getTableName() + "|" +
+                        entityInformation.getConsistency().isAbsolute() +
+                        "|" + primaryKey.toJson(), op).getValue(),
+                res -> res.getValue() != null ? 1 : 0);
         } catch (NoSQLException nse) {
             LOG.error("Get: table: {} key: {}", getReq.getTableName(),
                 primaryKey);
@@ -455,28 +1073,357 @@ public abstract class NosqlTemplateBase
         return getRes;
     }
 
-    protected void doUpdate(NosqlEntityInformation<?, ?> entityInformation,
-        MapValue row) {
+    /**
+     * Reads the rows with the given primary keys with a single query, in no
+     * particular order. Keys without a row have no result. Composite keys
+     * with columns of types that can't be bound in a JSON array are read
+     * with one get per key.
+     */
+    protected List<MapValue> doGetMultiple(
+        NosqlEntityInformation<?, ?> entityInformation,
+        List<MapValue> primaryKeys) {
+
+        Map<String, FieldValue.Type> keys =
+            new LinkedHashMap<>(entityInformation.getShardKeys());
+        keys.putAll(entityInformation.getNonShardKeys());
+
+        List<MapValue> rows = new ArrayList<>(primaryKeys.size());
+        String sql;
+        ArrayValue keyValues = new ArrayValue(primaryKeys.size());
+        if (keys.size() == 1) {
+            String key = keys.keySet().iterator().next();
+            sql = String.format(TEMPLATE_GET_MULTIPLE,
+                keys.get(key).name(), entityInformation.getTableName(),
+                "t." + key);
+            primaryKeys.forEach(pk -> keyValues.add(pk.get(key)));
+        } else if (keys.values().stream().allMatch(
+            NosqlTemplateBase::isJsonKeyType)) {
+            sql = String.format(TEMPLATE_GET_MULTIPLE, "JSON",
+                entityInformation.getTableName(), keys.keySet().stream()
+                    .map(key -> "t." + key)
+                    .collect(Collectors.joining(", ", "(", ")")));
+            for (MapValue pk : primaryKeys) {
+                ArrayValue tuple = new ArrayValue(keys.size());
+                keys.keySet().forEach(key -> tuple.add(pk.get(key)));
+                keyValues.add(tuple);
+            }
+        } else {
+            for (MapValue pk : primaryKeys) {
+                MapValue row = doGet(entityInformation, pk).getValue();
+                if (row != null) {
+                    rows.add(row);
+                }
+            }
+            return rows;
+        }
+
+        Map<String, FieldValue> params = new HashMap<>();
+        params.put("$kv_keys", keyValues);
+        doRunQueryNosqlParams(entityInformation, sql, params)
+            .forEach(rows::add);
+        return rows;
+    }
+
+    private static boolean isJsonKeyType(FieldValue.Type type) {
+        switch (type) {
+        case STRING:
+        case INTEGER:
+        case LONG:
+        case DOUBLE:
+        case NUMBER:
+        case BOOLEAN:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Updates the row if it exists. Returns false if there is no row to
+     * update.
+     */
+    protected boolean doUpdate(
+        NosqlEntityInformation<?, ?> entityInformation, MapValue row) {
         // When id is autogenerated, it's required to do a SQL update query
         if (entityInformation.isAutoGeneratedId()) {
             final String idColumnName = entityInformation.getIdColumnName();
+            Map<String, FieldValue> params = new HashMap<>();
+            params.put("$id", row.get(idColumnName));
+            params.put("$json", row.get(JSON_COLUMN));
+
+            // typed columns are set next to the JSON column
+            StringBuilder columnDecls = new StringBuilder();
+            StringBuilder columnSets = new StringBuilder();
+            entityInformation.getColumns().forEach((column, type) -> {
+                String param = "$kv_col_" + column;
+                columnDecls.append(param).append(" ").append(type.name())
+                    .append("; ");
+                columnSets.append(", t.").append(column).append(" = ")
+                    .append(param);
+                params.put(param, row.get(column));
+            });
+
             String sql = String.format(TEMPLATE_UPDATE,
                 entityInformation.getIdNosqlType().name(),
+                columnDecls,
                 entityInformation.getTableName(),
+                columnSets,
                 idColumnName);
 
-            Map<String, FieldValue> params = new HashMap<>();
-            params.put("$id", row.get(idColumnName));
-            params.put("$json", row.get(JSON_COLUMN));
-
             // Must read at least one result to execute query!!!
-            doRunQueryNosqlParams(entityInformation, sql, params)
+            FieldValue numRows = doRunQueryNosqlParams(entityInformation,
+                sql, params)
                 .iterator()
-                .next();
+                .next()
+                .get("NumRowsUpdated");
+            return numRows != null && numRows.getInt() > 0;
+        }
+        // otherwise do a regular put, which is faster, use less resources
+        return doPut(entityInformation, row, true).getVersion() != null;
+    }
+
+    /**
+     * Updates only the given fields of the row with the given id. Typed
+     * columns are set, JSON fields are merged into their parent JSON object
+     * using PUT, since SET doesn't add missing fields. The statement only
+     * depends on the set of updated fields, so it is prepared once per set
+     * of fields. Returns the number of rows updated.
+     */
+    protected int doUpdateFields(NosqlEntityInformation<?, ?> entityInformation,
+        Object id, Update update) {
+        Assert.notNull(id, "Id should not be null");
+        Assert.isTrue(update != null && !update.isEmpty(), "Update should " +
+            "have at least one field");
+
+        Map<String, FieldValue> columnValues = new HashMap<>();
+        Map<String, MapValue> jsonParents = new HashMap<>();
+        for (Map.Entry<String, Object> field :
+            update.getFields().entrySet()) {
+            String path = field.getKey();
+            PersistentPropertyPath<NosqlPersistentProperty> propPath =
+                getUpdatablePath(entityInformation, path);
+            NosqlPersistentProperty base = propPath.getBaseProperty();
+            NosqlPersistentProperty leaf = propPath.getLeafProperty();
+
+            FieldValue value = mappingNosqlConverter.convertObjToFieldValue(
+                field.getValue(), leaf, false);
+            if (base.isNosqlColumn()) {
+                columnValues.put(base.getName(), value);
+            } else {
+                int dot = path.lastIndexOf('.');
+                String parent = dot < 0 ? "" : path.substring(0, dot);
+                jsonParents.computeIfAbsent(parent, k -> new MapValue())
+                    .put(leaf.getName(), value);
+            }
+        }
+
+        MapValue primaryKey = mappingNosqlConverter.convertIdToPrimaryKey(
+            entityInformation.getIdColumnName(), id);
+        return doUpdateFieldValues(entityInformation, primaryKey,
+            columnValues, jsonParents);
+    }
+
+    /**
+     * Updates typed columns and JSON fields of the row with the given
+     * primary key with already converted values. JSON fields are given as
+     * objects merged into their parent path, the empty path being the JSON
+     * column itself. PUT does nothing on a missing or null parent, so each
+     * parent, and each of its ancestors, is first set to an empty object if
+     * it is missing or null. Returns the number of rows updated.
+     */
+    int doUpdateFieldValues(NosqlEntityInformation<?, ?> entityInformation,
+        MapValue primaryKey, Map<String, FieldValue> columnValues,
+        Map<String, MapValue> jsonParents) {
+
+        Map<String, FieldValue> params = new HashMap<>();
+        List<String> decls = new ArrayList<>();
+        List<String> clauses = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+
+        // sorted, so that the statement doesn't depend on the fields order
+        new TreeMap<>(columnValues).forEach((column, value) -> {
+            String param = "$kv_set_" + clauses.size();
+            decls.add(param + " " +
+                entityInformation.getColumns().get(column).name());
+            clauses.add("SET t." + column + " = " + param);
+            params.put(param, value);
+        });
+        addPutParents(jsonParents.keySet(), clauses);
+        new TreeMap<>(jsonParents).forEach((parent, value) -> {
+            String param = "$kv_set_" + clauses.size();
+            decls.add(param + " JSON");
+            clauses.add("PUT t." + JSON_COLUMN +
+                (parent.isEmpty() ? "" : "." + parent) + " " + param);
+            params.put(param, value);
+        });
+
+        addKeyConditions(entityInformation, primaryKey, decls, conditions,
+            params);
+
+        String sql = String.format(TEMPLATE_UPDATE_FIELDS,
+            String.join("; ", decls), entityInformation.getTableName(),
+            String.join(", ", clauses), String.join(" AND ", conditions));
+
+        // Must read at least one result to execute query
+        MapValue res = doRunQueryNosqlParams(entityInformation, sql, params)
+            .iterator()
+            .next();
+        FieldValue numRows = res.get("NumRowsUpdated");
+        return numRows == null ? 0 : numRows.getInt();
+    }
+
+    /**
+     * Adds the clauses setting the given JSON objects and their ancestors to
+     * {} if they are missing or null, since SET and PUT don't add missing
+     * parents. The empty path is the JSON column itself.
+     */
+    private static void addPutParents(Collection<String> parents,
+        List<String> clauses) {
+        // ancestors sort before their descendants
+        SortedSet<String> parentPaths = new TreeSet<>();
+        for (String parent : parents) {
+            for (int dot = parent.indexOf('.'); dot > 0;
+                 dot = parent.indexOf('.', dot + 1)) {
+                parentPaths.add(parent.substring(0, dot));
+            }
+            if (!parent.isEmpty()) {
+                parentPaths.add(parent);
+            }
+        }
+        for (String path : parentPaths) {
+            addPutMissing(path, "{}", clauses);
+        }
+    }
+
+    /* Adds the clause setting the JSON field to value if missing or null. */
+    private static void addPutMissing(String path, String value,
+        List<String> clauses) {
+        int dot = path.lastIndexOf('.');
+        clauses.add(String.format(TEMPLATE_PUT_MISSING,
+            dot < 0 ? "" : "." + path.substring(0, dot),
+            path, path.substring(dot + 1), value));
+    }
+
+    /**
+     * Adds delta to the numeric field of the row with the given id in a
+     * single statement and returns the new value, or null if there is no
+     * row with the id. A null field, SQL or JSON null, or a missing JSON
+     * field is set to delta, missing parents of a JSON field are added.
+     */
+    protected FieldValue doIncrement(
+        NosqlEntityInformation<?, ?> entityInformation, Object id,
+        String path, Number delta) {
+        Assert.notNull(id, "Id should not be null");
+        Assert.hasText(path, "Field should not be null or empty");
+        Assert.notNull(delta, "Delta should not be null");
+
+        PersistentPropertyPath<NosqlPersistentProperty> propPath =
+            getUpdatablePath(entityInformation, path);
+        NosqlPersistentProperty base = propPath.getBaseProperty();
+        NosqlPersistentProperty leaf = propPath.getLeafProperty();
+        if (!Number.class.isAssignableFrom(
+            ClassUtils.resolvePrimitiveIfNecessary(leaf.getType())) ||
+            (base.isNosqlColumn() && base != leaf)) {
+            throw new IllegalArgumentException("Field " + path +
+                " is not a numeric field.");
+        }
+        String target;
+        List<String> clauses = new ArrayList<>();
+        if (base.isNosqlColumn()) {
+            target = "t." + base.getName();
+            clauses.add(String.format(TEMPLATE_INCREMENT_COLUMN, target));
+        } else {
+            // SET doesn't add missing fields and null + delta is null
+            target = "t." + JSON_COLUMN + "." + path;
+            int dot = path.lastIndexOf('.');
+            if (dot > 0) {
+                addPutParents(Collections.singleton(path.substring(0, dot)),
+                    clauses);
+            }
+            addPutMissing(path, "0", clauses);
+            clauses.add("SET " + target + " = " + target + " + $kv_delta_");
+        }
+
+        Map<String, FieldValue> params = new HashMap<>();
+        List<String> decls = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+
+        if (delta instanceof BigDecimal || delta instanceof BigInteger) {
+            decls.add("$kv_delta_ NUMBER");
+            params.put("$kv_delta_",
+                new NumberValue(new BigDecimal(delta.toString())));
+        } else if (delta instanceof Double || delta instanceof Float) {
+            decls.add("$kv_delta_ DOUBLE");
+            params.put("$kv_delta_", new DoubleValue(delta.doubleValue()));
         } else {
-            // otherwise do a regular put, which is faster, use less resources
-            doPut(entityInformation, row, true);
+            decls.add("$kv_delta_ LONG");
+            params.put("$kv_delta_", new LongValue(delta.longValue()));
+        }
+
+        MapValue primaryKey = mappingNosqlConverter.convertIdToPrimaryKey(
+            entityInformation.getIdColumnName(), id);
+        addKeyConditions(entityInformation, primaryKey, decls, conditions,
+            params);
+
+        String sql = String.format(TEMPLATE_INCREMENT,
+            String.join("; ", decls), entityInformation.getTableName(),
+            String.join(", ", clauses), String.join(" AND ", conditions),
+            target);
+
+        Iterator<MapValue> res =
+            doRunQueryNosqlParams(entityInformation, sql, params).iterator();
+        return res.hasNext() ? res.next().get("kv_value_") : null;
+    }
+
+    /**
+     * Returns the number in value, null if value is null or a SQL null.
+     */
+    static Number toNumber(FieldValue value) {
+        if (value == null || value.isNull() || value.isJsonNull()) {
+            return null;
+        }
+        switch (value.getType()) {
+        case INTEGER:
+            return value.getInt();
+        case LONG:
+            return value.getLong();
+        case NUMBER:
+            return value.getNumber();
+        default:
+            return value.castAsDouble();
+        }
+    }
+
+    /* Resolves the property path of a field set by an update statement. */
+    private PersistentPropertyPath<NosqlPersistentProperty> getUpdatablePath(
+        NosqlEntityInformation<?, ?> entityInformation, String path) {
+        PersistentPropertyPath<NosqlPersistentProperty> propPath =
+            mappingNosqlConverter.getMappingContext()
+                .getPersistentPropertyPath(path,
+                    entityInformation.getJavaType());
+        NosqlPersistentProperty base = propPath.getBaseProperty();
+        NosqlPersistentProperty leaf = propPath.getLeafProperty();
+        if (base == null || leaf == null || base.isIdProperty()) {
+            throw new IllegalArgumentException("Field " + path +
+                " can not be updated.");
         }
+        return propPath;
+    }
+
+    /* Adds the conditions selecting the row with the given primary key. */
+    private static void addKeyConditions(
+        NosqlEntityInformation<?, ?> entityInformation, MapValue primaryKey,
+        List<String> decls, List<String> conditions,
+        Map<String, FieldValue> params) {
+        Map<String, FieldValue.Type> keys =
+            new LinkedHashMap<>(entityInformation.getShardKeys());
+        keys.putAll(entityInformation.getNonShardKeys());
+        keys.forEach((key, type) -> {
+            String param = "$kv_key_" + conditions.size();
+            decls.add(param + " " + type.name());
+            conditions.add("t." + key + " = " + param);
+            params.put(param, primaryKey.get(key));
+        });
     }
 
     /**
@@ -487,6 +1434,19 @@ public abstract class NosqlTemplateBase
         String query,
         Map<String, FieldValue> nosqlParams) {
 
+        return doQuery(entityInformation,
+            prepareQueryRequest(entityInformation, query, nosqlParams));
+    }
+
+    /**
+     * Returns the request for a query with nosqlParams bound, preparing the
+     * query if it isn't in the prepared statements cache.
+     */
+    QueryRequest prepareQueryRequest(
+        NosqlEntityInformation<?, ?> entityInformation,
+        String query,
+        Map<String, FieldValue> nosqlParams) {
+
         PreparedStatement pStmt =
             getPreparedStatement(entityInformation, query);
 
@@ -505,6 +1465,7 @@ public abstract class NosqlTemplateBase
             }
 
             qReq.setConsistency(entityInformation.getConsistency());
+            setQueryOptions(qReq, entityInformation, null);
         }
 
         LOG.debug("Q: {}", query);
@@ -514,12 +1475,24 @@ public abstract class NosqlTemplateBase
                 LOG.debug("   {} = {}", var.getKey(), var.getValue());
             }
         }
-        return doQuery(psCache, qReq);
+        return qReq;
     }
 
     protected <T> Iterable<MapValue> doExecuteMapValueQuery(NosqlQuery query,
         NosqlEntityInformation<T, ?> entityInformation) {
 
+        return doQuery(entityInformation,
+            prepareMapValueQuery(query, entityInformation));
+    }
+
+    /**
+     * Returns the request for the generated SQL of query with its
+     * parameters bound, preparing it if it isn't in the prepared statements
+     * cache.
+     */
+    <T> QueryRequest prepareMapValueQuery(NosqlQuery query,
+        NosqlEntityInformation<T, ?> entityInformation) {
+
         Assert.notNull(entityInformation, "Entity information " +
             "should not be null.");
         Assert.notNull(query, "Query should not be null.");
@@ -550,6 +1523,7 @@ public abstract class NosqlTemplateBase
         }
 
         qReq.setConsistency(entityInformation.getConsistency());
+        setQueryOptions(qReq, entityInformation, query);
 
         if (query.isCount()) {
             qReq.setLimit(1);
@@ -563,7 +1537,117 @@ public abstract class NosqlTemplateBase
                 LOG.debug("   {} = {}", var.getKey(), var.getValue());
             }
         }
-        return doQuery(psCache, qReq);
+        return qReq;
+    }
+
+    /**
+     * Splits a full scan of the entity table in at most parallelism ranges
+     * of the first shard key column, based on its current min and max
+     * values. Returns a single unbounded range if the table is empty or the
+     * column type can't be split.
+     */
+    List<ScanRange> getScanRanges(
+        NosqlEntityInformation<?, ?> entityInformation, int parallelism) {
+
+        Map<String, FieldValue.Type> shardKeys =
+            entityInformation.getShardKeys();
+        if (parallelism <= 1 || shardKeys.isEmpty()) {
+            return Collections.singletonList(ScanRange.unbounded());
+        }
+
+        Map.Entry<String, FieldValue.Type> shardKey =
+            shardKeys.entrySet().iterator().next();
+        FieldValue min = getScanBound(entityInformation, shardKey.getKey(),
+            "ASC");
+        if (min == null) {
+            return Collections.singletonList(ScanRange.unbounded());
+        }
+        FieldValue max = getScanBound(entityInformation, shardKey.getKey(),
+            "DESC");
+
+        List<ScanRange> ranges = ScanRange.split(shardKey.getValue(), min,
+            max, parallelism);
+        LOG.debug("Scan of table {} split in {} ranges: {}",
+            entityInformation.getTableName(), ranges.size(), ranges);
+        return ranges;
+    }
+
+    private FieldValue getScanBound(
+        NosqlEntityInformation<?, ?> entityInformation, String column,
+        String order) {
+        String sql = String.format(TEMPLATE_SCAN_BOUND, column,
+            entityInformation.getTableName(), column, order);
+        Iterator<MapValue> it =
+            doRunQueryNosqlParams(entityInformation, sql, null).iterator();
+        return it.hasNext() ? it.next().get(column) : null;
+    }
+
+    /**
+     * Returns the rows of the entity table in the given range of the first
+     * shard key column.
+     */
+    Iterable<MapValue> doScanRange(
+        NosqlEntityInformation<?, ?> entityInformation, ScanRange range) {
+
+        String sql = String.format(TEMPLATE_SELECT_ALL,
+            entityInformation.getTableName());
+        if (range.isUnbounded()) {
+            return doRunQueryNosqlParams(entityInformation, sql, null);
+        }
+
+        String column =
+            entityInformation.getShardKeys().keySet().iterator().next();
+        StringBuilder declare = new StringBuilder("DECLARE ");
+        List<String> conditions = new ArrayList<>(2);
+        Map<String, FieldValue> params = new HashMap<>();
+        if (range.getLower() != null) {
+            declare.append("$kv_lower_ ").append(range.getSqlType())
+                .append("; ");
+            conditions.add("t." + column + " >= $kv_lower_");
+            params.put("$kv_lower_", range.getLower());
+        }
+        if (range.getUpper() != null) {
+            declare.append("$kv_upper_ ").append(range.getSqlType())
+                .append("; ");
+            conditions.add("t." + column + " < $kv_upper_");
+            params.put("$kv_upper_", range.getUpper());
+        }
+        sql = declare + sql + " WHERE " + String.join(" AND ", conditions);
+        return doRunQueryNosqlParams(entityInformation, sql, params);
+    }
+
+    /**
+     * Sets the batch size, max read KB and max memory consumption of the
+     * request. Values set on the query, usually from a repository method
+     * annotation, take precedence over the entity table defaults.
+     */
+    private void setQueryOptions(QueryRequest qReq,
+        NosqlEntityInformation<?, ?> entityInformation, NosqlQuery query) {
+
+        int batchSize = entityInformation.getQueryBatchSize();
+        int maxReadKB = entityInformation.getQueryMaxReadKB();
+        long maxMemory = entityInformation.getQueryMaxMemoryConsumption();
+        if (query != null) {
+            if (query.getBatchSize() > 0) {
+                batchSize = query.getBatchSize();
+            }
+            if (query.getMaxReadKB() > 0) {
+                maxReadKB = query.getMaxReadKB();
+            }
+            if (query.getMaxMemoryConsumption() > 0) {
+                maxMemory = query.getMaxMemoryConsumption();
+            }
+        }
+
+        if (batchSize > 0) {
+            qReq.setLimit(batchSize);
+        }
+        if (maxReadKB > 0) {
+            qReq.setMaxReadKB(maxReadKB);
+        }
+        if (maxMemory > 0) {
+            qReq.setMaxMemoryConsumption(maxMemory);
+        }
     }
 
     protected TableResult doGetTable(
@@ -583,6 +1667,7 @@ public abstract class NosqlTemplateBase
         NosqlEntityInformation<?, ?> entityInformation, String query) {
         PreparedStatement preparedStatement;
 
+        ensureTableReady(entityInformation);
         preparedStatement = psCache.get(query);
         if (preparedStatement == null) {
             PrepareRequest pReq = new PrepareRequest()
@@ -600,7 +1685,10 @@ public abstract class NosqlTemplateBase
 
             try {
                 LOG.debug("Prepare: {}", pReq.getStatement());
-                PrepareResult pRes = nosqlClient.prepare(pReq);
+                PrepareResult pRes = record(NosqlOperationEvent.PREPARE,
+                    entityInformation != null ?
+                        entityInformation.getTableName() : null, query, 0,
+                    () -> nosqlClient.prepare(pReq), res -> 0);
                 preparedStatement = pRes.getPreparedStatement();
                 psCache.put(query, preparedStatement);
                 LOG.trace("  query plan: {}", preparedStatement.getQueryPlan());
@@ -614,8 +1702,290 @@ public abstract class NosqlTemplateBase
     }
 
     private Iterable<MapValue> doQuery(
-        LruCache<String, PreparedStatement> psCache, QueryRequest qReq) {
-        return new IterableUtil.IterableImpl(nosqlClient, psCache, qReq);
+        NosqlEntityInformation<?, ?> entityInformation, QueryRequest qReq) {
+        PreparedStatement pStmt = qReq.getPreparedStatement();
+        Function<QueryRequest, QueryResult> batchExecutor =
+            getBatchExecutor(entityInformation, NosqlDeadline.current());
+        if (queryCoalescer == null || pStmt == null || pStmt.doesWrites()) {
+            return new IterableUtil.IterableImpl(batchExecutor, psCache, qReq);
+        }
+        return new IterableUtil.IterableImpl(batchExecutor, psCache, qReq,
+            batchReq -> coalesceFirstBatch(batchExecutor, batchReq));
+    }
+
+    /**
+     * Returns the executor of the batches of a query. With a deadline, each
+     * batch gets the remaining time as timeout and fails once it is over.
+     */
+    Function<QueryRequest, QueryResult> getBatchExecutor(
+        NosqlEntityInformation<?, ?> entityInformation,
+        NosqlDeadline deadline) {
+        // batches are numbered from 1 for each query
+        AtomicInteger batches = new AtomicInteger();
+        if (deadline == null) {
+            return batchReq -> doQueryBatch(entityInformation, batchReq,
+                batches.incrementAndGet());
+        }
+        int timeout = getRequestTimeout(entityInformation);
+        return batchReq -> {
+            int batch = batches.incrementAndGet();
+            deadline.apply(batchReq, timeout, batch);
+            return doQueryBatch(entityInformation, batchReq, batch);
+        };
+    }
+
+    /**
+     * Executes the first batch of a read only query, or shares the one of an
+     * identical query in flight. Returns null if the shared batch is not the
+     * only batch of the query, the query must then be executed by the
+     * caller.
+     */
+    private IterableUtil.FirstBatch coalesceFirstBatch(
+        Function<QueryRequest, QueryResult> batchExecutor, QueryRequest qReq) {
+
+        StringBuilder key = new StringBuilder(
+            qReq.getPreparedStatement().getSQLText());
+        Map<String, FieldValue> variables =
+            qReq.getPreparedStatement().getVariables();
+        if (variables != null) {
+            // values of different types may have the same JSON
+            new TreeMap<>(variables).forEach((name, value) -> key.append('|')
+                .append(name).append('=').append(value.getType())
+                .append(':').append(value.toJson()));
+        }
+        key.append('|').append(qReq.getConsistency() != null &&
+                qReq.getConsistency().isAbsolute())
+            .append('|').append(qReq.getLimit())
+            .append('|').append(qReq.getMaxReadKB());
+
+        SingleFlight.Result<IterableUtil.FirstBatch> res =
+            queryCoalescer.execute(key.toString(), () -> {
+                QueryResult batch = batchExecutor.apply(qReq);
+                return new IterableUtil.FirstBatch(batch.getResults(),
+                    qReq.isDone());
+            });
+        if (res.isLeader() || res.getValue().last) {
+            return res.getValue();
+        }
+        return null;
+    }
+
+    /**
+     * Executes batch number batch of a query. NoSQLExceptions are handled
+     * by the caller, see {@link IterableUtil.IteratorImpl}.
+     */
+    QueryResult doQueryBatch(
+        NosqlEntityInformation<?, ?> entityInformation, QueryRequest qReq,
+        int batch) {
+
+        PreparedStatement pStmt = qReq.getPreparedStatement();
+        boolean doesWrites = pStmt != null && pStmt.doesWrites();
+        String tableName = entityInformation != null ?
+            entityInformation.getTableName() :
+            (pStmt != null ? pStmt.getTableName() : null);
+
+        TableRateLimiter limiter = getRateLimiter(entityInformation);
+        NoSQLHandle client = doesWrites ? nosqlWriteClient : nosqlReadClient;
+        // only batches of read only queries are idempotent
+        Function<QueryRequest, QueryResult> send = req -> executeWithRetry(
+            tableName, !doesWrites, () -> {
+                if (limiter != null) {
+                    int timeout = getRequestTimeout(entityInformation);
+                    limiter.beforeRead(timeout);
+                    if (doesWrites) {
+                        limiter.beforeWrite(timeout);
+                    }
+                }
+                QueryResult res = client.query(req);
+                // the driver computes the results of advanced queries on
+                // first access, fetch them here to retry and time the fetch
+                res.getResults();
+                if (limiter != null) {
+                    limiter.afterRequest(res.getReadUnits(),
+                        res.getWriteUnits());
+                }
+                return res;
+            });
+        boolean hedged = hedger != null && pStmt != null && !doesWrites &&
+            qReq.isSimpleQuery() &&
+            qReq.getContKey() == null;
+        try {
+            return record(NosqlOperationEvent.QUERY, tableName,
+                pStmt != null ? pStmt.getSQLText() : qReq.getStatement(),
+                batch, () -> hedged ?
+                    doHedgedQueryBatch(tableName, qReq, send) :
+                    send.apply(qReq),
+                res -> res.getResults().size());
+        } finally {
+            if (doesWrites) {
+                tableWritten(tableName);
+                // DML queries may write another table than the entity one
+                String target = pStmt.getTableName();
+                if (target != null && !target.equalsIgnoreCase(tableName)) {
+                    tableWritten(target);
+                }
+            }
+        }
+    }
+
+    /**
+     * Executes the first batch of a simple query with hedging. The read and
+     * its hedge run on copies of the request, the continuation key of the
+     * result returned is set on qReq, so that next batches continue from it.
+     */
+    private QueryResult doHedgedQueryBatch(String tableName,
+        QueryRequest qReq, Function<QueryRequest, QueryResult> send) {
+        QueryRequest primary = qReq.copy();
+        QueryRequest hedge = qReq.copy();
+        QueryResult res = hedger.execute(tableName,
+            () -> send.apply(primary), () -> send.apply(hedge));
+        qReq.setContKey(res.getContinuationKey());
+        return res;
+    }
+
+    /**
+     * Runs the request op, recording it as a
+     * {@link NosqlOperationEvent} and observing it with the configured
+     * observation registry. rows returns the number of rows read or written
+     * and is only called if the request is recorded or observed.
+     */
+    <R extends Result> R record(String operation, String tableName,
+        String statement, int batch, Supplier<R> op, ToIntFunction<R> rows) {
+
+        NosqlOperationEvent event = NosqlOperationEvent.start(operation,
+            tableName, statement, batch);
+        Observation observation = NosqlObservations.startRequest(
+            observationRegistry, operation, tableName, statement, batch);
+        try {
+            R res = op.get();
+            if (event.isEnabled() || !observation.isNoop()) {
+                int count = rows.applyAsInt(res);
+                event.finish(res, count);
+                NosqlObservations.stopRequest(observation, res, count);
+            }
+            return res;
+        } catch (RuntimeException re) {
+            event.failed(re);
+            observation.error(re);
+            observation.stop();
+            throw re;
+        }
+    }
+
+    /**
+     * Runs op, retrying it according to the configured retry policy if it is
+     * idempotent. When retries are not possible anymore the last
+     * NoSQLException is thrown.
+     */
+    private <R> R executeWithRetry(String tableName, boolean idempotent,
+        Supplier<R> op) {
+        NosqlRetryPolicy policy = nosqlDbFactory.getRetryPolicy();
+        if (policy == null || !idempotent) {
+            return op.get();
+        }
+
+        long startMs = System.currentTimeMillis();
+        int retry = 0;
+        while (true) {
+            try {
+                R result = op.get();
+                if (retry > 0) {
+                    getRetryStatsOrCreate(tableName).recovered();
+                }
+                return result;
+            } catch (NoSQLException nse) {
+                if (!policy.isRetryable(nse)) {
+                    throw nse;
+                }
+                long delayMs = policy.getBackoffMs(retry);
+                long elapsedMs = System.currentTimeMillis() - startMs;
+                if (retry >= policy.getMaxRetries() ||
+                    elapsedMs + delayMs > policy.getMaxRetryTimeMs()) {
+                    getRetryStatsOrCreate(tableName).exhausted();
+                    throw nse;
+                }
+
+                getRetryStatsOrCreate(tableName).retried(delayMs);
+                LOG.debug("Retry {} on table {} in {} ms after: {}",
+                    retry + 1, tableName, delayMs, nse.getMessage());
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw nse;
+                }
+                retry++;
+            }
+        }
+    }
+
+    private TableRetryStats getRetryStatsOrCreate(String tableName) {
+        String key = tableName == null ? "" : tableName;
+        return retryStats.computeIfAbsent(key, TableRetryStats::new);
+    }
+
+    /**
+     * Returns the retry counters of the table or null if no operation on
+     * the table was retried.
+     */
+    public TableRetryStats getRetryStats(String tableName) {
+        return retryStats.get(tableName);
+    }
+
+    /**
+     * Returns the retry counters of all tables with retried operations.
+     */
+    public Collection<TableRetryStats> getRetryStats() {
+        return Collections.unmodifiableCollection(retryStats.values());
+    }
+
+    /**
+     * Returns the rate limiter of the entity table shared by the templates of
+     * the factory, or null if table rate limiting is not enabled or the
+     * table is not limited. Until the table is read or created the limiter
+     * uses the units declared on the entity, the table is not limited if
+     * none are declared.
+     */
+    private TableRateLimiter getRateLimiter(
+        NosqlEntityInformation<?, ?> entityInformation) {
+        if (entityInformation == null ||
+            !nosqlDbFactory.isTableRateLimiting()) {
+            return null;
+        }
+        TableRateLimiter.Registry limiters =
+            nosqlDbFactory.getTableRateLimiters();
+        TableRateLimiter limiter =
+            limiters.get(entityInformation.getTableName());
+        if (limiter != null) {
+            return limiter;
+        }
+        return limiters.getOrCreate(entityInformation.getTableName(),
+            entityInformation.getDeclaredTableLimits(),
+            nosqlDbFactory.getTableRateLimitingPercentage());
+    }
+
+    /**
+     * Sets the table rate limiter from the actual limits of the table, which
+     * may be different from the ones declared on the entity, removing it if
+     * the table has no limits.
+     */
+    private void seedRateLimiter(
+        NosqlEntityInformation<?, ?> entityInformation,
+        TableResult tableResult) {
+        if (!nosqlDbFactory.isTableRateLimiting() || tableResult == null) {
+            return;
+        }
+        nosqlDbFactory.getTableRateLimiters().update(
+            entityInformation.getTableName(), tableResult.getTableLimits(),
+            nosqlDbFactory.getTableRateLimitingPercentage());
+    }
+
+    private int getRequestTimeout(
+        NosqlEntityInformation<?, ?> entityInformation) {
+        if (entityInformation != null && entityInformation.getTimeout() > 0) {
+            return entityInformation.getTimeout();
+        }
+        return nosqlDbFactory.getRequestTimeout();
     }
 
     private String getAutoGenType(NosqlEntityInformation<?, ?> entityInformation) {
@@ -0,0 +1,257 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import oracle.nosql.driver.values.FieldValue;
+import oracle.nosql.driver.values.MapValue;
+import oracle.nosql.driver.values.TimestampValue;
+
+import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Collects the gets of single rows arriving within a time window, or until
+ * a maximum number of keys, and reads each table's batch with a single
+ * query, see {@link NosqlTemplateBase#doGetMultiple(NosqlEntityInformation,
+ * List)}. Callers get a future completed with their own row, or null if
+ * there is none. Gets of the same key in a batch are read once. Batches
+ * are read by at most parallelism threads, once the batcher is shut down
+ * gets are read by the calling thread.
+ */
+final class PointReadBatcher {
+
+    private final NosqlTemplateBase template;
+    private final long windowMs;
+    private final int maxBatchSize;
+
+    /* batches being collected, by table and consistency */
+    private final Map<String, Batch> pending = new HashMap<>();
+    /* ends the windows of the batches and reads them */
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder keys = new LongAdder();
+
+    PointReadBatcher(NosqlTemplateBase template, long windowMs,
+        int maxBatchSize, int parallelism) {
+        this.template = template;
+        this.windowMs = windowMs;
+        this.maxBatchSize = maxBatchSize;
+
+        CustomizableThreadFactory threadFactory =
+            new CustomizableThreadFactory("nosql-read-batch-");
+        threadFactory.setDaemon(true);
+        scheduler = new ScheduledThreadPoolExecutor(parallelism,
+            threadFactory);
+        scheduler.setRemoveOnCancelPolicy(true);
+        // no threads are kept without reads
+        scheduler.setKeepAliveTime(30, TimeUnit.SECONDS);
+        scheduler.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Adds the get of the row with the given primary key to the current
+     * batch of its table and returns the future row.
+     */
+    CompletableFuture<MapValue> get(
+        NosqlEntityInformation<?, ?> entityInformation, MapValue primaryKey) {
+
+        CompletableFuture<MapValue> future = new CompletableFuture<>();
+        String batchKey = entityInformation.getTableName() + "|" +
+            entityInformation.getConsistency().isAbsolute();
+        Batch full = null;
+        synchronized (pending) {
+            Batch batch = pending.get(batchKey);
+            if (batch == null) {
+                batch = new Batch(batchKey, entityInformation);
+                Batch created = batch;
+                try {
+                    scheduler.schedule(() -> flush(created), windowMs,
+                        TimeUnit.MILLISECONDS);
+                    pending.put(batchKey, created);
+                } catch (RejectedExecutionException ree) {
+                    // shut down, read now
+                    full = created;
+                }
+            }
+            batch.add(primaryKey, future);
+            if (full == null && batch.rows.size() >= maxBatchSize) {
+                pending.remove(batchKey);
+                full = batch;
+            }
+        }
+        if (full != null) {
+            execute(full);
+        }
+        return future;
+    }
+
+    /* Executes the batch once its window elapsed, unless already full. */
+    private void flush(Batch batch) {
+        synchronized (pending) {
+            if (!pending.remove(batch.key, batch)) {
+                return;
+            }
+        }
+        batch.execute();
+    }
+
+    private void execute(Batch batch) {
+        try {
+            scheduler.execute(batch::execute);
+        } catch (RejectedExecutionException ree) {
+            batch.execute();
+        }
+    }
+
+    /**
+     * Stops the threads once the batches being collected are read. Gets
+     * are then read by the calling thread.
+     */
+    void shutdown() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * Returns the number of batches executed.
+     */
+    long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * Returns the number of distinct keys read by batches.
+     */
+    long getKeyCount() {
+        return keys.sum();
+    }
+
+    /**
+     * Waits for the future row and returns it, throwing the exception that
+     * failed the batch if any.
+     */
+    static MapValue join(CompletableFuture<MapValue> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ce) {
+            Throwable cause = ce.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw ce;
+        }
+    }
+
+    /*
+     * Returns the values of the key columns of row, as a map key. Values are
+     * normalized by column type: rows read may hold numbers of another
+     * width or scale than the keys asked for, and timestamps in another
+     * format.
+     */
+    static String getRowKey(MapValue row,
+        Map<String, FieldValue.Type> keyColumns) {
+        StringBuilder sb = new StringBuilder();
+        keyColumns.forEach((column, type) ->
+            sb.append(normalize(row.get(column), type)).append('|'));
+        return sb.toString();
+    }
+
+    private static String normalize(FieldValue value, FieldValue.Type type) {
+        if (value == null || value.isNull()) {
+            return "null";
+        }
+        switch (type) {
+        case INTEGER:
+        case LONG:
+        case DOUBLE:
+        case NUMBER:
+            if (value.isNumeric()) {
+                return value.getNumber().stripTrailingZeros().toPlainString();
+            }
+            break;
+        case TIMESTAMP:
+            if (value.isTimestamp()) {
+                return value.getTimestamp().toInstant().toString();
+            }
+            if (value.getType() == FieldValue.Type.STRING) {
+                return new TimestampValue(value.getString()).getValue()
+                    .toInstant().toString();
+            }
+            break;
+        default:
+            break;
+        }
+        return value.toJson();
+    }
+
+    private final class Batch {
+        private final String key;
+        private final NosqlEntityInformation<?, ?> entityInformation;
+        private final Map<String, FieldValue.Type> keyColumns;
+        /* pending gets by row key */
+        private final Map<String, PendingGet> rows = new LinkedHashMap<>();
+
+        Batch(String key, NosqlEntityInformation<?, ?> entityInformation) {
+            this.key = key;
+            this.entityInformation = entityInformation;
+            keyColumns = new LinkedHashMap<>(
+                entityInformation.getShardKeys());
+            keyColumns.putAll(entityInformation.getNonShardKeys());
+        }
+
+        void add(MapValue primaryKey, CompletableFuture<MapValue> future) {
+            rows.computeIfAbsent(getRowKey(primaryKey, keyColumns),
+                k -> new PendingGet(primaryKey)).futures.add(future);
+        }
+
+        void execute() {
+            batches.increment();
+            keys.add(rows.size());
+            try {
+                List<MapValue> primaryKeys = new ArrayList<>(rows.size());
+                rows.values().forEach(get -> primaryKeys.add(get.primaryKey));
+
+                Map<String, MapValue> found = new HashMap<>();
+                for (MapValue row : template.doGetMultiple(entityInformation,
+                    primaryKeys)) {
+                    found.put(getRowKey(row, keyColumns), row);
+                }
+                rows.forEach((rowKey, get) -> get.futures.forEach(
+                    future -> future.complete(found.get(rowKey))));
+            } catch (RuntimeException | Error e) {
+                rows.values().forEach(get -> get.futures.forEach(
+                    future -> future.completeExceptionally(e)));
+            }
+        }
+    }
+
+    private static final class PendingGet {
+        private final MapValue primaryKey;
+        private final List<CompletableFuture<MapValue>> futures =
+            new ArrayList<>(1);
+
+        PendingGet(MapValue primaryKey) {
+            this.primaryKey = primaryKey;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.core;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded LRU cache of repository query results, used by methods annotated
+ * with {@link com.oracle.nosql.spring.data.repository.NosqlCacheable}.<p>
+ *
+ * Each table has a write generation incremented by every write done
+ * through the template owning the cache: puts, deletes, updates and DML
+ * queries. A result is only returned while its time to live didn't expire
+ * and the generation of its table is the one read when the query started,
+ * so results are never older than the last write through the template.
+ * Writes done by other clients are only seen once results expire. Results
+ * of loads that write, like DML queries, are never cached.<p>
+ *
+ * The memory used is estimated when results are cached and includes stale
+ * entries until they are evicted or looked up again.
+ *
+ * @since 2.3.0
+ */
+public class QueryResultCache {
+
+    /* cached null results */
+    private static final Object NULL = new Object();
+
+    private final int capacity;
+    private final Map<Object, Entry> entries;
+    private final Map<String, AtomicLong> generations =
+        new ConcurrentHashMap<>();
+    /* flag of the load run by the current thread, raised by its writes */
+    private final ThreadLocal<boolean[]> loadWrites = new ThreadLocal<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long estimatedBytes;
+
+    public QueryResultCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater " +
+                "than 0.");
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns the cached result of key, or runs loader and caches its result
+     * for ttlMs milliseconds if there is none or it is stale. The size of
+     * results is estimated with sizeEstimator.
+     */
+    public Object get(String tableName, Object key, long ttlMs,
+        Supplier<Object> loader, ToLongFunction<Object> sizeEstimator) {
+
+        long generation = getGeneration(tableName);
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.generation == generation && entry.expiresAt > now) {
+                    hits.increment();
+                    return entry.value == NULL ? null : entry.value;
+                }
+                remove(key);
+            }
+        }
+        misses.increment();
+
+        boolean[] outerWrites = loadWrites.get();
+        boolean[] writes = new boolean[1];
+        loadWrites.set(writes);
+        Object value;
+        try {
+            value = loader.get();
+        } finally {
+            if (outerWrites == null) {
+                loadWrites.remove();
+            } else {
+                outerWrites[0] |= writes[0];
+                loadWrites.set(outerWrites);
+            }
+        }
+        if (writes[0]) {
+            return value;
+        }
+        Entry entry = new Entry(value == null ? NULL : value, generation,
+            now + ttlMs, value == null ? 0 : sizeEstimator.applyAsLong(value));
+        synchronized (this) {
+            // a write during the query makes the result stale right away
+            if (generation == getGeneration(tableName)) {
+                Entry prev = entries.put(key, entry);
+                if (prev != null) {
+                    estimatedBytes -= prev.bytes;
+                }
+                estimatedBytes += entry.bytes;
+                evict();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Makes all cached results of the table stale, called after each write
+     * to the table. A load running on the current thread is not cached.
+     */
+    public void invalidate(String tableName) {
+        boolean[] writes = loadWrites.get();
+        if (writes != null) {
+            writes[0] = true;
+        }
+        if (tableName != null) {
+            generations.computeIfAbsent(tableName, k -> new AtomicLong())
+                .incrementAndGet();
+        }
+    }
+
+    /**
+     * Removes all cached results.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        estimatedBytes = 0;
+    }
+
+    private long getGeneration(String tableName) {
+        AtomicLong generation = generations.get(tableName);
+        return generation == null ? 0 : generation.get();
+    }
+
+    private void remove(Object key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            estimatedBytes -= entry.bytes;
+        }
+    }
+
+    private void evict() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > capacity && it.hasNext()) {
+            estimatedBytes -= it.next().bytes;
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of results cached, stale ones included.
+     */
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the estimated memory in bytes used by the cached results.
+     */
+    public synchronized long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of results evicted because the cache was full.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the ratio of lookups that returned a cached result, 0 if
+     * there was no lookup.
+     */
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("QueryResultCache{size=%d, capacity=%d, " +
+                "estimatedBytes=%d, hits=%d, misses=%d, hitRate=%.3f, " +
+                "evictions=%d}", getSize(), capacity, getEstimatedBytes(),
+            getHitCount(), getMissCount(), getHitRate(), getEvictionCount());
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final long generation;
+        private final long expiresAt;
+        private final long bytes;
+
+        Entry(Object value, long generation, long expiresAt, long bytes) {
+            this.value = value;
+            this.generation = generation;
+            this.expiresAt = expiresAt;
+            this.bytes = bytes;
+        }
+    }
+}
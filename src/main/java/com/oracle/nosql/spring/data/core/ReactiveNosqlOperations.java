@@ -9,8 +9,11 @@ package com.oracle.nosql.spring.data.core;
 import com.oracle.nosql.spring.data.NosqlDbFactory;
 import com.oracle.nosql.spring.data.core.convert.MappingNosqlConverter;
 import com.oracle.nosql.spring.data.core.query.NosqlQuery;
+import com.oracle.nosql.spring.data.core.query.Update;
 import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
 
+import io.micrometer.observation.ObservationRegistry;
+
 import org.reactivestreams.Publisher;
 
 import reactor.core.publisher.Flux;
@@ -26,7 +29,9 @@ public interface ReactiveNosqlOperations {
     String getTableName(Class<?> domainClass);
 
     /**
-     * Creates table for entity information.
+     * Creates table for entity information and the indexes declared with
+     * {@link com.oracle.nosql.spring.data.core.mapping.NosqlIndex} that
+     * don't exist on the table.
      * Uses {@link NosqlDbFactory#getTableReqTimeout()} and
      * {@link NosqlDbFactory#getTableReqPollInterval()} to check the result.
      * Throws @{@link RuntimeException} if result indicates table state
@@ -35,6 +40,16 @@ public interface ReactiveNosqlOperations {
     Mono<Boolean> createTableIfNotExists(
         NosqlEntityInformation<?, ?> entityInformation);
 
+    /**
+     * Checks and creates the table of the entity if it doesn't exist,
+     * according to the configured
+     * {@link com.oracle.nosql.spring.data.config.TableCreationMode}: right
+     * away, in the background or on first use. Used by repositories.
+     *
+     * @since 2.3.0
+     */
+    void prepareTable(NosqlEntityInformation<?, ?> entityInformation);
+
     /**
      * Drops table and returns true if result indicates table state changed to
      * DROPPED or DROPPING.
@@ -71,6 +86,29 @@ public interface ReactiveNosqlOperations {
     <T, ID> Mono<T> update(NosqlEntityInformation<?, ID> entityInformation,
         T entity);
 
+    /**
+     * Updates only the given fields of the row with the given id, without
+     * reading or rewriting the rest of the row. Returns the number of rows
+     * updated, 0 if there is no row with the id.
+     *
+     * @since 2.3.0
+     */
+    <ID> Mono<Integer> updateFields(
+        NosqlEntityInformation<?, ID> entityInformation, ID id, Update update);
+
+    /**
+     * Atomically adds delta to the numeric field of the row with the given
+     * id, in one round trip and without rewriting the rest of the row.
+     * Field is a property path of the entity, a null field is set to delta.
+     * Returns the new value of the field or an empty Mono if there is no row
+     * with the id.
+     *
+     * @since 2.3.0
+     */
+    <ID> Mono<Number> increment(
+        NosqlEntityInformation<?, ID> entityInformation, ID id, String field,
+        Number delta);
+
     <ID> Mono<Void> deleteById(NosqlEntityInformation<?, ID> entityInformation,
         ID id);
 
@@ -94,4 +132,31 @@ public interface ReactiveNosqlOperations {
         NosqlEntityInformation<?, ?> entityInformation);
 
     MappingNosqlConverter getConverter();
+
+    /**
+     * Returns all the entities of the table, read using up to parallelism
+     * concurrent queries, each one over a range of the shard key. Results
+     * are not ordered. Reading is driven by demand, only a bounded number of
+     * results per query is buffered.
+     *
+     * @since 2.3.0
+     */
+    <T> Flux<T> parallelScan(Class<T> entityClass, int parallelism);
+
+    /**
+     * Returns all the entities of the given table, read using up to
+     * parallelism concurrent queries, see {@link #parallelScan(Class, int)}.
+     *
+     * @since 2.3.0
+     */
+    <T> Flux<T> parallelScan(NosqlEntityInformation<T, ?> entityInformation,
+        int parallelism);
+
+    /**
+     * Returns the registry of the observations of repository methods and
+     * requests, or null if nothing is observed.
+     *
+     * @since 2.3.0
+     */
+    ObservationRegistry getObservationRegistry();
 }
@@ -9,9 +9,14 @@ package com.oracle.nosql.spring.data.core;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+import io.micrometer.observation.Observation;
 import oracle.nosql.driver.ops.GetResult;
 import oracle.nosql.driver.ops.PutResult;
+import oracle.nosql.driver.ops.QueryRequest;
+import oracle.nosql.driver.ops.QueryResult;
 import oracle.nosql.driver.ops.TableRequest;
 import oracle.nosql.driver.ops.TableResult;
 import oracle.nosql.driver.values.FieldValue;
@@ -22,6 +27,7 @@ import com.oracle.nosql.spring.data.config.AbstractNosqlConfiguration;
 import com.oracle.nosql.spring.data.config.NosqlDbConfig;
 import com.oracle.nosql.spring.data.core.convert.MappingNosqlConverter;
 import com.oracle.nosql.spring.data.core.query.NosqlQuery;
+import com.oracle.nosql.spring.data.core.query.Update;
 import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
 
 import org.reactivestreams.Publisher;
@@ -32,11 +38,18 @@ import org.springframework.util.Assert;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 public class ReactiveNosqlTemplate
     extends  NosqlTemplateBase
     implements ReactiveNosqlOperations, ApplicationContextAware {
 
+    /* number of results requested at once from each range of a scan */
+    private static final int SCAN_PREFETCH = 32;
+
+    private Scheduler resultScheduler = Schedulers.boundedElastic();
+
     public static ReactiveNosqlTemplate create(NosqlDbConfig nosqlDBConfig)
         throws ClassNotFoundException {
         Assert.notNull(nosqlDBConfig, "NosqlDbConfig should not be null.");
@@ -64,6 +77,19 @@ public class ReactiveNosqlTemplate
         throws BeansException {
     }
 
+    /**
+     * Sets the scheduler query results are emitted on. Query batches are
+     * always fetched on {@link Schedulers#boundedElastic()}. By default
+     * results are also emitted on {@link Schedulers#boundedElastic()}, since
+     * downstream operators often call other blocking template methods.
+     *
+     * @since 2.3.0
+     */
+    public void setResultScheduler(Scheduler resultScheduler) {
+        Assert.notNull(resultScheduler, "Scheduler should not be null.");
+        this.resultScheduler = resultScheduler;
+    }
+
     @Override
     public String getTableName(Class<?> domainClass) {
         Assert.notNull(domainClass, "domainClass should not be null");
@@ -78,10 +104,7 @@ public class ReactiveNosqlTemplate
     public Mono<Boolean> createTableIfNotExists(
         NosqlEntityInformation<?, ?> entityInformation) {
         Assert.notNull(entityInformation, "Entity information should not be null");
-        boolean isTableExist = doCheckExistingTable(entityInformation);
-        // if table does not exist create
-        return (!isTableExist) ? Mono.just(doCreateTable(entityInformation)) :
-                Mono.just(true);
+        return Mono.just(doCreateTableIfNotExists(entityInformation));
     }
 
     /**
@@ -101,6 +124,7 @@ public class ReactiveNosqlTemplate
         TableRequest tableReq = new TableRequest().setStatement(sql);
 
         TableResult tableRes = doTableRequest(null, tableReq);
+        tableWritten(tableName);
 
         return Mono.just(tableRes.getTableState() == TableResult.State.DROPPED ||
             tableRes.getTableState() == TableResult.State.DROPPING);
@@ -124,8 +148,8 @@ public class ReactiveNosqlTemplate
         String sql = String.format(NosqlTemplateBase.TEMPLATE_SELECT_ALL,
             tableName);
 
-        return Flux
-            .fromIterable(runQuery(sql, entityInformation))
+        return querySource(entityInformation,
+                () -> prepareQueryRequest(entityInformation, sql, null))
             .map(mv -> getConverter().read(entityInformation.getJavaType(), mv));
     }
 
@@ -159,6 +183,13 @@ public class ReactiveNosqlTemplate
         final MapValue row = mappingNosqlConverter
             .convertIdToPrimaryKey(idColumnName, id);
 
+        if (readBatcher != null) {
+            // completes once the batch is read, without blocking
+            return Mono.fromFuture(() -> readBatcher.get(entityInformation,
+                row)).mapNotNull(value ->
+                    mappingNosqlConverter.read(entityClass, value));
+        }
+
         GetResult getRes = doGet(entityInformation, row);
 
         T res = mappingNosqlConverter.read(entityClass, getRes.getValue());
@@ -238,6 +269,31 @@ public class ReactiveNosqlTemplate
         return Mono.just(entity);
     }
 
+    @Override
+    public <ID> Mono<Integer> updateFields(
+        NosqlEntityInformation<?, ID> entityInformation, ID id,
+        Update update) {
+        Assert.notNull(entityInformation, "EntityInformation should " +
+            "not be null");
+
+        LOG.debug("execute updateFields in table {}",
+            entityInformation.getTableName());
+        return Mono.just(doUpdateFields(entityInformation, id, update));
+    }
+
+    @Override
+    public <ID> Mono<Number> increment(
+        NosqlEntityInformation<?, ID> entityInformation, ID id, String field,
+        Number delta) {
+        Assert.notNull(entityInformation, "EntityInformation should " +
+            "not be null");
+
+        LOG.debug("execute increment in table {}",
+            entityInformation.getTableName());
+        return Mono.justOrEmpty(toNumber(
+            doIncrement(entityInformation, id, field, delta)));
+    }
+
     @Override
     public <ID> Mono<Void> deleteById(
         NosqlEntityInformation<?, ID> entityInformation, ID id) {
@@ -427,11 +483,70 @@ public class ReactiveNosqlTemplate
             .map(d -> getConverter().read(entityClass, d));
     }
 
+    @Override
+    public <T> Flux<T> parallelScan(Class<T> entityClass, int parallelism) {
+        return parallelScan(getNosqlEntityInformation(entityClass),
+            parallelism);
+    }
+
+    @Override
+    public <T> Flux<T> parallelScan(
+        NosqlEntityInformation<T, ?> entityInformation, int parallelism) {
+        Assert.notNull(entityInformation, "EntityInformation should " +
+            "not be null");
+        Assert.isTrue(parallelism > 0, "Parallelism should be greater than " +
+            "0.");
+        Class<T> entityClass = entityInformation.getJavaType();
+
+        return Flux.defer(() -> Flux.fromIterable(
+                getScanRanges(entityInformation, parallelism)))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(range -> Flux.defer(() -> Flux.fromIterable(
+                        doScanRange(entityInformation, range)))
+                    .subscribeOn(Schedulers.boundedElastic()),
+                parallelism, SCAN_PREFETCH)
+            .map(mv -> getConverter().read(entityClass, mv));
+    }
+
+    /**
+     * Executes the query and returns its results as they are fetched. Query
+     * batches are fetched on {@link Schedulers#boundedElastic()} only when
+     * there is demand and fetching stops when the subscriber cancels.
+     */
     public <T> Flux<MapValue> executeMapValueQuery(NosqlQuery query,
         NosqlEntityInformation<T, ?> entityInformation) {
-        Iterable<MapValue> results = doExecuteMapValueQuery(query,
-            entityInformation);
+        Assert.notNull(entityInformation, "EntityInformation should " +
+            "not be null");
+        Assert.notNull(query, "Query should not be null.");
+
+        return querySource(entityInformation,
+            () -> prepareMapValueQuery(query, entityInformation));
+    }
 
-        return Flux.fromIterable(results);
+    private Flux<MapValue> querySource(
+        NosqlEntityInformation<?, ?> entityInformation,
+        Supplier<QueryRequest> requestSupplier) {
+        // the earliest deadline of the subscriber context and the caller
+        NosqlDeadline current = NosqlDeadline.current();
+        // batches run on scheduler threads, the observation of the caller,
+        // usually the one of a repository method, is kept as their parent
+        Observation parent = getObservationRegistry() == null ? null :
+            getObservationRegistry().getCurrentObservation();
+        return Flux.deferContextual(context -> {
+            NosqlDeadline deadline = NosqlDeadline.earliest(current,
+                NosqlDeadline.fromContext(context));
+            Function<QueryRequest, QueryResult> executor =
+                getBatchExecutor(entityInformation, deadline);
+            if (parent != null) {
+                Function<QueryRequest, QueryResult> batchExecutor = executor;
+                executor = batchReq -> {
+                    try (Observation.Scope scope = parent.openScope()) {
+                        return batchExecutor.apply(batchReq);
+                    }
+                };
+            }
+            return ReactiveQuerySource.create(requestSupplier, executor,
+                psCache, resultScheduler);
+        });
     }
 }
@@ -0,0 +1,83 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.core;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import oracle.nosql.driver.NoSQLException;
+import oracle.nosql.driver.ops.PreparedStatement;
+import oracle.nosql.driver.ops.QueryRequest;
+import oracle.nosql.driver.ops.QueryResult;
+import oracle.nosql.driver.util.LruCache;
+import oracle.nosql.driver.values.MapValue;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reactive counterpart of {@link IterableUtil.IterableImpl}. Query batches
+ * are fetched on the bounded elastic scheduler, one batch at a time and at
+ * most one batch ahead of the downstream demand. Once the subscriber
+ * cancels no more batches are fetched and the query request is closed.
+ * Results are emitted on the publish scheduler, so that converting and
+ * consuming a batch doesn't hold the thread fetching the next one.
+ */
+final class ReactiveQuerySource {
+
+    private ReactiveQuerySource() {}
+
+    /**
+     * Returns a Flux of the results of the query request created by
+     * requestSupplier at subscription time.
+     *
+     * @param requestSupplier creates the query request, it may block to
+     * prepare the query so it is called on the bounded elastic scheduler.
+     * @param batchExecutor executes one query batch.
+     * @param psCache the prepared statements cache to clean up on errors.
+     * @param publishScheduler the scheduler results are emitted on.
+     */
+    static Flux<MapValue> create(
+        Supplier<QueryRequest> requestSupplier,
+        Function<QueryRequest, QueryResult> batchExecutor,
+        LruCache<String, PreparedStatement> psCache,
+        Scheduler publishScheduler) {
+
+        return Flux.<List<MapValue>, QueryRequest>generate(requestSupplier::get,
+                (queryRequest, sink) -> {
+                    List<MapValue> results;
+                    try {
+                        // skip empty batches of queries that are not done
+                        do {
+                            results = batchExecutor.apply(queryRequest)
+                                .getResults();
+                        } while (results.isEmpty() && !queryRequest.isDone());
+                    } catch (NoSQLException nse) {
+                        sink.error(IterableUtil.convertQueryException(
+                            psCache, queryRequest, nse));
+                        return queryRequest;
+                    }
+
+                    if (!results.isEmpty()) {
+                        sink.next(results);
+                    }
+                    if (queryRequest.isDone()) {
+                        sink.complete();
+                    }
+                    return queryRequest;
+                },
+                QueryRequest::close)
+            .subscribeOn(Schedulers.boundedElastic())
+            // hand over one batch at a time, the next one is fetched while
+            // the current one is consumed
+            .publishOn(publishScheduler, 1)
+            // request the next batch only after the current one is emitted
+            .concatMapIterable(Function.identity(), 1);
+    }
+}
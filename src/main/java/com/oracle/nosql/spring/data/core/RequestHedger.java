@@ -0,0 +1,298 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.core;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.oracle.nosql.spring.data.config.NosqlHedgingPolicy;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Runs reads according to a {@link NosqlHedgingPolicy}: the read is sent
+ * from the calling thread and, if it takes longer than the policy
+ * percentile of the recent latencies of its table, a hedge is sent from a
+ * pool thread and the first successful result is returned.<p>
+ *
+ * Driver requests are synchronous, the calling thread is interrupted when
+ * the hedge wins so that its read is abandoned, the driver then throws
+ * and the interrupt status is cleared before the hedge result is
+ * returned.
+ */
+final class RequestHedger {
+
+    /* number of latencies kept per table */
+    private static final int WINDOW_SIZE = 512;
+    /* latencies recorded before the delay is computed again */
+    private static final int RECOMPUTE_EVERY = 64;
+    /* maximum number of hedges that can be sent in a burst */
+    private static final double MAX_BUDGET = 10;
+
+    private final NosqlHedgingPolicy policy;
+    /* schedules the hedges and sends them */
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Map<String, LatencyWindow> latencies =
+        new ConcurrentHashMap<>();
+
+    private double budget;
+    /* reads whose share of hedges was added to the budget */
+    private long budgetReads;
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder denied = new LongAdder();
+
+    RequestHedger(NosqlHedgingPolicy policy) {
+        this.policy = policy;
+        CustomizableThreadFactory threadFactory =
+            new CustomizableThreadFactory("nosql-hedge-");
+        threadFactory.setDaemon(true);
+        scheduler = new ScheduledThreadPoolExecutor(
+            policy.getMaxParallelism(), threadFactory);
+        scheduler.setRemoveOnCancelPolicy(true);
+        scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        // no threads are kept without hedges
+        scheduler.setKeepAliveTime(30, TimeUnit.SECONDS);
+        scheduler.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Runs primary in the calling thread and, if it is slow, hedge in a
+     * pool thread, returning the first successful result. If both fail the
+     * exception of primary is thrown. The two suppliers must not share
+     * mutable requests.
+     */
+    <R> R execute(String tableName, Supplier<R> primary, Supplier<R> hedge) {
+        reads.increment();
+        LatencyWindow window = latencies.computeIfAbsent(
+            String.valueOf(tableName), k -> new LatencyWindow());
+        long delayMs = window.getDelayMs();
+
+        long start = System.nanoTime();
+        HedgedRead<R> read = null;
+        ScheduledFuture<?> timer = null;
+        if (delayMs != Long.MAX_VALUE) {
+            read = new HedgedRead<>(hedge);
+            try {
+                timer = scheduler.schedule(read, delayMs,
+                    TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ree) {
+                // the template is destroyed, the read is not hedged
+                read = null;
+            }
+        }
+
+        R result = null;
+        RuntimeException failure = null;
+        try {
+            result = primary.get();
+        } catch (RuntimeException re) {
+            failure = re;
+        } finally {
+            // a lower bound of the latency if the read was abandoned
+            window.record(
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        if (read == null) {
+            if (failure != null) {
+                throw failure;
+            }
+            return result;
+        }
+        try {
+            return read.primaryDone(result, failure);
+        } finally {
+            timer.cancel(false);
+        }
+    }
+
+    /**
+     * Stops the threads, reads are then no longer hedged.
+     */
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /*
+     * Adds the share of hedges of the reads run since the last call and
+     * takes one if available.
+     */
+    private synchronized boolean acquireHedge() {
+        long n = reads.sum();
+        budget = Math.min(MAX_BUDGET,
+            budget + policy.getMaxRate() * (n - budgetReads));
+        budgetReads = n;
+        if (budget >= 1) {
+            budget -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of reads run.
+     */
+    long getReadCount() {
+        return reads.sum();
+    }
+
+    /**
+     * Returns the number of hedges sent.
+     */
+    long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    /**
+     * Returns the number of hedges whose result was returned, the primary
+     * read being slower.
+     */
+    long getHedgeWinCount() {
+        return hedgeWins.sum();
+    }
+
+    /**
+     * Returns the number of hedges not sent because of the rate limit.
+     */
+    long getHedgeDeniedCount() {
+        return denied.sum();
+    }
+
+    /*
+     * A read and its hedge. The hedge is sent when run is called by the
+     * scheduler, unless the read completed. All fields are guarded by this.
+     */
+    private final class HedgedRead<R> implements Runnable {
+        private final Thread caller = Thread.currentThread();
+        private final boolean callerInterrupted = caller.isInterrupted();
+        private final Supplier<R> hedge;
+        private boolean primaryRunning = true;
+        private boolean started;
+        private boolean done;
+        /* the pool thread sending the hedge */
+        private Thread sender;
+        private R result;
+        private RuntimeException failure;
+
+        HedgedRead(Supplier<R> hedge) {
+            this.hedge = hedge;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (!primaryRunning) {
+                    return;
+                }
+            }
+            if (!acquireHedge()) {
+                denied.increment();
+                return;
+            }
+            synchronized (this) {
+                if (!primaryRunning) {
+                    return;
+                }
+                started = true;
+                sender = Thread.currentThread();
+            }
+            hedges.increment();
+            R r = null;
+            RuntimeException e = null;
+            try {
+                r = hedge.get();
+            } catch (RuntimeException re) {
+                e = re;
+            }
+            synchronized (this) {
+                sender = null;
+                // clears the interrupt of a hedge abandoned by the read
+                Thread.interrupted();
+                done = true;
+                result = r;
+                failure = e;
+                if (e == null && primaryRunning) {
+                    caller.interrupt();
+                }
+                notifyAll();
+            }
+        }
+
+        /*
+         * Called by the calling thread when the read returned or threw,
+         * returns the result of the read or of the hedge if it won.
+         */
+        synchronized R primaryDone(R primaryResult,
+            RuntimeException primaryFailure) {
+            primaryRunning = false;
+            boolean interrupted = callerInterrupted;
+            if (primaryFailure != null) {
+                while (started && !done) {
+                    try {
+                        wait();
+                    } catch (InterruptedException ie) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if (done && failure == null) {
+                // clears the interrupt sent by the hedge
+                if (!interrupted) {
+                    Thread.interrupted();
+                }
+                hedgeWins.increment();
+                return result;
+            }
+            if (interrupted) {
+                caller.interrupt();
+            }
+            if (sender != null) {
+                // the hedge is abandoned
+                sender.interrupt();
+            }
+            if (primaryFailure != null) {
+                // the exception of primary is the one thrown
+                throw primaryFailure;
+            }
+            return primaryResult;
+        }
+    }
+
+    /* Recent latencies of a table and the hedge delay computed from them. */
+    private final class LatencyWindow {
+        private final long[] samples = new long[WINDOW_SIZE];
+        private long count;
+        private int next;
+        private volatile long delayMs = Long.MAX_VALUE;
+
+        long getDelayMs() {
+            return delayMs;
+        }
+
+        synchronized void record(long latencyMs) {
+            samples[next] = latencyMs;
+            next = (next + 1) % WINDOW_SIZE;
+            count++;
+            if (count % RECOMPUTE_EVERY == 0) {
+                int n = (int) Math.min(count, WINDOW_SIZE);
+                long[] sorted = Arrays.copyOf(samples, n);
+                Arrays.sort(sorted);
+                int index = Math.min(n - 1,
+                    (int) Math.ceil(policy.getPercentile() * n) - 1);
+                delayMs = Math.max(policy.getMinDelayMs(), sorted[index]);
+            }
+        }
+    }
+}
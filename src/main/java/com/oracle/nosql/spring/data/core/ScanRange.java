@@ -0,0 +1,203 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.core;
+
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import oracle.nosql.driver.values.DoubleValue;
+import oracle.nosql.driver.values.FieldValue;
+import oracle.nosql.driver.values.LongValue;
+import oracle.nosql.driver.values.StringValue;
+import oracle.nosql.driver.values.TimestampValue;
+
+/**
+ * A range of values of the first shard key column of a table, used to split
+ * a full table scan into independent queries. The lower bound is inclusive
+ * and the upper bound exclusive, a null bound means unbounded. The ranges
+ * returned by {@link #split} cover the whole domain of the column, including
+ * values outside the current min and max.
+ */
+final class ScanRange {
+
+    /* number of string characters used to split string keys */
+    private static final int STRING_PREFIX_CHARS = 2;
+    /* first character after the surrogate range */
+    private static final char AFTER_SURROGATES = '\uE000';
+
+    private final FieldValue lower;
+    private final FieldValue upper;
+    private final String sqlType;
+
+    private ScanRange(FieldValue lower, FieldValue upper, String sqlType) {
+        this.lower = lower;
+        this.upper = upper;
+        this.sqlType = sqlType;
+    }
+
+    FieldValue getLower() {
+        return lower;
+    }
+
+    FieldValue getUpper() {
+        return upper;
+    }
+
+    /**
+     * Returns the type used to declare the bound variables.
+     */
+    String getSqlType() {
+        return sqlType;
+    }
+
+    boolean isUnbounded() {
+        return lower == null && upper == null;
+    }
+
+    static ScanRange unbounded() {
+        return new ScanRange(null, null, null);
+    }
+
+    /**
+     * Splits [min, max] of a column of the given type in at most parts
+     * ranges. Returns a single unbounded range if the type can't be split.
+     */
+    static List<ScanRange> split(FieldValue.Type type, FieldValue min,
+        FieldValue max, int parts) {
+
+        if (parts <= 1 || min == null || max == null || min.isNull() ||
+            max.isNull()) {
+            return Collections.singletonList(unbounded());
+        }
+
+        List<FieldValue> bounds = new ArrayList<>();
+        String sqlType;
+        switch (type) {
+        case INTEGER:
+        case LONG:
+            sqlType = "LONG";
+            for (BigInteger b : splitBigInteger(
+                BigInteger.valueOf(toLong(min)),
+                BigInteger.valueOf(toLong(max)), parts)) {
+                bounds.add(new LongValue(b.longValue()));
+            }
+            break;
+        case DOUBLE:
+        case NUMBER:
+            sqlType = "DOUBLE";
+            double lo = min.castAsDouble();
+            double hi = max.castAsDouble();
+            for (int i = 1; i < parts; i++) {
+                bounds.add(new DoubleValue(lo + (hi - lo) * i / parts));
+            }
+            break;
+        case TIMESTAMP:
+            sqlType = "TIMESTAMP";
+            for (BigInteger b : splitBigInteger(
+                BigInteger.valueOf(min.getTimestamp().getTime()),
+                BigInteger.valueOf(max.getTimestamp().getTime()), parts)) {
+                bounds.add(new TimestampValue(new Timestamp(b.longValue())));
+            }
+            break;
+        case STRING:
+            sqlType = "STRING";
+            for (BigInteger b : splitBigInteger(
+                stringPrefixToNumber(min.getString()),
+                stringPrefixToNumber(max.getString()), parts)) {
+                bounds.add(new StringValue(numberToStringPrefix(b)));
+            }
+            break;
+        default:
+            return Collections.singletonList(unbounded());
+        }
+
+        // keep only strictly increasing bounds
+        List<FieldValue> distinct = new ArrayList<>();
+        for (FieldValue b : bounds) {
+            if (distinct.isEmpty() ||
+                distinct.get(distinct.size() - 1).compareTo(b) < 0) {
+                distinct.add(b);
+            }
+        }
+
+        List<ScanRange> ranges = new ArrayList<>(distinct.size() + 1);
+        FieldValue prev = null;
+        for (FieldValue b : distinct) {
+            ranges.add(new ScanRange(prev, b, sqlType));
+            prev = b;
+        }
+        ranges.add(new ScanRange(prev, null, sqlType));
+        return ranges;
+    }
+
+    /**
+     * Returns the parts - 1 inner bounds that split [lo, hi] evenly.
+     */
+    private static List<BigInteger> splitBigInteger(BigInteger lo,
+        BigInteger hi, int parts) {
+        List<BigInteger> res = new ArrayList<>(parts - 1);
+        BigInteger width = hi.subtract(lo);
+        if (width.signum() <= 0) {
+            return res;
+        }
+        BigInteger n = BigInteger.valueOf(parts);
+        for (int i = 1; i < parts; i++) {
+            res.add(lo.add(width.multiply(BigInteger.valueOf(i)).divide(n)));
+        }
+        return res;
+    }
+
+    private static long toLong(FieldValue value) {
+        return value.getType() == FieldValue.Type.INTEGER ? value.getInt() :
+            value.getLong();
+    }
+
+    private static BigInteger stringPrefixToNumber(String s) {
+        BigInteger res = BigInteger.ZERO;
+        for (int i = 0; i < STRING_PREFIX_CHARS; i++) {
+            int c = i < s.length() ? s.charAt(i) : 0;
+            res = res.shiftLeft(16).or(BigInteger.valueOf(c));
+        }
+        return res;
+    }
+
+    /*
+     * Split points in the surrogate range would be lone surrogates, not
+     * valid strings, they are moved up to the first character after the
+     * range and the remaining characters are dropped. This keeps the bounds
+     * increasing, in the same order by UTF-16 unit and by code point.
+     */
+    private static String numberToStringPrefix(BigInteger n) {
+        char[] chars = new char[STRING_PREFIX_CHARS];
+        for (int i = STRING_PREFIX_CHARS - 1; i >= 0; i--) {
+            chars[i] = (char) n.intValue();
+            n = n.shiftRight(16);
+        }
+        for (int i = 0; i < STRING_PREFIX_CHARS; i++) {
+            if (Character.isSurrogate(chars[i])) {
+                chars[i] = AFTER_SURROGATES;
+                for (int j = i + 1; j < STRING_PREFIX_CHARS; j++) {
+                    chars[j] = 0;
+                }
+                break;
+            }
+        }
+        int len = STRING_PREFIX_CHARS;
+        while (len > 1 && chars[len - 1] == 0) {
+            len--;
+        }
+        return new String(chars, 0, len);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + lower + ", " + upper + ")";
+    }
+}
@@ -0,0 +1,101 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.core;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical requests: while a request with a given key
+ * is in flight, callers with the same key wait for it and share its result
+ * instead of sending their own request. Nothing is kept once the request
+ * completes, so results are never older than the request the caller
+ * waited for.
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight =
+        new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    /**
+     * Runs op, or waits for the op already running with the same key and
+     * returns its result. Exceptions of op are thrown to all the callers
+     * sharing it.
+     */
+    Result<V> execute(K key, Supplier<V> op) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            shared.increment();
+            try {
+                return new Result<>(running.join(), false);
+            } catch (CompletionException ce) {
+                Throwable cause = ce.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw ce;
+            }
+        }
+
+        executed.increment();
+        try {
+            V value = op.get();
+            future.complete(value);
+            return new Result<>(value, true);
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Returns the number of requests sent.
+     */
+    long getExecutedCount() {
+        return executed.sum();
+    }
+
+    /**
+     * Returns the number of callers that shared the result of a request
+     * sent by another caller.
+     */
+    long getSharedCount() {
+        return shared.sum();
+    }
+
+    static final class Result<V> {
+        private final V value;
+        private final boolean leader;
+
+        private Result(V value, boolean leader) {
+            this.value = value;
+            this.leader = leader;
+        }
+
+        V getValue() {
+            return value;
+        }
+
+        /**
+         * Returns true if this caller sent the request.
+         */
+        boolean isLeader() {
+            return leader;
+        }
+    }
+}
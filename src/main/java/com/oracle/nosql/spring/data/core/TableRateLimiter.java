@@ -0,0 +1,297 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.core;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import oracle.nosql.driver.RequestTimeoutException;
+import oracle.nosql.driver.ops.TableLimits;
+import oracle.nosql.driver.util.SimpleRateLimiter;
+
+/**
+ * Client side token bucket rate limiter of a table, one for reads and one for
+ * writes, seeded from the table read and write units.<p>
+ *
+ * Limiters are kept in the {@link Registry} of a
+ * {@link com.oracle.nosql.spring.data.NosqlDbFactory} keyed by table name,
+ * the templates and repositories of a factory using the same table share
+ * the same read and write budget. Before each request the caller waits
+ * until the limiter is under its limit, after the request the units
+ * actually consumed, as reported by the result, are charged to the limiter.
+ * This smooths out bursts that would otherwise be rejected by the service
+ * with ReadThrottlingException or WriteThrottlingException.<p>
+ *
+ * Limiters are created from the limits returned by the service for the
+ * table or, until the table is read or created, from the units declared on
+ * the {@link com.oracle.nosql.spring.data.core.mapping.NosqlTable}
+ * annotation of the entity. Tables in on demand mode, or without table
+ * limits, like on premise tables, are not limited.
+ *
+ * @since 2.3.0
+ */
+public class TableRateLimiter {
+
+    private final String tableName;
+    /* table units and percentage the limiters were created with */
+    private final int tableReadUnits;
+    private final int tableWriteUnits;
+    private final double percentage;
+    private final SimpleRateLimiter readLimiter;
+    private final SimpleRateLimiter writeLimiter;
+
+    private final LongAdder readWaitMs = new LongAdder();
+    private final LongAdder writeWaitMs = new LongAdder();
+    private final LongAdder readDelayedCount = new LongAdder();
+    private final LongAdder writeDelayedCount = new LongAdder();
+    private final LongAdder readUnits = new LongAdder();
+    private final LongAdder writeUnits = new LongAdder();
+
+    private TableRateLimiter(String tableName, TableLimits limits,
+        double percentage) {
+        this.tableName = tableName;
+        this.tableReadUnits = limits.getReadUnits();
+        this.tableWriteUnits = limits.getWriteUnits();
+        this.percentage = percentage;
+        readLimiter = createLimiter(limits.getReadUnits(), percentage);
+        writeLimiter = createLimiter(limits.getWriteUnits(), percentage);
+    }
+
+    private static boolean isProvisioned(TableLimits limits) {
+        return limits != null &&
+            limits.getMode() != TableLimits.CapacityMode.ON_DEMAND &&
+            (limits.getReadUnits() > 0 || limits.getWriteUnits() > 0);
+    }
+
+    /* Returns true if the limiters were created for limits. */
+    private boolean hasLimits(TableLimits limits, double percent) {
+        return tableReadUnits == limits.getReadUnits() &&
+            tableWriteUnits == limits.getWriteUnits() &&
+            percentage == percent;
+    }
+
+    private static SimpleRateLimiter createLimiter(int units,
+        double percentage) {
+        if (units <= 0) {
+            return null;
+        }
+        return new SimpleRateLimiter(units * percentage / 100.0);
+    }
+
+    /**
+     * Waits until the read limiter is under its limit.
+     */
+    void beforeRead(int timeoutMs) {
+        if (readLimiter != null) {
+            long waited = waitForUnits(readLimiter, timeoutMs, "read");
+            if (waited > 0) {
+                readWaitMs.add(waited);
+                readDelayedCount.increment();
+            }
+        }
+    }
+
+    /**
+     * Waits until the write limiter is under its limit.
+     */
+    void beforeWrite(int timeoutMs) {
+        if (writeLimiter != null) {
+            long waited = waitForUnits(writeLimiter, timeoutMs, "write");
+            if (waited > 0) {
+                writeWaitMs.add(waited);
+                writeDelayedCount.increment();
+            }
+        }
+    }
+
+    /**
+     * Charges the units actually consumed by a request.
+     */
+    void afterRequest(int consumedReadUnits, int consumedWriteUnits) {
+        if (readLimiter != null && consumedReadUnits > 0) {
+            readLimiter.consumeUnitsUnconditionally(consumedReadUnits);
+        }
+        if (writeLimiter != null && consumedWriteUnits > 0) {
+            writeLimiter.consumeUnitsUnconditionally(consumedWriteUnits);
+        }
+        readUnits.add(consumedReadUnits);
+        writeUnits.add(consumedWriteUnits);
+    }
+
+    private long waitForUnits(SimpleRateLimiter limiter, int timeoutMs,
+        String kind) {
+        try {
+            return limiter.consumeUnitsWithTimeout(0, timeoutMs, false);
+        } catch (TimeoutException te) {
+            throw new RequestTimeoutException(timeoutMs,
+                "Timed out waiting for the " + kind + " rate limiter of " +
+                "table " + tableName);
+        }
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * Returns the read units per second allowed by this limiter or 0 if
+     * reads are not limited.
+     */
+    public double getReadLimitPerSecond() {
+        return readLimiter == null ? 0 : readLimiter.getLimitPerSecond();
+    }
+
+    /**
+     * Returns the write units per second allowed by this limiter or 0 if
+     * writes are not limited.
+     */
+    public double getWriteLimitPerSecond() {
+        return writeLimiter == null ? 0 : writeLimiter.getLimitPerSecond();
+    }
+
+    /**
+     * Returns the total time in milliseconds requests waited for the read
+     * limiter.
+     */
+    public long getReadWaitTimeMs() {
+        return readWaitMs.sum();
+    }
+
+    /**
+     * Returns the total time in milliseconds requests waited for the write
+     * limiter.
+     */
+    public long getWriteWaitTimeMs() {
+        return writeWaitMs.sum();
+    }
+
+    /**
+     * Returns the number of requests delayed by the read limiter.
+     */
+    public long getReadDelayedCount() {
+        return readDelayedCount.sum();
+    }
+
+    /**
+     * Returns the number of requests delayed by the write limiter.
+     */
+    public long getWriteDelayedCount() {
+        return writeDelayedCount.sum();
+    }
+
+    /**
+     * Returns the total read units charged to this limiter.
+     */
+    public long getConsumedReadUnits() {
+        return readUnits.sum();
+    }
+
+    /**
+     * Returns the total write units charged to this limiter.
+     */
+    public long getConsumedWriteUnits() {
+        return writeUnits.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "TableRateLimiter{table=" + tableName +
+            ", readLimit=" + getReadLimitPerSecond() +
+            ", writeLimit=" + getWriteLimitPerSecond() +
+            ", readWaitMs=" + getReadWaitTimeMs() +
+            ", writeWaitMs=" + getWriteWaitTimeMs() + "}";
+    }
+
+    /**
+     * Rate limiters of the tables used by the templates of a factory, see
+     * {@link com.oracle.nosql.spring.data.NosqlDbFactory#getTableRateLimiters()}.
+     */
+    public static final class Registry {
+
+        private final ConcurrentMap<String, TableRateLimiter> limiters =
+            new ConcurrentHashMap<>();
+        /* tables the service returned no provisioned limits for */
+        private final Set<String> unlimited = ConcurrentHashMap.newKeySet();
+
+        /**
+         * Returns the rate limiter of the table or null if the table is not
+         * rate limited.
+         */
+        public TableRateLimiter get(String tableName) {
+            return limiters.get(tableName);
+        }
+
+        /**
+         * Returns the rate limiters of all limited tables.
+         */
+        public Collection<TableRateLimiter> getAll() {
+            return Collections.unmodifiableCollection(limiters.values());
+        }
+
+        /**
+         * Removes the rate limiter of the table. A new one will be created
+         * on next use if rate limiting is enabled.
+         */
+        public void remove(String tableName) {
+            limiters.remove(tableName);
+            unlimited.remove(tableName);
+        }
+
+        /**
+         * Removes all rate limiters.
+         */
+        public void clear() {
+            limiters.clear();
+            unlimited.clear();
+        }
+
+        /**
+         * Returns the rate limiter of the table, creating it from limits if
+         * it doesn't exist. Returns null if there is no limiter and limits
+         * is null or not in provisioned mode, or if the service returned no
+         * limits for the table.
+         *
+         * @param percentage the percentage (0 - 100] of the table units to
+         * be used by the factory.
+         */
+        TableRateLimiter getOrCreate(String tableName, TableLimits limits,
+            double percentage) {
+            TableRateLimiter limiter = limiters.get(tableName);
+            if (limiter != null || !isProvisioned(limits) ||
+                unlimited.contains(tableName)) {
+                return limiter;
+            }
+            return limiters.computeIfAbsent(tableName,
+                k -> new TableRateLimiter(k, limits, percentage));
+        }
+
+        /**
+         * Sets the limiter of the table from the actual limits of the
+         * table as returned by the service, removing it if the table is
+         * not limited.
+         */
+        void update(String tableName, TableLimits limits,
+            double percentage) {
+            if (!isProvisioned(limits)) {
+                unlimited.add(tableName);
+                limiters.remove(tableName);
+                return;
+            }
+            unlimited.remove(tableName);
+            TableRateLimiter limiter = limiters.get(tableName);
+            if (limiter == null || !limiter.hasLimits(limits, percentage)) {
+                limiters.put(tableName,
+                    new TableRateLimiter(tableName, limits, percentage));
+            }
+        }
+    }
+}
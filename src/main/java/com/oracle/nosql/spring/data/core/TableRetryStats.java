@@ -0,0 +1,86 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.core;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Retry counters of a table, updated when a
+ * {@link com.oracle.nosql.spring.data.config.NosqlRetryPolicy} is
+ * configured.
+ *
+ * @since 2.3.0
+ */
+public class TableRetryStats {
+
+    private final String tableName;
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder backoffMs = new LongAdder();
+
+    TableRetryStats(String tableName) {
+        this.tableName = tableName;
+    }
+
+    void retried(long delayMs) {
+        retries.increment();
+        backoffMs.add(delayMs);
+    }
+
+    void recovered() {
+        recovered.increment();
+    }
+
+    void exhausted() {
+        exhausted.increment();
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * Returns the total number of retries.
+     */
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    /**
+     * Returns the number of operations that succeeded after at least one
+     * retry.
+     */
+    public long getRecoveredCount() {
+        return recovered.sum();
+    }
+
+    /**
+     * Returns the number of operations that failed after using all their
+     * retries or their retry time budget.
+     */
+    public long getExhaustedCount() {
+        return exhausted.sum();
+    }
+
+    /**
+     * Returns the total time in milliseconds spent in backoff between
+     * retries.
+     */
+    public long getBackoffTimeMs() {
+        return backoffMs.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "TableRetryStats{table=" + tableName +
+            ", retries=" + getRetryCount() +
+            ", recovered=" + getRecoveredCount() +
+            ", exhausted=" + getExhaustedCount() +
+            ", backoffMs=" + getBackoffTimeMs() + "}";
+    }
+}
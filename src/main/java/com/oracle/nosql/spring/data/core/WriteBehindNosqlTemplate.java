@@ -0,0 +1,691 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import oracle.nosql.driver.ops.WriteMultipleResult;
+import oracle.nosql.driver.values.MapValue;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.AbstractNosqlConfiguration;
+import com.oracle.nosql.spring.data.config.WriteBehindConfig;
+import com.oracle.nosql.spring.data.config.WriteBehindOverflowPolicy;
+import com.oracle.nosql.spring.data.core.convert.MappingNosqlConverter;
+import com.oracle.nosql.spring.data.core.query.Update;
+import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link NosqlTemplate} buffering inserts and updates in memory and
+ * writing them asynchronously, for entities saved often where only the last
+ * value matters, like telemetry.<p>
+ *
+ * Writes to the same primary key are coalesced, only the last row is
+ * written. The buffer is flushed when it holds
+ * {@link WriteBehindConfig#getBatchSize()} keys, every
+ * {@link WriteBehindConfig#getFlushInterval()} milliseconds, on
+ * {@link #flush()} and when the template is destroyed. Buffered rows of the
+ * same table and shard key are written with a single WriteMultipleRequest.
+ * When the buffer is full, writes of new keys are handled according to
+ * {@link WriteBehindConfig#getOverflowPolicy()}.<p>
+ *
+ * Updates keep their semantics: a buffered update is written only if the
+ * row exists, unless it replaced a buffered insert of the key. findById
+ * returns the buffered entity of a key until it is written, deletes
+ * discard the buffered writes they cover and updateFields and increment
+ * write the buffered row first. Queries only see written rows. Entities
+ * with generated ids are written synchronously.<p>
+ *
+ * Rows whose write fails stay buffered and are written by the next
+ * flushes, errors of background flushes are logged and counted in
+ * {@link #getFailedCount()}. After
+ * {@link WriteBehindConfig#getMaxFlushAttempts()} failed flushes a row is
+ * dropped with the {@link WriteBehindOverflowPolicy#DROP} policy, with the
+ * other policies it stays buffered, so that during an outage the buffer
+ * fills up and new writes block or are written through.<p>
+ *
+ * Note: Buffered writes are lost if the process ends without the template
+ * being destroyed, or if they still fail when it is destroyed.
+ *
+ * @since 2.3.0
+ */
+public class WriteBehindNosqlTemplate
+    extends NosqlTemplate
+    implements DisposableBean {
+
+    private final WriteBehindConfig config;
+
+    /* buffered writes by table and primary key, in arrival order */
+    private final Map<String, BufferedWrite> buffer = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    /* orders flushes and direct writes, so that rows of a key are written
+     * in order */
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+    private volatile boolean closed;
+
+    private final LongAdder buffered = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder writtenThrough = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+
+    public static WriteBehindNosqlTemplate create(
+        NosqlDbFactory nosqlDbFactory, WriteBehindConfig config)
+        throws ClassNotFoundException {
+        Assert.notNull(nosqlDbFactory, "NosqlDbFactory should not be null.");
+        AbstractNosqlConfiguration configuration =
+            new AbstractNosqlConfiguration();
+        return new WriteBehindNosqlTemplate(nosqlDbFactory,
+            configuration.mappingNosqlConverter(), config);
+    }
+
+    public WriteBehindNosqlTemplate(NosqlDbFactory nosqlDbFactory,
+        MappingNosqlConverter mappingNosqlConverter,
+        WriteBehindConfig config) {
+
+        super(nosqlDbFactory, mappingNosqlConverter);
+        Assert.notNull(config, "WriteBehindConfig should not be null.");
+        this.config = config;
+
+        CustomizableThreadFactory threadFactory =
+            new CustomizableThreadFactory("nosql-write-behind-");
+        threadFactory.setDaemon(true);
+        flusher = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        flusher.scheduleWithFixedDelay(this::flushQuietly,
+            config.getFlushInterval(), config.getFlushInterval(),
+            TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Buffers the entity, unless its id is generated. The entity is
+     * returned without waiting for it to be written.
+     */
+    @Override
+    public <T, ID> T insert(NosqlEntityInformation<T, ID> entityInformation,
+        T entity) {
+        Assert.notNull(entityInformation, "Entity information " +
+            "should not be null.");
+        Assert.notNull(entity, "entity should not be null");
+
+        if (entityInformation.isAutoGeneratedId()) {
+            return super.insert(entityInformation, entity);
+        }
+        bufferWrite(entityInformation,
+            mappingNosqlConverter.convertObjToRow(entity, false), false);
+        return entity;
+    }
+
+    /**
+     * Buffers the entity, unless its id is generated. The row is written
+     * only if it exists when the buffer is flushed.
+     */
+    @Override
+    public <T, ID> void update(NosqlEntityInformation<T, ID> entityInformation,
+        T entity) {
+        Assert.notNull(entityInformation, "Entity information " +
+            "should not be null.");
+        Assert.notNull(entity, "entity should not be null");
+
+        if (entityInformation.isAutoGeneratedId()) {
+            super.update(entityInformation, entity);
+            return;
+        }
+        bufferWrite(entityInformation,
+            mappingNosqlConverter.convertObjToRow(entity, false), true);
+    }
+
+    @Override
+    public <T, ID> T findById(NosqlEntityInformation<T, ID> entityInformation,
+        ID id) {
+        Assert.notNull(entityInformation, "Entity information " +
+            "should not be null.");
+        Assert.notNull(id, "id should not be null");
+
+        BufferedWrite write;
+        lock.lock();
+        try {
+            write = buffer.get(getBufferKey(entityInformation,
+                toPrimaryKey(entityInformation, id)));
+            write = write == null ? null : write.copy();
+        } finally {
+            lock.unlock();
+        }
+        if (write == null) {
+            return super.findById(entityInformation, id);
+        }
+        // an update is only applied to an existing row
+        if (write.ifPresent && super.findById(entityInformation, id) == null) {
+            return null;
+        }
+        return mappingNosqlConverter.read(entityInformation.getJavaType(),
+            write.row);
+    }
+
+    @Override
+    public <T, ID> void deleteById(
+        NosqlEntityInformation<T, ID> entityInformation, ID id) {
+        Assert.notNull(entityInformation, "Entity information " +
+            "should not be null.");
+        Assert.notNull(id, "id should not be null");
+
+        String key = getBufferKey(entityInformation,
+            toPrimaryKey(entityInformation, id));
+        flushLock.lock();
+        try {
+            discard(key);
+            super.deleteById(entityInformation, id);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteAll(NosqlEntityInformation<?, ?> entityInformation) {
+        Assert.notNull(entityInformation, "Entity information " +
+            "should not be null.");
+
+        String tableName = entityInformation.getTableName();
+        flushLock.lock();
+        try {
+            lock.lock();
+            try {
+                buffer.values().removeIf(w ->
+                    w.entityInformation.getTableName().equals(tableName));
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            super.deleteAll(entityInformation);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public <T, ID> void deleteInShard(String tableName, Class<T> entityClass,
+        Iterable<? extends ID> ids) {
+        Assert.notNull(entityClass, "entityClass should not be null");
+        Assert.notNull(ids, "ids should not be null");
+
+        NosqlEntityInformation<?, ?> entityInformation =
+            getNosqlEntityInformation(entityClass);
+        flushLock.lock();
+        try {
+            for (ID id : ids) {
+                discard(getBufferKey(entityInformation,
+                    toPrimaryKey(entityInformation, id)));
+            }
+            super.deleteInShard(tableName, entityClass, ids);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public <T, ID> int updateFields(
+        NosqlEntityInformation<T, ID> entityInformation, ID id,
+        Update update) {
+        Assert.notNull(entityInformation, "Entity information " +
+            "should not be null.");
+        Assert.notNull(id, "Id should not be null");
+
+        flushLock.lock();
+        try {
+            writeBuffered(entityInformation, id);
+            return super.updateFields(entityInformation, id, update);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public <T, ID> Number increment(
+        NosqlEntityInformation<T, ID> entityInformation, ID id, String field,
+        Number delta) {
+        Assert.notNull(entityInformation, "Entity information " +
+            "should not be null.");
+        Assert.notNull(id, "Id should not be null");
+
+        flushLock.lock();
+        try {
+            writeBuffered(entityInformation, id);
+            return super.increment(entityInformation, id, field, delta);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes all buffered rows and waits for them to be written. Rows of
+     * the same table and shard key are written together, at most
+     * {@link WriteBehindConfig#getBatchSize()} rows per request, updates
+     * are written one by one. Rows stay buffered, and visible to findById,
+     * until they are written. If some writes fail, the other ones are still
+     * written and the first error is thrown, the failed rows stay buffered
+     * for the next flush, see {@link WriteBehindConfig#getMaxFlushAttempts()}.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<BufferedWrite> writes = new ArrayList<>();
+            lock.lock();
+            try {
+                buffer.values().forEach(write -> writes.add(write.copy()));
+            } finally {
+                lock.unlock();
+            }
+            if (writes.isEmpty()) {
+                return;
+            }
+            flushes.increment();
+
+            // group by table and shard key, keeping the arrival order
+            Map<String, List<BufferedWrite>> groups = new LinkedHashMap<>();
+            for (BufferedWrite write : writes) {
+                groups.computeIfAbsent(write.ifPresent ? write.key :
+                    getShardKey(write), k -> new ArrayList<>()).add(write);
+            }
+
+            RuntimeException error = null;
+            for (List<BufferedWrite> group : groups.values()) {
+                for (int i = 0; i < group.size();
+                     i += config.getBatchSize()) {
+                    List<BufferedWrite> batch = group.subList(i,
+                        Math.min(i + config.getBatchSize(), group.size()));
+                    try {
+                        writeBatch(batch);
+                        flushed.add(batch.size());
+                        written(batch);
+                    } catch (RuntimeException re) {
+                        failed.add(batch.size());
+                        LOG.error("Write behind flush of {} rows in table {} " +
+                            "failed: {}", batch.size(), batch.get(0)
+                            .entityInformation.getTableName(),
+                            re.getMessage());
+                        if (error == null) {
+                            error = re;
+                        }
+                        notWritten(batch);
+                    }
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Stops the background flushes and writes all buffered rows. Writes
+     * done after this are rejected, and rows that fail to be written are
+     * lost.
+     */
+    @Override
+    public void destroy() {
+        closed = true;
+        flusher.shutdown();
+        lock.lock();
+        try {
+            // writers waiting for space fail
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flush();
+        } finally {
+            super.destroy();
+        }
+    }
+
+    /**
+     * Returns the number of keys currently buffered.
+     */
+    public int getBufferedCount() {
+        lock.lock();
+        try {
+            return buffer.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of writes buffered, including coalesced ones.
+     */
+    public long getBufferedWriteCount() {
+        return buffered.sum();
+    }
+
+    /**
+     * Returns the number of writes that replaced a buffered write of the
+     * same key.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Returns the number of rows written by flushes.
+     */
+    public long getFlushedCount() {
+        return flushed.sum();
+    }
+
+    /**
+     * Returns the number of writes dropped with the
+     * {@link WriteBehindOverflowPolicy#DROP} policy, because the buffer was
+     * full or because they failed
+     * {@link WriteBehindConfig#getMaxFlushAttempts()} flushes.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the number of writes done synchronously because the buffer
+     * was full.
+     */
+    public long getWriteThroughCount() {
+        return writtenThrough.sum();
+    }
+
+    /**
+     * Returns the number of rows that flushes failed to write, a row
+     * failing several flushes being counted each time.
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Returns the number of flushes that wrote at least one row.
+     */
+    public long getFlushCount() {
+        return flushes.sum();
+    }
+
+    private void bufferWrite(NosqlEntityInformation<?, ?> entityInformation,
+        MapValue row, boolean ifPresent) {
+        checkNotClosed();
+
+        String key = getBufferKey(entityInformation, row);
+        lock.lock();
+        try {
+            buffered.increment();
+            BufferedWrite prev = buffer.get(key);
+            if (prev != null) {
+                prev.replace(row, ifPresent);
+                coalesced.increment();
+                return;
+            }
+
+            while (buffer.size() >= config.getCapacity()) {
+                switch (config.getOverflowPolicy()) {
+                case DROP:
+                    dropped.increment();
+                    LOG.debug("Write behind buffer full, dropped write in " +
+                        "table {}", entityInformation.getTableName());
+                    return;
+                case WRITE_THROUGH:
+                    writtenThrough.increment();
+                    lock.unlock();
+                    try {
+                        writeThrough(entityInformation, row, ifPresent);
+                    } finally {
+                        lock.lock();
+                    }
+                    return;
+                default:
+                    requestFlush();
+                    try {
+                        notFull.await();
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted " +
+                            "waiting for the write behind buffer.", ie);
+                    }
+                    // no flush frees space once closed
+                    checkNotClosed();
+                    prev = buffer.get(key);
+                    if (prev != null) {
+                        prev.replace(row, ifPresent);
+                        coalesced.increment();
+                        return;
+                    }
+                }
+            }
+
+            buffer.put(key,
+                new BufferedWrite(entityInformation, key, row, ifPresent));
+            if (buffer.size() >= config.getBatchSize()) {
+                requestFlush();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkNotClosed() {
+        if (closed) {
+            throw new IllegalStateException("WriteBehindNosqlTemplate is " +
+                "closed.");
+        }
+    }
+
+    private void writeThrough(NosqlEntityInformation<?, ?> entityInformation,
+        MapValue row, boolean ifPresent) {
+        flushLock.lock();
+        try {
+            doPut(entityInformation, row, ifPresent);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /* Writes the buffered row of id, if any. Called holding flushLock. */
+    private void writeBuffered(NosqlEntityInformation<?, ?> entityInformation,
+        Object id) {
+        BufferedWrite write = discard(getBufferKey(entityInformation,
+            toPrimaryKey(entityInformation, id)));
+        if (write != null) {
+            doPut(write.entityInformation, write.row, write.ifPresent);
+            flushed.increment();
+        }
+    }
+
+    private BufferedWrite discard(String key) {
+        lock.lock();
+        try {
+            BufferedWrite write = buffer.remove(key);
+            if (write != null) {
+                notFull.signalAll();
+            }
+            return write;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * Removes the written rows from the buffer, unless they were replaced
+     * meanwhile.
+     */
+    private void written(List<BufferedWrite> batch) {
+        lock.lock();
+        try {
+            for (BufferedWrite write : batch) {
+                BufferedWrite current = buffer.get(write.key);
+                if (current != null && current.row == write.row) {
+                    buffer.remove(write.key);
+                }
+            }
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * Counts a failed flush of the rows still buffered. Rows that failed
+     * max flush attempts are dropped with the DROP policy, the other ones
+     * are written by the next flush.
+     */
+    private void notWritten(List<BufferedWrite> batch) {
+        lock.lock();
+        try {
+            for (BufferedWrite write : batch) {
+                BufferedWrite current = buffer.get(write.key);
+                if (current == null || current.row != write.row) {
+                    continue;
+                }
+                current.failedFlushes++;
+                if (current.failedFlushes >= config.getMaxFlushAttempts() &&
+                    config.getOverflowPolicy() ==
+                        WriteBehindOverflowPolicy.DROP) {
+                    buffer.remove(write.key);
+                    dropped.increment();
+                    LOG.warn("Write behind dropped a write in table {} " +
+                        "after {} failed flushes",
+                        write.entityInformation.getTableName(),
+                        current.failedFlushes);
+                }
+            }
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void writeBatch(List<BufferedWrite> batch) {
+        NosqlEntityInformation<?, ?> entityInformation =
+            batch.get(0).entityInformation;
+        if (batch.size() == 1) {
+            doPut(entityInformation, batch.get(0).row, batch.get(0).ifPresent);
+            return;
+        }
+
+        List<MapValue> rows = new ArrayList<>(batch.size());
+        for (BufferedWrite write : batch) {
+            rows.add(write.row);
+        }
+        WriteMultipleResult res = doPutMultiple(entityInformation, rows);
+        if (!res.getSuccess()) {
+            throw new IllegalStateException("Write multiple in table " +
+                entityInformation.getTableName() + " failed at operation " +
+                res.getFailedOperationIndex());
+        }
+    }
+
+    private void requestFlush() {
+        if (!closed && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException re) {
+            // already logged and counted by flush()
+        }
+    }
+
+    private MapValue toPrimaryKey(
+        NosqlEntityInformation<?, ?> entityInformation, Object id) {
+        return mappingNosqlConverter.convertIdToPrimaryKey(
+            entityInformation.getIdColumnName(), id);
+    }
+
+    /* Table and primary key values of a row or of a primary key. */
+    private static String getBufferKey(
+        NosqlEntityInformation<?, ?> entityInformation, MapValue row) {
+        StringBuilder sb = new StringBuilder(entityInformation.getTableName());
+        for (String key : entityInformation.getShardKeys().keySet()) {
+            sb.append('|').append(row.get(key));
+        }
+        for (String key : entityInformation.getNonShardKeys().keySet()) {
+            sb.append('|').append(row.get(key));
+        }
+        return sb.toString();
+    }
+
+    /* Table and shard key values of a buffered row. */
+    private static String getShardKey(BufferedWrite write) {
+        StringBuilder sb = new StringBuilder(
+            write.entityInformation.getTableName());
+        for (String key :
+            write.entityInformation.getShardKeys().keySet()) {
+            sb.append('|').append(write.row.get(key));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "WriteBehindNosqlTemplate{" + config +
+            ", buffered=" + getBufferedCount() +
+            ", coalesced=" + getCoalescedCount() +
+            ", flushed=" + getFlushedCount() +
+            ", dropped=" + getDroppedCount() +
+            ", writeThrough=" + getWriteThroughCount() +
+            ", failed=" + getFailedCount() + "}";
+    }
+
+    private static final class BufferedWrite {
+        private final NosqlEntityInformation<?, ?> entityInformation;
+        private final String key;
+        private MapValue row;
+        /* true for an update, written only if the row exists */
+        private boolean ifPresent;
+        /* flushes that failed to write row */
+        private int failedFlushes;
+
+        BufferedWrite(NosqlEntityInformation<?, ?> entityInformation,
+            String key, MapValue row, boolean ifPresent) {
+            this.entityInformation = entityInformation;
+            this.key = key;
+            this.row = row;
+            this.ifPresent = ifPresent;
+        }
+
+        /* An update replacing an insert still creates the row. */
+        void replace(MapValue newRow, boolean update) {
+            row = newRow;
+            ifPresent = ifPresent && update;
+            failedFlushes = 0;
+        }
+
+        BufferedWrite copy() {
+            return new BufferedWrite(entityInformation, key, row, ifPresent);
+        }
+    }
+}
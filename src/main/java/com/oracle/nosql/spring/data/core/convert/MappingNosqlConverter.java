@@ -127,7 +127,11 @@ public class MappingNosqlConverter
     @Override
     public <R> R read(@NonNull Class<R> type,
         @NonNull FieldValue nosqlRowValue) {
-        return convertFieldValueToObj(type, nosqlRowValue, true, null);
+        NosqlConversionEvent event = NosqlConversionEvent.start(
+            NosqlConversionEvent.READ, type);
+        R res = convertFieldValueToObj(type, nosqlRowValue, true, null);
+        event.finish();
+        return res;
     }
 
     @Override
@@ -195,6 +199,16 @@ public class MappingNosqlConverter
             return null;
         }
 
+        NosqlConversionEvent event = NosqlConversionEvent.start(
+            NosqlConversionEvent.WRITE, objectToSave.getClass());
+        MapValue row = doConvertObjToRow(objectToSave, skipSetId);
+        event.finish();
+        return row;
+    }
+
+    private <T> MapValue doConvertObjToRow(T objectToSave,
+        boolean skipSetId) {
+
         final NosqlPersistentEntity<?> persistentEntity =
             mappingContext.getPersistentEntity(objectToSave.getClass());
 
@@ -232,7 +246,13 @@ public class MappingNosqlConverter
 
             Object value = accessor.getProperty(prop);
 
-            convertObjToFieldValue(value, valueMap, prop);
+            if (prop.isNosqlColumn()) {
+                // typed columns are stored next to the JSON column
+                row.put(prop.getName(),
+                    convertObjToFieldValue(value, prop, false));
+            } else {
+                convertObjToFieldValue(value, valueMap, prop);
+            }
         }
 
         //System.out.println("  Convert obj: " + objectToSave + " -> row: " +
@@ -607,6 +627,7 @@ public class MappingNosqlConverter
                     setId(entityObj, idFieldValue);
                 }
                 setPojoProperties(clsEntity, entityObj, jsonValue);
+                setColumnProperties(clsEntity, entityObj, nosqlValue.asMap());
 
             } else {
                 MapValue mapValue = nosqlValue.asMap();
@@ -897,6 +918,27 @@ public class MappingNosqlConverter
         }
     }
 
+    /* Sets the properties stored in typed columns of the row. */
+    private <E> void setColumnProperties(NosqlPersistentEntity<E> entity,
+        E entityObj, MapValue row) {
+        ConvertingPropertyAccessor<E> accessor = null;
+        for (NosqlPersistentProperty prop : entity) {
+            if (!prop.isNosqlColumn() || !prop.isWritable()) {
+                continue;
+            }
+            // the column may not be part of a projection
+            FieldValue value = row.get(prop.getName());
+            if (value == null) {
+                continue;
+            }
+            if (accessor == null) {
+                accessor = getPropertyAccessor(entityObj);
+            }
+            accessor.setProperty(prop,
+                convertFieldValueToObject(value, prop));
+        }
+    }
+
     @SuppressWarnings("unchecked")
     @Nullable
     private <T> T convertFieldValueToObject(FieldValue fieldValue,
@@ -0,0 +1,61 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.core.convert;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event of the conversion of an entity to a row or of
+ * a row to an entity, its duration is the conversion time. Recorded with
+ * the com.oracle.nosql.spring.data.Operation events of the requests
+ * reading or writing the rows, on the same thread.
+ *
+ * @since 2.3.0
+ */
+@Name("com.oracle.nosql.spring.data.Conversion")
+@Label("NoSQL Entity Conversion")
+@Category({"Oracle NoSQL", "Spring Data"})
+@Description("Conversion between an entity and a row")
+@StackTrace(false)
+final class NosqlConversionEvent extends Event {
+
+    static final String READ = "Read";
+    static final String WRITE = "Write";
+
+    @Label("Direction")
+    @Description("Read for rows converted to entities, Write for " +
+        "entities converted to rows")
+    String direction;
+
+    @Label("Entity Class")
+    Class<?> entityClass;
+
+    /**
+     * Returns a started event, fields are only set if it is enabled.
+     */
+    static NosqlConversionEvent start(String direction,
+        Class<?> entityClass) {
+        NosqlConversionEvent event = new NosqlConversionEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            event.direction = direction;
+            event.entityClass = entityClass;
+        }
+        return event;
+    }
+
+    void finish() {
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
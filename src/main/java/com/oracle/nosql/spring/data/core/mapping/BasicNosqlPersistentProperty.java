@@ -182,4 +182,9 @@ public class BasicNosqlPersistentProperty
     public boolean isNosqlKey() {
         return isAnnotationPresent(NosqlKey.class);
     }
+
+    @Override
+    public boolean isNosqlColumn() {
+        return isAnnotationPresent(NosqlColumn.class) && !isIdProperty();
+    }
 }
\ No newline at end of file
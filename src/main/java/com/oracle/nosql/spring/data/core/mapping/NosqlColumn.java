@@ -0,0 +1,51 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+
+package com.oracle.nosql.spring.data.core.mapping;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Stores the annotated entity field in its own typed top level column of
+ * the table instead of the {@code kv_json_} JSON column.<p>
+ *
+ * Query predicates and sorts on typed columns don't need JSON path
+ * evaluation, and temporal fields are compared as native timestamps
+ * without casts, so they can use indexes. Use it for the fields most used
+ * to filter and sort.<p>
+ *
+ * Only fields of the entity class itself can be columns, and their type
+ * must be one of String, int, Integer, long, Long, float, Float, double,
+ * Double, BigInteger, BigDecimal, boolean, Boolean, byte[], an enum,
+ * java.util.Date, java.sql.Timestamp or java.time.Instant. The column has
+ * the name of the field.
+ * <pre>
+ *     public class Order {
+ *         &#64;NosqlId
+ *         private long id;
+ *
+ *         &#64;NosqlColumn
+ *         private Instant created;
+ *         ...
+ *     }
+ * </pre>
+ *
+ * Note: existing tables are not altered, the column must be added to the
+ * table before the entity is used with it.
+ *
+ * @since 2.3.0
+ */
+@Documented
+@Retention(value = RetentionPolicy.RUNTIME)
+@Target(value = {ElementType.ANNOTATION_TYPE, ElementType.FIELD,
+        ElementType.METHOD})
+public @interface NosqlColumn {
+}
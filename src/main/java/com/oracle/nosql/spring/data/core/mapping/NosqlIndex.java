@@ -0,0 +1,69 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+
+package com.oracle.nosql.spring.data.core.mapping;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares a secondary index on the table of the entity.<p>
+ *
+ * Indexed fields are property paths of the entity, for example
+ * {@code "address.city"}. Fields stored in the JSON column are indexed as
+ * typed JSON paths, e.g. {@code kv_json_.address.city AS STRING}, primary
+ * key fields and {@link NosqlColumn} fields are indexed on their column.
+ * The type of a JSON path is inferred from the Java type of the property,
+ * it can be given explicitly by appending {@code " AS <type>"} to the
+ * field, for example {@code "tags[] AS STRING"}. Paths that can't be resolved on the entity
+ * class are indexed {@code AS ANYATOMIC}.<p>
+ *
+ * When used on a field, with no fields specified, the index is on the
+ * annotated field. When used on the entity class, which may be repeated,
+ * the fields must be specified.
+ * <pre>
+ *     &#64;NosqlIndex(name = "idx_status_region",
+ *         fields = {"status", "address.region"})
+ *     public class Customer {
+ *         &#64;NosqlId
+ *         private long id;
+ *
+ *         &#64;NosqlIndex
+ *         private String email;
+ *         ...
+ *     }
+ * </pre>
+ *
+ * Missing indexes are created by
+ * {@link com.oracle.nosql.spring.data.core.NosqlTemplate#createTableIfNotExists}
+ * when the table is created or already exists. An existing index with the
+ * same name but different fields is reported as a mismatch.
+ *
+ * @since 2.3.0
+ */
+@Documented
+@Retention(value = RetentionPolicy.RUNTIME)
+@Target(value = {ElementType.TYPE, ElementType.FIELD,
+        ElementType.ANNOTATION_TYPE})
+@Repeatable(NosqlIndexes.class)
+public @interface NosqlIndex {
+    /**
+     * Specifies the name of the index. If not set, the name is
+     * {@code idx_} followed by the indexed fields joined with {@code _}.
+     */
+    String name() default "";
+
+    /**
+     * Specifies the indexed fields, in order, as property paths optionally
+     * followed by {@code " AS <type>"}. Defaults to the annotated field.
+     */
+    String[] fields() default {};
+}
@@ -0,0 +1,115 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+
+package com.oracle.nosql.spring.data.core.mapping;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resolved definition of a secondary index declared with
+ * {@link NosqlIndex}. Fields are table paths as used in DDL, e.g.
+ * {@code kv_json_.address.city}, each with its index type or null for typed
+ * columns.
+ *
+ * @since 2.3.0
+ */
+public final class NosqlIndexDefinition {
+
+    private static final String TEMPLATE_CREATE_INDEX =
+        "CREATE INDEX IF NOT EXISTS %s ON %s(%s)";
+
+    private final String name;
+    private final List<String> fields;
+    private final List<String> types;
+
+    public NosqlIndexDefinition(String name, List<String> fields,
+        List<String> types) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Index name should not be " +
+                "null or empty.");
+        }
+        if (fields == null || fields.isEmpty() || types == null ||
+            types.size() != fields.size()) {
+            throw new IllegalArgumentException("Index " + name + " must " +
+                "have at least one field and a type entry for each field.");
+        }
+        this.name = name;
+        this.fields = Collections.unmodifiableList(new ArrayList<>(fields));
+        this.types = Collections.unmodifiableList(new ArrayList<>(types));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the indexed table paths, in index order.
+     */
+    public List<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * Returns the index types of the fields, null entries are typed columns.
+     */
+    public List<String> getTypes() {
+        return types;
+    }
+
+    /**
+     * Returns the statement creating this index on the table if it doesn't
+     * exist.
+     */
+    public String getCreateIndexDDL(String tableName) {
+        List<String> cols = new ArrayList<>(fields.size());
+        for (int i = 0; i < fields.size(); i++) {
+            cols.add(types.get(i) == null ? fields.get(i) :
+                fields.get(i) + " AS " + types.get(i));
+        }
+        return String.format(TEMPLATE_CREATE_INDEX, name, tableName,
+            String.join(", ", cols));
+    }
+
+    /**
+     * Returns true if the fields and types of an existing index, as
+     * returned by the database, match this definition. Names are compared
+     * ignoring case, types are only compared when known on both sides.
+     */
+    public boolean matches(String[] indexFields, String[] indexTypes) {
+        if (indexFields == null || indexFields.length != fields.size()) {
+            return false;
+        }
+        for (int i = 0; i < indexFields.length; i++) {
+            if (!normalize(fields.get(i)).equals(normalize(indexFields[i]))) {
+                return false;
+            }
+            String type = indexTypes == null || i >= indexTypes.length ?
+                null : indexTypes[i];
+            if (type != null && types.get(i) != null &&
+                !type.equalsIgnoreCase(types.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalize(String path) {
+        return path.replaceAll("\\s", "").toLowerCase();
+    }
+
+    @Override
+    public String toString() {
+        List<String> cols = new ArrayList<>(fields.size());
+        for (int i = 0; i < fields.size(); i++) {
+            cols.add(types.get(i) == null ? fields.get(i) :
+                fields.get(i) + " " + types.get(i));
+        }
+        return name + "{" + String.join(",", cols) + "}";
+    }
+}
@@ -76,4 +76,12 @@ public interface NosqlPersistentProperty
      * @since 1.6.0
      */
     boolean isNosqlKey();
+
+    /**
+     * Whether the property is stored in a typed column, see
+     * {@link NosqlColumn}.
+     *
+     * @since 2.3.0
+     */
+    boolean isNosqlColumn();
 }
@@ -158,4 +158,41 @@ public @interface NosqlTable {
      */
     TtlUnit ttlUnit() default TtlUnit.DAYS;
 
+    /**
+     * Sets the default maximum number of results returned by each batch of
+     * the queries on this table, see
+     * {@link oracle.nosql.driver.ops.QueryRequest#setLimit(int)}. If not set,
+     * or set to 0, the driver default is used. Can be overridden per
+     * repository method using
+     * {@link com.oracle.nosql.spring.data.repository.QueryOptions}.
+     *
+     * @since 2.3.0
+     */
+    int queryBatchSize() default Constants.NOTSET_QUERY_BATCH_SIZE;
+
+    /**
+     * Sets the default maximum amount of data in KB read by each batch of
+     * the queries on this table, see
+     * {@link oracle.nosql.driver.ops.QueryRequest#setMaxReadKB(int)}. If not
+     * set, or set to 0, the driver default is used. Can be overridden per
+     * repository method using
+     * {@link com.oracle.nosql.spring.data.repository.QueryOptions}.
+     *
+     * @since 2.3.0
+     */
+    int queryMaxReadKB() default Constants.NOTSET_QUERY_MAX_READ_KB;
+
+    /**
+     * Sets the default maximum amount of client memory in bytes used by
+     * the queries on this table that sort, group or remove duplicates, see
+     * {@link oracle.nosql.driver.ops.QueryRequest#setMaxMemoryConsumption(long)}.
+     * If not set, or set to 0, the driver default is used. Can be overridden
+     * per repository method using
+     * {@link com.oracle.nosql.spring.data.repository.QueryOptions}.
+     *
+     * @since 2.3.0
+     */
+    long queryMaxMemoryConsumption()
+        default Constants.NOTSET_QUERY_MAX_MEMORY_CONSUMPTION;
+
 }
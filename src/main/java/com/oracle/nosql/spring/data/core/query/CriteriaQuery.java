@@ -395,6 +395,10 @@ public class CriteriaQuery extends NosqlQuery {
         NosqlPersistentProperty property,
         NosqlPersistentProperty parentProperty) {
         String result;
+        // typed columns are compared natively, no cast required
+        if (isTypedColumn(property, parentProperty)) {
+            return getSqlField(property.getName(), true);
+        }
         /* If property is part of composite key use property name instead of
            hierarchical name*/
         if (property.isNosqlKey() ||
@@ -424,12 +428,20 @@ public class CriteriaQuery extends NosqlQuery {
        @NonNull NosqlPersistentProperty property,
        @Nullable NosqlPersistentProperty parentProperty) {
         if (property.isNosqlKey() ||
-                (parentProperty != null && parentProperty.isIdProperty())) {
+                (parentProperty != null && parentProperty.isIdProperty()) ||
+                isTypedColumn(property, parentProperty)) {
             return getSqlField(property.getName(), true);
         }
         return getSqlField(field, property.isIdProperty());
     }
 
+    /* Only top level properties of the entity are stored in typed columns */
+    private boolean isTypedColumn(@NonNull NosqlPersistentProperty property,
+        @Nullable NosqlPersistentProperty parentProperty) {
+        return property.isNosqlColumn() &&
+            (parentProperty == null || parentProperty.equals(property));
+    }
+
     private String getSqlField(@NonNull String field, boolean isKey) {
         if (isKey) {
             return "t." + field;
@@ -522,7 +534,8 @@ public class CriteriaQuery extends NosqlQuery {
                         });
                     } else {
                         String field = getSqlField(prop, pp, null);
-                        if (pp.getName().equals(idPropertyName)) {
+                        if (pp.getName().equals(idPropertyName) ||
+                            pp.isNosqlColumn()) {
                             keyFields.add(getSqlField(pp.getName(), true));
                         } else {
                             nonKeyFields.add(field);
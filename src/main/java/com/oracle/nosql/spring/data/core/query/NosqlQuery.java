@@ -19,6 +19,9 @@ public abstract class NosqlQuery {
     protected Pageable pageable = Pageable.unpaged();
     protected Integer limit;
     protected boolean isCount;
+    protected int batchSize;
+    protected int maxReadKB;
+    protected long maxMemoryConsumption;
 
     public NosqlQuery with(Sort sort) {
         if (sort.isSorted()) {
@@ -67,4 +70,48 @@ public abstract class NosqlQuery {
     public boolean isCount() {
         return isCount;
     }
+
+    /**
+     * Sets the max number of results of each query batch, 0 means the table
+     * default.
+     *
+     * @since 2.3.0
+     */
+    public NosqlQuery setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the max KB read by each query batch, 0 means the table default.
+     *
+     * @since 2.3.0
+     */
+    public NosqlQuery setMaxReadKB(int maxReadKB) {
+        this.maxReadKB = maxReadKB;
+        return this;
+    }
+
+    public int getMaxReadKB() {
+        return maxReadKB;
+    }
+
+    /**
+     * Sets the max client memory in bytes used by the query, 0 means the
+     * table default.
+     *
+     * @since 2.3.0
+     */
+    public NosqlQuery setMaxMemoryConsumption(long maxMemoryConsumption) {
+        this.maxMemoryConsumption = maxMemoryConsumption;
+        return this;
+    }
+
+    public long getMaxMemoryConsumption() {
+        return maxMemoryConsumption;
+    }
 }
@@ -0,0 +1,77 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.core.query;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+
+/**
+ * The fields to be set by a partial update of a row, see
+ * {@link com.oracle.nosql.spring.data.core.NosqlOperations#updateFields}.
+ * Fields are property paths of the entity, for example {@code "status"} or
+ * {@code "address.city"}, values are converted the same way as when saving
+ * the entity.
+ * <pre>
+ *     repo.updateFields(id, Update.update("status", Status.SHIPPED)
+ *         .set("shipping.carrier", "UPS"));
+ * </pre>
+ *
+ * Only the given fields are written, the rest of the row is not read nor
+ * rewritten. Updates with the same set of fields share the same prepared
+ * statement.
+ *
+ * @since 2.3.0
+ */
+public class Update {
+
+    private final Map<String, Object> fields = new LinkedHashMap<>();
+
+    /**
+     * Creates an update setting the given field.
+     */
+    public static Update update(String field, Object value) {
+        return new Update().set(field, value);
+    }
+
+    /**
+     * Creates an update setting the given fields.
+     */
+    public static Update fromMap(Map<String, ?> fields) {
+        Assert.notNull(fields, "Fields should not be null.");
+        Update update = new Update();
+        fields.forEach(update::set);
+        return update;
+    }
+
+    /**
+     * Sets the field to value, a null value sets the field to null.
+     */
+    public Update set(String field, Object value) {
+        Assert.hasText(field, "Field should not be null or empty.");
+        fields.put(field, value);
+        return this;
+    }
+
+    /**
+     * Returns the fields and their values, in the order they were set.
+     */
+    public Map<String, Object> getFields() {
+        return Collections.unmodifiableMap(fields);
+    }
+
+    public boolean isEmpty() {
+        return fields.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "Update" + fields;
+    }
+}
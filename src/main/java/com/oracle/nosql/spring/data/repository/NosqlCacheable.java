@@ -0,0 +1,50 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.oracle.nosql.spring.data.Constants;
+
+/**
+ * Annotation caching the results of a repository query method, derived or
+ * declared with {@link Query}, by method and parameter values. Cached
+ * results are dropped once ttl expires and as soon as the table of the
+ * entity is written through the template, see
+ * {@link com.oracle.nosql.spring.data.core.QueryResultCache}.<p>
+ *
+ * Suited to small result sets that rarely change and are read often:
+ * <pre>
+ *    &#64;NosqlCacheable(ttl = 30000)
+ *    List&lt;Country&gt; findByCountryCode(String countryCode);
+ * </pre>
+ *
+ * Each caller gets its own copy of the cached entities and of the
+ * collections, slices and pages holding them. Projections are returned as
+ * cached to all callers, they must not be modified.<p>
+ *
+ * Parameter values are compared with equals, arrays by content. Calls with
+ * a parameter whose class does not override equals are not cached.<p>
+ *
+ * Note: Stream results, delete queries and queries that write, like
+ * {@code UPDATE} statements, are not cached.
+ *
+ * @since 2.3.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.ANNOTATION_TYPE })
+@Documented
+public @interface NosqlCacheable {
+    /**
+     * Time to live in milliseconds of the cached results.
+     */
+    long ttl() default Constants.DEFAULT_CACHEABLE_TTL_MS;
+}
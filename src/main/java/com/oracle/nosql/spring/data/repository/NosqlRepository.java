@@ -7,12 +7,14 @@
 package com.oracle.nosql.spring.data.repository;
 
 import java.io.Serializable;
+import java.util.Map;
 import java.util.Optional;
 
 import oracle.nosql.driver.Consistency;
 import oracle.nosql.driver.Durability;
 
 import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.core.query.Update;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -169,4 +171,21 @@ public interface NosqlRepository<T, ID extends Serializable> extends
      * Clears the prepared statements cache.
      */
     void clearPreparedStatementsCache();
+
+    /**
+     * Updates only the given fields of the entity with the given id, without
+     * reading or rewriting the rest of the row. Returns the number of rows
+     * updated, 0 if there is no entity with the id.
+     *
+     * @since 2.3.0
+     */
+    int updateFields(ID id, Update update);
+
+    /**
+     * Updates only the given fields, as property paths and values, of the
+     * entity with the given id. See {@link #updateFields(Object, Update)}.
+     *
+     * @since 2.3.0
+     */
+    int updateFields(ID id, Map<String, ?> fields);
 }
\ No newline at end of file
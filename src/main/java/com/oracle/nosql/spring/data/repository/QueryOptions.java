@@ -0,0 +1,62 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.oracle.nosql.spring.data.Constants;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+
+/**
+ * Annotation to set the paging and time options of the query executed by a
+ * repository method, derived or declared with {@link Query}. Values not set,
+ * or set to 0, default to the ones of the entity {@link NosqlTable}
+ * annotation and otherwise to the driver defaults.<p>
+ *
+ * For example, a query returning many small rows can use larger batches:
+ * <pre>
+ *    &#64;QueryOptions(batchSize = 1000)
+ *    List&lt;Customer&gt; findByCity(String city);
+ * </pre>
+ *
+ * @since 2.3.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.ANNOTATION_TYPE })
+@Documented
+public @interface QueryOptions {
+    /**
+     * Max number of results returned by each query batch, see
+     * {@link oracle.nosql.driver.ops.QueryRequest#setLimit(int)}.
+     */
+    int batchSize() default Constants.NOTSET_QUERY_BATCH_SIZE;
+
+    /**
+     * Max amount of data in KB read by each query batch, see
+     * {@link oracle.nosql.driver.ops.QueryRequest#setMaxReadKB(int)}.
+     */
+    int maxReadKB() default Constants.NOTSET_QUERY_MAX_READ_KB;
+
+    /**
+     * Max amount of client memory in bytes used by queries that sort, group
+     * or remove duplicates, see
+     * {@link oracle.nosql.driver.ops.QueryRequest#setMaxMemoryConsumption(long)}.
+     */
+    long maxMemoryConsumption()
+        default Constants.NOTSET_QUERY_MAX_MEMORY_CONSUMPTION;
+
+    /**
+     * Total time in milliseconds for all the batches of the query, see
+     * {@link com.oracle.nosql.spring.data.core.NosqlDeadline}. By default
+     * each batch gets the full request timeout.
+     */
+    long totalTimeout() default Constants.NOTSET_QUERY_TOTAL_TIMEOUT_MS;
+}
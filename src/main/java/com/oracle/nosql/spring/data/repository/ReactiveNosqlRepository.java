@@ -6,15 +6,20 @@
  */
 package com.oracle.nosql.spring.data.repository;
 
+import java.util.Map;
+
 import oracle.nosql.driver.Consistency;
 import oracle.nosql.driver.Durability;
 
 import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.core.query.Update;
 
 import org.springframework.data.repository.NoRepositoryBean;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.data.repository.reactive.ReactiveSortingRepository;
 
+import reactor.core.publisher.Mono;
+
 @NoRepositoryBean
 public interface ReactiveNosqlRepository <T, K> extends
     ReactiveSortingRepository<T, K>,
@@ -68,4 +73,21 @@ public interface ReactiveNosqlRepository <T, K> extends
      * Clears the prepared statements cache.
      */
     void clearPreparedStatementsCache();
+
+    /**
+     * Updates only the given fields of the entity with the given id, without
+     * reading or rewriting the rest of the row. Emits the number of rows
+     * updated, 0 if there is no entity with the id.
+     *
+     * @since 2.3.0
+     */
+    Mono<Integer> updateFields(K id, Update update);
+
+    /**
+     * Updates only the given fields, as property paths and values, of the
+     * entity with the given id. See {@link #updateFields(Object, Update)}.
+     *
+     * @since 2.3.0
+     */
+    Mono<Integer> updateFields(K id, Map<String, ?> fields);
 }
@@ -6,16 +6,47 @@
  */
 package com.oracle.nosql.spring.data.repository.query;
 
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import com.oracle.nosql.spring.data.core.NosqlDeadline;
 import com.oracle.nosql.spring.data.core.NosqlOperations;
+import com.oracle.nosql.spring.data.core.QueryResultCache;
+import com.oracle.nosql.spring.data.core.convert.MappingNosqlConverter;
 import com.oracle.nosql.spring.data.core.query.NosqlQuery;
+import com.oracle.nosql.spring.data.repository.NosqlCacheable;
 import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.repository.query.RepositoryQuery;
 import org.springframework.data.repository.query.ResultProcessor;
 import org.springframework.lang.Nullable;
 
 public abstract class AbstractNosqlQuery implements RepositoryQuery {
 
+    /* parameters compared by identity, calls with them are not cached */
+    private static final Object NOT_CACHEABLE = new Object();
+    private static final ClassValue<Boolean> VALUE_EQUALITY =
+        new ClassValue<Boolean>() {
+            @Override
+            protected Boolean computeValue(Class<?> type) {
+                try {
+                    return type.getMethod("equals", Object.class)
+                        .getDeclaringClass() != Object.class;
+                } catch (NoSuchMethodException nsme) {
+                    return false;
+                }
+            }
+        };
+
     private final NosqlQueryMethod method;
     private final NosqlOperations operations;
 
@@ -29,9 +60,50 @@ public abstract class AbstractNosqlQuery implements RepositoryQuery {
     @Override
     @Nullable
     public Object execute(Object[] parameters) {
+        long totalTimeout = method.getQueryTotalTimeout();
+        if (totalTimeout > 0) {
+            // results are read within the deadline, not when Spring
+            // converts them to the return type of the method
+            return NosqlDeadline.call(totalTimeout,
+                () -> materialize(executeCached(parameters)));
+        }
+        return executeCached(parameters);
+    }
+
+    @Nullable
+    private Object executeCached(Object[] parameters) {
+        Optional<NosqlCacheable> cacheable =
+            method.lookupCacheableAnnotation();
+        QueryResultCache cache = operations.getQueryResultCache();
+        if (!cacheable.isPresent() || cache == null || isDeleteQuery()) {
+            return doExecute(parameters);
+        }
+        List<Object> key = new ArrayList<>(parameters.length + 1);
+        key.add(method);
+        for (Object parameter : parameters) {
+            Object value = toCacheKey(parameter);
+            if (value == NOT_CACHEABLE) {
+                return doExecute(parameters);
+            }
+            key.add(value);
+        }
+
+        NosqlEntityInformation<?, ?> entityInformation =
+            ((NosqlEntityMetadata<?>) method.getEntityInformation())
+            .getNosqlEntityInformation();
+        // the cached result is never returned, callers get copies of it
+        return copy(entityInformation, cache.get(
+            entityInformation.getTableName(), key, cacheable.get().ttl(),
+            () -> materialize(doExecute(parameters)),
+            result -> estimateSize(entityInformation, result)));
+    }
+
+    @Nullable
+    private Object doExecute(Object[] parameters) {
         final NosqlParameterAccessor accessor =
             new NosqlParameterParameterAccessor(method, parameters);
         final NosqlQuery query = createQuery(accessor);
+        method.applyQueryOptions(query);
 
         final NosqlQueryExecution execution = getExecution(accessor);
 
@@ -81,6 +153,119 @@ public abstract class AbstractNosqlQuery implements RepositoryQuery {
         }
     }
 
+    /*
+     * Returns the part of the cache key of a parameter: arrays are compared
+     * by content, parameters without value equality are NOT_CACHEABLE, an
+     * entry keyed by them would never be hit.
+     */
+    @Nullable
+    private static Object toCacheKey(@Nullable Object parameter) {
+        if (parameter == null) {
+            return null;
+        }
+        if (parameter.getClass().isArray()) {
+            int length = Array.getLength(parameter);
+            List<Object> elements = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                Object element = toCacheKey(Array.get(parameter, i));
+                if (element == NOT_CACHEABLE) {
+                    return NOT_CACHEABLE;
+                }
+                elements.add(element);
+            }
+            return elements;
+        }
+        return VALUE_EQUALITY.get(parameter.getClass()) ? parameter :
+            NOT_CACHEABLE;
+    }
+
+    /* Reads lazy results, so that they can be iterated several times. */
+    private static Object materialize(Object result) {
+        if (result instanceof Iterable && !(result instanceof Collection) &&
+            !(result instanceof Slice)) {
+            List<Object> list = new ArrayList<>();
+            ((Iterable<?>) result).forEach(list::add);
+            return list;
+        }
+        return result;
+    }
+
+    /*
+     * Copies the entities of a cached result and the collections holding
+     * them. Other values, like projections, are returned as cached.
+     */
+    private Object copy(NosqlEntityInformation<?, ?> entityInformation,
+        Object result) {
+        if (result instanceof Page) {
+            Page<?> page = (Page<?>) result;
+            return new PageImpl<>(copyAll(entityInformation,
+                page.getContent()), page.getPageable(),
+                page.getTotalElements());
+        }
+        if (result instanceof Slice) {
+            Slice<?> slice = (Slice<?>) result;
+            return new SliceImpl<>(copyAll(entityInformation,
+                slice.getContent()), slice.getPageable(), slice.hasNext());
+        }
+        if (result instanceof Set) {
+            return new LinkedHashSet<>(copyAll(entityInformation,
+                (Set<?>) result));
+        }
+        if (result instanceof Collection) {
+            return copyAll(entityInformation, (Collection<?>) result);
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result)
+                .map(item -> copy(entityInformation, item));
+        }
+        Class<?> entityClass = entityInformation.getJavaType();
+        if (entityClass.isInstance(result)) {
+            MappingNosqlConverter converter = operations.getConverter();
+            return converter.read(entityClass,
+                converter.convertObjToRow(result, false));
+        }
+        return result;
+    }
+
+    private List<Object> copyAll(
+        NosqlEntityInformation<?, ?> entityInformation,
+        Collection<?> items) {
+        List<Object> copies = new ArrayList<>(items.size());
+        for (Object item : items) {
+            copies.add(copy(entityInformation, item));
+        }
+        return copies;
+    }
+
+    /* Estimates the memory used by a cached result, in bytes. */
+    private long estimateSize(NosqlEntityInformation<?, ?> entityInformation,
+        Object result) {
+        if (result instanceof Slice) {
+            return estimateSize(entityInformation,
+                ((Slice<?>) result).getContent()) + 64;
+        }
+        if (result instanceof Iterable) {
+            long size = 64;
+            for (Object item : (Iterable<?>) result) {
+                size += item == null ? 8 :
+                    estimateSize(entityInformation, item) + 8;
+            }
+            return size;
+        }
+        if (result instanceof Number || result instanceof Boolean) {
+            return 16;
+        }
+        if (result instanceof CharSequence) {
+            return 40 + 2L * ((CharSequence) result).length();
+        }
+        if (entityInformation.getJavaType().isInstance(result)) {
+            // JSON chars take about as much memory as the entity fields
+            return 16 + 2L * operations.getConverter()
+                .convertObjToRow(result, false).toJson().length();
+        }
+        return 64;
+    }
+
     @Override
     public NosqlQueryMethod getQueryMethod() {
         return method;
@@ -6,6 +6,7 @@
  */
 package com.oracle.nosql.spring.data.repository.query;
 
+import com.oracle.nosql.spring.data.core.NosqlDeadline;
 import com.oracle.nosql.spring.data.core.ReactiveNosqlOperations;
 import com.oracle.nosql.spring.data.core.query.NosqlQuery;
 import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
@@ -13,6 +14,9 @@ import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
 import org.springframework.data.repository.query.RepositoryQuery;
 import org.springframework.data.repository.query.ResultProcessor;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
 public abstract class AbstractReactiveNosqlQuery implements RepositoryQuery {
 
     private final NosqlQueryMethod method;
@@ -29,6 +33,7 @@ public abstract class AbstractReactiveNosqlQuery implements RepositoryQuery {
         final NosqlParameterAccessor accessor =
             new NosqlParameterParameterAccessor(method, parameters);
         final NosqlQuery query = createQuery(accessor);
+        method.applyQueryOptions(query);
 
         final ResultProcessor processor =
             method.getResultProcessor().withDynamicProjection(accessor);
@@ -36,9 +41,22 @@ public abstract class AbstractReactiveNosqlQuery implements RepositoryQuery {
             ((NosqlEntityMetadata) method.getEntityInformation()).getTableName();
 
         final ReactiveNosqlQueryExecution execution = getExecution(accessor);
-        return execution.execute(query,
+        Object result = execution.execute(query,
             processor.getReturnedType().getDomainType(),
             tableName);
+
+        long totalTimeout = method.getQueryTotalTimeout();
+        if (totalTimeout > 0) {
+            if (result instanceof Flux) {
+                return ((Flux<?>) result).contextWrite(
+                    NosqlDeadline.withTimeout(totalTimeout));
+            }
+            if (result instanceof Mono) {
+                return ((Mono<?>) result).contextWrite(
+                    NosqlDeadline.withTimeout(totalTimeout));
+            }
+        }
+        return result;
     }
 
 
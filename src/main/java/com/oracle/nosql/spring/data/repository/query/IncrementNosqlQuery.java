@@ -0,0 +1,120 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.repository.query;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.oracle.nosql.spring.data.core.NosqlOperations;
+import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
+
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.repository.query.RepositoryQuery;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.NumberUtils;
+
+/**
+ * Derived repository methods atomically incrementing a numeric field of the
+ * entity with a given id, named {@code increment<Field>ById}. The first
+ * parameter is the id and the optional second one the delta, 1 if missing:
+ * <pre>
+ *     long incrementViewsById(String id, long delta);
+ *     void incrementAddressVisitsById(String id);
+ * </pre>
+ * Methods return void or the new value of the field as a number. When there
+ * is no entity with the id, null is returned or, for primitive return types,
+ * an {@link EmptyResultDataAccessException} is thrown.
+ *
+ * @since 2.3.0
+ */
+public class IncrementNosqlQuery implements RepositoryQuery {
+
+    private static final Pattern INCREMENT_METHOD =
+        Pattern.compile("^increment(\\p{Lu}\\w*?)ById$");
+
+    private final NosqlQueryMethod method;
+    private final NosqlOperations operations;
+    private final String field;
+    private final Class<?> returnType;
+
+    public IncrementNosqlQuery(NosqlQueryMethod method,
+        NosqlOperations operations) {
+        this.method = method;
+        this.operations = operations;
+
+        Matcher matcher = INCREMENT_METHOD.matcher(method.getName());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Method " + method +
+                " is not an increment method.");
+        }
+        this.field = PropertyPath.from(matcher.group(1),
+            method.getEntityInformation().getJavaType()).toDotPath();
+
+        int numParams = method.getParameters().getNumberOfParameters();
+        if (numParams < 1 || numParams > 2 || (numParams == 2 &&
+            !isNumber(method.getParameters().getParameter(1).getType()))) {
+            throw new IllegalArgumentException("Method " + method +
+                " must have the id and optionally a numeric delta as " +
+                "parameters.");
+        }
+
+        this.returnType = method.getReturnedObjectType();
+        if (!void.class.equals(returnType) && !Void.class.equals(returnType) &&
+            !isNumber(returnType)) {
+            throw new IllegalArgumentException("Method " + method +
+                " must return void or a number.");
+        }
+    }
+
+    /**
+     * Returns true if the method name is an increment method name.
+     */
+    public static boolean isIncrementMethod(String methodName) {
+        return INCREMENT_METHOD.matcher(methodName).matches();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    @Nullable
+    public Object execute(Object[] parameters) {
+        NosqlEntityInformation<Object, Object> entityInformation =
+            (NosqlEntityInformation<Object, Object>)
+                ((NosqlEntityMetadata<Object>) method.getEntityInformation())
+                .getNosqlEntityInformation();
+
+        Object id = parameters[0];
+        Number delta = parameters.length > 1 ? (Number) parameters[1] : 1;
+        Number value = operations.increment(entityInformation, id, field,
+            delta);
+
+        if (void.class.equals(returnType) || Void.class.equals(returnType)) {
+            return null;
+        }
+        if (value == null) {
+            if (returnType.isPrimitive()) {
+                throw new EmptyResultDataAccessException("No entity with id " +
+                    id + " in table " + entityInformation.getTableName(), 1);
+            }
+            return null;
+        }
+        return NumberUtils.convertNumberToTargetClass(value,
+            (Class<Number>) ClassUtils.resolvePrimitiveIfNecessary(
+                returnType));
+    }
+
+    @Override
+    public NosqlQueryMethod getQueryMethod() {
+        return method;
+    }
+
+    private static boolean isNumber(Class<?> type) {
+        return Number.class.isAssignableFrom(
+            ClassUtils.resolvePrimitiveIfNecessary(type));
+    }
+}
@@ -11,7 +11,10 @@ import java.lang.reflect.Method;
 import java.util.Map;
 import java.util.Optional;
 
+import com.oracle.nosql.spring.data.core.query.NosqlQuery;
+import com.oracle.nosql.spring.data.repository.NosqlCacheable;
 import com.oracle.nosql.spring.data.repository.Query;
+import com.oracle.nosql.spring.data.repository.QueryOptions;
 import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
 
 import org.springframework.context.ApplicationContext;
@@ -40,6 +43,16 @@ public class NosqlQueryMethod extends QueryMethod {
         this.method = method;
         this.applicationContext = applicationContext;
         this.annotationCache = new ConcurrentReferenceHashMap<>();
+
+        lookupQueryOptionsAnnotation().ifPresent(options -> {
+            if (options.batchSize() < 0 ||
+                options.maxReadKB() < 0 ||
+                options.maxMemoryConsumption() < 0 ||
+                options.totalTimeout() < 0) {
+                throw new IllegalArgumentException("QueryOptions of " +
+                    "method " + method + " cannot be negative values.");
+            }
+        });
     }
 
     @Override
@@ -90,6 +103,35 @@ public class NosqlQueryMethod extends QueryMethod {
         return doFindAnnotation(Query.class);
     }
 
+    Optional<QueryOptions> lookupQueryOptionsAnnotation() {
+        return doFindAnnotation(QueryOptions.class);
+    }
+
+    /**
+     * Returns the total time in milliseconds for all the batches of the
+     * query, set with {@link QueryOptions#totalTimeout()}, or 0 if not set.
+     */
+    long getQueryTotalTimeout() {
+        return lookupQueryOptionsAnnotation()
+            .map(QueryOptions::totalTimeout)
+            .orElse(0L);
+    }
+
+    Optional<NosqlCacheable> lookupCacheableAnnotation() {
+        return doFindAnnotation(NosqlCacheable.class);
+    }
+
+    /**
+     * Sets on query the options of the {@link QueryOptions} annotation
+     * applied to the method, if any.
+     */
+    void applyQueryOptions(NosqlQuery query) {
+        lookupQueryOptionsAnnotation().ifPresent(options -> query
+            .setBatchSize(options.batchSize())
+            .setMaxReadKB(options.maxReadKB())
+            .setMaxMemoryConsumption(options.maxMemoryConsumption()));
+    }
+
     @SuppressWarnings("unchecked")
     private <A extends Annotation> Optional<A> doFindAnnotation(
         Class<A> annotationType) {
@@ -10,7 +10,11 @@ import com.oracle.nosql.spring.data.Constants;
 import com.oracle.nosql.spring.data.NosqlDbFactory;
 import com.oracle.nosql.spring.data.core.NosqlTemplateBase;
 import com.oracle.nosql.spring.data.core.mapping.NosqlCapacityMode;
+import com.oracle.nosql.spring.data.core.mapping.NosqlColumn;
+import com.oracle.nosql.spring.data.core.mapping.BasicNosqlPersistentProperty;
 import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlIndex;
+import com.oracle.nosql.spring.data.core.mapping.NosqlIndexDefinition;
 import com.oracle.nosql.spring.data.core.mapping.NosqlKey;
 import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
 import oracle.nosql.driver.Consistency;
@@ -34,11 +38,14 @@ import org.springframework.util.ReflectionUtils;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.LinkedHashMap;
@@ -47,6 +54,7 @@ import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.regex.Pattern;
 
 import static com.oracle.nosql.spring.data.Constants.NOTSET_PRIMARY_KEY_ORDER;
 import static com.oracle.nosql.spring.data.Constants.NOTSET_SHARD_KEY;
@@ -54,11 +62,16 @@ import static com.oracle.nosql.spring.data.Constants.NOTSET_SHARD_KEY;
 public class NosqlEntityInformation <T, ID> extends
     AbstractEntityInformation<T, ID> {
 
+    private static final Pattern INDEX_TYPE_SEPARATOR =
+        Pattern.compile("\\s+(?i)AS\\s+");
+
     private final ApplicationContext applicationContext;
     private final Field id;
     private String tableName;
     private boolean autoCreateTable;
     private TableLimits tableLimits;
+    /* read and write units set on the annotation, without defaults */
+    private TableLimits declaredTableLimits;
     private boolean autoGeneratedId;
     private Consistency consistency;
     private Durability durability;
@@ -68,6 +81,11 @@ public class NosqlEntityInformation <T, ID> extends
     private TimeToLive ttl;
     private Map<String, FieldValue.Type> shardKeys;
     private Map<String, FieldValue.Type> nonShardKeys;
+    private int queryBatchSize;
+    private int queryMaxReadKB;
+    private long queryMaxMemoryConsumption;
+    private Map<String, FieldValue.Type> columns;
+    private List<NosqlIndexDefinition> indexes;
 
     public NosqlEntityInformation(ApplicationContext applicationContext,
                                   Class<T> domainClass) {
@@ -97,6 +115,8 @@ public class NosqlEntityInformation <T, ID> extends
         }
 
         setTableOptions(domainClass);
+        columns = processColumns(domainClass);
+        indexes = processIndexes(domainClass);
     }
 
     @SuppressWarnings("unchecked")
@@ -277,9 +297,14 @@ public class NosqlEntityInformation <T, ID> extends
     private void setTableOptions(Class<T> domainClass) {
         autoCreateTable = Constants.DEFAULT_AUTO_CREATE_TABLE;
         tableLimits = null;
+        declaredTableLimits = null;
         consistency = Consistency.EVENTUAL;
         durability = Durability.COMMIT_NO_SYNC;
         timeout = Constants.NOTSET_TABLE_TIMEOUT_MS;
+        queryBatchSize = Constants.NOTSET_QUERY_BATCH_SIZE;
+        queryMaxReadKB = Constants.NOTSET_QUERY_MAX_READ_KB;
+        queryMaxMemoryConsumption =
+            Constants.NOTSET_QUERY_MAX_MEMORY_CONSUMPTION;
         tableName = domainClass.getSimpleName();
         if (domainClass.isArray()) {
             tableName = domainClass.getComponentType().getSimpleName() +
@@ -298,6 +323,13 @@ public class NosqlEntityInformation <T, ID> extends
                    Constants.NOTSET_TABLE_STORAGE_GB )) {
                 tableLimits = new TableLimits(annotation.readUnits(),
                     annotation.writeUnits(), annotation.storageGB());
+                if (annotation.readUnits() > 0 ||
+                    annotation.writeUnits() > 0) {
+                    declaredTableLimits = new TableLimits(
+                        Math.max(annotation.readUnits(), 0),
+                        Math.max(annotation.writeUnits(), 0),
+                        Math.max(annotation.storageGB(), 0));
+                }
             } else if (annotation.capacityMode() == NosqlCapacityMode.ON_DEMAND
                 && (annotation.storageGB() > 0  || annotation.storageGB() ==
                 Constants.NOTSET_TABLE_STORAGE_GB )) {
@@ -309,6 +341,16 @@ public class NosqlEntityInformation <T, ID> extends
 
             timeout = annotation.timeout();
 
+            if (annotation.queryBatchSize() < 0 ||
+                annotation.queryMaxReadKB() < 0 ||
+                annotation.queryMaxMemoryConsumption() < 0) {
+                throw new IllegalArgumentException("NosqlTable query " +
+                    "options cannot be negative values.");
+            }
+            queryBatchSize = annotation.queryBatchSize();
+            queryMaxReadKB = annotation.queryMaxReadKB();
+            queryMaxMemoryConsumption = annotation.queryMaxMemoryConsumption();
+
             if (!annotation.tableName().isEmpty()) {
                 tableName = annotation.tableName();
 
@@ -408,6 +450,17 @@ public class NosqlEntityInformation <T, ID> extends
         return tableLimits;
     }
 
+    /**
+     * Returns the read and write units set on the NosqlTable annotation of
+     * the entity, without the defaults of the factory, or null if none is
+     * set or the table is not in provisioned mode.
+     *
+     * @since 2.3.0
+     */
+    public TableLimits getDeclaredTableLimits() {
+        return declaredTableLimits;
+    }
+
     public Consistency getConsistency() {
         return consistency;
     }
@@ -454,6 +507,298 @@ public class NosqlEntityInformation <T, ID> extends
         return ttl;
     }
 
+    /**
+     * Returns the default number of results per query batch or 0 if not set.
+     *
+     * @since 2.3.0
+     */
+    public int getQueryBatchSize() {
+        return queryBatchSize;
+    }
+
+    /**
+     * Returns the default max KB read per query batch or 0 if not set.
+     *
+     * @since 2.3.0
+     */
+    public int getQueryMaxReadKB() {
+        return queryMaxReadKB;
+    }
+
+    /**
+     * Returns the default max client memory in bytes used by a query or 0
+     * if not set.
+     *
+     * @since 2.3.0
+     */
+    public long getQueryMaxMemoryConsumption() {
+        return queryMaxMemoryConsumption;
+    }
+
+    /**
+     * Returns the typed columns declared with {@link NosqlColumn}, in field
+     * declaration order, with their types.
+     *
+     * @since 2.3.0
+     */
+    public Map<String, FieldValue.Type> getColumns() {
+        return columns;
+    }
+
+    private Map<String, FieldValue.Type> processColumns(Class<T> domainClass) {
+        Map<String, FieldValue.Type> res = new LinkedHashMap<>();
+        for (Field field : FieldUtils.getFieldsListWithAnnotation(domainClass,
+            NosqlColumn.class)) {
+            if (field.equals(id) ||
+                field.isAnnotationPresent(Transient.class) ||
+                Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            String name = field.getName();
+            if (NosqlTemplateBase.JSON_COLUMN.equalsIgnoreCase(name) ||
+                containsIgnoreCase(shardKeys, name) ||
+                containsIgnoreCase(nonShardKeys, name) ||
+                containsIgnoreCase(res, name)) {
+                throw new IllegalArgumentException("Conflicting name " +
+                    name + " for column in " + domainClass.getName());
+            }
+            res.put(name, findColumnNosqlType(field));
+        }
+        return Collections.unmodifiableMap(res);
+    }
+
+    private static boolean containsIgnoreCase(Map<String, ?> map,
+        String name) {
+        return map.keySet().stream().anyMatch(name::equalsIgnoreCase);
+    }
+
+    private static FieldValue.Type findColumnNosqlType(Field field) {
+        Class<?> cls = field.getType();
+        if (cls.isEnum()) {
+            return FieldValue.Type.STRING;
+        }
+        if (cls == boolean.class || cls == Boolean.class) {
+            return FieldValue.Type.BOOLEAN;
+        }
+        if (cls == byte[].class) {
+            return FieldValue.Type.BINARY;
+        }
+        FieldValue.Type type = findIdNosqlType(cls);
+        if (type == FieldValue.Type.MAP) {
+            throw new IllegalArgumentException("Type not supported for " +
+                "@NosqlColumn field " + field.getName() + ": " +
+                cls.getName());
+        }
+        return type;
+    }
+
+    /**
+     * Returns the secondary indexes declared with {@link NosqlIndex} on the
+     * entity class or its fields.
+     *
+     * @since 2.3.0
+     */
+    public List<NosqlIndexDefinition> getIndexes() {
+        return indexes;
+    }
+
+    private List<NosqlIndexDefinition> processIndexes(Class<T> domainClass) {
+        List<NosqlIndexDefinition> res = new ArrayList<>();
+        for (NosqlIndex ann : domainClass.getAnnotationsByType(
+            NosqlIndex.class)) {
+            if (ann.fields().length == 0) {
+                throw new IllegalArgumentException("@NosqlIndex on class " +
+                    domainClass.getName() + " must specify the fields.");
+            }
+            res.add(createIndexDefinition(ann.name(), ann.fields()));
+        }
+        for (Field field : FieldUtils.getAllFieldsList(domainClass)) {
+            for (NosqlIndex ann : field.getAnnotationsByType(
+                NosqlIndex.class)) {
+                String[] fields = ann.fields().length == 0 ?
+                    new String[] {field.getName()} : ann.fields();
+                res.add(createIndexDefinition(ann.name(), fields));
+            }
+        }
+
+        SortedSet<String> names = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (NosqlIndexDefinition index : res) {
+            if (!names.add(index.getName())) {
+                throw new IllegalArgumentException("Duplicate index name " +
+                    index.getName() + " in " + domainClass.getName());
+            }
+        }
+        return Collections.unmodifiableList(res);
+    }
+
+    private NosqlIndexDefinition createIndexDefinition(String name,
+        String[] fieldSpecs) {
+        List<String> fields = new ArrayList<>(fieldSpecs.length);
+        List<String> types = new ArrayList<>(fieldSpecs.length);
+        List<String> nameParts = new ArrayList<>(fieldSpecs.length);
+
+        for (String spec : fieldSpecs) {
+            String[] parts = INDEX_TYPE_SEPARATOR.split(spec.trim(), 2);
+            String path = parts[0].trim();
+            String explicitType = parts.length > 1 ?
+                parts[1].trim().toUpperCase() : null;
+            if (path.isEmpty()) {
+                throw new IllegalArgumentException("Empty field in " +
+                    "@NosqlIndex of " + getJavaType().getName());
+            }
+            nameParts.add(path.replaceAll("[^A-Za-z0-9_]+", "_")
+                .replaceAll("_+$", ""));
+
+            String column = getTypedColumn(path);
+            if (column != null) {
+                if (explicitType != null) {
+                    throw new IllegalArgumentException("Index type can " +
+                        "not be specified for typed column field " + path +
+                        " in " + getJavaType().getName());
+                }
+                fields.add(column);
+                types.add(null);
+            } else {
+                resolveJsonIndexField(path, explicitType, fields, types);
+            }
+        }
+
+        String indexName = name.isEmpty() ?
+            "idx_" + String.join("_", nameParts) : name;
+        return new NosqlIndexDefinition(indexName, fields, types);
+    }
+
+    /*
+     * Returns the table column of a primary key or typed column property
+     * path or null if the path is stored in the JSON column.
+     */
+    private String getTypedColumn(String path) {
+        String[] segments = path.split("\\.");
+        if (columns.containsKey(segments[0])) {
+            if (segments.length > 1) {
+                throw new IllegalArgumentException("Invalid index field " +
+                    path + " in " + getJavaType().getName());
+            }
+            return segments[0];
+        }
+        if (!segments[0].equals(id.getName())) {
+            return null;
+        }
+        if (!isCompositeKeyType(id.getType())) {
+            if (segments.length > 1) {
+                throw new IllegalArgumentException("Invalid index field " +
+                    path + " in " + getJavaType().getName());
+            }
+            return id.getName();
+        }
+        if (segments.length != 2) {
+            throw new IllegalArgumentException("Index field " + path +
+                " must be a field of the composite key in " +
+                getJavaType().getName());
+        }
+        for (String key : shardKeys.keySet()) {
+            if (key.equalsIgnoreCase(segments[1])) {
+                return key;
+            }
+        }
+        for (String key : nonShardKeys.keySet()) {
+            if (key.equalsIgnoreCase(segments[1])) {
+                return key;
+            }
+        }
+        throw new IllegalArgumentException("Index field " + path + " is " +
+            "not a field of the composite key in " + getJavaType().getName());
+    }
+
+    /*
+     * Resolves a property path stored in the JSON column walking the entity
+     * class, multi-valued properties are indexed on their elements using
+     * the [] step.
+     */
+    private void resolveJsonIndexField(String path, String explicitType,
+        List<String> fields, List<String> types) {
+        StringBuilder sb = new StringBuilder(NosqlTemplateBase.JSON_COLUMN);
+        Class<?> cls = getJavaType();
+        boolean resolved = true;
+
+        for (String segment : path.split("\\.")) {
+            boolean isArrayStep = segment.endsWith("[]");
+            String propName = isArrayStep ?
+                segment.substring(0, segment.length() - 2) : segment;
+            sb.append('.').append(propName);
+
+            Field field = resolved ?
+                FieldUtils.getField(cls, propName, true) : null;
+            if (field == null) {
+                resolved = false;
+                if (isArrayStep) {
+                    sb.append("[]");
+                }
+                continue;
+            }
+            cls = field.getType();
+            if (cls != byte[].class && (cls.isArray() ||
+                Collection.class.isAssignableFrom(cls))) {
+                cls = getElementType(field);
+                resolved = cls != null;
+                sb.append("[]");
+            } else if (isArrayStep) {
+                sb.append("[]");
+            }
+        }
+
+        fields.add(sb.toString());
+        if (explicitType != null) {
+            types.add(explicitType);
+        } else {
+            types.add(resolved ? getIndexType(cls) : "ANYATOMIC");
+        }
+    }
+
+    private static Class<?> getElementType(Field field) {
+        if (field.getType().isArray()) {
+            return field.getType().getComponentType();
+        }
+        Type type = field.getGenericType();
+        if (type instanceof ParameterizedType) {
+            Type arg = ((ParameterizedType) type).getActualTypeArguments()[0];
+            if (arg instanceof Class) {
+                return (Class<?>) arg;
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Returns the JSON index type of the values written by the converter
+     * for the Java class.
+     */
+    private static String getIndexType(Class<?> cls) {
+        switch (BasicNosqlPersistentProperty.getCodeForSerialization(cls)) {
+        case STRING:
+        case ENUM:
+            return "STRING";
+        case INT:
+            return "INTEGER";
+        case LONG:
+            return "LONG";
+        case FLOAT:
+        case DOUBLE:
+            return "DOUBLE";
+        case BIGINTEGER:
+        case BIGDECIMAL:
+            return "NUMBER";
+        case BOOLEAN:
+            return "BOOLEAN";
+        case GEO_JSON_POINT:
+            return "POINT";
+        case GEO_JSON_POLYGON:
+            return "GEOMETRY";
+        default:
+            return "ANYATOMIC";
+        }
+    }
+
     public Map<String, FieldValue.Type> getShardKeys() {
         return shardKeys;
     }
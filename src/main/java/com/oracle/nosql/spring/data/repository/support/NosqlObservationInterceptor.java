@@ -0,0 +1,100 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.repository.support;
+
+import java.lang.reflect.Method;
+
+import com.oracle.nosql.spring.data.core.NosqlObservations;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Observes each invocation of a repository method as a
+ * {@link NosqlObservations#REPOSITORY_OBSERVATION}. The observation is in
+ * scope during the invocation, so that the requests sent by the invoking
+ * thread are observed as its children. Observations of methods returning
+ * a Mono or a Flux stop when the publisher terminates or is cancelled.
+ */
+class NosqlObservationInterceptor implements MethodInterceptor {
+
+    private final ObservationRegistry registry;
+    private final String repositoryName;
+    private final String tableName;
+
+    NosqlObservationInterceptor(ObservationRegistry registry,
+        Class<?> repositoryInterface, String tableName) {
+        this.registry = registry;
+        this.repositoryName = repositoryInterface.getSimpleName();
+        this.tableName = tableName;
+    }
+
+    /**
+     * Adds the interceptor to the repositories created by factory, if
+     * registry is not null or a no-op registry.
+     */
+    static void register(RepositoryFactorySupport factory,
+        ObservationRegistry registry, ApplicationContext applicationContext) {
+        if (registry == null || registry.isNoop()) {
+            return;
+        }
+        factory.addRepositoryProxyPostProcessor((proxyFactory, info) ->
+            proxyFactory.addAdvice(new NosqlObservationInterceptor(registry,
+                info.getRepositoryInterface(), new NosqlEntityInformation<>(
+                    applicationContext, info.getDomainType())
+                    .getTableName())));
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (method.getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+
+        String methodName = repositoryName + "." + method.getName();
+        Observation observation = Observation.createNotStarted(
+                NosqlObservations.REPOSITORY_OBSERVATION, registry)
+            .contextualName(methodName)
+            .lowCardinalityKeyValue(NosqlObservations.DB_SYSTEM,
+                NosqlObservations.DB_SYSTEM_VALUE)
+            .lowCardinalityKeyValue(NosqlObservations.TABLE, tableName)
+            .lowCardinalityKeyValue(NosqlObservations.REPOSITORY_METHOD,
+                methodName)
+            .start();
+
+        Object result;
+        try (Observation.Scope ignored = observation.openScope()) {
+            result = invocation.proceed();
+        } catch (Throwable t) {
+            observation.error(t);
+            observation.stop();
+            throw t;
+        }
+
+        if (result instanceof Mono) {
+            return ((Mono<?>) result)
+                .doOnError(observation::error)
+                .doFinally(signal -> observation.stop());
+        }
+        if (result instanceof Flux) {
+            return ((Flux<?>) result)
+                .doOnError(observation::error)
+                .doFinally(signal -> observation.stop());
+        }
+        observation.stop();
+        return result;
+    }
+}
@@ -11,6 +11,7 @@ import java.lang.reflect.Method;
 import java.util.Optional;
 
 import com.oracle.nosql.spring.data.core.NosqlOperations;
+import com.oracle.nosql.spring.data.repository.query.IncrementNosqlQuery;
 import com.oracle.nosql.spring.data.repository.query.NosqlQueryMethod;
 import com.oracle.nosql.spring.data.repository.query.PartTreeNosqlQuery;
 import com.oracle.nosql.spring.data.repository.query.StringBasedNosqlQuery;
@@ -37,6 +38,8 @@ public class NosqlRepositoryFactory extends RepositoryFactorySupport {
     {
         this.nosqlOperations = nosqlOperations;
         this.applicationContext = applicationContext;
+        NosqlObservationInterceptor.register(this,
+            nosqlOperations.getObservationRegistry(), applicationContext);
     }
 
     @Override
@@ -102,6 +105,9 @@ public class NosqlRepositoryFactory extends RepositoryFactorySupport {
             } else if (queryMethod.hasAnnotatedQuery()) {
                 return new StringBasedNosqlQuery(queryMethod, dbOperations,
                     evaluationContextProvider);
+            } else if (IncrementNosqlQuery.isIncrementMethod(
+                method.getName())) {
+                return new IncrementNosqlQuery(queryMethod, dbOperations);
             } else {
                 return new PartTreeNosqlQuery(queryMethod, dbOperations);
             }
@@ -37,6 +37,8 @@ public class ReactiveNosqlRepositoryFactory  extends
         ApplicationContext applicationContext) {
         this.applicationContext = applicationContext;
         this.reactiveNosqlOperations = nosqlOperations;
+        NosqlObservationInterceptor.register(this,
+            nosqlOperations.getObservationRegistry(), applicationContext);
     }
 
     @Override
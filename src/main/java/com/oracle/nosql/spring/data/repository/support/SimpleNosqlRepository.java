@@ -8,6 +8,7 @@ package com.oracle.nosql.spring.data.repository.support;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -15,6 +16,7 @@ import java.util.stream.StreamSupport;
 import oracle.nosql.driver.Durability;
 
 import com.oracle.nosql.spring.data.core.NosqlOperations;
+import com.oracle.nosql.spring.data.core.query.Update;
 import com.oracle.nosql.spring.data.repository.NosqlRepository;
 
 import org.springframework.context.ApplicationContext;
@@ -54,7 +56,7 @@ public class SimpleNosqlRepository <T, ID extends Serializable>
     }
 
     private void createTableIfNotExists() {
-        this.operation.createTableIfNotExists(this.entityInformation);
+        this.operation.prepareTable(this.entityInformation);
     }
 
     /**
@@ -284,4 +286,15 @@ public class SimpleNosqlRepository <T, ID extends Serializable>
     public void clearPreparedStatementsCache() {
         operation.clearPreparedStatementsCache();
     }
+
+    @Override
+    public int updateFields(ID id, Update update) {
+        Assert.notNull(id, "The given id must not be null.");
+        return operation.updateFields(entityInformation, id, update);
+    }
+
+    @Override
+    public int updateFields(ID id, Map<String, ?> fields) {
+        return updateFields(id, Update.fromMap(fields));
+    }
 }
@@ -7,12 +7,14 @@
 package com.oracle.nosql.spring.data.repository.support;
 
 import java.io.Serializable;
+import java.util.Map;
 
 import com.oracle.nosql.spring.data.core.ReactiveNosqlOperations;
 import com.oracle.nosql.spring.data.core.query.Criteria;
 import com.oracle.nosql.spring.data.core.query.CriteriaQuery;
 import com.oracle.nosql.spring.data.core.query.CriteriaType;
 import com.oracle.nosql.spring.data.core.query.NosqlQuery;
+import com.oracle.nosql.spring.data.core.query.Update;
 import com.oracle.nosql.spring.data.repository.NosqlRepository;
 import com.oracle.nosql.spring.data.repository.ReactiveNosqlRepository;
 
@@ -48,7 +50,7 @@ public class SimpleReactiveNosqlRepository <T, ID extends Serializable>
     }
 
     private void createTableIfNotExists() {
-        nosqlOperations.createTableIfNotExists(entityInformation).block();
+        nosqlOperations.prepareTable(entityInformation);
     }
 
     @Override
@@ -260,4 +262,15 @@ public class SimpleReactiveNosqlRepository <T, ID extends Serializable>
     public void clearPreparedStatementsCache() {
         nosqlOperations.clearPreparedStatementsCache();
     }
+
+    @Override
+    public Mono<Integer> updateFields(ID id, Update update) {
+        Assert.notNull(id, "The given id must not be null!");
+        return nosqlOperations.updateFields(entityInformation, id, update);
+    }
+
+    @Override
+    public Mono<Integer> updateFields(ID id, Map<String, ?> fields) {
+        return updateFields(id, Update.fromMap(fields));
+    }
 }
@@ -0,0 +1,298 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import oracle.nosql.driver.ops.PutRequest;
+import oracle.nosql.driver.ops.WriteMultipleRequest;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.core.NosqlBulkLoader;
+import com.oracle.nosql.spring.data.core.NosqlTemplate;
+import com.oracle.nosql.spring.data.core.mapping.NosqlColumn;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlKey;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/*
+ * Bulk loads of JSON Lines and CSV inputs, run against the in-memory
+ * handle.
+ */
+public class TestBulkLoader {
+
+    private static final Instant T0 = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private NosqlInMemoryHandle handle;
+    private NosqlTemplate template;
+
+    @Before
+    public void setup() throws ClassNotFoundException {
+        handle = new NosqlInMemoryHandle();
+        template = NosqlTemplate.create(new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080"),
+            handle));
+    }
+
+    @Test
+    public void testJsonLines() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            lines.add("{\"id\": " + i + ", \"name\": \"c" + i + "\", " +
+                "\"age\": \"" + (20 + i % 50) + "\", " +
+                "\"address\": {\"city\": \"Paris\", \"zip\": \"7500" +
+                (i % 10) + "\"}, \"tags\": [\"a\", \"b\"], " +
+                "\"created\": \"" + T0.plusSeconds(i) + "\"}");
+        }
+        lines.add(2, "");
+        Path input = write("customers.jsonl", lines);
+
+        NosqlBulkLoader.Report report = new NosqlBulkLoader(template,
+            Customer.class)
+            .setParallelism(4)
+            .setChunkSize(50)
+            .loadJsonLines(input);
+        Assert.assertEquals(250, report.getRows());
+        Assert.assertEquals(0, report.getSkippedLines());
+        Assert.assertEquals(250, handle.getRowCount("Customer"));
+
+        Customer c = template.findById(42L, Customer.class);
+        Assert.assertEquals("c42", c.name);
+        Assert.assertEquals(62, c.age);
+        Assert.assertEquals("Paris", c.address.city);
+        Assert.assertEquals("75002", c.address.zip);
+        Assert.assertEquals(List.of("a", "b"), c.tags);
+        Assert.assertEquals(T0.plusSeconds(42), c.created);
+    }
+
+    @Test
+    public void testStream() throws IOException {
+        String input = "{\"id\": 1, \"name\": \"Ann\"}\n" +
+            "{\"id\": 2, \"name\": \"Bob\"}\n";
+        NosqlBulkLoader.Report report = new NosqlBulkLoader(template,
+            Customer.class).loadJsonLines(new ByteArrayInputStream(
+                input.getBytes(StandardCharsets.UTF_8)));
+        Assert.assertEquals(2, report.getRows());
+        Assert.assertEquals("Bob", template.findById(2L, Customer.class).name);
+    }
+
+    @Test
+    public void testCompositeKeysBatchedByShard() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            /* keys nested under the id property or at the top level */
+            lines.add(i % 2 == 0 ?
+                "{\"id\": {\"site\": \"s1\", \"name\": \"d" + i + "\"}, " +
+                    "\"level\": " + i + "}" :
+                "{\"site\": \"s1\", \"name\": \"d" + i + "\", " +
+                    "\"level\": " + i + "}");
+        }
+        for (int i = 0; i < 5; i++) {
+            lines.add("{\"site\": \"s" + (i + 2) + "\", \"name\": \"d\", " +
+                "\"level\": 0}");
+        }
+        AtomicInteger multiWrites = new AtomicInteger();
+        AtomicInteger puts = new AtomicInteger();
+        handle.setRequestHook(req -> {
+            if (req instanceof WriteMultipleRequest) {
+                multiWrites.incrementAndGet();
+            } else if (req instanceof PutRequest) {
+                puts.incrementAndGet();
+            }
+        });
+
+        NosqlBulkLoader.Report report = new NosqlBulkLoader(template,
+            Device.class)
+            .setParallelism(1)
+            .setChunkSize(100)
+            .setBatchSize(10)
+            .loadJsonLines(write("devices.jsonl", lines));
+        /* 3 batches of 10 rows of shard s1, 1 put per other shard */
+        Assert.assertEquals(35, report.getRows());
+        Assert.assertEquals(8, report.getRequests());
+        Assert.assertEquals(3, multiWrites.get());
+        Assert.assertEquals(5, puts.get());
+
+        Device d = template.findById(new DeviceId("s1", "d7"), Device.class);
+        Assert.assertEquals(7, d.level);
+    }
+
+    @Test
+    public void testCsv() throws IOException {
+        Path input = write("customers.csv", List.of(
+            "id,name,age,address,tags,created",
+            "1,Ann,30,\"{\"\"city\"\": \"\"Lyon\"\"}\",\"[\"\"x\"\"]\"," +
+                T0,
+            "2,\"Smith, \"\"Bob\"\"\",25,,,",
+            "3,\"\",41,,,"));
+
+        NosqlBulkLoader.Report report = new NosqlBulkLoader(template,
+            Customer.class).loadCsv(input);
+        Assert.assertEquals(3, report.getRows());
+
+        Customer ann = template.findById(1L, Customer.class);
+        Assert.assertEquals(30, ann.age);
+        Assert.assertEquals("Lyon", ann.address.city);
+        Assert.assertEquals(List.of("x"), ann.tags);
+        Assert.assertEquals(T0, ann.created);
+
+        Customer bob = template.findById(2L, Customer.class);
+        Assert.assertEquals("Smith, \"Bob\"", bob.name);
+        Assert.assertNull(bob.address);
+        Assert.assertNull(bob.created);
+        /* quoted empty values are empty strings, unquoted ones nulls */
+        Assert.assertEquals("", template.findById(3L, Customer.class).name);
+    }
+
+    @Test
+    public void testInvalidRecords() throws IOException {
+        assertLoadFails(write("a.csv", List.of("id,name", "1,a", "2,b,c")),
+            true, "line 3");
+        assertLoadFails(write("b.csv", List.of("id,name", "1,\"a")),
+            true, "Unterminated");
+        assertLoadFails(write("c.jsonl", List.of("{\"id\": 1}",
+            "{\"id\": 2, \"unknown\": 1}")), false, "Unknown property");
+        assertLoadFails(write("d.jsonl", List.of("{\"name\": \"a\"}")),
+            false, "Missing key field id");
+        assertLoadFails(write("e.jsonl", List.of("{\"id\": 1", "")),
+            false, "line 1");
+        assertLoadFails(write("f.csv", List.of()), true, "no header");
+    }
+
+    @Test
+    public void testCheckpointResume() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lines.add("{\"id\": " + i + ", \"name\": \"c" + i + "\"}");
+        }
+        Path input = write("customers.jsonl", lines);
+        Path checkpoint = folder.getRoot().toPath().resolve("ckpt");
+        handle.setRequestHook(req -> {
+            if (req instanceof PutRequest &&
+                ((PutRequest) req).getValue().getLong("id") == 65) {
+                throw new IllegalArgumentException("injected");
+            }
+        });
+
+        NosqlBulkLoader loader = new NosqlBulkLoader(template,
+            Customer.class)
+            .setParallelism(1)
+            .setChunkSize(20)
+            .setCheckpoint(checkpoint);
+        try {
+            loader.loadJsonLines(input);
+            Assert.fail("Expected the injected failure");
+        } catch (RuntimeException re) {
+            // expected
+        }
+        /* the chunks before the failed one are done */
+        Assert.assertEquals("60", new String(Files.readAllBytes(checkpoint),
+            StandardCharsets.UTF_8).trim());
+
+        handle.setRequestHook(null);
+        NosqlBulkLoader.Report report = loader.loadJsonLines(input);
+        Assert.assertEquals(60, report.getSkippedLines());
+        Assert.assertEquals(40, report.getRows());
+        Assert.assertEquals(100, handle.getRowCount("Customer"));
+        Assert.assertFalse(Files.exists(checkpoint));
+    }
+
+    @Test
+    public void testCheckpointBeyondInput() throws IOException {
+        Path checkpoint = write("ckpt", List.of("5"));
+        try {
+            new NosqlBulkLoader(template, Customer.class)
+                .setCheckpoint(checkpoint)
+                .loadJsonLines(write("one.jsonl",
+                    List.of("{\"id\": 1}")));
+            Assert.fail("Expected the checkpoint to be rejected");
+        } catch (IllegalStateException ise) {
+            // expected
+        }
+    }
+
+    private void assertLoadFails(Path input, boolean csv, String message)
+        throws IOException {
+        NosqlBulkLoader loader = new NosqlBulkLoader(template,
+            Customer.class);
+        try {
+            if (csv) {
+                loader.loadCsv(input);
+            } else {
+                loader.loadJsonLines(input);
+            }
+            Assert.fail("Expected the load of " + input + " to fail");
+        } catch (IllegalArgumentException iae) {
+            Assert.assertTrue(iae.getMessage(),
+                iae.getMessage().contains(message));
+        }
+    }
+
+    private Path write(String name, List<String> lines) throws IOException {
+        Path path = folder.getRoot().toPath().resolve(name);
+        Files.write(path, lines, StandardCharsets.UTF_8);
+        return path;
+    }
+
+    @NosqlTable
+    public static class Customer {
+        @NosqlId
+        public long id;
+        public String name;
+        public int age;
+        public Address address;
+        public List<String> tags;
+        @NosqlColumn
+        public Instant created;
+    }
+
+    public static class Address {
+        public String city;
+        public String zip;
+    }
+
+    @NosqlTable
+    public static class Device {
+        @NosqlId
+        public DeviceId id;
+        public int level;
+    }
+
+    public static class DeviceId {
+        @NosqlKey(shardKey = true, order = 0)
+        public String site;
+        @NosqlKey(shardKey = false, order = 1)
+        public String name;
+
+        public DeviceId() {
+        }
+
+        DeviceId(String site, String name) {
+            this.site = site;
+            this.name = name;
+        }
+    }
+}
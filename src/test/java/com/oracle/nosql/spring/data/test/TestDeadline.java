@@ -0,0 +1,233 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import oracle.nosql.driver.ops.QueryRequest;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.core.NosqlDeadline;
+import com.oracle.nosql.spring.data.core.NosqlTemplate;
+import com.oracle.nosql.spring.data.core.ReactiveNosqlTemplate;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.repository.NosqlRepository;
+import com.oracle.nosql.spring.data.repository.QueryOptions;
+import com.oracle.nosql.spring.data.repository.support.NosqlRepositoryFactory;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.dao.QueryTimeoutException;
+import reactor.core.publisher.Flux;
+
+/*
+ * Deadlines of queries across their batches, run against the in-memory
+ * handle. The 10 rows are read in 4 batches of 3 rows, each batch taking
+ * BATCH_MS.
+ */
+public class TestDeadline {
+
+    private static final long BATCH_MS = 60;
+    /* expires during the third batch */
+    private static final long DEADLINE_MS = 150;
+    private static final int TABLE_TIMEOUT_MS = 2000;
+
+    private NosqlInMemoryHandle handle;
+    private NosqlDbFactory factory;
+    private NosqlTemplate template;
+    private GenericApplicationContext context;
+    /* timeouts of the query batches sent */
+    private final List<Integer> timeouts = new ArrayList<>();
+
+    @Before
+    public void setup() throws ClassNotFoundException {
+        handle = new NosqlInMemoryHandle();
+        factory = new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080"), handle);
+        template = NosqlTemplate.create(factory);
+        context = new GenericApplicationContext();
+        context.registerBean(NosqlTemplate.class, () -> template);
+        context.refresh();
+        template.setApplicationContext(context);
+        template.createTableIfNotExists(
+            template.getNosqlEntityInformation(Item.class));
+        for (int i = 0; i < 10; i++) {
+            Item item = new Item();
+            item.id = i;
+            item.kind = "a";
+            template.insert(item);
+        }
+
+        handle.setRequestHook(req -> {
+            if (req instanceof QueryRequest) {
+                synchronized (timeouts) {
+                    timeouts.add(((QueryRequest) req).getTimeout());
+                }
+                try {
+                    Thread.sleep(BATCH_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+    }
+
+    @Test
+    public void testNoDeadline() {
+        Assert.assertEquals(10, count(template.findAll(Item.class)));
+        Assert.assertEquals(4, timeouts.size());
+        for (int timeout : timeouts) {
+            Assert.assertEquals(TABLE_TIMEOUT_MS, timeout);
+        }
+    }
+
+    @Test
+    public void testDeadlineExpiresAcrossBatches() {
+        long start = System.currentTimeMillis();
+        try {
+            NosqlDeadline.call(DEADLINE_MS,
+                () -> count(template.findAll(Item.class)));
+            Assert.fail("Expected the deadline to expire");
+        } catch (QueryTimeoutException qte) {
+            Assert.assertTrue(qte.getMessage().contains(
+                "before batch " + (timeouts.size() + 1) + "."));
+        }
+        /* the fourth batch is not sent */
+        Assert.assertTrue(timeouts.size() < 4);
+        Assert.assertTrue(System.currentTimeMillis() - start <
+            4 * BATCH_MS);
+        assertRemainingTimeouts();
+        Assert.assertNull(NosqlDeadline.current());
+    }
+
+    @Test
+    public void testLaterDeadlineKeepsTableTimeout() {
+        Assert.assertEquals(10, (int) NosqlDeadline.call(60000,
+            () -> count(template.findAll(Item.class))));
+        for (int timeout : timeouts) {
+            Assert.assertEquals(TABLE_TIMEOUT_MS, timeout);
+        }
+    }
+
+    @Test
+    public void testNestedDeadlineNotExtended() {
+        try {
+            NosqlDeadline.call(DEADLINE_MS, () -> NosqlDeadline.call(60000,
+                () -> count(template.findAll(Item.class))));
+            Assert.fail("Expected the deadline to expire");
+        } catch (QueryTimeoutException qte) {
+            // expected
+        }
+        Assert.assertTrue(timeouts.size() < 4);
+    }
+
+    @Test
+    public void testDeadlineOfQueryCreation() throws InterruptedException {
+        Iterable<Item> items = NosqlDeadline.call(DEADLINE_MS,
+            () -> template.findAll(Item.class));
+        Thread.sleep(DEADLINE_MS);
+        try {
+            count(items);
+            Assert.fail("Expected the deadline to expire");
+        } catch (QueryTimeoutException qte) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testRepositoryTotalTimeout() {
+        ItemRepository repo = new NosqlRepositoryFactory(template, context)
+            .getRepository(ItemRepository.class);
+        try {
+            repo.findByKind("a");
+            Assert.fail("Expected the deadline to expire");
+        } catch (QueryTimeoutException qte) {
+            // expected
+        }
+        Assert.assertTrue(timeouts.size() < 4);
+        assertRemainingTimeouts();
+
+        timeouts.clear();
+        Assert.assertEquals(10, repo.findByKindOrderById("a").size());
+        Assert.assertEquals(4, timeouts.size());
+    }
+
+    @Test
+    public void testReactiveDeadline() throws ClassNotFoundException {
+        ReactiveNosqlTemplate reactive = ReactiveNosqlTemplate.create(factory);
+        assertReactiveTimeout(reactive.findAll(Item.class)
+            .contextWrite(NosqlDeadline.withTimeout(DEADLINE_MS)));
+        assertRemainingTimeouts();
+
+        /* the deadline of the caller is kept if it is earlier */
+        timeouts.clear();
+        Flux<Item> flux = NosqlDeadline.call(DEADLINE_MS,
+            () -> reactive.findAll(Item.class)
+                .contextWrite(NosqlDeadline.withTimeout(60000)));
+        assertReactiveTimeout(flux);
+
+        timeouts.clear();
+        Assert.assertEquals(10, reactive.findAll(Item.class)
+            .contextWrite(NosqlDeadline.withTimeout(60000))
+            .count().block().intValue());
+        Assert.assertEquals(4, timeouts.size());
+    }
+
+    private void assertReactiveTimeout(Flux<Item> flux) {
+        try {
+            flux.collectList().block();
+            Assert.fail("Expected the deadline to expire");
+        } catch (QueryTimeoutException qte) {
+            // expected
+        }
+        Assert.assertTrue(timeouts.size() < 4);
+    }
+
+    /* Batches get the remaining time as timeout. */
+    private void assertRemainingTimeouts() {
+        int previous = Integer.MAX_VALUE;
+        for (int timeout : timeouts) {
+            Assert.assertTrue(timeout <= DEADLINE_MS);
+            Assert.assertTrue(timeout < previous);
+            previous = timeout;
+        }
+    }
+
+    private static int count(Iterable<?> iterable) {
+        int n = 0;
+        for (Object o : iterable) {
+            n++;
+        }
+        return n;
+    }
+
+    @NosqlTable(queryBatchSize = 3, timeout = TABLE_TIMEOUT_MS)
+    public static class Item {
+        @NosqlId
+        public long id;
+        public String kind;
+    }
+
+    public interface ItemRepository extends NosqlRepository<Item, Long> {
+        @QueryOptions(totalTimeout = DEADLINE_MS)
+        List<Item> findByKind(String kind);
+
+        List<Item> findByKindOrderById(String kind);
+    }
+}
@@ -0,0 +1,246 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import oracle.nosql.driver.ops.PutRequest;
+import oracle.nosql.driver.ops.QueryRequest;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.core.DirtyTracker;
+import com.oracle.nosql.spring.data.core.NosqlTemplate;
+import com.oracle.nosql.spring.data.core.mapping.NosqlColumn;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/*
+ * Dirty tracking of the entities read and saved by a template, run against
+ * the in-memory handle.
+ */
+public class TestDirtyTracking {
+
+    private static final Instant T0 = Instant.parse("2025-01-01T00:00:00Z");
+
+    private NosqlInMemoryHandle handle;
+    private NosqlTemplate template;
+    private DirtyTracker tracker;
+    private NosqlEntityInformation<Person, Long> personInfo;
+    private AtomicInteger puts;
+    private AtomicInteger queries;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setup() throws ClassNotFoundException {
+        handle = new NosqlInMemoryHandle();
+        template = NosqlTemplate.create(new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080")
+                .setDirtyTracking(true),
+            handle));
+        tracker = template.getDirtyTracker();
+        personInfo = (NosqlEntityInformation<Person, Long>)
+            template.getNosqlEntityInformation(Person.class);
+        template.createTableIfNotExists(personInfo);
+        template.insert(new Person(1, "Ann", 30, "a@x.org", T0));
+
+        puts = new AtomicInteger();
+        queries = new AtomicInteger();
+        handle.setRequestHook(req -> {
+            if (req instanceof PutRequest) {
+                puts.incrementAndGet();
+            } else if (req instanceof QueryRequest) {
+                queries.incrementAndGet();
+            }
+        });
+    }
+
+    @Test
+    public void testUnchangedSaveSkipped() {
+        Person p = template.findById(1L, Person.class);
+        /* the hash of the row read matches the one of the entity saved */
+        template.insert(p);
+        template.update(p);
+        Assert.assertEquals(0, puts.get());
+        Assert.assertEquals(0, queries.get());
+        Assert.assertEquals(2, tracker.getWritesAvoidedCount());
+
+        for (Person found : template.findAll(Person.class)) {
+            template.insert(found);
+        }
+        Assert.assertEquals(0, puts.get());
+        Assert.assertEquals(3, tracker.getWritesAvoidedCount());
+    }
+
+    @Test
+    public void testChangedFieldsWritten() {
+        Person p = template.findById(1L, Person.class);
+        p.age = 31;
+        template.insert(p);
+        Assert.assertEquals(0, puts.get());
+        Assert.assertEquals(1, tracker.getPartialUpdateCount());
+        Assert.assertEquals(31, template.findById(1L, Person.class).age);
+
+        /* the entity saved is tracked again */
+        template.insert(p);
+        Assert.assertEquals(1, tracker.getWritesAvoidedCount());
+
+        p.name = "Anne";
+        p.age = 32;
+        p.email = "anne@x.org";
+        p.created = T0.plusSeconds(1);
+        template.insert(p);
+        Assert.assertEquals(1, puts.get());
+        Assert.assertEquals(1, tracker.getFullWriteCount());
+        Person found = template.findById(1L, Person.class);
+        Assert.assertEquals("Anne", found.name);
+        Assert.assertEquals(T0.plusSeconds(1), found.created);
+    }
+
+    @Test
+    public void testQueryWriteInvalidates() {
+        Person p = template.findById(1L, Person.class);
+        template.runQuery(personInfo, "update Person t set " +
+            "t.kv_json_.name = 'Other' where t.id = 1").forEach(r -> { });
+
+        template.insert(p);
+        Assert.assertEquals(0, tracker.getWritesAvoidedCount());
+        Assert.assertEquals("Ann", template.findById(1L, Person.class).name);
+    }
+
+    @Test
+    public void testDropInvalidates() {
+        Person p = template.findById(1L, Person.class);
+        template.dropTableIfExists("Person");
+        template.createTableIfNotExists(personInfo);
+
+        template.insert(p);
+        Assert.assertEquals(0, tracker.getWritesAvoidedCount());
+        Assert.assertNotNull(template.findById(1L, Person.class));
+    }
+
+    @Test
+    public void testOtherInstanceSaveInvalidates() {
+        Person a = template.findById(1L, Person.class);
+        Person b = template.findById(1L, Person.class);
+        b.name = "Bob";
+        template.insert(b);
+
+        /* a is unchanged but the row is not the one a was read from */
+        template.insert(a);
+        Assert.assertEquals("Ann", template.findById(1L, Person.class).name);
+    }
+
+    @Test
+    public void testDeleteInvalidates() {
+        Person p = template.findById(1L, Person.class);
+        template.deleteById(personInfo, 1L);
+
+        template.insert(p);
+        Assert.assertEquals(0, tracker.getWritesAvoidedCount());
+        Assert.assertNotNull(template.findById(1L, Person.class));
+    }
+
+    @Test
+    public void testUpdateOfMissingRowNotTracked() {
+        Person p = new Person(2, "Bob", 40, null, T0);
+        template.update(p);
+        Assert.assertNull(template.findById(2L, Person.class));
+
+        template.insert(p);
+        Assert.assertNotNull(template.findById(2L, Person.class));
+    }
+
+    @Test
+    public void testConcurrentWriteNotTracked() throws Exception {
+        Person p = template.findById(1L, Person.class);
+        p.name = "Anne";
+        p.age = 31;
+        p.email = null;
+
+        /* another thread saves the same row while p is written */
+        AtomicBoolean once = new AtomicBoolean();
+        handle.setRequestHook(req -> {
+            if (req instanceof PutRequest && once.compareAndSet(false, true)) {
+                Thread other = new Thread(() -> template.insert(
+                    new Person(1, "Other", 50, null, T0)));
+                other.start();
+                try {
+                    other.join();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        template.insert(p);
+        handle.setRequestHook(null);
+
+        /* the row may be the other one, p is saved again */
+        template.insert(p);
+        Assert.assertEquals(0, tracker.getWritesAvoidedCount());
+        Assert.assertEquals("Anne", template.findById(1L, Person.class).name);
+    }
+
+    @Test
+    public void testTtlTableNotTracked() throws ClassNotFoundException {
+        NosqlEntityInformation<Session, ?> info =
+            template.getNosqlEntityInformation(Session.class);
+        template.createTableIfNotExists(info);
+        template.insert(new Session(1, "s"));
+
+        Session s = template.findById(1L, Session.class);
+        int before = puts.get();
+        template.insert(s);
+        Assert.assertEquals(before + 1, puts.get());
+        Assert.assertEquals(0, tracker.getWritesAvoidedCount());
+    }
+
+    @NosqlTable
+    public static class Person {
+        @NosqlId
+        public long id;
+        public String name;
+        public int age;
+        public String email;
+        @NosqlColumn
+        public Instant created;
+
+        public Person() {
+        }
+
+        Person(long id, String name, int age, String email, Instant created) {
+            this.id = id;
+            this.name = name;
+            this.age = age;
+            this.email = email;
+            this.created = created;
+        }
+    }
+
+    @NosqlTable(ttl = 1)
+    public static class Session {
+        @NosqlId
+        public long id;
+        public String data;
+
+        public Session() {
+        }
+
+        Session(long id, String data) {
+            this.id = id;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import oracle.nosql.driver.ops.QueryRequest;
+import oracle.nosql.driver.values.FieldValue;
+import oracle.nosql.driver.values.MapValue;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.core.NosqlBulkLoader;
+import com.oracle.nosql.spring.data.core.NosqlExporter;
+import com.oracle.nosql.spring.data.core.NosqlTemplate;
+import com.oracle.nosql.spring.data.core.mapping.NosqlColumn;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/*
+ * JSON Lines exports of tables and queries, run against the in-memory
+ * handle.
+ */
+public class TestExporter {
+
+    private static final Instant T0 = Instant.parse("2025-01-01T00:00:00Z");
+
+    private NosqlInMemoryHandle handle;
+    private NosqlTemplate template;
+
+    @Before
+    public void setup() throws ClassNotFoundException {
+        handle = new NosqlInMemoryHandle();
+        template = createTemplate(handle);
+        template.createTableIfNotExists(
+            template.getNosqlEntityInformation(Customer.class));
+        for (int i = 0; i < 100; i++) {
+            template.insert(new Customer(i, "c" + i, 20 + i % 50,
+                new Address("Paris", "7500" + (i % 10)), T0.plusSeconds(i)));
+        }
+    }
+
+    @Test
+    public void testTableFlattened() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Assert.assertEquals(100, new NosqlExporter(template)
+            .exportTable(Customer.class, out));
+
+        List<MapValue> rows = parse(out.toByteArray());
+        Assert.assertEquals(100, rows.size());
+        for (MapValue row : rows) {
+            /* the key, typed and JSON fields are at the top level */
+            Assert.assertNull(row.get("kv_json_"));
+            long id = row.getLong("id");
+            Assert.assertEquals("c" + id, row.getString("name"));
+            Assert.assertEquals(20 + id % 50, row.getInt("age"));
+            Assert.assertEquals("Paris",
+                row.get("address").asMap().getString("city"));
+            Assert.assertNotNull(row.get("created"));
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new NosqlExporter(template).exportTable(Customer.class, out);
+
+        /* the export is read back by the bulk loader */
+        NosqlInMemoryHandle otherHandle = new NosqlInMemoryHandle();
+        NosqlTemplate other = createTemplate(otherHandle);
+        NosqlBulkLoader.Report report = new NosqlBulkLoader(other,
+            Customer.class).loadJsonLines(
+                new ByteArrayInputStream(out.toByteArray()));
+        Assert.assertEquals(100, report.getRows());
+        Assert.assertEquals(100, otherHandle.getRowCount("Customer"));
+
+        for (long id : new long[] {0, 42, 99}) {
+            Customer expected = template.findById(id, Customer.class);
+            Customer found = other.findById(id, Customer.class);
+            Assert.assertEquals(expected.name, found.name);
+            Assert.assertEquals(expected.age, found.age);
+            Assert.assertEquals(expected.address.city, found.address.city);
+            Assert.assertEquals(expected.address.zip, found.address.zip);
+            Assert.assertEquals(expected.created, found.created);
+        }
+    }
+
+    @Test
+    public void testCompressed() throws IOException {
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        new NosqlExporter(template).exportTable(Customer.class, plain);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WritableByteChannel channel = Channels.newChannel(out);
+        Assert.assertEquals(100, new NosqlExporter(template)
+            .setCompressed(true)
+            .exportTable(Customer.class, channel));
+        Assert.assertTrue(out.size() < plain.size());
+
+        try (InputStream in = new GZIPInputStream(
+            new ByteArrayInputStream(out.toByteArray()))) {
+            Assert.assertArrayEquals(plain.toByteArray(), in.readAllBytes());
+        }
+    }
+
+    @Test
+    public void testParallelChannels() throws IOException {
+        List<ByteArrayOutputStream> outs = new ArrayList<>();
+        List<WritableByteChannel> channels = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            outs.add(out);
+            channels.add(Channels.newChannel(out));
+        }
+        Assert.assertEquals(100, new NosqlExporter(template)
+            .exportTable(Customer.class, channels));
+
+        Set<Long> ids = new HashSet<>();
+        int nonEmpty = 0;
+        for (ByteArrayOutputStream out : outs) {
+            List<MapValue> rows = parse(out.toByteArray());
+            nonEmpty += rows.isEmpty() ? 0 : 1;
+            for (MapValue row : rows) {
+                Assert.assertTrue(ids.add(row.getLong("id")));
+            }
+        }
+        Assert.assertEquals(100, ids.size());
+        Assert.assertTrue(nonEmpty > 1);
+    }
+
+    @Test
+    public void testMoreChannelsThanRanges() throws IOException {
+        template.deleteAll(template.getNosqlEntityInformation(Customer.class));
+        template.insert(new Customer(7, "c7", 30, null, T0));
+
+        List<ByteArrayOutputStream> outs = new ArrayList<>();
+        List<WritableByteChannel> channels = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            outs.add(out);
+            channels.add(Channels.newChannel(out));
+        }
+        Assert.assertEquals(1, new NosqlExporter(template)
+            .setCompressed(true)
+            .exportTable(Customer.class, channels));
+
+        /* channels without rows still get a valid gzip output */
+        int rows = 0;
+        for (ByteArrayOutputStream out : outs) {
+            try (InputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(out.toByteArray()))) {
+                rows += parse(in.readAllBytes()).size();
+            }
+        }
+        Assert.assertEquals(1, rows);
+    }
+
+    @Test
+    public void testParallelFailure() {
+        handle.setRequestHook(req -> {
+            if (req instanceof QueryRequest) {
+                throw new IllegalArgumentException("injected");
+            }
+        });
+        List<WritableByteChannel> channels = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            channels.add(Channels.newChannel(new ByteArrayOutputStream()));
+        }
+        try {
+            new NosqlExporter(template).exportTable(Customer.class, channels);
+            Assert.fail("Expected the injected failure");
+        } catch (RuntimeException re) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testQueryWithParams() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = new NosqlExporter(template).exportQuery(Customer.class,
+            "DECLARE $age INTEGER; SELECT * FROM Customer t " +
+                "WHERE t.kv_json_.age >= $age",
+            Map.of("$age", 65), out);
+        /* ages 65 to 69, twice each */
+        Assert.assertEquals(10, count);
+
+        List<MapValue> rows = parse(out.toByteArray());
+        Assert.assertEquals(10, rows.size());
+        for (MapValue row : rows) {
+            Assert.assertNull(row.get("kv_json_"));
+            Assert.assertTrue(row.getInt("age") >= 65);
+        }
+    }
+
+    @Test
+    public void testProjectionWrittenAsReturned() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = new NosqlExporter(template).exportQuery(Customer.class,
+            "SELECT t.id, t.kv_json_.address AS address FROM Customer t " +
+                "WHERE t.id < 3", null, Channels.newChannel(out));
+        Assert.assertEquals(3, count);
+
+        for (MapValue row : parse(out.toByteArray())) {
+            Assert.assertEquals(2, row.size());
+            Assert.assertNotNull(row.get("id"));
+            /* nested objects are not flattened */
+            Assert.assertEquals("Paris",
+                row.get("address").asMap().getString("city"));
+        }
+    }
+
+    private static NosqlTemplate createTemplate(NosqlInMemoryHandle handle)
+        throws ClassNotFoundException {
+        return NosqlTemplate.create(new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080"),
+            handle));
+    }
+
+    private static List<MapValue> parse(byte[] bytes) {
+        List<MapValue> rows = new ArrayList<>();
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        if (text.isEmpty()) {
+            return rows;
+        }
+        Assert.assertTrue(text.endsWith("\n"));
+        for (String line : text.split("\n")) {
+            rows.add(FieldValue.createFromJson(line, null).asMap());
+        }
+        return rows;
+    }
+
+    @NosqlTable
+    public static class Customer {
+        @NosqlId
+        public long id;
+        public String name;
+        public int age;
+        public Address address;
+        @NosqlColumn
+        public Instant created;
+
+        public Customer() {
+        }
+
+        Customer(long id, String name, int age, Address address,
+            Instant created) {
+            this.id = id;
+            this.name = name;
+            this.age = age;
+            this.address = address;
+            this.created = created;
+        }
+    }
+
+    public static class Address {
+        public String city;
+        public String zip;
+
+        public Address() {
+        }
+
+        Address(String city, String zip) {
+            this.city = city;
+            this.zip = zip;
+        }
+    }
+}
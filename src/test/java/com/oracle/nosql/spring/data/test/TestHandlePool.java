@@ -0,0 +1,331 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import oracle.nosql.driver.NoSQLHandle;
+import oracle.nosql.driver.ops.GetRequest;
+import oracle.nosql.driver.ops.QueryRequest;
+import oracle.nosql.driver.values.MapValue;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.NosqlHandlePool;
+import com.oracle.nosql.spring.data.config.HandlePoolStrategy;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.core.NosqlTemplate;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Dispatch of requests over a pool of handles, run against the in-memory
+ * handle. The pools hold the same handle several times, so that all their
+ * handles see the same tables.
+ */
+public class TestHandlePool {
+
+    private NosqlInMemoryHandle handle;
+    private NosqlHandlePool pool;
+    private NosqlTemplate template;
+
+    @Test
+    public void testRoundRobin() throws ClassNotFoundException {
+        createPool(HandlePoolStrategy.ROUND_ROBIN);
+        long[] before = requestCounts();
+        for (int i = 0; i < 9; i++) {
+            template.findById((long) i, Item.class);
+        }
+        long[] after = requestCounts();
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(3, after[i] - before[i]);
+            Assert.assertEquals(0, pool.getInFlight(i));
+        }
+    }
+
+    @Test
+    public void testLeastInFlight() throws Exception {
+        createPool(HandlePoolStrategy.LEAST_OUTSTANDING);
+        CountDownLatch release = new CountDownLatch(1);
+        blockGets(release);
+
+        /* 2 gets held on 2 handles */
+        List<CompletableFuture<Item>> held = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                held.add(CompletableFuture.supplyAsync(
+                    () -> template.findById(1L, Item.class)));
+                awaitInFlight(i + 1);
+            }
+            int idle = pool.getInFlight(0) == 0 ? 0 :
+                pool.getInFlight(1) == 0 ? 1 : 2;
+            long before = pool.getRequestCount(idle);
+
+            /* other requests go to the idle handle */
+            for (int i = 0; i < 4; i++) {
+                template.insert(new Item(10 + i, "x"));
+            }
+            Assert.assertEquals(before + 4, pool.getRequestCount(idle));
+        } finally {
+            release.countDown();
+        }
+        for (CompletableFuture<Item> future : held) {
+            Assert.assertEquals("a", future.get(5, TimeUnit.SECONDS).name);
+        }
+        Assert.assertEquals(0, inFlight());
+    }
+
+    @Test
+    public void testLazyQueryResultsInFlight() throws Exception {
+        createPool(HandlePoolStrategy.LEAST_OUTSTANDING);
+        handle.setLazyQueryResults(true);
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        handle.setRequestHook(req -> {
+            if (req instanceof QueryRequest) {
+                computing.countDown();
+                await(release);
+            }
+        });
+
+        QueryRequest request = new QueryRequest()
+            .setStatement("SELECT * FROM Item t");
+        CompletableFuture<Integer> query = CompletableFuture.supplyAsync(
+            () -> pool.query(request).getResults().size());
+        try {
+            Assert.assertTrue(computing.await(5, TimeUnit.SECONDS));
+            /* the results computed on first access are in flight */
+            Assert.assertEquals(1, inFlight());
+        } finally {
+            release.countDown();
+        }
+        Assert.assertEquals(2, query.get(5, TimeUnit.SECONDS).intValue());
+        Assert.assertEquals(0, inFlight());
+    }
+
+    @Test
+    public void testQueryBatchesPinned() throws ClassNotFoundException {
+        createPool(HandlePoolStrategy.ROUND_ROBIN);
+        for (int i = 10; i < 18; i++) {
+            template.insert(new Item(i, "b"));
+        }
+
+        /* 10 rows in 4 batches, other requests between them */
+        QueryRequest request = new QueryRequest()
+            .setStatement("SELECT * FROM Item t").setLimit(3);
+        long[] before = requestCounts();
+        int rows = 0;
+        int batches = 0;
+        do {
+            rows += pool.query(request).getResults().size();
+            batches++;
+            template.findById(1L, Item.class);
+        } while (!request.isDone());
+        Assert.assertEquals(10, rows);
+        Assert.assertEquals(4, batches);
+
+        /* all the batches on one handle, the gets round robin */
+        long[] after = requestCounts();
+        int pinned = -1;
+        for (int i = 0; i < 3; i++) {
+            long delta = after[i] - before[i];
+            if (delta >= 4) {
+                Assert.assertEquals(-1, pinned);
+                pinned = i;
+                Assert.assertTrue(delta <= 6);
+            } else {
+                Assert.assertTrue(delta <= 2);
+            }
+        }
+        Assert.assertNotEquals(-1, pinned);
+
+        /* the next queries are dispatched round robin again */
+        long[] next = requestCounts();
+        pool.query(new QueryRequest().setStatement("SELECT * FROM Item t"));
+        pool.query(new QueryRequest().setStatement("SELECT * FROM Item t"));
+        pool.query(new QueryRequest().setStatement("SELECT * FROM Item t"));
+        long[] last = requestCounts();
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(1, last[i] - next[i]);
+        }
+    }
+
+    @Test
+    public void testFailuresLeaveNoneInFlight()
+        throws ClassNotFoundException {
+        createPool(HandlePoolStrategy.LEAST_OUTSTANDING);
+        long[] before = requestCounts();
+        handle.setRequestHook(req -> {
+            if (req instanceof GetRequest) {
+                throw new IllegalArgumentException("injected");
+            }
+        });
+        for (int i = 0; i < 6; i++) {
+            try {
+                pool.get(new GetRequest().setTableName("Item")
+                    .setKey(new MapValue().put("id", 1)));
+                Assert.fail("Expected the injected failure");
+            } catch (IllegalArgumentException iae) {
+                // expected
+            }
+        }
+        Assert.assertEquals(0, inFlight());
+        /* no handle is avoided because of the failed requests */
+        long[] after = requestCounts();
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(2, after[i] - before[i]);
+        }
+    }
+
+    @Test
+    public void testConcurrentRequests() throws Exception {
+        createPool(HandlePoolStrategy.LEAST_OUTSTANDING);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int base = 100 + t * 100;
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 50; i++) {
+                    template.insert(new Item(base + i, "c"));
+                    Assert.assertNotNull(template.findById((long) base + i,
+                        Item.class));
+                }
+            }));
+        }
+        for (CompletableFuture<Void> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        Assert.assertEquals(402, handle.getRowCount("Item"));
+        Assert.assertEquals(0, inFlight());
+        for (int i = 0; i < pool.getSize(); i++) {
+            Assert.assertTrue(pool.getRequestCount(i) > 0);
+        }
+    }
+
+    @Test
+    public void testCloseClosesAllHandles() {
+        AtomicBoolean closed = new AtomicBoolean();
+        RuntimeException failure = new IllegalStateException("close");
+        NoSQLHandle failing = new NosqlInMemoryHandle() {
+            @Override
+            public void close() {
+                throw failure;
+            }
+        };
+        NoSQLHandle other = new NosqlInMemoryHandle() {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        NosqlHandlePool closing = new NosqlHandlePool(
+            Arrays.asList(failing, other), HandlePoolStrategy.ROUND_ROBIN);
+        try {
+            closing.close();
+            Assert.fail("Expected the close failure");
+        } catch (IllegalStateException ise) {
+            Assert.assertSame(failure, ise);
+        }
+        Assert.assertTrue(closed.get());
+    }
+
+    @Test
+    public void testFactoryPool() {
+        NosqlDbFactory factory = new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080")
+                .setHandlePoolSize(3)
+                .setHandlePoolStrategy(HandlePoolStrategy.ROUND_ROBIN));
+        try {
+            /* the handles are created without connecting */
+            NoSQLHandle client = factory.getNosqlClient();
+            Assert.assertTrue(client instanceof NosqlHandlePool);
+            Assert.assertSame(client, factory.getHandlePool());
+            Assert.assertEquals(3, factory.getHandlePool().getSize());
+            Assert.assertSame(client, factory.getNosqlReadClient());
+            Assert.assertSame(client, factory.getNosqlWriteClient());
+        } finally {
+            factory.close();
+        }
+        Assert.assertNull(factory.getHandlePool());
+    }
+
+    private void createPool(HandlePoolStrategy strategy)
+        throws ClassNotFoundException {
+        handle = new NosqlInMemoryHandle();
+        pool = new NosqlHandlePool(Arrays.asList(handle, handle, handle),
+            strategy);
+        template = NosqlTemplate.create(new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080"), pool));
+        template.createTableIfNotExists(
+            template.getNosqlEntityInformation(Item.class));
+        template.insert(new Item(1, "a"));
+        template.insert(new Item(2, "b"));
+    }
+
+    private long[] requestCounts() {
+        long[] counts = new long[pool.getSize()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = pool.getRequestCount(i);
+        }
+        return counts;
+    }
+
+    private void blockGets(CountDownLatch release) {
+        handle.setRequestHook(req -> {
+            if (req instanceof GetRequest) {
+                await(release);
+            }
+        });
+    }
+
+    private int inFlight() {
+        int n = 0;
+        for (int i = 0; i < pool.getSize(); i++) {
+            n += pool.getInFlight(i);
+        }
+        return n;
+    }
+
+    private void awaitInFlight(int n) throws InterruptedException {
+        long end = System.currentTimeMillis() + 5000;
+        while (inFlight() < n && System.currentTimeMillis() < end) {
+            Thread.sleep(5);
+        }
+        Assert.assertEquals(n, inFlight());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @NosqlTable
+    public static class Item {
+        @NosqlId
+        public long id;
+        public String name;
+
+        public Item() {
+        }
+
+        Item(long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
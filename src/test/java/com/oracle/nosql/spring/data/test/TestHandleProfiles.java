@@ -0,0 +1,214 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import oracle.nosql.driver.NoSQLHandle;
+import oracle.nosql.driver.NoSQLHandleConfig;
+import oracle.nosql.driver.kv.StoreAccessTokenProvider;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.NosqlHandlePool;
+import com.oracle.nosql.spring.data.config.HandlePoolStrategy;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.core.NosqlTemplate;
+import com.oracle.nosql.spring.data.core.ReactiveNosqlTemplate;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/*
+ * Dispatch of reads and writes to the handles of the read and write
+ * profiles, run against the in-memory handle. The main, read and write
+ * handles are pools of one in-memory handle, to count their requests.
+ */
+public class TestHandleProfiles {
+
+    private NosqlInMemoryHandle handle;
+    private NosqlHandlePool main;
+    private NosqlHandlePool reads;
+    private NosqlHandlePool writes;
+    private NosqlDbFactory factory;
+    private NosqlTemplate template;
+    private NosqlEntityInformation<Item, Long> itemInfo;
+
+    @Before
+    public void setup() throws ClassNotFoundException {
+        handle = new NosqlInMemoryHandle();
+        main = pool(handle);
+        reads = pool(handle);
+        writes = pool(handle);
+        factory = new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080"), main) {
+            @Override
+            public NoSQLHandle getNosqlReadClient() {
+                return reads;
+            }
+
+            @Override
+            public NoSQLHandle getNosqlWriteClient() {
+                return writes;
+            }
+        };
+        template = NosqlTemplate.create(factory);
+        itemInfo = createTable(Item.class);
+        /* table requests use the main handle */
+        Assert.assertTrue(count(main) > 0);
+        Assert.assertEquals(0, count(reads));
+        Assert.assertEquals(0, count(writes));
+    }
+
+    @Test
+    public void testWritesUseWriteHandle() {
+        template.insert(new Item(1, "a"));
+        template.insert(new Item(2, "b"));
+        template.update(new Item(2, "c"));
+        Assert.assertEquals(3, count(writes));
+
+        template.deleteById(itemInfo, 1L);
+        template.deleteInShard("Item", Item.class,
+            Collections.singletonList(2L));
+        Assert.assertEquals(5, count(writes));
+        Assert.assertEquals(0, count(reads));
+        Assert.assertEquals(0, handle.getRowCount("Item"));
+    }
+
+    @Test
+    public void testReadsUseReadHandle() {
+        template.insert(new Item(1, "a"));
+        template.insert(new Item(2, "b"));
+        long sentWrites = count(writes);
+
+        Assert.assertEquals("a", template.findById(1L, Item.class).name);
+        Assert.assertEquals(1, count(reads));
+        int found = 0;
+        for (Item item : template.findAll(Item.class)) {
+            found++;
+        }
+        Assert.assertEquals(2, found);
+        Assert.assertEquals(2, template.count(itemInfo));
+        Assert.assertEquals(3, count(reads));
+        Assert.assertEquals(sentWrites, count(writes));
+    }
+
+    @Test
+    public void testWritingQueriesUseWriteHandle() {
+        template.insert(new Item(1, "a"));
+        long sentReads = count(reads);
+        long sentWrites = count(writes);
+        long sentMain = count(main);
+
+        template.runQuery(itemInfo, "UPDATE Item t SET t.kv_json_.name = " +
+            "'x' WHERE t.id = 1").forEach(r -> { });
+        Assert.assertEquals(sentWrites + 1, count(writes));
+        Assert.assertEquals(sentReads, count(reads));
+        /* statements are prepared with the main handle */
+        Assert.assertEquals(sentMain + 1, count(main));
+        Assert.assertEquals("x", template.findById(1L, Item.class).name);
+    }
+
+    @Test
+    public void testReactiveTemplate() throws ClassNotFoundException {
+        ReactiveNosqlTemplate reactive = ReactiveNosqlTemplate.create(factory);
+        reactive.insert(new Item(1, "a")).block();
+        Assert.assertEquals(1, count(writes));
+        Assert.assertEquals("a",
+            reactive.findById(1L, Item.class).block().name);
+        Assert.assertEquals(1, count(reads));
+    }
+
+    @Test
+    public void testFactoryProfiles() {
+        NosqlDbFactory profiles = new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080")
+                .setReadHandleConfig(profile()));
+        try {
+            /* the handles are created without connecting */
+            NoSQLHandle client = profiles.getNosqlClient();
+            NoSQLHandle read = profiles.getNosqlReadClient();
+            Assert.assertNotSame(client, read);
+            Assert.assertSame(read, profiles.getNosqlReadClient());
+            Assert.assertSame(client, profiles.getNosqlWriteClient());
+        } finally {
+            profiles.close();
+        }
+    }
+
+    @Test
+    public void testProvidedHandleUsedForAll() {
+        NosqlInMemoryHandle provided = new NosqlInMemoryHandle();
+        NosqlDbFactory profiles = new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080")
+                .setReadHandleConfig(profile())
+                .setWriteHandleConfig(profile()),
+            provided);
+        Assert.assertSame(provided, profiles.getNosqlReadClient());
+        Assert.assertSame(provided, profiles.getNosqlWriteClient());
+    }
+
+    @Test
+    public void testProfileWithoutAuthorization() {
+        try {
+            new NosqlDbFactory(
+                NosqlDbConfig.createProxyConfig("http://localhost:8080")
+                    .setWriteHandleConfig(
+                        new NoSQLHandleConfig("http://localhost:8080")));
+            Assert.fail("Expected an invalid profile");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T, ID> NosqlEntityInformation<T, ID> createTable(
+        Class<T> entityClass) throws ClassNotFoundException {
+        NosqlEntityInformation<T, ID> info =
+            (NosqlEntityInformation<T, ID>)
+                template.getNosqlEntityInformation(entityClass);
+        template.createTableIfNotExists(info);
+        return info;
+    }
+
+    private static NoSQLHandleConfig profile() {
+        NoSQLHandleConfig config = new NoSQLHandleConfig(
+            "http://localhost:8080");
+        config.setAuthorizationProvider(new StoreAccessTokenProvider());
+        config.setRequestTimeout(1000);
+        return config;
+    }
+
+    private static NosqlHandlePool pool(NoSQLHandle handle) {
+        return new NosqlHandlePool(Arrays.asList(handle),
+            HandlePoolStrategy.ROUND_ROBIN);
+    }
+
+    private static long count(NosqlHandlePool pool) {
+        return pool.getRequestCount(0);
+    }
+
+    @NosqlTable
+    public static class Item {
+        @NosqlId
+        public long id;
+        public String name;
+
+        public Item() {
+        }
+
+        Item(long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,394 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import oracle.nosql.driver.ops.GetRequest;
+import oracle.nosql.driver.ops.QueryRequest;
+import oracle.nosql.driver.ops.Request;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.config.NosqlHedgingPolicy;
+import com.oracle.nosql.spring.data.core.NosqlTemplate;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Hedging of slow reads, run against the in-memory handle. No read is
+ * hedged before 64 latencies of the table are known, the tests start with
+ * fast reads so that the hedge delay is the min delay.
+ */
+public class TestHedging {
+
+    private static final long MIN_DELAY_MS = 50;
+    private static final long SLOW_MS = 500;
+    /* more than the 64 latencies, recorded after the reads return */
+    private static final int WARM_UP = 70;
+
+    private NosqlInMemoryHandle handle;
+    private NosqlTemplate template;
+    /* behaviors of the next gets, each taken by one request */
+    private final List<Behavior> next = new ArrayList<>();
+    private final AtomicInteger gets = new AtomicInteger();
+    /* threads of the gets */
+    private final List<Thread> threads = new ArrayList<>();
+
+    private interface Behavior {
+        void run();
+    }
+
+    @Test
+    public void testNoHedgeBeforeLatenciesKnown()
+        throws ClassNotFoundException {
+        setup(1);
+        then(slow(SLOW_MS / 3));
+        Assert.assertEquals("item1", template.findById(1L, Item.class).name);
+        Assert.assertEquals(1, gets.get());
+        Assert.assertEquals(0, template.getHedgeCount());
+    }
+
+    @Test
+    public void testSlowReadHedged() throws ClassNotFoundException {
+        setup(1);
+        warmUp();
+        then(slow(SLOW_MS), null);
+
+        long start = System.currentTimeMillis();
+        Assert.assertEquals("item1", template.findById(1L, Item.class).name);
+        Assert.assertTrue(System.currentTimeMillis() - start < SLOW_MS);
+        Assert.assertEquals(1, template.getHedgeCount());
+        Assert.assertEquals(1, template.getHedgeWinCount());
+        Assert.assertEquals(0, template.getHedgeDeniedCount());
+        /* the read is sent from the calling thread, the hedge is not */
+        Assert.assertEquals(2, threads.size());
+        Assert.assertSame(Thread.currentThread(), threads.get(0));
+        Assert.assertTrue(threads.get(1).getName().startsWith("nosql-hedge-"));
+        /* the interrupt of the abandoned read is cleared */
+        Assert.assertFalse(Thread.currentThread().isInterrupted());
+
+        /* fast reads are not hedged */
+        for (int i = 0; i < 10; i++) {
+            template.findById(2L, Item.class);
+        }
+        Assert.assertEquals(1, template.getHedgeCount());
+    }
+
+    @Test
+    public void testPrimaryWinsIfHedgeSlower() throws ClassNotFoundException {
+        setup(1);
+        warmUp();
+        then(slow(MIN_DELAY_MS * 3), slow(SLOW_MS));
+
+        Assert.assertEquals("item1", template.findById(1L, Item.class).name);
+        Assert.assertEquals(1, template.getHedgeCount());
+        Assert.assertEquals(0, template.getHedgeWinCount());
+    }
+
+    @Test
+    public void testFastFailureNotHedged() throws ClassNotFoundException {
+        setup(1);
+        warmUp();
+        RuntimeException failure = new IllegalArgumentException("primary");
+        then(fail(0, failure));
+        try {
+            template.findById(1L, Item.class);
+            Assert.fail("Expected the read failure");
+        } catch (IllegalArgumentException iae) {
+            Assert.assertSame(failure, iae);
+        }
+        Assert.assertEquals(0, template.getHedgeCount());
+    }
+
+    @Test
+    public void testSlowFailureHedged() throws ClassNotFoundException {
+        setup(1);
+        warmUp();
+        then(fail(MIN_DELAY_MS * 3,
+            new IllegalArgumentException("primary")), null);
+        /* the result of the hedge is returned */
+        Assert.assertEquals("item1", template.findById(1L, Item.class).name);
+        Assert.assertEquals(1, template.getHedgeWinCount());
+    }
+
+    @Test
+    public void testBothFailThrowsPrimaryFailure()
+        throws ClassNotFoundException {
+        setup(1);
+        warmUp();
+        RuntimeException primary = new IllegalArgumentException("primary");
+
+        /* the hedge fails first */
+        then(fail(MIN_DELAY_MS * 3, primary),
+            fail(0, new IllegalStateException("hedge")));
+        assertFailure(primary);
+
+        /* the primary fails first */
+        then(fail(MIN_DELAY_MS * 2, primary),
+            fail(MIN_DELAY_MS * 4, new IllegalStateException("hedge")));
+        assertFailure(primary);
+
+        Assert.assertEquals(2, template.getHedgeCount());
+        Assert.assertEquals(0, template.getHedgeWinCount());
+    }
+
+    @Test
+    public void testMaxRate() throws ClassNotFoundException {
+        /* 71 reads give a budget of 3.55 hedges */
+        setup(0.05);
+        warmUp();
+        for (int i = 0; i < 6; i++) {
+            then(slow(MIN_DELAY_MS * 3), null);
+            Assert.assertEquals("item1",
+                template.findById(1L, Item.class).name);
+        }
+        Assert.assertEquals(3, template.getHedgeCount());
+        Assert.assertEquals(3, template.getHedgeDeniedCount());
+
+        /* the budget grows with all the reads, not only the slow ones */
+        for (int i = 0; i < 20; i++) {
+            template.findById(2L, Item.class);
+        }
+        then(slow(MIN_DELAY_MS * 3), null);
+        template.findById(1L, Item.class);
+        Assert.assertEquals(4, template.getHedgeCount());
+    }
+
+    @Test
+    public void testQueryHedged() throws ClassNotFoundException {
+        setup(1);
+        AtomicInteger queries = new AtomicInteger();
+        AtomicReference<Behavior> slowQuery = new AtomicReference<>();
+        handle.setRequestHook(req -> {
+            if (req instanceof QueryRequest) {
+                queries.incrementAndGet();
+                Behavior behavior = slowQuery.getAndSet(null);
+                if (behavior != null) {
+                    behavior.run();
+                }
+            }
+        });
+        for (int i = 0; i < WARM_UP; i++) {
+            Assert.assertEquals(10, count(template.findAll(Item.class)));
+        }
+        queries.set(0);
+
+        slowQuery.set(slow(SLOW_MS));
+        Assert.assertEquals(10, count(template.findAll(Item.class)));
+        Assert.assertEquals(2, queries.get());
+        Assert.assertEquals(1, template.getHedgeWinCount());
+    }
+
+    @Test
+    public void testConcurrentReads() throws Exception {
+        setup(1);
+        warmUp();
+        /* every 5th get is slow */
+        AtomicInteger requests = new AtomicInteger();
+        handle.setRequestHook(req -> {
+            if (req instanceof GetRequest &&
+                requests.incrementAndGet() % 5 == 0) {
+                slow(MIN_DELAY_MS * 5).run();
+            }
+        });
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 20; i++) {
+                    long id = i % 10;
+                    Assert.assertEquals("item" + id,
+                        template.findById(id, Item.class).name);
+                }
+            }));
+        }
+        for (CompletableFuture<Void> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        Assert.assertTrue(template.getHedgeCount() > 0);
+        Assert.assertTrue(template.getHedgeWinCount() <=
+            template.getHedgeCount());
+        /* one request per read and one per hedge */
+        Assert.assertEquals(160 + template.getHedgeCount(), requests.get());
+    }
+
+    @Test
+    public void testMaxParallelism() throws Exception {
+        setup(1, 1);
+        warmUp();
+        /* gets are slow, hedges included */
+        Set<String> hedgeThreads = ConcurrentHashMap.newKeySet();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        handle.setRequestHook(req -> {
+            if (!(req instanceof GetRequest)) {
+                return;
+            }
+            String name = Thread.currentThread().getName();
+            if (!name.startsWith("nosql-hedge-")) {
+                slow(MIN_DELAY_MS * 3).run();
+                return;
+            }
+            hedgeThreads.add(name);
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            slow(MIN_DELAY_MS * 3).run();
+            running.decrementAndGet();
+        });
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 3; i++) {
+                    Assert.assertEquals("item1",
+                        template.findById(1L, Item.class).name);
+                }
+            }));
+        }
+        for (CompletableFuture<Void> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        Assert.assertTrue(template.getHedgeCount() > 0);
+        Assert.assertEquals(1, maxRunning.get());
+        Assert.assertEquals(1, hedgeThreads.size());
+    }
+
+    @Test
+    public void testDestroy() throws ClassNotFoundException {
+        setup(1);
+        warmUp();
+        template.destroy();
+
+        /* reads are no longer hedged */
+        then(slow(MIN_DELAY_MS * 3), null);
+        Assert.assertEquals("item1", template.findById(1L, Item.class).name);
+        Assert.assertEquals(1, gets.get());
+        Assert.assertEquals(0, template.getHedgeCount());
+    }
+
+    private void setup(double maxRate) throws ClassNotFoundException {
+        setup(maxRate, new NosqlHedgingPolicy().getMaxParallelism());
+    }
+
+    private void setup(double maxRate, int maxParallelism)
+        throws ClassNotFoundException {
+        handle = new NosqlInMemoryHandle();
+        /* the median, not disturbed by a few slow reads of a loaded host */
+        template = NosqlTemplate.create(new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080")
+                .setHedgingPolicy(new NosqlHedgingPolicy()
+                    .setPercentile(0.5)
+                    .setMinDelayMs(MIN_DELAY_MS)
+                    .setMaxRate(maxRate)
+                    .setMaxParallelism(maxParallelism)),
+            handle));
+        template.createTableIfNotExists(
+            template.getNosqlEntityInformation(Item.class));
+        for (int i = 0; i < 10; i++) {
+            template.insert(new Item(i, "item" + i));
+        }
+        handle.setRequestHook(this::beforeRequest);
+    }
+
+    private void beforeRequest(Request req) {
+        if (!(req instanceof GetRequest)) {
+            return;
+        }
+        gets.incrementAndGet();
+        Behavior behavior = null;
+        synchronized (next) {
+            threads.add(Thread.currentThread());
+            if (!next.isEmpty()) {
+                behavior = next.remove(0);
+            }
+        }
+        if (behavior != null) {
+            behavior.run();
+        }
+    }
+
+    /* Sets the behaviors of the next gets, null for a fast get. */
+    private void then(Behavior... behaviors) {
+        synchronized (next) {
+            next.clear();
+            for (Behavior behavior : behaviors) {
+                next.add(behavior != null ? behavior : () -> { });
+            }
+        }
+    }
+
+    private void warmUp() {
+        for (int i = 0; i < WARM_UP; i++) {
+            template.findById((long) i % 10, Item.class);
+        }
+        Assert.assertEquals(0, template.getHedgeCount());
+        gets.set(0);
+        synchronized (next) {
+            threads.clear();
+        }
+    }
+
+    private void assertFailure(RuntimeException expected) {
+        try {
+            template.findById(1L, Item.class);
+            Assert.fail("Expected the read failure");
+        } catch (RuntimeException re) {
+            Assert.assertSame(expected, re);
+        }
+    }
+
+    private static Behavior slow(long ms) {
+        return () -> {
+            try {
+                Thread.sleep(ms);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    private static Behavior fail(long ms, RuntimeException failure) {
+        return () -> {
+            slow(ms).run();
+            throw failure;
+        };
+    }
+
+    private static int count(Iterable<?> iterable) {
+        int n = 0;
+        for (Object o : iterable) {
+            n++;
+        }
+        return n;
+    }
+
+    @NosqlTable
+    public static class Item {
+        @NosqlId
+        public long id;
+        public String name;
+
+        public Item() {
+        }
+
+        Item(long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import oracle.nosql.driver.ops.ListTablesRequest;
+import oracle.nosql.driver.values.FieldValue;
+import oracle.nosql.driver.values.MapValue;
+import oracle.nosql.driver.values.StringValue;
+
+import com.oracle.nosql.spring.data.core.NosqlTemplate;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.repository.NosqlRepository;
+import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
+import com.oracle.nosql.spring.data.repository.support.NosqlRepositoryFactory;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+/*
+ * Runs the template and a repository against the in-memory handle, no
+ * server needed.
+ */
+public class TestInMemoryHandle {
+
+    private NosqlTemplate template;
+    private NosqlEntityInformation<Item, Long> itemInfo;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setup() throws ClassNotFoundException {
+        template = NosqlTemplate.create(NosqlInMemoryHandle.createFactory());
+        itemInfo = (NosqlEntityInformation<Item, Long>)
+            template.getNosqlEntityInformation(Item.class);
+        template.createTableIfNotExists(itemInfo);
+    }
+
+    @Test
+    public void testCrud() {
+        Item apple = template.insert(new Item("apple", 3));
+        Item pear = template.insert(new Item("pear", 5));
+        Assert.assertNotEquals(0, apple.id);
+        Assert.assertNotEquals(apple.id, pear.id);
+        Assert.assertEquals(2, template.count(itemInfo));
+
+        Item found = template.findById(apple.id, Item.class);
+        Assert.assertEquals("apple", found.name);
+        Assert.assertEquals(3, found.qty);
+
+        found.qty = 7;
+        template.update(found);
+        Assert.assertEquals(7, template.findById(apple.id, Item.class).qty);
+
+        List<Item> both = toList(template.findAllById(itemInfo,
+            Arrays.asList(apple.id, pear.id)));
+        Assert.assertEquals(2, both.size());
+
+        template.deleteById(itemInfo, apple.id);
+        Assert.assertNull(template.findById(apple.id, Item.class));
+        Assert.assertEquals(1, template.count(itemInfo));
+
+        template.deleteAll(itemInfo);
+        Assert.assertEquals(0, template.count(itemInfo));
+    }
+
+    @Test
+    public void testSortAndPage() {
+        for (int i = 0; i < 10; i++) {
+            template.insert(new Item("item" + i, 10 - i));
+        }
+
+        List<Item> sorted = toList(template.findAll(itemInfo,
+            Sort.by("qty")));
+        Assert.assertEquals(10, sorted.size());
+        for (int i = 1; i < sorted.size(); i++) {
+            Assert.assertTrue(sorted.get(i - 1).qty <= sorted.get(i).qty);
+        }
+
+        Page<Item> page = template.findAll(itemInfo,
+            PageRequest.of(1, 4, Sort.by(Sort.Direction.DESC, "qty")));
+        Assert.assertEquals(10, page.getTotalElements());
+        Assert.assertEquals(3, page.getTotalPages());
+        Assert.assertEquals(Arrays.asList(6, 5, 4, 3),
+            page.getContent().stream().map(i -> i.qty)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testNativeQueries() {
+        template.insert(new Item("apple", 3));
+        template.insert(new Item("apricot", 8));
+        template.insert(new Item("pear", 5));
+
+        Map<String, FieldValue> params = new HashMap<>();
+        params.put("$prefix", new StringValue("ap"));
+        List<MapValue> rows = toList(template.runQueryNosqlParams(itemInfo,
+            "declare $prefix string; select t.kv_json_.name as name " +
+            "from Item t where starts_with(t.kv_json_.name, $prefix) " +
+            "order by t.kv_json_.name", params));
+        Assert.assertEquals(2, rows.size());
+        Assert.assertEquals("apple", rows.get(0).getString("name"));
+        Assert.assertEquals("apricot", rows.get(1).getString("name"));
+
+        List<MapValue> updated = toList(template.runQuery(itemInfo,
+            "update Item t set t.kv_json_.qty = t.kv_json_.qty + 1 " +
+            "where t.kv_json_.name = 'pear'"));
+        Assert.assertEquals(1, updated.size());
+        Assert.assertEquals(6, toList(template.findAll(Item.class)).stream()
+            .filter(i -> i.name.equals("pear")).findFirst().get().qty);
+
+        Assert.assertEquals(1, toList(template.runQuery(itemInfo,
+            "delete from Item t where t.kv_json_.qty > 4")).size());
+        Assert.assertEquals(1, template.count(itemInfo));
+    }
+
+    @Test
+    public void testQueryBatches() {
+        template.createTableIfNotExists(
+            template.getNosqlEntityInformation(SmallBatchItem.class));
+        for (int i = 0; i < 25; i++) {
+            template.insert(new SmallBatchItem(i));
+        }
+        List<SmallBatchItem> all = toList(template.findAll(
+            template.getNosqlEntityInformation(SmallBatchItem.class),
+            Sort.by("id")));
+        Assert.assertEquals(25, all.size());
+        for (int i = 0; i < all.size(); i++) {
+            Assert.assertEquals(i, all.get(i).id);
+        }
+    }
+
+    @Test
+    public void testDropTable() {
+        template.insert(new Item("apple", 3));
+        Assert.assertTrue(template.dropTableIfExists("Item"));
+        Assert.assertEquals(0, template.getNosqlClient().listTables(
+            new ListTablesRequest()).getTables().length);
+        template.createTableIfNotExists(itemInfo);
+        Assert.assertEquals(0, template.count(itemInfo));
+    }
+
+    @Test
+    public void testRepository() {
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.registerBean(NosqlTemplate.class, () -> template);
+        context.refresh();
+        template.setApplicationContext(context);
+        ItemRepository repo = new NosqlRepositoryFactory(template, context)
+            .getRepository(ItemRepository.class);
+
+        repo.saveAll(Arrays.asList(new Item("apple", 3), new Item("pear", 5),
+            new Item("plum", 5)));
+        Assert.assertEquals(3, repo.count());
+        Assert.assertEquals(Arrays.asList("pear", "plum"),
+            repo.findByQtyOrderByNameAsc(5).stream().map(i -> i.name)
+                .collect(Collectors.toList()));
+        Assert.assertEquals(1, repo.findByNameStartsWith("ap").size());
+        Assert.assertEquals(2, repo.countByQty(5));
+
+        Assert.assertEquals(1, repo.deleteByName("plum").size());
+        Assert.assertEquals(2, repo.count());
+        context.close();
+    }
+
+    private static <T> List<T> toList(Iterable<T> iterable) {
+        List<T> list = new ArrayList<>();
+        iterable.forEach(list::add);
+        return list;
+    }
+
+    @NosqlTable
+    public static class Item {
+        @NosqlId(generated = true)
+        public long id;
+        public String name;
+        public int qty;
+
+        public Item() {
+        }
+
+        Item(String name, int qty) {
+            this.name = name;
+            this.qty = qty;
+        }
+    }
+
+    /* 4 rows per query batch */
+    @NosqlTable(queryBatchSize = 4)
+    public static class SmallBatchItem {
+        @NosqlId
+        public int id;
+
+        public SmallBatchItem() {
+        }
+
+        SmallBatchItem(int id) {
+            this.id = id;
+        }
+    }
+
+    public interface ItemRepository extends NosqlRepository<Item, Long> {
+        List<Item> findByQtyOrderByNameAsc(int qty);
+
+        List<Item> findByNameStartsWith(String prefix);
+
+        long countByQty(int qty);
+
+        List<Item> deleteByName(String name);
+    }
+}
@@ -0,0 +1,209 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test;
+
+import oracle.nosql.driver.ops.GetRequest;
+import oracle.nosql.driver.values.MapValue;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.core.NosqlTemplate;
+import com.oracle.nosql.spring.data.core.mapping.NosqlColumn;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.repository.NosqlRepository;
+import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
+import com.oracle.nosql.spring.data.repository.support.NosqlRepositoryFactory;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.dao.EmptyResultDataAccessException;
+
+/*
+ * Atomic increments of numeric fields, run against the in-memory handle.
+ */
+public class TestIncrement {
+
+    private NosqlInMemoryHandle handle;
+    private NosqlTemplate template;
+    private NosqlEntityInformation<Counter, Long> counterInfo;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setup() throws ClassNotFoundException {
+        handle = new NosqlInMemoryHandle();
+        template = NosqlTemplate.create(new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080"),
+            handle));
+        counterInfo = (NosqlEntityInformation<Counter, Long>)
+            template.getNosqlEntityInformation(Counter.class);
+        template.createTableIfNotExists(counterInfo);
+    }
+
+    @Test
+    public void testIncrement() {
+        Counter c = new Counter(1);
+        c.views = 5L;
+        c.score = 1.5;
+        template.insert(c);
+
+        Assert.assertEquals(8L, increment("views", 3).longValue());
+        Assert.assertEquals(6L, increment("views", -2).longValue());
+        Assert.assertEquals(2.0, increment("score", 0.5).doubleValue(), 0);
+
+        Counter found = template.findById(1L, Counter.class);
+        Assert.assertEquals(6L, found.views.longValue());
+        Assert.assertEquals(2.0, found.score, 0);
+    }
+
+    @Test
+    public void testJsonNullField() {
+        /* null fields are written as JSON nulls */
+        template.insert(new Counter(1));
+        Assert.assertTrue(getJson(1).get("views").isJsonNull());
+
+        Assert.assertEquals(2L, increment("views", 2).longValue());
+        Assert.assertEquals(5L, increment("views", 3).longValue());
+        Assert.assertEquals(5L,
+            template.findById(1L, Counter.class).views.longValue());
+    }
+
+    @Test
+    public void testMissingField() {
+        template.insert(new Counter(1));
+        removeField(1, "views");
+        Assert.assertNull(getJson(1).get("views"));
+
+        Assert.assertEquals(4L, increment("views", 4).longValue());
+        Assert.assertEquals(4L,
+            template.findById(1L, Counter.class).views.longValue());
+    }
+
+    @Test
+    public void testNullAndMissingParents() {
+        template.insert(new Counter(1));
+        Assert.assertTrue(getJson(1).get("stats").isJsonNull());
+        Assert.assertEquals(1L, increment("stats.visits", 1).longValue());
+        Assert.assertEquals(1L,
+            template.findById(1L, Counter.class).stats.visits);
+
+        removeField(1, "stats");
+        Assert.assertEquals(3L, increment("stats.visits", 3).longValue());
+        Assert.assertEquals(3L,
+            template.findById(1L, Counter.class).stats.visits);
+    }
+
+    @Test
+    public void testSqlNullColumn() {
+        template.insert(new Counter(1));
+        Assert.assertTrue(template.getNosqlClient().get(new GetRequest()
+            .setTableName("Counter").setKey(new MapValue().put("id", 1)))
+            .getValue().get("total").isNull());
+
+        Assert.assertEquals(7L, increment("total", 7).longValue());
+        Assert.assertEquals(9L, increment("total", 2).longValue());
+        Assert.assertEquals(9L,
+            template.findById(1L, Counter.class).total.longValue());
+    }
+
+    @Test
+    public void testMissingRow() {
+        Assert.assertNull(increment("views", 1));
+        Assert.assertNull(increment("total", 1));
+        Assert.assertEquals(0, handle.getRowCount("Counter"));
+    }
+
+    @Test
+    public void testNonNumericField() {
+        template.insert(new Counter(1));
+        try {
+            increment("name", 1);
+            Assert.fail("Expected a non numeric field");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testRepository() {
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.registerBean(NosqlTemplate.class, () -> template);
+        context.refresh();
+        template.setApplicationContext(context);
+        try {
+            CounterRepository repo = new NosqlRepositoryFactory(template,
+                context).getRepository(CounterRepository.class);
+            repo.save(new Counter(1));
+
+            /* JSON null fields are incremented */
+            Assert.assertEquals(3, repo.incrementViewsById(1L, 3));
+            Assert.assertEquals(Long.valueOf(1), repo.incrementTotalById(1L));
+            repo.incrementStatsVisitsById(1L);
+            Assert.assertEquals(1L, repo.findById(1L).get().stats.visits);
+
+            Assert.assertNull(repo.incrementTotalById(2L));
+            try {
+                repo.incrementViewsById(2L, 1);
+                Assert.fail("Expected no entity with id 2");
+            } catch (EmptyResultDataAccessException erdae) {
+                // expected
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    private Number increment(String field, Number delta) {
+        return template.increment(counterInfo, 1L, field, delta);
+    }
+
+    private void removeField(long id, String field) {
+        template.runQuery(counterInfo, "update Counter t remove " +
+            "t.kv_json_." + field + " where t.id = " + id).forEach(r -> { });
+    }
+
+    private MapValue getJson(long id) {
+        return template.getNosqlClient().get(new GetRequest()
+            .setTableName("Counter").setKey(new MapValue().put("id", id)))
+            .getValue().get("kv_json_").asMap();
+    }
+
+    @NosqlTable
+    public static class Counter {
+        @NosqlId
+        public long id;
+        public String name;
+        public Long views;
+        public double score;
+        public Stats stats;
+        @NosqlColumn
+        public Long total;
+
+        public Counter() {
+        }
+
+        Counter(long id) {
+            this.id = id;
+        }
+    }
+
+    public static class Stats {
+        public long visits;
+    }
+
+    public interface CounterRepository
+        extends NosqlRepository<Counter, Long> {
+        long incrementViewsById(Long id, long delta);
+
+        Long incrementTotalById(Long id);
+
+        void incrementStatsVisitsById(Long id);
+    }
+}
@@ -0,0 +1,235 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import oracle.nosql.driver.ops.GetRequest;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.core.NosqlTemplate;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/*
+ * Java Flight Recorder events of template requests and entity conversions,
+ * run against the in-memory handle.
+ */
+public class TestJfrEvents {
+
+    private static final String OPERATION =
+        "com.oracle.nosql.spring.data.Operation";
+    private static final String CONVERSION =
+        "com.oracle.nosql.spring.data.Conversion";
+
+    private NosqlInMemoryHandle handle;
+    private NosqlTemplate template;
+    private Recording recording;
+
+    @Before
+    public void setup() throws ClassNotFoundException {
+        handle = new NosqlInMemoryHandle();
+        template = NosqlTemplate.create(new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080"),
+            handle));
+        recording = new Recording();
+        recording.enable(OPERATION).withoutThreshold();
+        recording.enable(CONVERSION).withoutThreshold();
+        recording.start();
+    }
+
+    @After
+    public void tearDown() {
+        recording.close();
+    }
+
+    @Test
+    public void testKeyOperations() throws Exception {
+        NosqlEntityInformation<Item, Long> info = createTable();
+        template.insert(new Item(1, "a"));
+        template.insert(new Item(2, "b"));
+        Assert.assertEquals("a", template.findById(1L, Item.class).name);
+        Assert.assertNull(template.findById(3L, Item.class));
+        template.deleteInShard("Item", Item.class,
+            Collections.singletonList(2L));
+        template.deleteById(info, 1L);
+
+        List<RecordedEvent> events = stop(OPERATION);
+        Assert.assertFalse(operations(events, "DDL").isEmpty());
+
+        List<RecordedEvent> puts = operations(events, "Put");
+        Assert.assertEquals(2, puts.size());
+        for (RecordedEvent put : puts) {
+            Assert.assertEquals("Item", put.getString("tableName"));
+            Assert.assertEquals(0, put.getInt("sqlHash"));
+            Assert.assertEquals(0, put.getInt("batch"));
+            Assert.assertEquals(1, put.getInt("rows"));
+            Assert.assertNull(put.getString("error"));
+        }
+
+        List<RecordedEvent> gets = operations(events, "Get");
+        Assert.assertEquals(2, gets.size());
+        Assert.assertEquals(1, gets.get(0).getInt("rows"));
+        Assert.assertEquals(0, gets.get(1).getInt("rows"));
+
+        List<RecordedEvent> writes = operations(events, "WriteMultiple");
+        Assert.assertEquals(1, writes.size());
+        Assert.assertEquals(1, writes.get(0).getInt("rows"));
+        List<RecordedEvent> deletes = operations(events, "Delete");
+        Assert.assertEquals(1, deletes.size());
+        Assert.assertEquals(1, deletes.get(0).getInt("rows"));
+    }
+
+    @Test
+    public void testQueryBatches() throws Exception {
+        createTable();
+        for (int i = 0; i < 10; i++) {
+            template.insert(new Item(i, "item" + i));
+        }
+        int count = 0;
+        for (Item item : template.findAll(Item.class)) {
+            count++;
+        }
+        Assert.assertEquals(10, count);
+
+        List<RecordedEvent> events = stop(OPERATION);
+        List<RecordedEvent> prepares = operations(events, "Prepare");
+        Assert.assertEquals(1, prepares.size());
+        int sqlHash = prepares.get(0).getInt("sqlHash");
+        Assert.assertNotEquals(0, sqlHash);
+
+        /* one event per batch of 3 rows, numbered from 1 */
+        List<RecordedEvent> batches = operations(events, "Query");
+        Assert.assertEquals(4, batches.size());
+        for (int i = 0; i < 4; i++) {
+            RecordedEvent batch = batches.get(i);
+            Assert.assertEquals(i + 1, batch.getInt("batch"));
+            Assert.assertEquals(i < 3 ? 3 : 1, batch.getInt("rows"));
+            Assert.assertEquals(sqlHash, batch.getInt("sqlHash"));
+            Assert.assertEquals("Item", batch.getString("tableName"));
+        }
+    }
+
+    @Test
+    public void testFailedRequest() throws Exception {
+        createTable();
+        handle.setRequestHook(req -> {
+            if (req instanceof GetRequest) {
+                throw new IllegalArgumentException("injected");
+            }
+        });
+        try {
+            template.findById(1L, Item.class);
+            Assert.fail("Expected the injected failure");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+
+        List<RecordedEvent> gets = operations(stop(OPERATION), "Get");
+        Assert.assertEquals(1, gets.size());
+        Assert.assertEquals(IllegalArgumentException.class.getName(),
+            gets.get(0).getString("error"));
+    }
+
+    @Test
+    public void testConversions() throws Exception {
+        createTable();
+        template.insert(new Item(1, "a"));
+        template.findById(1L, Item.class);
+
+        List<RecordedEvent> events = stop(CONVERSION);
+        Assert.assertTrue(events.stream().anyMatch(e ->
+            "Write".equals(e.getString("direction")) &&
+            Item.class.getName().equals(
+                e.getClass("entityClass").getName())));
+        Assert.assertTrue(events.stream().anyMatch(e ->
+            "Read".equals(e.getString("direction")) &&
+            Item.class.getName().equals(
+                e.getClass("entityClass").getName())));
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        recording.close();
+        recording = new Recording();
+        recording.disable(OPERATION);
+        recording.start();
+        createTable();
+        template.insert(new Item(1, "a"));
+
+        Assert.assertTrue(stop(OPERATION).isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private NosqlEntityInformation<Item, Long> createTable()
+        throws ClassNotFoundException {
+        NosqlEntityInformation<Item, Long> info =
+            (NosqlEntityInformation<Item, Long>)
+                template.getNosqlEntityInformation(Item.class);
+        template.createTableIfNotExists(info);
+        return info;
+    }
+
+    /* Stops the recording and returns its events of type name, in order. */
+    private List<RecordedEvent> stop(String name) throws IOException {
+        recording.stop();
+        Path file = Files.createTempFile("nosql", ".jfr");
+        try {
+            recording.dump(file);
+            List<RecordedEvent> events = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (event.getEventType().getName().equals(name)) {
+                    events.add(event);
+                }
+            }
+            events.sort((a, b) -> a.getStartTime().compareTo(
+                b.getStartTime()));
+            return events;
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static List<RecordedEvent> operations(List<RecordedEvent> events,
+        String operation) {
+        return events.stream()
+            .filter(e -> operation.equals(e.getString("operation")))
+            .collect(Collectors.toList());
+    }
+
+    @NosqlTable(queryBatchSize = 3)
+    public static class Item {
+        @NosqlId
+        public long id;
+        public String name;
+
+        public Item() {
+        }
+
+        Item(long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
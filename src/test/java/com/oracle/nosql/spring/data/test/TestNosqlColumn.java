@@ -0,0 +1,247 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import oracle.nosql.driver.ops.GetRequest;
+import oracle.nosql.driver.ops.PrepareRequest;
+import oracle.nosql.driver.values.FieldValue;
+import oracle.nosql.driver.values.MapValue;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.core.NosqlTemplate;
+import com.oracle.nosql.spring.data.core.mapping.NosqlColumn;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.repository.NosqlRepository;
+import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
+import com.oracle.nosql.spring.data.repository.support.NosqlRepositoryFactory;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.support.GenericApplicationContext;
+
+/*
+ * Entity fields stored in typed columns, run against the in-memory handle.
+ */
+public class TestNosqlColumn {
+
+    private static final Instant T0 = Instant.parse("2025-01-01T00:00:00Z");
+
+    private NosqlInMemoryHandle handle;
+    private NosqlTemplate template;
+    private NosqlEntityInformation<Order, ?> orderInfo;
+    private List<String> statements;
+
+    @Before
+    public void setup() throws ClassNotFoundException {
+        handle = new NosqlInMemoryHandle();
+        template = NosqlTemplate.create(new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080"),
+            handle));
+        orderInfo = template.getNosqlEntityInformation(Order.class);
+        template.createTableIfNotExists(orderInfo);
+
+        statements = Collections.synchronizedList(new ArrayList<>());
+        handle.setRequestHook(req -> {
+            if (req instanceof PrepareRequest) {
+                statements.add(((PrepareRequest) req).getStatement());
+            }
+        });
+    }
+
+    @Test
+    public void testColumns() {
+        Assert.assertEquals(List.of("status", "created", "qty", "state"),
+            new ArrayList<>(orderInfo.getColumns().keySet()));
+        Assert.assertEquals(FieldValue.Type.STRING,
+            orderInfo.getColumns().get("status"));
+        Assert.assertEquals(FieldValue.Type.TIMESTAMP,
+            orderInfo.getColumns().get("created"));
+        Assert.assertEquals(FieldValue.Type.INTEGER,
+            orderInfo.getColumns().get("qty"));
+        Assert.assertEquals(FieldValue.Type.STRING,
+            orderInfo.getColumns().get("state"));
+    }
+
+    @Test
+    public void testRowLayout() {
+        template.insert(new Order(1, "new", T0, 3, State.OPEN, "first"));
+
+        MapValue row = template.getNosqlClient().get(new GetRequest()
+            .setTableName("Order").setKey(new MapValue().put("id", 1)))
+            .getValue();
+        Assert.assertEquals("new", row.getString("status"));
+        Assert.assertEquals(3, row.getInt("qty"));
+        Assert.assertEquals("OPEN", row.getString("state"));
+        Assert.assertEquals(T0.toEpochMilli(),
+            row.getTimestamp("created").getTime());
+        MapValue json = row.get("kv_json_").asMap();
+        Assert.assertEquals("first", json.getString("note"));
+        for (String column : orderInfo.getColumns().keySet()) {
+            Assert.assertNull(column, json.get(column));
+        }
+
+        Order found = template.findById(1L, Order.class);
+        Assert.assertEquals("new", found.status);
+        Assert.assertEquals(T0, found.created);
+        Assert.assertEquals(3, found.qty);
+        Assert.assertEquals(State.OPEN, found.state);
+        Assert.assertEquals("first", found.note);
+    }
+
+    @Test
+    public void testGeneratedIdSetsColumns() throws ClassNotFoundException {
+        NosqlEntityInformation<Ticket, ?> info =
+            template.getNosqlEntityInformation(Ticket.class);
+        template.createTableIfNotExists(info);
+
+        Ticket ticket = new Ticket();
+        ticket.priority = 2;
+        ticket = template.insert(ticket);
+        ticket.priority = 5;
+        template.update(ticket);
+        Assert.assertEquals(5,
+            template.findById(ticket.id, Ticket.class).priority);
+    }
+
+    @Test
+    public void testQueriesUseColumns() {
+        for (int i = 0; i < 6; i++) {
+            template.insert(new Order(i, i % 2 == 0 ? "new" : "done",
+                T0.plusSeconds(i), i, State.OPEN, null));
+        }
+
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.registerBean(NosqlTemplate.class, () -> template);
+        context.refresh();
+        template.setApplicationContext(context);
+        try {
+            OrderRepository repo = new NosqlRepositoryFactory(template,
+                context).getRepository(OrderRepository.class);
+
+            statements.clear();
+            Assert.assertEquals(List.of(4L, 2L, 0L),
+                repo.findByStatusOrderByCreatedDesc("new").stream()
+                    .map(o -> o.id).collect(Collectors.toList()));
+            Assert.assertEquals(List.of(3L, 4L, 5L),
+                repo.findByCreatedGreaterThanEqualOrderById(
+                    T0.plusSeconds(3)).stream()
+                    .map(o -> o.id).collect(Collectors.toList()));
+
+            Assert.assertFalse(statements.isEmpty());
+            for (String sql : statements) {
+                Assert.assertFalse(sql, sql.contains("kv_json_.status"));
+                Assert.assertFalse(sql, sql.contains("kv_json_.created"));
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    @Test
+    public void testMissingColumnOnExistingTable() {
+        template.runTableRequest("CREATE TABLE Legacy (id LONG, " +
+            "kv_json_ JSON, PRIMARY KEY(SHARD(id)))");
+        try {
+            template.createTableIfNotExists(
+                template.getNosqlEntityInformation(Legacy.class));
+            Assert.fail("Expected the missing column");
+        } catch (IllegalArgumentException iae) {
+            Assert.assertTrue(iae.getMessage(),
+                iae.getMessage().contains("'code' column does not exist"));
+        }
+    }
+
+    @Test
+    public void testInvalidColumns() {
+        for (Class<?> cls : List.of(ListColumn.class, JsonColumn.class)) {
+            try {
+                template.getNosqlEntityInformation(cls);
+                Assert.fail("Expected invalid column of " + cls.getName());
+            } catch (IllegalArgumentException iae) {
+                // expected
+            }
+        }
+    }
+
+    public enum State { OPEN, CLOSED }
+
+    @NosqlTable(tableName = "Order")
+    public static class Order {
+        @NosqlId
+        public long id;
+        @NosqlColumn
+        public String status;
+        @NosqlColumn
+        public Instant created;
+        @NosqlColumn
+        public int qty;
+        @NosqlColumn
+        public State state;
+        public String note;
+
+        public Order() {
+        }
+
+        Order(long id, String status, Instant created, int qty, State state,
+            String note) {
+            this.id = id;
+            this.status = status;
+            this.created = created;
+            this.qty = qty;
+            this.state = state;
+            this.note = note;
+        }
+    }
+
+    @NosqlTable
+    public static class Ticket {
+        @NosqlId(generated = true)
+        public long id;
+        @NosqlColumn
+        public int priority;
+    }
+
+    @NosqlTable
+    public static class Legacy {
+        @NosqlId
+        public long id;
+        @NosqlColumn
+        public String code;
+    }
+
+    @NosqlTable
+    public static class ListColumn {
+        @NosqlId
+        public long id;
+        @NosqlColumn
+        public List<String> tags;
+    }
+
+    @NosqlTable
+    public static class JsonColumn {
+        @NosqlId
+        public long id;
+        @NosqlColumn
+        public String kv_json_;
+    }
+
+    public interface OrderRepository extends NosqlRepository<Order, Long> {
+        List<Order> findByStatusOrderByCreatedDesc(String status);
+
+        List<Order> findByCreatedGreaterThanEqualOrderById(Instant from);
+    }
+}
@@ -0,0 +1,193 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import oracle.nosql.driver.ops.GetIndexesRequest;
+import oracle.nosql.driver.ops.GetIndexesResult;
+import oracle.nosql.driver.ops.TableRequest;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.core.NosqlTemplate;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlIndex;
+import com.oracle.nosql.spring.data.core.mapping.NosqlIndexDefinition;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/*
+ * Secondary indexes declared with NosqlIndex, run against the in-memory
+ * handle.
+ */
+public class TestNosqlIndex {
+
+    private NosqlInMemoryHandle handle;
+    private NosqlTemplate template;
+
+    @Before
+    public void setup() throws ClassNotFoundException {
+        handle = new NosqlInMemoryHandle();
+        template = NosqlTemplate.create(new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080"),
+            handle));
+    }
+
+    @Test
+    public void testDefinitions() {
+        Map<String, NosqlIndexDefinition> indexes = new HashMap<>();
+        for (NosqlIndexDefinition index :
+            template.getNosqlEntityInformation(Customer.class).getIndexes()) {
+            indexes.put(index.getName(), index);
+        }
+        Assert.assertEquals(4, indexes.size());
+
+        NosqlIndexDefinition email = indexes.get("idx_email");
+        Assert.assertEquals(List.of("kv_json_.email"), email.getFields());
+        Assert.assertEquals(List.of("STRING"), email.getTypes());
+
+        NosqlIndexDefinition region = indexes.get("idx_status_region");
+        Assert.assertEquals(List.of("kv_json_.status",
+            "kv_json_.address.region"), region.getFields());
+        Assert.assertEquals(List.of("INTEGER", "STRING"), region.getTypes());
+        Assert.assertEquals("CREATE INDEX IF NOT EXISTS idx_status_region " +
+            "ON Customer(kv_json_.status AS INTEGER, " +
+            "kv_json_.address.region AS STRING)",
+            region.getCreateIndexDDL("Customer"));
+
+        NosqlIndexDefinition tags = indexes.get("idx_tags");
+        Assert.assertEquals(List.of("kv_json_.tags[]"), tags.getFields());
+        Assert.assertEquals(List.of("STRING"), tags.getTypes());
+
+        /* unknown paths, or given types */
+        NosqlIndexDefinition extra = indexes.get("idx_extra");
+        Assert.assertEquals(List.of("kv_json_.extra.code", "kv_json_.score"),
+            extra.getFields());
+        Assert.assertEquals(List.of("ANYATOMIC", "DOUBLE"), extra.getTypes());
+    }
+
+    @Test
+    public void testIndexesCreated() {
+        NosqlEntityInformation<Customer, ?> info =
+            template.getNosqlEntityInformation(Customer.class);
+        Assert.assertTrue(template.createTableIfNotExists(info));
+
+        GetIndexesResult.IndexInfo[] created = template.getNosqlClient()
+            .getIndexes(new GetIndexesRequest().setTableName("Customer"))
+            .getIndexes();
+        Assert.assertEquals(4, created.length);
+        for (GetIndexesResult.IndexInfo index : created) {
+            Assert.assertTrue(index.getIndexName(), info.getIndexes().stream()
+                .anyMatch(def -> def.getName().equals(index.getIndexName()) &&
+                    def.matches(index.getFieldNames(),
+                        index.getFieldTypes())));
+        }
+
+        /* existing indexes are not created again */
+        AtomicInteger ddl = new AtomicInteger();
+        handle.setRequestHook(req -> {
+            if (req instanceof TableRequest) {
+                ddl.incrementAndGet();
+            }
+        });
+        Assert.assertTrue(template.createTableIfNotExists(info));
+        Assert.assertEquals(0, ddl.get());
+    }
+
+    @Test
+    public void testMissingIndexCreatedOnExistingTable() {
+        template.runTableRequest("CREATE TABLE Customer (id LONG, " +
+            "kv_json_ JSON, PRIMARY KEY(SHARD(id)))");
+        template.runTableRequest("CREATE INDEX idx_email ON " +
+            "Customer(kv_json_.email AS STRING)");
+
+        Assert.assertTrue(template.createTableIfNotExists(
+            template.getNosqlEntityInformation(Customer.class)));
+        Assert.assertEquals(4, template.getNosqlClient()
+            .getIndexes(new GetIndexesRequest().setTableName("Customer"))
+            .getIndexes().length);
+    }
+
+    @Test
+    public void testIndexMismatch() {
+        template.runTableRequest("CREATE TABLE Customer (id LONG, " +
+            "kv_json_ JSON, PRIMARY KEY(SHARD(id)))");
+        template.runTableRequest("CREATE INDEX idx_email ON " +
+            "Customer(kv_json_.name AS STRING)");
+
+        try {
+            template.createTableIfNotExists(
+                template.getNosqlEntityInformation(Customer.class));
+            Assert.fail("Expected the index mismatch");
+        } catch (IllegalArgumentException iae) {
+            Assert.assertTrue(iae.getMessage(),
+                iae.getMessage().contains("Index idx_email mismatch"));
+        }
+    }
+
+    @Test
+    public void testInvalidDeclarations() {
+        for (Class<?> cls : Arrays.asList(ClassIndexWithoutFields.class,
+            DuplicateIndexNames.class)) {
+            try {
+                template.getNosqlEntityInformation(cls);
+                Assert.fail("Expected invalid index of " + cls.getName());
+            } catch (IllegalArgumentException iae) {
+                // expected
+            }
+        }
+    }
+
+    @NosqlTable
+    @NosqlIndex(name = "idx_status_region",
+        fields = {"status", "address.region"})
+    @NosqlIndex(name = "idx_extra",
+        fields = {"extra.code", "score AS DOUBLE"})
+    public static class Customer {
+        @NosqlId
+        public long id;
+        @NosqlIndex
+        public String email;
+        public int status;
+        public Address address;
+        @NosqlIndex
+        public List<String> tags;
+        public Object extra;
+        public Object score;
+    }
+
+    public static class Address {
+        public String region;
+    }
+
+    @NosqlTable
+    @NosqlIndex(name = "idx_nothing")
+    public static class ClassIndexWithoutFields {
+        @NosqlId
+        public long id;
+    }
+
+    @NosqlTable
+    public static class DuplicateIndexNames {
+        @NosqlId
+        public long id;
+        @NosqlIndex(name = "idx_same")
+        public String a;
+        @NosqlIndex(name = "IDX_SAME")
+        public String b;
+    }
+}
@@ -0,0 +1,335 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import oracle.nosql.driver.ops.QueryRequest;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.core.NosqlObservations;
+import com.oracle.nosql.spring.data.core.NosqlTemplate;
+import com.oracle.nosql.spring.data.core.ReactiveNosqlTemplate;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.repository.NosqlRepository;
+import com.oracle.nosql.spring.data.repository.ReactiveNosqlRepository;
+import com.oracle.nosql.spring.data.repository.support.NosqlRepositoryFactory;
+import com.oracle.nosql.spring.data.repository.support.ReactiveNosqlRepositoryFactory;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import reactor.core.publisher.Flux;
+
+/*
+ * Micrometer observations of repository methods and template requests, run
+ * against the in-memory handle.
+ */
+public class TestObservations {
+
+    private NosqlInMemoryHandle handle;
+    private NosqlDbFactory factory;
+    private NosqlTemplate template;
+    private GenericApplicationContext context;
+    private final Recorder recorder = new Recorder();
+
+    @Before
+    public void setup() throws ClassNotFoundException {
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(recorder);
+        handle = new NosqlInMemoryHandle();
+        factory = new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080")
+                .setObservationRegistry(registry),
+            handle);
+        template = NosqlTemplate.create(factory);
+        context = new GenericApplicationContext();
+        context.registerBean(NosqlTemplate.class, () -> template);
+        context.refresh();
+        template.setApplicationContext(context);
+        template.createTableIfNotExists(
+            template.getNosqlEntityInformation(Item.class));
+        for (int i = 0; i < 10; i++) {
+            template.insert(new Item(i, i < 5 ? "a" : "b"));
+        }
+        recorder.clear();
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+    }
+
+    @Test
+    public void testRequests() {
+        template.insert(new Item(20, "c"));
+        Assert.assertEquals("c", template.findById(20L, Item.class).name);
+        template.deleteInShard("Item", Item.class,
+            Collections.singletonList(20L));
+
+        List<Observation.Context> requests = recorder.stopped(
+            NosqlObservations.REQUEST_OBSERVATION);
+        Assert.assertEquals(3, requests.size());
+        assertRequest(requests.get(0), "Put", 1);
+        assertRequest(requests.get(1), "Get", 1);
+        assertRequest(requests.get(2), "WriteMultiple", 1);
+        Assert.assertEquals("nosql Get Item",
+            requests.get(1).getContextualName());
+        Assert.assertNull(high(requests.get(1), NosqlObservations.STATEMENT));
+        Assert.assertNull(high(requests.get(1),
+            NosqlObservations.BATCH_NUMBER));
+        Assert.assertNotNull(high(requests.get(1),
+            NosqlObservations.READ_UNITS));
+    }
+
+    @Test
+    public void testQueryBatches() {
+        int count = 0;
+        for (Item item : template.findAll(Item.class)) {
+            count++;
+        }
+        Assert.assertEquals(10, count);
+
+        List<Observation.Context> batches = requests("Query");
+        /* batches of 3 rows */
+        Assert.assertEquals(4, batches.size());
+        for (int i = 0; i < 4; i++) {
+            Observation.Context batch = batches.get(i);
+            Assert.assertEquals(String.valueOf(i + 1),
+                high(batch, NosqlObservations.BATCH_NUMBER));
+            Assert.assertEquals(i < 3 ? "3" : "1",
+                high(batch, NosqlObservations.ROWS));
+            Assert.assertNotNull(high(batch, NosqlObservations.STATEMENT));
+        }
+        Assert.assertEquals(1, requests("Prepare").size());
+    }
+
+    @Test
+    public void testStatementSanitized() {
+        template.runQuery(template.getNosqlEntityInformation(Item.class),
+            "SELECT * FROM Item t WHERE t.kv_json_.name = 'secret' " +
+                "AND t.id > 4").forEach(r -> { });
+
+        String statement = high(requests("Query").get(0),
+            NosqlObservations.STATEMENT);
+        Assert.assertEquals("SELECT * FROM Item t WHERE " +
+            "t.kv_json_.name = ? AND t.id > ?", statement);
+        Assert.assertEquals("SELECT ? FROM t WHERE a = ? OR b = ?",
+            NosqlObservations.sanitize(
+                "SELECT \"x\\\"y\" FROM t WHERE a = 'it''s' OR b = 1.5e3"));
+        Assert.assertNull(NosqlObservations.sanitize(null));
+    }
+
+    @Test
+    public void testRepositoryMethodParent() {
+        ItemRepository repo = new NosqlRepositoryFactory(template, context)
+            .getRepository(ItemRepository.class);
+        Assert.assertEquals(5, repo.findByName("a").size());
+
+        List<Observation.Context> methods = recorder.stopped(
+            NosqlObservations.REPOSITORY_OBSERVATION);
+        Assert.assertEquals(1, methods.size());
+        Observation.Context method = methods.get(0);
+        Assert.assertEquals("ItemRepository.findByName",
+            method.getContextualName());
+        Assert.assertEquals("ItemRepository.findByName",
+            low(method, NosqlObservations.REPOSITORY_METHOD));
+        Assert.assertEquals("Item", low(method, NosqlObservations.TABLE));
+        Assert.assertEquals(NosqlObservations.DB_SYSTEM_VALUE,
+            low(method, NosqlObservations.DB_SYSTEM));
+
+        /* the requests of the method are its children */
+        List<Observation.Context> requests = recorder.stopped(
+            NosqlObservations.REQUEST_OBSERVATION);
+        Assert.assertFalse(requests.isEmpty());
+        for (Observation.Context request : requests) {
+            Assert.assertSame(method,
+                request.getParentObservation().getContextView());
+        }
+        /* the method stops after its requests */
+        Assert.assertSame(method, recorder.stopped.get(
+            recorder.stopped.size() - 1));
+    }
+
+    @Test
+    public void testErrors() {
+        RuntimeException failure = new IllegalArgumentException("injected");
+        handle.setRequestHook(req -> {
+            if (req instanceof QueryRequest) {
+                throw failure;
+            }
+        });
+        ItemRepository repo = new NosqlRepositoryFactory(template, context)
+            .getRepository(ItemRepository.class);
+        try {
+            repo.findByName("a");
+            Assert.fail("Expected the injected failure");
+        } catch (RuntimeException re) {
+            // expected
+        }
+
+        Observation.Context query = requests("Query").get(0);
+        Assert.assertSame(failure, query.getError());
+        Observation.Context method = recorder.stopped(
+            NosqlObservations.REPOSITORY_OBSERVATION).get(0);
+        Assert.assertNotNull(method.getError());
+    }
+
+    @Test
+    public void testReactiveRepository()
+        throws ClassNotFoundException, InterruptedException {
+        ReactiveNosqlTemplate reactive = ReactiveNosqlTemplate.create(factory);
+        GenericApplicationContext reactiveContext =
+            new GenericApplicationContext();
+        reactiveContext.registerBean(ReactiveNosqlTemplate.class,
+            () -> reactive);
+        reactiveContext.refresh();
+        reactive.setApplicationContext(reactiveContext);
+        ReactiveItemRepository repo = new ReactiveNosqlRepositoryFactory(
+            reactive, reactiveContext)
+            .getRepository(ReactiveItemRepository.class);
+
+        Flux<Item> items = repo.findByName("b");
+        /* the observation stops when the flux terminates */
+        Assert.assertTrue(recorder.stopped(
+            NosqlObservations.REPOSITORY_OBSERVATION).isEmpty());
+        Assert.assertEquals(5, items.collectList().block().size());
+
+        /* stopped on the scheduler thread, once the subscriber is done */
+        List<Observation.Context> methods = recorder.await(
+            NosqlObservations.REPOSITORY_OBSERVATION);
+        Assert.assertEquals(1, methods.size());
+        Assert.assertEquals("ReactiveItemRepository.findByName",
+            methods.get(0).getContextualName());
+        /* the batches, run on scheduler threads, are children of the method */
+        List<Observation.Context> batches = requests("Query");
+        /* 5 rows in batches of 3 */
+        Assert.assertEquals(2, batches.size());
+        for (Observation.Context batch : batches) {
+            Assert.assertSame(methods.get(0),
+                batch.getParentObservation().getContextView());
+        }
+        reactiveContext.close();
+    }
+
+    @Test
+    public void testNoRegistry() throws ClassNotFoundException {
+        NosqlTemplate plain = NosqlTemplate.create(new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080"),
+            handle));
+        Assert.assertNull(plain.getObservationRegistry());
+        plain.findById(1L, Item.class);
+        Assert.assertTrue(recorder.stopped.isEmpty());
+    }
+
+    private void assertRequest(Observation.Context request, String operation,
+        int rows) {
+        Assert.assertEquals(operation,
+            low(request, NosqlObservations.OPERATION));
+        Assert.assertEquals("Item", low(request, NosqlObservations.TABLE));
+        Assert.assertEquals(NosqlObservations.DB_SYSTEM_VALUE,
+            low(request, NosqlObservations.DB_SYSTEM));
+        Assert.assertEquals(String.valueOf(rows),
+            high(request, NosqlObservations.ROWS));
+        Assert.assertNull(request.getError());
+    }
+
+    private List<Observation.Context> requests(String operation) {
+        return recorder.stopped(NosqlObservations.REQUEST_OBSERVATION)
+            .stream()
+            .filter(c -> operation.equals(
+                low(c, NosqlObservations.OPERATION)))
+            .collect(Collectors.toList());
+    }
+
+    private static String low(Observation.Context context, String key) {
+        KeyValue kv = context.getLowCardinalityKeyValue(key);
+        return kv == null ? null : kv.getValue();
+    }
+
+    private static String high(Observation.Context context, String key) {
+        KeyValue kv = context.getHighCardinalityKeyValue(key);
+        return kv == null ? null : kv.getValue();
+    }
+
+    /* Records the stopped observations, in order. */
+    private static class Recorder
+        implements ObservationHandler<Observation.Context> {
+        final List<Observation.Context> stopped =
+            Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void onStop(Observation.Context context) {
+            stopped.add(context);
+        }
+
+        @Override
+        public boolean supportsContext(Observation.Context context) {
+            return true;
+        }
+
+        List<Observation.Context> stopped(String name) {
+            synchronized (stopped) {
+                return stopped.stream()
+                    .filter(c -> name.equals(c.getName()))
+                    .collect(Collectors.toList());
+            }
+        }
+
+        /* Waits for a stopped observation of name. */
+        List<Observation.Context> await(String name)
+            throws InterruptedException {
+            long end = System.currentTimeMillis() + 5000;
+            List<Observation.Context> contexts = stopped(name);
+            while (contexts.isEmpty() && System.currentTimeMillis() < end) {
+                Thread.sleep(10);
+                contexts = stopped(name);
+            }
+            return contexts;
+        }
+
+        void clear() {
+            stopped.clear();
+        }
+    }
+
+    @NosqlTable(queryBatchSize = 3)
+    public static class Item {
+        @NosqlId
+        public long id;
+        public String name;
+
+        public Item() {
+        }
+
+        Item(long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    public interface ItemRepository extends NosqlRepository<Item, Long> {
+        List<Item> findByName(String name);
+    }
+
+    public interface ReactiveItemRepository
+        extends ReactiveNosqlRepository<Item, Long> {
+        Flux<Item> findByName(String name);
+    }
+}
@@ -0,0 +1,254 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import oracle.nosql.driver.ops.PreparedStatement;
+import oracle.nosql.driver.ops.QueryRequest;
+import oracle.nosql.driver.values.FieldValue;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.core.NosqlTemplate;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/*
+ * Parallel scans split on the shard key, run against the in-memory handle.
+ */
+public class TestParallelScan {
+
+    private NosqlInMemoryHandle handle;
+    private NosqlTemplate template;
+    /* bounds of the range queries sent */
+    private List<FieldValue> bounds;
+
+    @Before
+    public void setup() throws ClassNotFoundException {
+        handle = new NosqlInMemoryHandle();
+        template = NosqlTemplate.create(new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080"),
+            handle));
+        template.createTableIfNotExists(
+            template.getNosqlEntityInformation(LongKey.class));
+        template.createTableIfNotExists(
+            template.getNosqlEntityInformation(StringKey.class));
+
+        bounds = Collections.synchronizedList(new ArrayList<>());
+        handle.setRequestHook(req -> {
+            if (!(req instanceof QueryRequest)) {
+                return;
+            }
+            PreparedStatement ps = ((QueryRequest) req).getPreparedStatement();
+            if (ps != null && ps.getVariables() != null) {
+                for (Map.Entry<String, FieldValue> var :
+                    ps.getVariables().entrySet()) {
+                    if (var.getKey().startsWith("$kv_")) {
+                        bounds.add(var.getValue());
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testNumericKeys() {
+        for (int i = -50; i < 50; i++) {
+            template.insert(new LongKey(i * 1000L));
+        }
+
+        Map<Long, Integer> seen = new ConcurrentHashMap<>();
+        long count = template.parallelScan(LongKey.class, 4,
+            e -> seen.merge(e.id, 1, Integer::sum));
+
+        Assert.assertEquals(100, count);
+        Assert.assertEquals(100, seen.size());
+        Assert.assertTrue(seen.values().stream().allMatch(n -> n == 1));
+        /* 4 ranges: 3 inner bounds, each used as upper and lower bound */
+        Assert.assertEquals(6, bounds.size());
+    }
+
+    @Test
+    public void testStringKeys() {
+        /* wide range of first characters, including a supplementary
+         * character stored as a surrogate pair */
+        List<String> ids = Arrays.asList("a", "apple", "m", "zz",
+            "\u00e9t\u00e9", "\u4e2d\u6587", "\ud83d\ude00", "x",
+            "\ufffdz");
+        for (String id : ids) {
+            template.insert(new StringKey(id));
+        }
+
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        long count = template.parallelScan(StringKey.class, 64,
+            e -> Assert.assertTrue(seen.add(e.id)));
+
+        Assert.assertEquals(ids.size(), count);
+        Assert.assertEquals(ids.size(), seen.size());
+        Assert.assertFalse(bounds.isEmpty());
+        for (FieldValue bound : bounds) {
+            for (char c : bound.getString().toCharArray()) {
+                Assert.assertFalse("lone surrogate " + Integer.toHexString(c),
+                    Character.isSurrogate(c));
+            }
+        }
+    }
+
+    @Test
+    public void testSingleValue() {
+        template.insert(new LongKey(7));
+
+        List<Long> seen = Collections.synchronizedList(new ArrayList<>());
+        Assert.assertEquals(1, template.parallelScan(LongKey.class, 8,
+            e -> seen.add(e.id)));
+        Assert.assertEquals(Collections.singletonList(7L), seen);
+        /* min and max are equal, the table is not split */
+        Assert.assertTrue(bounds.isEmpty());
+    }
+
+    @Test
+    public void testEmptyTable() {
+        Assert.assertEquals(0, template.parallelScan(LongKey.class, 8,
+            e -> Assert.fail("Unexpected entity " + e.id)));
+        Assert.assertTrue(bounds.isEmpty());
+    }
+
+    @Test
+    public void testConsumerFailure() {
+        for (int i = 0; i < 100; i++) {
+            template.insert(new LongKey(i));
+        }
+        try {
+            template.parallelScan(LongKey.class, 4, e -> {
+                if (e.id == 42) {
+                    throw new IllegalArgumentException("injected");
+                }
+            });
+            Assert.fail("Expected the consumer exception");
+        } catch (IllegalArgumentException iae) {
+            Assert.assertEquals("injected", iae.getMessage());
+        }
+    }
+
+    @Test
+    public void testThreadsAreReused() {
+        for (int i = 0; i < 100; i++) {
+            template.insert(new LongKey(i));
+        }
+
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(100, template.parallelScan(LongKey.class, 4,
+                e -> threads.add(Thread.currentThread())));
+        }
+        /* a pool per scan would use 4 new threads each time */
+        Assert.assertTrue("threads " + threads.size(), threads.size() < 40);
+        for (Thread thread : threads) {
+            Assert.assertTrue(thread.getName().startsWith("nosql-scan-"));
+        }
+    }
+
+    @Test
+    public void testScanParallelismBounded() throws Exception {
+        NosqlTemplate bounded = NosqlTemplate.create(new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080")
+                .setScanParallelism(2),
+            handle));
+        for (int i = 0; i < 100; i++) {
+            bounded.insert(new LongKey(i));
+        }
+
+        Set<Thread> scanThreads = ConcurrentHashMap.newKeySet();
+        Set<Thread> callers = ConcurrentHashMap.newKeySet();
+        List<CompletableFuture<Long>> scans = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            scans.add(CompletableFuture.supplyAsync(() ->
+                bounded.parallelScan(LongKey.class, 4, e -> {
+                    Thread thread = Thread.currentThread();
+                    if (thread.getName().startsWith("nosql-scan-")) {
+                        scanThreads.add(thread);
+                    } else {
+                        callers.add(thread);
+                    }
+                    sleep(1);
+                })));
+        }
+        for (CompletableFuture<Long> scan : scans) {
+            Assert.assertEquals(100,
+                scan.get(30, TimeUnit.SECONDS).longValue());
+        }
+        /* ranges beyond the 2 threads run in the calling threads */
+        Assert.assertTrue("threads " + scanThreads.size(),
+            scanThreads.size() <= 2);
+        Assert.assertFalse(callers.isEmpty());
+    }
+
+    @Test
+    public void testDestroy() {
+        for (int i = 0; i < 100; i++) {
+            template.insert(new LongKey(i));
+        }
+        Assert.assertEquals(100, template.parallelScan(LongKey.class, 4,
+            e -> { }));
+        template.destroy();
+
+        /* scans still run, in the calling thread */
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        Assert.assertEquals(100, template.parallelScan(LongKey.class, 4,
+            e -> threads.add(Thread.currentThread())));
+        Assert.assertEquals(Collections.singleton(Thread.currentThread()),
+            threads);
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @NosqlTable
+    public static class LongKey {
+        @NosqlId
+        public long id;
+
+        public LongKey() {
+        }
+
+        LongKey(long id) {
+            this.id = id;
+        }
+    }
+
+    @NosqlTable
+    public static class StringKey {
+        @NosqlId
+        public String id;
+
+        public StringKey() {
+        }
+
+        StringKey(String id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import oracle.nosql.driver.ops.QueryRequest;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.core.NosqlTemplate;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.repository.NosqlRepository;
+import com.oracle.nosql.spring.data.repository.Query;
+import com.oracle.nosql.spring.data.repository.QueryOptions;
+import com.oracle.nosql.spring.data.repository.support.NosqlRepositoryFactory;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.support.GenericApplicationContext;
+
+/*
+ * Query options of repository methods, run against the in-memory handle.
+ */
+public class TestQueryOptions {
+
+    private NosqlInMemoryHandle handle;
+    private NosqlTemplate template;
+    private GenericApplicationContext context;
+    private NosqlRepositoryFactory repositoryFactory;
+    /* limits and max read KB of the query batches sent */
+    private Set<Integer> limits;
+    private Set<Integer> maxReadKBs;
+
+    @Before
+    public void setup() throws ClassNotFoundException {
+        handle = new NosqlInMemoryHandle();
+        template = NosqlTemplate.create(new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080"),
+            handle));
+        context = new GenericApplicationContext();
+        context.registerBean(NosqlTemplate.class, () -> template);
+        context.refresh();
+        template.setApplicationContext(context);
+        repositoryFactory = new NosqlRepositoryFactory(template, context);
+
+        template.createTableIfNotExists(
+            template.getNosqlEntityInformation(Reading.class));
+        for (int i = 0; i < 10; i++) {
+            template.insert(new Reading(i, i % 2));
+        }
+
+        limits = ConcurrentHashMap.newKeySet();
+        maxReadKBs = ConcurrentHashMap.newKeySet();
+        handle.setRequestHook(req -> {
+            if (req instanceof QueryRequest) {
+                limits.add(((QueryRequest) req).getLimit());
+                maxReadKBs.add(((QueryRequest) req).getMaxReadKB());
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+    }
+
+    @Test
+    public void testOptionsAreApplied() {
+        ReadingRepository repo =
+            repositoryFactory.getRepository(ReadingRepository.class);
+
+        Assert.assertEquals(5, repo.findBySensor(1).size());
+        Assert.assertEquals(Set.of(2), limits);
+        Assert.assertEquals(Set.of(8), maxReadKBs);
+
+        limits.clear();
+        Assert.assertEquals(10, repo.findAllNative().size());
+        Assert.assertEquals(Set.of(3), limits);
+    }
+
+    @Test
+    public void testNegativeOptionsAreRejected() {
+        for (Class<?> repoClass : List.of(NegativeBatchRepository.class,
+            NegativeTimeoutRepository.class)) {
+            try {
+                repositoryFactory.getRepository(repoClass);
+                Assert.fail("Expected negative options to be rejected");
+            } catch (RuntimeException re) {
+                Assert.assertTrue(String.valueOf(re),
+                    hasCause(re, IllegalArgumentException.class));
+            }
+        }
+    }
+
+    private static boolean hasCause(Throwable t,
+        Class<? extends Throwable> type) {
+        for (; t != null; t = t.getCause()) {
+            if (type.isInstance(t)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @NosqlTable
+    public static class Reading {
+        @NosqlId
+        public long id;
+        public int sensor;
+
+        public Reading() {
+        }
+
+        Reading(long id, int sensor) {
+            this.id = id;
+            this.sensor = sensor;
+        }
+    }
+
+    public interface ReadingRepository
+        extends NosqlRepository<Reading, Long> {
+        @QueryOptions(batchSize = 2, maxReadKB = 8)
+        List<Reading> findBySensor(int sensor);
+
+        @QueryOptions(batchSize = 3)
+        @Query("select * from Reading t")
+        List<Reading> findAllNative();
+    }
+
+    public interface NegativeBatchRepository
+        extends NosqlRepository<Reading, Long> {
+        @QueryOptions(batchSize = -1)
+        List<Reading> findBySensor(int sensor);
+    }
+
+    public interface NegativeTimeoutRepository
+        extends NosqlRepository<Reading, Long> {
+        @QueryOptions(totalTimeout = -5)
+        List<Reading> findBySensor(int sensor);
+    }
+}
@@ -0,0 +1,437 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import oracle.nosql.driver.ops.GetRequest;
+import oracle.nosql.driver.ops.PutRequest;
+import oracle.nosql.driver.ops.QueryRequest;
+import oracle.nosql.driver.values.MapValue;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.core.NosqlTemplate;
+import com.oracle.nosql.spring.data.core.ReactiveNosqlTemplate;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlKey;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+/*
+ * Batching of concurrent findById calls into multi-key queries, run against
+ * the in-memory handle.
+ */
+public class TestReadBatching {
+
+    private static final Instant T0 = Instant.parse("2025-01-01T00:00:00Z");
+
+    private NosqlInMemoryHandle handle;
+    private NosqlDbFactory factory;
+    private NosqlTemplate template;
+    private AtomicInteger queries;
+    private AtomicInteger gets;
+    private NosqlEntityInformation<Item, Long> itemInfo;
+
+    @Before
+    public void setup() throws ClassNotFoundException {
+        handle = new NosqlInMemoryHandle();
+        factory = new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080")
+                .setReadBatchWindow(50)
+                .setReadBatchSize(5),
+            handle);
+        template = NosqlTemplate.create(factory);
+        itemInfo = createTable(Item.class);
+        for (int i = 0; i < 15; i++) {
+            template.insert(new Item(i, "item" + i));
+        }
+
+        queries = new AtomicInteger();
+        gets = new AtomicInteger();
+        handle.setRequestHook(req -> {
+            if (req instanceof QueryRequest) {
+                queries.incrementAndGet();
+            } else if (req instanceof GetRequest) {
+                gets.incrementAndGet();
+            }
+        });
+    }
+
+    @Test
+    public void testConcurrentFindById() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Item>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            long id = i;
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                await(start);
+                return template.findById(id, Item.class);
+            }));
+        }
+        start.countDown();
+
+        for (int i = 0; i < 20; i++) {
+            Item item = futures.get(i).get(5, TimeUnit.SECONDS);
+            if (i < 15) {
+                Assert.assertEquals("item" + i, item.name);
+            } else {
+                Assert.assertNull(item);
+            }
+        }
+        Assert.assertEquals(0, gets.get());
+        Assert.assertEquals(20, template.getBatchedReadCount());
+        /* batches of at most 5 keys */
+        Assert.assertTrue(template.getReadBatchCount() >= 4);
+        Assert.assertTrue(template.getReadBatchCount() < 20);
+        Assert.assertEquals(template.getReadBatchCount(), queries.get());
+    }
+
+    @Test
+    public void testFindAllById() {
+        List<Item> items = toList(template.findAllById(itemInfo,
+            Arrays.asList(3L, 99L, 1L, 3L)));
+
+        Assert.assertEquals(4, items.size());
+        Assert.assertEquals(3, items.get(0).id);
+        Assert.assertNull(items.get(1));
+        Assert.assertEquals(1, items.get(2).id);
+        /* duplicates are read once but converted per caller */
+        Assert.assertNotSame(items.get(0), items.get(3));
+        Assert.assertEquals(1, queries.get());
+        Assert.assertEquals(3, template.getBatchedReadCount());
+    }
+
+    @Test
+    public void testBatchSizeLimit() {
+        List<Long> ids = new ArrayList<>();
+        for (long i = 0; i < 12; i++) {
+            ids.add(i);
+        }
+        List<Item> items = toList(template.findAllById(itemInfo,
+            ids));
+        for (int i = 0; i < 12; i++) {
+            Assert.assertEquals(i, items.get(i).id);
+        }
+        /* 2 full batches and the one read after the window */
+        Assert.assertEquals(3, template.getReadBatchCount());
+        Assert.assertEquals(3, queries.get());
+    }
+
+    @Test
+    public void testCompositeKeys() throws ClassNotFoundException {
+        NosqlEntityInformation<Device, DeviceId> info = createTable(
+            Device.class);
+        for (int i = 0; i < 4; i++) {
+            template.insert(new Device(new DeviceId("s" + (i % 2), i), i));
+        }
+        queries.set(0);
+
+        List<Device> devices = toList(template.findAllById(info,
+            Arrays.asList(new DeviceId("s1", 3), new DeviceId("s0", 0),
+                new DeviceId("s0", 1))));
+        Assert.assertEquals(3, devices.get(0).level);
+        Assert.assertEquals(0, devices.get(1).level);
+        Assert.assertNull(devices.get(2));
+        /* keys of JSON types are read with a single query */
+        Assert.assertEquals(1, queries.get());
+        Assert.assertEquals(0, gets.get());
+    }
+
+    @Test
+    public void testTimestampKeys() throws ClassNotFoundException {
+        NosqlEntityInformation<Event, Instant> info = createTable(
+            Event.class);
+        for (int i = 0; i < 2; i++) {
+            Event event = new Event();
+            event.id = T0.plusMillis(i * 1500L);
+            event.name = "e" + i;
+            template.insert(event);
+        }
+        /* a row written with the timestamp key as a string */
+        template.getNosqlClient().put(new PutRequest().setTableName("Event")
+            .setValue(new MapValue().put("id", "2025-01-01T00:00:03.000Z")
+                .put("kv_json_", new MapValue().put("name", "e2"))));
+
+        List<Event> events = toList(template.findAllById(info,
+            Arrays.asList(T0.plusMillis(3000), T0, T0.plusSeconds(60))));
+        Assert.assertEquals("e2", events.get(0).name);
+        Assert.assertEquals("e0", events.get(1).name);
+        Assert.assertNull(events.get(2));
+    }
+
+    @Test
+    public void testCompositeTimestampKeys() throws ClassNotFoundException {
+        NosqlEntityInformation<Reading, ReadingId> info = createTable(
+            Reading.class);
+        for (int i = 0; i < 3; i++) {
+            Reading reading = new Reading();
+            reading.id = new ReadingId("d", T0.plusSeconds(i));
+            reading.value = i;
+            template.insert(reading);
+        }
+        gets.set(0);
+
+        List<Reading> readings = toList(template.findAllById(info,
+            Arrays.asList(new ReadingId("d", T0.plusSeconds(2)),
+                new ReadingId("d", T0), new ReadingId("x", T0))));
+        Assert.assertEquals(2, readings.get(0).value);
+        Assert.assertEquals(0, readings.get(1).value);
+        Assert.assertNull(readings.get(2));
+        /* timestamps can't be bound in a JSON array, keys are read by gets */
+        Assert.assertEquals(3, gets.get());
+    }
+
+    @Test
+    public void testNumericKeysOfOtherScale() throws ClassNotFoundException {
+        NosqlEntityInformation<Price, BigDecimal> info = createTable(
+            Price.class);
+        Price price = new Price();
+        price.id = new BigDecimal("1.5");
+        price.label = "a";
+        template.insert(price);
+
+        List<Price> prices = toList(template.findAllById(info,
+            Arrays.asList(new BigDecimal("1.50"), new BigDecimal("2"))));
+        Assert.assertEquals("a", prices.get(0).label);
+        Assert.assertNull(prices.get(1));
+    }
+
+    @Test
+    public void testFailureReachesAllCallers() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        RuntimeException failure = new IllegalArgumentException("injected");
+        handle.setRequestHook(req -> {
+            if (req instanceof QueryRequest) {
+                throw failure;
+            }
+        });
+
+        List<CompletableFuture<Item>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            long id = i;
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                await(start);
+                return template.findById(id, Item.class);
+            }));
+        }
+        start.countDown();
+        for (CompletableFuture<Item> future : futures) {
+            try {
+                future.join();
+                Assert.fail("Expected the batch failure");
+            } catch (RuntimeException re) {
+                Assert.assertSame(failure, re.getCause());
+            }
+        }
+
+        handle.setRequestHook(null);
+        Assert.assertEquals("item2", template.findById(2L, Item.class).name);
+    }
+
+    @Test
+    public void testReactiveFindById() throws ClassNotFoundException {
+        ReactiveNosqlTemplate reactive = ReactiveNosqlTemplate.create(factory);
+        List<Item> items = Mono.zip(
+            reactive.findById(4L, Item.class),
+            reactive.findById(5L, Item.class),
+            reactive.findById(6L, Item.class))
+            .map(t -> Arrays.asList(t.getT1(), t.getT2(), t.getT3()))
+            .block();
+        Assert.assertEquals(4, items.get(0).id);
+        Assert.assertEquals(6, items.get(2).id);
+        Assert.assertNull(reactive.findById(99L, Item.class).block());
+        Assert.assertEquals(0, gets.get());
+    }
+
+    @Test
+    public void testBoundedThreads() throws Exception {
+        NosqlTemplate bounded = NosqlTemplate.create(new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080")
+                .setReadBatchWindow(50)
+                .setReadBatchSize(1)
+                .setReadBatchParallelism(2),
+            handle));
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        handle.setRequestHook(req -> {
+            if (req instanceof QueryRequest) {
+                threads.add(Thread.currentThread());
+                maxRunning.accumulateAndGet(running.incrementAndGet(),
+                    Math::max);
+                sleep(20);
+                running.decrementAndGet();
+            }
+        });
+
+        /* every get is a full batch */
+        List<CompletableFuture<Item>> futures = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            long id = i;
+            futures.add(CompletableFuture.supplyAsync(
+                () -> bounded.findById(id, Item.class)));
+        }
+        for (int i = 0; i < 15; i++) {
+            Assert.assertEquals(i,
+                futures.get(i).get(5, TimeUnit.SECONDS).id);
+        }
+        Assert.assertEquals(15, bounded.getReadBatchCount());
+        Assert.assertTrue("threads " + threads.size(), threads.size() <= 2);
+        Assert.assertTrue(maxRunning.get() <= 2);
+        for (Thread thread : threads) {
+            Assert.assertTrue(thread.getName().startsWith(
+                "nosql-read-batch-"));
+        }
+    }
+
+    @Test
+    public void testDestroy() {
+        Assert.assertEquals("item1", template.findById(1L, Item.class).name);
+        template.destroy();
+
+        /* gets are still batched, and read by the calling thread */
+        List<Thread> threads = new ArrayList<>();
+        handle.setRequestHook(req -> {
+            if (req instanceof QueryRequest) {
+                threads.add(Thread.currentThread());
+            }
+        });
+        Assert.assertEquals("item2", template.findById(2L, Item.class).name);
+        Assert.assertEquals(Arrays.asList(Thread.currentThread()), threads);
+        Assert.assertEquals(2, template.getReadBatchCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T, ID> NosqlEntityInformation<T, ID> createTable(
+        Class<T> entityClass) throws ClassNotFoundException {
+        NosqlEntityInformation<T, ID> info =
+            (NosqlEntityInformation<T, ID>)
+                template.getNosqlEntityInformation(entityClass);
+        template.createTableIfNotExists(info);
+        return info;
+    }
+
+    private static <T> List<T> toList(Iterable<T> iterable) {
+        List<T> list = new ArrayList<>();
+        iterable.forEach(list::add);
+        return list;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @NosqlTable
+    public static class Item {
+        @NosqlId
+        public long id;
+        public String name;
+
+        public Item() {
+        }
+
+        Item(long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    @NosqlTable
+    public static class Device {
+        @NosqlId
+        public DeviceId id;
+        public int level;
+
+        public Device() {
+        }
+
+        Device(DeviceId id, int level) {
+            this.id = id;
+            this.level = level;
+        }
+    }
+
+    public static class DeviceId {
+        @NosqlKey(shardKey = true, order = 0)
+        public String site;
+        @NosqlKey(shardKey = false, order = 1)
+        public int seq;
+
+        public DeviceId() {
+        }
+
+        DeviceId(String site, int seq) {
+            this.site = site;
+            this.seq = seq;
+        }
+    }
+
+    @NosqlTable
+    public static class Event {
+        @NosqlId
+        public Instant id;
+        public String name;
+    }
+
+    @NosqlTable
+    public static class Reading {
+        @NosqlId
+        public ReadingId id;
+        public int value;
+    }
+
+    public static class ReadingId {
+        @NosqlKey(shardKey = true, order = 0)
+        public String device;
+        @NosqlKey(shardKey = false, order = 1)
+        public Instant time;
+
+        public ReadingId() {
+        }
+
+        ReadingId(String device, Instant time) {
+            this.device = device;
+            this.time = time;
+        }
+    }
+
+    @NosqlTable
+    public static class Price {
+        @NosqlId
+        public BigDecimal id;
+        public String label;
+    }
+}
@@ -0,0 +1,289 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import oracle.nosql.driver.ops.GetRequest;
+import oracle.nosql.driver.ops.QueryRequest;
+import oracle.nosql.driver.ops.Request;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.core.NosqlTemplate;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/*
+ * Coalescing of concurrent identical reads, run against the in-memory
+ * handle.
+ */
+public class TestReadCoalescing {
+
+    private static final int CALLERS = 8;
+
+    private NosqlInMemoryHandle handle;
+    private NosqlTemplate template;
+    private NosqlEntityInformation<Item, ?> itemInfo;
+
+    @Before
+    public void setup() throws ClassNotFoundException {
+        handle = new NosqlInMemoryHandle();
+        template = NosqlTemplate.create(new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080")
+                .setReadCoalescing(true),
+            handle));
+        itemInfo = template.getNosqlEntityInformation(Item.class);
+        template.createTableIfNotExists(itemInfo);
+        for (int i = 0; i < 10; i++) {
+            template.insert(new Item(i, "item" + i));
+        }
+    }
+
+    @Test
+    public void testConcurrentGets() throws Exception {
+        AtomicInteger gets = new AtomicInteger();
+        List<Item> items = runConcurrently(GetRequest.class, gets, null,
+            () -> template.findById(3L, Item.class));
+
+        Assert.assertEquals(1, gets.get());
+        Assert.assertEquals(CALLERS - 1, template.getCoalescedReadCount());
+        for (Item item : items) {
+            Assert.assertEquals("item3", item.name);
+        }
+        /* entities are converted per caller */
+        Assert.assertEquals(CALLERS, items.stream().distinct().count());
+    }
+
+    @Test
+    public void testDifferentKeysNotShared() throws Exception {
+        AtomicInteger gets = new AtomicInteger();
+        handle.setRequestHook(req -> {
+            if (req instanceof GetRequest) {
+                gets.incrementAndGet();
+            }
+        });
+        List<CompletableFuture<Item>> futures = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            long id = i;
+            futures.add(CompletableFuture.supplyAsync(
+                () -> template.findById(id, Item.class)));
+        }
+        for (int i = 0; i < CALLERS; i++) {
+            Assert.assertEquals("item" + i,
+                futures.get(i).get(5, TimeUnit.SECONDS).name);
+        }
+        Assert.assertEquals(CALLERS, gets.get());
+        Assert.assertEquals(0, template.getCoalescedReadCount());
+    }
+
+    @Test
+    public void testGetFailureSharedByAll() throws Exception {
+        RuntimeException failure = new IllegalArgumentException("injected");
+        AtomicInteger gets = new AtomicInteger();
+        List<Throwable> errors = runConcurrentlyFailing(GetRequest.class,
+            gets, failure, () -> template.findById(3L, Item.class));
+
+        Assert.assertEquals(1, gets.get());
+        Assert.assertEquals(CALLERS, errors.size());
+        for (Throwable error : errors) {
+            Assert.assertSame(failure, error);
+        }
+
+        /* nothing is kept after the failure */
+        handle.setRequestHook(null);
+        Assert.assertEquals("item3", template.findById(3L, Item.class).name);
+    }
+
+    @Test
+    public void testConcurrentQueries() throws Exception {
+        AtomicInteger queries = new AtomicInteger();
+        List<List<Item>> results = runConcurrently(QueryRequest.class,
+            queries, null, () -> findByName("item5"));
+
+        Assert.assertEquals(1, queries.get());
+        Assert.assertEquals(CALLERS - 1, template.getCoalescedReadCount());
+        for (List<Item> result : results) {
+            Assert.assertEquals(1, result.size());
+            Assert.assertEquals(5, result.get(0).id);
+        }
+    }
+
+    @Test
+    public void testQueryFailureSharedByAll() throws Exception {
+        RuntimeException failure = new IllegalArgumentException("injected");
+        AtomicInteger queries = new AtomicInteger();
+        List<Throwable> errors = runConcurrentlyFailing(QueryRequest.class,
+            queries, failure, () -> findByName("item5"));
+
+        Assert.assertEquals(1, queries.get());
+        Assert.assertEquals(CALLERS, errors.size());
+        for (Throwable error : errors) {
+            Assert.assertSame(failure, error);
+        }
+
+        handle.setRequestHook(null);
+        Assert.assertEquals(1, findByName("item5").size());
+    }
+
+    @Test
+    public void testMultiBatchQueryRunByEachCaller() throws Exception {
+        NosqlEntityInformation<BatchedItem, ?> info =
+            template.getNosqlEntityInformation(BatchedItem.class);
+        template.createTableIfNotExists(info);
+        for (int i = 0; i < 10; i++) {
+            BatchedItem item = new BatchedItem();
+            item.id = i;
+            template.insert(item);
+        }
+
+        /* batches of 3 rows: followers can't continue the shared query */
+        AtomicInteger queries = new AtomicInteger();
+        List<Integer> counts = runConcurrently(QueryRequest.class,
+            queries, null, () -> {
+                AtomicInteger rows = new AtomicInteger();
+                template.runQuery(info, "SELECT * FROM BatchedItem t")
+                    .forEach(row -> rows.incrementAndGet());
+                return rows.get();
+            });
+        for (int count : counts) {
+            Assert.assertEquals(10, count);
+        }
+        /* the shared first batch is dropped, each caller runs 4 batches */
+        Assert.assertEquals(CALLERS - 1, template.getCoalescedReadCount());
+        Assert.assertEquals(CALLERS * 4, queries.get());
+    }
+
+    @Test
+    public void testWritingQueriesNotShared() throws Exception {
+        AtomicInteger queries = new AtomicInteger();
+        runConcurrently(QueryRequest.class, queries, null, () -> {
+            template.runQuery(itemInfo, "UPDATE Item t SET " +
+                "t.kv_json_.name = 'x' WHERE t.id = 1").forEach(r -> { });
+            return null;
+        });
+        Assert.assertEquals(CALLERS, queries.get());
+        Assert.assertEquals(0, template.getCoalescedReadCount());
+    }
+
+    private List<Item> findByName(String name) {
+        List<Item> items = new ArrayList<>();
+        template.runQuery(itemInfo, "SELECT * FROM Item t " +
+            "WHERE t.kv_json_.name = '" + name + "'").forEach(row -> items.add(
+                template.getConverter().read(Item.class, row)));
+        return items;
+    }
+
+    /*
+     * Runs op from CALLERS threads. The first request of type requestClass
+     * is held until the other callers wait for it or, if they can't share
+     * it, until they sent their own request.
+     */
+    private <R> List<R> runConcurrently(Class<? extends Request> requestClass,
+        AtomicInteger requests, RuntimeException failure, Supplier<R> op)
+        throws Exception {
+        CountDownLatch sent = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean first = new AtomicBoolean();
+        handle.setRequestHook(req -> {
+            if (!requestClass.isInstance(req)) {
+                return;
+            }
+            requests.incrementAndGet();
+            if (first.compareAndSet(false, true)) {
+                sent.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+            }
+        });
+
+        List<CompletableFuture<R>> futures = new ArrayList<>();
+        futures.add(CompletableFuture.supplyAsync(op));
+        Assert.assertTrue(sent.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i < CALLERS; i++) {
+            futures.add(CompletableFuture.supplyAsync(op));
+        }
+        /* waits for the followers to join the request in flight */
+        long end = System.currentTimeMillis() + 2000;
+        while (template.getCoalescedReadCount() +
+            requests.get() < CALLERS &&
+            System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+        release.countDown();
+
+        List<R> results = new ArrayList<>();
+        for (CompletableFuture<R> future : futures) {
+            results.add(future.get(5, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    private List<Throwable> runConcurrentlyFailing(
+        Class<? extends Request> requestClass, AtomicInteger requests,
+        RuntimeException failure, Supplier<?> op) throws Exception {
+        List<Throwable> errors = new ArrayList<>();
+        try {
+            runConcurrently(requestClass, requests, failure, () -> {
+                try {
+                    op.get();
+                    return null;
+                } catch (RuntimeException re) {
+                    synchronized (errors) {
+                        errors.add(re);
+                    }
+                    return null;
+                }
+            });
+        } catch (ExecutionException ee) {
+            Assert.fail("Unexpected failure " + ee.getCause());
+        }
+        return errors;
+    }
+
+    @NosqlTable(queryBatchSize = 3)
+    public static class BatchedItem {
+        @NosqlId
+        public long id;
+    }
+
+    @NosqlTable
+    public static class Item {
+        @NosqlId
+        public long id;
+        public String name;
+
+        public Item() {
+        }
+
+        Item(long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
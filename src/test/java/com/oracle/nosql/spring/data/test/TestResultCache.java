@@ -0,0 +1,330 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import oracle.nosql.driver.ops.QueryRequest;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.core.NosqlTemplate;
+import com.oracle.nosql.spring.data.core.QueryResultCache;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.repository.NosqlCacheable;
+import com.oracle.nosql.spring.data.repository.NosqlRepository;
+import com.oracle.nosql.spring.data.repository.Query;
+import com.oracle.nosql.spring.data.repository.support.NosqlRepositoryFactory;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.repository.query.Param;
+
+/*
+ * Cached results of repository query methods, run against the in-memory
+ * handle.
+ */
+public class TestResultCache {
+
+    private NosqlInMemoryHandle handle;
+    private NosqlTemplate template;
+    private QueryResultCache cache;
+    private GenericApplicationContext context;
+    private ItemRepository repo;
+    private AtomicInteger queries;
+
+    @Before
+    public void setup() throws ClassNotFoundException {
+        handle = new NosqlInMemoryHandle();
+        template = NosqlTemplate.create(new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080")
+                .setResultCacheCapacity(100),
+            handle));
+        cache = template.getQueryResultCache();
+        context = new GenericApplicationContext();
+        context.registerBean(NosqlTemplate.class, () -> template);
+        context.refresh();
+        template.setApplicationContext(context);
+        repo = new NosqlRepositoryFactory(template, context)
+            .getRepository(ItemRepository.class);
+        template.createTableIfNotExists(
+            template.getNosqlEntityInformation(Audit.class));
+
+        for (int i = 0; i < 5; i++) {
+            repo.save(new Item(i, "item" + i, i < 3 ? "a" : "b", 10 * i));
+        }
+        Audit audit = new Audit();
+        audit.id = 1;
+        template.insert(audit);
+
+        queries = new AtomicInteger();
+        handle.setRequestHook(req -> {
+            if (req instanceof QueryRequest) {
+                queries.incrementAndGet();
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+    }
+
+    @Test
+    public void testCachedResults() {
+        Assert.assertEquals(3, repo.findByCategory("a").size());
+        int sent = queries.get();
+        Assert.assertEquals(3, repo.findByCategory("a").size());
+        Assert.assertEquals(2, repo.findByCategory("b").size());
+        Assert.assertEquals(3, repo.countByCategory("a"));
+        Assert.assertEquals(3, repo.countByCategory("a"));
+        Assert.assertEquals(sent + 2, queries.get());
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(3, cache.getMissCount());
+        Assert.assertEquals(3, cache.getSize());
+        Assert.assertTrue(cache.getEstimatedBytes() > 0);
+    }
+
+    @Test
+    public void testCallersGetCopies() {
+        List<Item> first = repo.findByCategory("a");
+        first.get(0).price = -1;
+        first.clear();
+
+        /* changes of a caller are not seen by the others */
+        List<Item> second = repo.findByCategory("a");
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(3, second.size());
+        Assert.assertTrue(second.stream().allMatch(i -> i.price >= 0));
+        Assert.assertNotSame(second.get(0),
+            repo.findByCategory("a").get(0));
+
+        Set<Item> items = repo.findByName("item1");
+        items.iterator().next().name = "changed";
+        items.clear();
+        Assert.assertEquals("item1",
+            repo.findByName("item1").iterator().next().name);
+
+        Page<Item> page = repo.findByCategory("a", PageRequest.of(0, 2));
+        page.getContent().get(0).price = -1;
+        Page<Item> again = repo.findByCategory("a", PageRequest.of(0, 2));
+        Assert.assertEquals(2, again.getContent().size());
+        Assert.assertEquals(page.getTotalElements(),
+            again.getTotalElements());
+        Assert.assertEquals(0, again.getContent().get(0).price);
+        Assert.assertEquals(4, cache.getHitCount());
+    }
+
+    @Test
+    public void testWritesInvalidate() {
+        Assert.assertEquals(3, repo.findByCategory("a").size());
+        repo.save(new Item(10, "item10", "a", 1));
+        Assert.assertEquals(4, repo.findByCategory("a").size());
+
+        repo.deleteById(10L);
+        Assert.assertEquals(3, repo.findByCategory("a").size());
+
+        template.runQuery(template.getNosqlEntityInformation(Item.class),
+            "UPDATE Item t SET t.kv_json_.category = 'b' WHERE t.id = 0")
+            .forEach(r -> { });
+        Assert.assertEquals(2, repo.findByCategory("a").size());
+        Assert.assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void testWritingQueryNotCached() {
+        /* the statement writes another table than the entity one */
+        Assert.assertEquals(1, repo.touchAudit(1L).get(0).count);
+        Assert.assertEquals(2, repo.touchAudit(1L).get(0).count);
+        Assert.assertEquals(0, cache.getHitCount());
+        Assert.assertEquals(0, cache.getSize());
+        Assert.assertEquals(2, template.findById(1L, Audit.class).count);
+    }
+
+    @Test
+    public void testLoadWritingOtherTableNotCached() {
+        for (int i = 0; i < 2; i++) {
+            Assert.assertEquals("r", cache.get("Item", "key", 60000, () -> {
+                cache.invalidate("Other");
+                return "r";
+            }, r -> 1));
+        }
+        Assert.assertEquals(0, cache.getSize());
+        Assert.assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testWritingQueryInvalidatesItsTable() {
+        AuditRepository audits = new NosqlRepositoryFactory(template,
+            context).getRepository(AuditRepository.class);
+        Assert.assertEquals(1, audits.findByCount(0).size());
+
+        repo.touchAudit(1L);
+        Assert.assertEquals(0, audits.findByCount(0).size());
+        Assert.assertEquals(1, audits.findByCount(1).size());
+        Assert.assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void testWriteDuringLoadInvalidates() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        AtomicBoolean once = new AtomicBoolean();
+        handle.setRequestHook(req -> {
+            if (req instanceof QueryRequest && once.compareAndSet(false, true)) {
+                loading.countDown();
+                try {
+                    written.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        CompletableFuture<List<Item>> load = CompletableFuture.supplyAsync(
+            () -> repo.findByCategory("a"));
+        Assert.assertTrue(loading.await(5, TimeUnit.SECONDS));
+        try {
+            repo.save(new Item(10, "item10", "a", 1));
+        } finally {
+            written.countDown();
+        }
+        load.get(5, TimeUnit.SECONDS);
+
+        /* the result loaded before the write is not cached */
+        Assert.assertEquals(0, cache.getSize());
+        Assert.assertEquals(4, repo.findByCategory("a").size());
+        Assert.assertEquals(4, repo.findByCategory("a").size());
+        Assert.assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testExpiry() throws InterruptedException {
+        Assert.assertEquals(3, repo.findByCategoryAndPriceGreaterThan("a",
+            -1).size());
+        Thread.sleep(100);
+        Assert.assertEquals(3, repo.findByCategoryAndPriceGreaterThan("a",
+            -1).size());
+        Assert.assertEquals(0, cache.getHitCount());
+        Assert.assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testArrayParameters() {
+        Assert.assertEquals(2, repo.findByIdIn(new Long[] {1L, 3L}).size());
+        int sent = queries.get();
+        /* arrays of the same values hit the same entry */
+        Assert.assertEquals(2, repo.findByIdIn(new Long[] {1L, 3L}).size());
+        Assert.assertEquals(sent, queries.get());
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getSize());
+
+        Assert.assertEquals(1, repo.findByIdIn(new Long[] {1L}).size());
+        Assert.assertEquals(2, cache.getSize());
+    }
+
+    @Test
+    public void testParametersWithoutEqualityNotCached() {
+        Assert.assertEquals(3, repo.findByCategory(new Category("a")).size());
+        Assert.assertEquals(3, repo.findByCategory(new Category("a")).size());
+        /* an entry keyed by the parameter would never be hit */
+        Assert.assertEquals(0, cache.getSize());
+        Assert.assertEquals(0, cache.getMissCount());
+    }
+
+    /* Without value equality. */
+    public static class Category {
+        public String value;
+
+        Category(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+
+    @NosqlTable
+    public static class Item {
+        @NosqlId
+        public long id;
+        public String name;
+        public String category;
+        public int price;
+
+        public Item() {
+        }
+
+        Item(long id, String name, String category, int price) {
+            this.id = id;
+            this.name = name;
+            this.category = category;
+            this.price = price;
+        }
+    }
+
+    @NosqlTable
+    public static class Audit {
+        @NosqlId
+        public long id;
+        public int count;
+    }
+
+    public interface ItemRepository extends NosqlRepository<Item, Long> {
+        @NosqlCacheable(ttl = 60000)
+        List<Item> findByCategory(String category);
+
+        @NosqlCacheable(ttl = 60000)
+        Page<Item> findByCategory(String category, PageRequest pageable);
+
+        @NosqlCacheable(ttl = 60000)
+        Set<Item> findByName(String name);
+
+        @NosqlCacheable(ttl = 60000)
+        @Query("DECLARE $ids ARRAY(LONG); SELECT * FROM Item t " +
+            "WHERE t.id IN $ids[]")
+        List<Item> findByIdIn(@Param("$ids") Long[] ids);
+
+        @NosqlCacheable(ttl = 60000)
+        @Query("DECLARE $category JSON; SELECT * FROM Item t " +
+            "WHERE t.kv_json_.category = $category.value")
+        List<Item> findByCategory(@Param("$category") Category category);
+
+        @NosqlCacheable(ttl = 60000)
+        long countByCategory(String category);
+
+        @NosqlCacheable(ttl = 50)
+        List<Item> findByCategoryAndPriceGreaterThan(String category,
+            int price);
+
+        @NosqlCacheable(ttl = 60000)
+        @Query("DECLARE $id LONG; UPDATE Audit t " +
+            "SET t.kv_json_.count = t.kv_json_.count + 1 " +
+            "WHERE t.id = $id RETURNING *")
+        List<Audit> touchAudit(@Param("$id") long id);
+    }
+
+    public interface AuditRepository extends NosqlRepository<Audit, Long> {
+        @NosqlCacheable(ttl = 60000)
+        List<Audit> findByCount(int count);
+    }
+}
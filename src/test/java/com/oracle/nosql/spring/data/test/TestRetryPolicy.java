@@ -0,0 +1,178 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import oracle.nosql.driver.ReadThrottlingException;
+import oracle.nosql.driver.ops.GetRequest;
+import oracle.nosql.driver.ops.PutRequest;
+import oracle.nosql.driver.ops.QueryRequest;
+import oracle.nosql.driver.ops.Request;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.config.NosqlRetryPolicy;
+import com.oracle.nosql.spring.data.core.NosqlTemplate;
+import com.oracle.nosql.spring.data.core.TableRetryStats;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.TransientDataAccessResourceException;
+
+/*
+ * Retries of idempotent operations, run against the in-memory handle
+ * failing the first requests of a type.
+ */
+public class TestRetryPolicy {
+
+    private NosqlInMemoryHandle handle;
+    private NosqlTemplate template;
+    private NosqlEntityInformation<Counter, ?> counterInfo;
+
+    @Before
+    public void setup() throws ClassNotFoundException {
+        handle = new NosqlInMemoryHandle();
+        NosqlDbConfig config = NosqlDbConfig
+            .createProxyConfig("http://localhost:8080")
+            .setRetryPolicy(new NosqlRetryPolicy()
+                .setMaxRetries(3)
+                .setInitialBackoffMs(1)
+                .setMaxBackoffMs(5));
+        template = NosqlTemplate.create(new NosqlDbFactory(config, handle));
+        counterInfo = template.getNosqlEntityInformation(Counter.class);
+        template.createTableIfNotExists(counterInfo);
+        template.insert(new Counter(1, 10));
+        template.insert(new Counter(2, 20));
+    }
+
+    @Test
+    public void testGetRetried() {
+        AtomicInteger attempts = failFirst(GetRequest.class, 2);
+
+        Assert.assertEquals(10, template.findById(1L, Counter.class).value);
+        Assert.assertEquals(3, attempts.get());
+        TableRetryStats stats = template.getRetryStats("Counter");
+        Assert.assertEquals(2, stats.getRetryCount());
+        Assert.assertEquals(1, stats.getRecoveredCount());
+        Assert.assertEquals(0, stats.getExhaustedCount());
+    }
+
+    @Test
+    public void testRetriesExhausted() {
+        AtomicInteger attempts = failFirst(GetRequest.class, 10);
+
+        try {
+            template.findById(1L, Counter.class);
+            Assert.fail("Expected the throttling exception");
+        } catch (TransientDataAccessResourceException tdare) {
+            // expected
+        }
+        /* first attempt and 3 retries */
+        Assert.assertEquals(4, attempts.get());
+        Assert.assertEquals(1,
+            template.getRetryStats("Counter").getExhaustedCount());
+    }
+
+    @Test
+    public void testPutWithGeneratedIdNotRetried() throws Exception {
+        template.createTableIfNotExists(
+            template.getNosqlEntityInformation(Generated.class));
+        AtomicInteger attempts = failFirst(PutRequest.class, 1);
+
+        try {
+            template.insert(new Generated());
+            Assert.fail("Expected the throttling exception");
+        } catch (DataAccessException dae) {
+            // expected, the put would generate another id
+        }
+        Assert.assertEquals(1, attempts.get());
+
+        /* puts of a given id are retried */
+        attempts = failFirst(PutRequest.class, 1);
+        template.update(new Counter(1, 11));
+        Assert.assertEquals(2, attempts.get());
+        Assert.assertEquals(11, template.findById(1L, Counter.class).value);
+    }
+
+    @Test
+    public void testLazyQueryBatchRetried() {
+        /* like advanced queries, the batch is fetched on first access of
+         * the results, the failure must still be retried */
+        handle.setLazyQueryResults(true);
+        AtomicInteger attempts = failFirst(QueryRequest.class, 2);
+
+        List<Counter> all = new ArrayList<>();
+        template.findAll(Counter.class).forEach(all::add);
+        Assert.assertEquals(2, all.size());
+        Assert.assertEquals(3, attempts.get());
+        Assert.assertEquals(2,
+            template.getRetryStats("Counter").getRetryCount());
+    }
+
+    @Test
+    public void testQueryWithWritesNotRetried() {
+        AtomicInteger attempts = failFirst(QueryRequest.class, 1);
+
+        try {
+            template.runQuery(counterInfo, "update Counter t " +
+                "set t.kv_json_.value = t.kv_json_.value + 1 " +
+                "where t.id = 1")
+                .forEach(r -> { });
+            Assert.fail("Expected the throttling exception");
+        } catch (DataAccessException dae) {
+            // expected
+        }
+        Assert.assertEquals(1, attempts.get());
+        Assert.assertEquals(10, template.findById(1L, Counter.class).value);
+    }
+
+    /*
+     * Fails the first count requests of the type with a
+     * ReadThrottlingException, returns the counter of attempts.
+     */
+    private AtomicInteger failFirst(Class<? extends Request> type,
+        int count) {
+        AtomicInteger attempts = new AtomicInteger();
+        handle.setRequestHook(req -> {
+            if (type.isInstance(req) &&
+                attempts.incrementAndGet() <= count) {
+                throw new ReadThrottlingException("injected");
+            }
+        });
+        return attempts;
+    }
+
+    @NosqlTable
+    public static class Counter {
+        @NosqlId
+        public long id;
+        public int value;
+
+        public Counter() {
+        }
+
+        Counter(long id, int value) {
+            this.id = id;
+            this.value = value;
+        }
+    }
+
+    @NosqlTable
+    public static class Generated {
+        @NosqlId(generated = true)
+        public long id;
+    }
+}
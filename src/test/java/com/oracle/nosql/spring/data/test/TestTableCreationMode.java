@@ -0,0 +1,282 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import oracle.nosql.driver.ops.ListTablesRequest;
+import oracle.nosql.driver.ops.Request;
+import oracle.nosql.driver.ops.TableRequest;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.config.TableCreationMode;
+import com.oracle.nosql.spring.data.core.NosqlTemplate;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Eager, parallel and lazy check and creation of tables, run against the
+ * in-memory handle.
+ */
+public class TestTableCreationMode {
+
+    private NosqlInMemoryHandle handle;
+    private NosqlTemplate template;
+
+    @Test
+    public void testSync() throws ClassNotFoundException {
+        createTemplate(TableCreationMode.SYNC, 10000);
+
+        template.prepareTable(info(TableA.class));
+        Assert.assertEquals(List.of("TableA"), listTables());
+    }
+
+    @Test
+    public void testParallel() throws ClassNotFoundException {
+        createTemplate(TableCreationMode.PARALLEL, 10000);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        handle.setRequestHook(req -> {
+            if (req instanceof TableRequest) {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(),
+                    Math::max);
+                sleep(200);
+                inFlight.decrementAndGet();
+            }
+        });
+
+        long start = System.nanoTime();
+        for (Class<?> cls : Arrays.asList(TableA.class, TableB.class,
+            TableC.class, TableD.class)) {
+            template.prepareTable(info(cls));
+        }
+        Assert.assertTrue(elapsedMs(start) < 200);
+
+        template.afterSingletonsInstantiated();
+        /* 4 creations of 200 ms, 2 at a time */
+        Assert.assertTrue(elapsedMs(start) < 700);
+        Assert.assertEquals(2, maxInFlight.get());
+        Assert.assertEquals(List.of("TableA", "TableB", "TableC", "TableD"),
+            listTables());
+    }
+
+    @Test
+    public void testParallelOperationWaitsForTable()
+        throws ClassNotFoundException {
+        createTemplate(TableCreationMode.PARALLEL, 10000);
+        handle.setRequestHook(req -> {
+            if (req instanceof TableRequest) {
+                sleep(200);
+            }
+        });
+
+        template.prepareTable(info(TableA.class));
+        /* the table is still being created, the insert waits for it */
+        template.insert(new TableA(1));
+        Assert.assertNotNull(template.findById(1L, TableA.class));
+    }
+
+    @Test
+    public void testParallelFailure() throws ClassNotFoundException {
+        createTemplate(TableCreationMode.PARALLEL, 10000);
+        failTableRequests("TableB");
+
+        template.prepareTable(info(TableA.class));
+        template.prepareTable(info(TableB.class));
+        try {
+            template.awaitPendingTables();
+            Assert.fail("Expected the failure of TableB");
+        } catch (IllegalStateException ise) {
+            Assert.assertTrue(ise.getMessage(),
+                ise.getMessage().contains("TableB"));
+            Assert.assertFalse(ise.getMessage(),
+                ise.getMessage().contains("TableA"));
+        }
+
+        /* the table is checked and created again on next use */
+        handle.setRequestHook(null);
+        template.insert(new TableB(1));
+        Assert.assertNotNull(template.findById(1L, TableB.class));
+    }
+
+    @Test
+    public void testParallelTimeout() throws ClassNotFoundException {
+        createTemplate(TableCreationMode.PARALLEL, 100);
+        CountDownLatch release = new CountDownLatch(1);
+        handle.setRequestHook(req -> {
+            if (req instanceof TableRequest) {
+                await(release);
+            }
+        });
+
+        template.prepareTable(info(TableA.class));
+        try {
+            template.awaitPendingTables();
+            Assert.fail("Expected the timeout");
+        } catch (IllegalStateException ise) {
+            Assert.assertTrue(ise.getMessage(),
+                ise.getMessage().contains("not ready after 100 ms"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testLazy() throws Exception {
+        createTemplate(TableCreationMode.LAZY, 10000);
+        AtomicInteger creations = new AtomicInteger();
+        handle.setRequestHook(req -> {
+            if (req instanceof TableRequest) {
+                creations.incrementAndGet();
+                sleep(100);
+            }
+        });
+
+        template.prepareTable(info(TableA.class));
+        template.prepareTable(info(TableB.class));
+        /* nothing is waited for, tables are created on first use */
+        template.afterSingletonsInstantiated();
+        Assert.assertTrue(listTables().isEmpty());
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                long id = i;
+                futures.add(executor.submit(() ->
+                    template.insert(new TableA(id))));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(1, creations.get());
+        Assert.assertEquals(List.of("TableA"), listTables());
+        Assert.assertEquals(8, handle.getRowCount("TableA"));
+    }
+
+    @Test
+    public void testLazyFailure() throws ClassNotFoundException {
+        createTemplate(TableCreationMode.LAZY, 10000);
+        failTableRequests("TableA");
+
+        template.prepareTable(info(TableA.class));
+        try {
+            template.insert(new TableA(1));
+            Assert.fail("Expected the failure of TableA");
+        } catch (RuntimeException re) {
+            // expected
+        }
+
+        handle.setRequestHook(null);
+        template.insert(new TableA(1));
+        Assert.assertNotNull(template.findById(1L, TableA.class));
+    }
+
+    private void createTemplate(TableCreationMode mode, long timeoutMs)
+        throws ClassNotFoundException {
+        handle = new NosqlInMemoryHandle();
+        template = NosqlTemplate.create(new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080")
+                .setTableCreationMode(mode)
+                .setTableCreationParallelism(2)
+                .setTableCreationTimeout(timeoutMs),
+            handle));
+    }
+
+    private NosqlEntityInformation<?, ?> info(Class<?> cls) {
+        return template.getNosqlEntityInformation(cls);
+    }
+
+    private List<String> listTables() {
+        return Arrays.asList(template.getNosqlClient().listTables(
+            new ListTablesRequest()).getTables());
+    }
+
+    private void failTableRequests(String tableName) {
+        handle.setRequestHook((Request req) -> {
+            if (req instanceof TableRequest &&
+                ((TableRequest) req).getStatement().contains(tableName)) {
+                throw new IllegalArgumentException("injected");
+            }
+        });
+    }
+
+    private static long elapsedMs(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @NosqlTable
+    public static class TableA {
+        @NosqlId
+        public long id;
+
+        public TableA() {
+        }
+
+        TableA(long id) {
+            this.id = id;
+        }
+    }
+
+    @NosqlTable
+    public static class TableB {
+        @NosqlId
+        public long id;
+
+        public TableB() {
+        }
+
+        TableB(long id) {
+            this.id = id;
+        }
+    }
+
+    @NosqlTable
+    public static class TableC {
+        @NosqlId
+        public long id;
+    }
+
+    @NosqlTable
+    public static class TableD {
+        @NosqlId
+        public long id;
+    }
+}
@@ -0,0 +1,201 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test;
+
+import oracle.nosql.driver.ops.TableLimits;
+import oracle.nosql.driver.ops.TableRequest;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.core.NosqlTemplate;
+import com.oracle.nosql.spring.data.core.TableRateLimiter;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Client side table rate limiters, run against the in-memory handle.
+ */
+public class TestTableRateLimiting {
+
+    private static final String PLAIN_DDL = "CREATE TABLE Plain " +
+        "(id LONG, kv_json_ JSON, PRIMARY KEY(SHARD(id)))";
+    private static final String DECLARED_DDL = "CREATE TABLE Declared " +
+        "(id LONG, kv_json_ JSON, PRIMARY KEY(SHARD(id)))";
+
+    @Test
+    public void testTableWithoutLimitsIsNotLimited()
+        throws ClassNotFoundException {
+        NosqlDbFactory factory = createFactory(100);
+        NosqlTemplate template = NosqlTemplate.create(factory);
+        /* like on premise, the table has no limits */
+        template.runTableRequest(PLAIN_DDL);
+
+        template.insert(new Plain(1));
+        Assert.assertNotNull(template.findById(1L, Plain.class));
+        Assert.assertNull(factory.getTableRateLimiters().get("Plain"));
+
+        template.createTableIfNotExists(
+            template.getNosqlEntityInformation(Plain.class));
+        template.insert(new Plain(2));
+        Assert.assertNull(factory.getTableRateLimiters().get("Plain"));
+    }
+
+    @Test
+    public void testDeclaredUnitsUntilTableIsRead()
+        throws ClassNotFoundException {
+        NosqlDbFactory factory = createFactory(50);
+        NosqlTemplate template = NosqlTemplate.create(factory);
+        template.runTableRequest(DECLARED_DDL);
+
+        template.insert(new Declared(1));
+        TableRateLimiter limiter =
+            factory.getTableRateLimiters().get("Declared");
+        Assert.assertNotNull(limiter);
+        Assert.assertEquals(20, limiter.getReadLimitPerSecond(), 0.01);
+        Assert.assertEquals(10, limiter.getWriteLimitPerSecond(), 0.01);
+
+        /* the service has no limits for the table, the declared units are
+         * not used anymore */
+        template.createTableIfNotExists(
+            template.getNosqlEntityInformation(Declared.class));
+        Assert.assertNull(factory.getTableRateLimiters().get("Declared"));
+        template.insert(new Declared(2));
+        Assert.assertNull(factory.getTableRateLimiters().get("Declared"));
+    }
+
+    @Test
+    public void testServiceLimitsOverrideDeclaredUnits()
+        throws ClassNotFoundException {
+        NosqlDbFactory factory = createFactory(100);
+        NosqlTemplate template = NosqlTemplate.create(factory);
+        factory.getNosqlClient().doTableRequest(new TableRequest()
+            .setStatement(DECLARED_DDL)
+            .setTableLimits(new TableLimits(10, 6, 1)), 10000, 500);
+
+        template.insert(new Declared(1));
+        Assert.assertEquals(40, factory.getTableRateLimiters()
+            .get("Declared").getReadLimitPerSecond(), 0.01);
+
+        template.createTableIfNotExists(
+            template.getNosqlEntityInformation(Declared.class));
+        TableRateLimiter limiter =
+            factory.getTableRateLimiters().get("Declared");
+        Assert.assertEquals(10, limiter.getReadLimitPerSecond(), 0.01);
+        Assert.assertEquals(6, limiter.getWriteLimitPerSecond(), 0.01);
+
+        template.dropTableIfExists("Declared");
+        Assert.assertNull(factory.getTableRateLimiters().get("Declared"));
+    }
+
+    @Test
+    public void testLimitersArePerFactory()
+        throws ClassNotFoundException {
+        NosqlDbFactory full = createFactory(100);
+        NosqlDbFactory quarter = createFactory(25);
+        for (NosqlDbFactory factory : new NosqlDbFactory[] {full, quarter}) {
+            NosqlTemplate template = NosqlTemplate.create(factory);
+            template.runTableRequest(DECLARED_DDL);
+            template.insert(new Declared(1));
+        }
+
+        TableRateLimiter fullLimiter =
+            full.getTableRateLimiters().get("Declared");
+        TableRateLimiter quarterLimiter =
+            quarter.getTableRateLimiters().get("Declared");
+        Assert.assertNotSame(fullLimiter, quarterLimiter);
+        Assert.assertEquals(40, fullLimiter.getReadLimitPerSecond(), 0.01);
+        Assert.assertEquals(10, quarterLimiter.getReadLimitPerSecond(), 0.01);
+
+        full.close();
+        Assert.assertTrue(full.getTableRateLimiters().getAll().isEmpty());
+        Assert.assertSame(quarterLimiter,
+            quarter.getTableRateLimiters().get("Declared"));
+    }
+
+    @Test
+    public void testReadsAreDelayed()
+        throws ClassNotFoundException {
+        NosqlDbFactory factory = createFactory(100);
+        NosqlTemplate template = NosqlTemplate.create(factory);
+        template.createTableIfNotExists(
+            template.getNosqlEntityInformation(Slow.class));
+        template.insert(new Slow(1));
+
+        /* each get is charged 1 read unit, 10 are allowed per second */
+        long start = System.nanoTime();
+        for (int i = 0; i < 25; i++) {
+            Assert.assertNotNull(template.findById(1L, Slow.class));
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        TableRateLimiter limiter = factory.getTableRateLimiters().get("Slow");
+        Assert.assertEquals(25, limiter.getConsumedReadUnits());
+        Assert.assertTrue(limiter.getReadDelayedCount() > 0);
+        Assert.assertTrue("elapsed " + elapsedMs, elapsedMs >= 1000);
+        Assert.assertTrue(limiter.getReadWaitTimeMs() >= 1000);
+    }
+
+    @Test
+    public void testDisabled()
+        throws ClassNotFoundException {
+        NosqlDbFactory factory = NosqlInMemoryHandle.createFactory();
+        NosqlTemplate template = NosqlTemplate.create(factory);
+        template.runTableRequest(DECLARED_DDL);
+
+        template.insert(new Declared(1));
+        Assert.assertTrue(factory.getTableRateLimiters().getAll().isEmpty());
+    }
+
+    private static NosqlDbFactory createFactory(double percentage) {
+        return NosqlInMemoryHandle.createFactory(NosqlDbConfig
+            .createProxyConfig("http://localhost:8080")
+            .setTableRateLimiting(true)
+            .setTableRateLimitingPercentage(percentage));
+    }
+
+    public static class Plain {
+        @NosqlId
+        public long id;
+
+        public Plain() {
+        }
+
+        Plain(long id) {
+            this.id = id;
+        }
+    }
+
+    @NosqlTable(readUnits = 10, writeUnits = 10, storageGB = 1)
+    public static class Slow {
+        @NosqlId
+        public long id;
+
+        public Slow() {
+        }
+
+        Slow(long id) {
+            this.id = id;
+        }
+    }
+
+    @NosqlTable(readUnits = 40, writeUnits = 20, storageGB = 1)
+    public static class Declared {
+        @NosqlId
+        public long id;
+
+        public Declared() {
+        }
+
+        Declared(long id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import oracle.nosql.driver.ops.GetRequest;
+import oracle.nosql.driver.ops.PrepareRequest;
+import oracle.nosql.driver.values.MapValue;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.core.NosqlTemplate;
+import com.oracle.nosql.spring.data.core.mapping.NosqlColumn;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.core.query.Update;
+import com.oracle.nosql.spring.data.repository.NosqlRepository;
+import com.oracle.nosql.spring.data.repository.support.NosqlEntityInformation;
+import com.oracle.nosql.spring.data.repository.support.NosqlRepositoryFactory;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.support.GenericApplicationContext;
+
+/*
+ * Partial updates of entity fields, run against the in-memory handle.
+ */
+public class TestUpdateFields {
+
+    private NosqlInMemoryHandle handle;
+    private NosqlTemplate template;
+    private NosqlEntityInformation<Person, Long> personInfo;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setup() throws ClassNotFoundException {
+        handle = new NosqlInMemoryHandle();
+        template = NosqlTemplate.create(new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080"),
+            handle));
+        personInfo = (NosqlEntityInformation<Person, Long>)
+            template.getNosqlEntityInformation(Person.class);
+        template.createTableIfNotExists(personInfo);
+    }
+
+    @Test
+    public void testTopLevelFields() {
+        template.insert(new Person(1, "Ann", 30, "ACTIVE",
+            new Address("Paris", null)));
+
+        Assert.assertEquals(1, template.updateFields(personInfo, 1L,
+            new Update().set("age", 31).set("status", "INACTIVE")));
+
+        Person p = template.findById(1L, Person.class);
+        Assert.assertEquals("Ann", p.name);
+        Assert.assertEquals(31, p.age);
+        Assert.assertEquals("INACTIVE", p.status);
+        Assert.assertEquals("Paris", p.address.city);
+    }
+
+    @Test
+    public void testMissingRow() {
+        Assert.assertEquals(0, template.updateFields(personInfo, 42L,
+            Update.update("age", 1)));
+        Assert.assertEquals(0, template.updateFields(personInfo, 42L,
+            Update.update("address.city", "Rome")));
+        Assert.assertEquals(0, handle.getRowCount("Person"));
+    }
+
+    @Test
+    public void testNestedFieldOfExistingParent() {
+        template.insert(new Person(1, "Ann", 30, null,
+            new Address("Paris", "75001")));
+
+        Assert.assertEquals(1, template.updateFields(personInfo, 1L,
+            Update.update("address.city", "Lyon")));
+
+        Person p = template.findById(1L, Person.class);
+        Assert.assertEquals("Lyon", p.address.city);
+        Assert.assertEquals("75001", p.address.zip);
+    }
+
+    @Test
+    public void testNestedFieldOfNullParent() {
+        /* null fields are written as JSON nulls */
+        template.insert(new Person(1, "Ann", 30, null, null));
+        Assert.assertTrue(getJson(1).get("address").isJsonNull());
+
+        Assert.assertEquals(1, template.updateFields(personInfo, 1L,
+            Update.update("address.city", "Lyon")));
+
+        Person p = template.findById(1L, Person.class);
+        Assert.assertNotNull(p.address);
+        Assert.assertEquals("Lyon", p.address.city);
+        Assert.assertNull(p.address.zip);
+    }
+
+    @Test
+    public void testNestedFieldOfMissingParent() {
+        template.insert(new Person(1, "Ann", 30, null, null));
+        removeField(1, "address");
+        Assert.assertNull(getJson(1).get("address"));
+
+        Assert.assertEquals(1, template.updateFields(personInfo, 1L,
+            Update.update("address.zip", "69001")));
+        Assert.assertEquals("69001",
+            template.findById(1L, Person.class).address.zip);
+    }
+
+    @Test
+    public void testMissingAncestors() {
+        template.insert(new Person(1, "Ann", 30, null, null));
+
+        Assert.assertEquals(1, template.updateFields(personInfo, 1L,
+            new Update().set("address.geo.lat", 45.7)
+                .set("address.city", "Lyon")
+                .set("name", "Anne")));
+
+        Person p = template.findById(1L, Person.class);
+        Assert.assertEquals("Anne", p.name);
+        Assert.assertEquals("Lyon", p.address.city);
+        Assert.assertEquals(45.7, p.address.geo.lat, 0);
+        Assert.assertEquals(0, p.address.geo.lon, 0);
+    }
+
+    @Test
+    public void testMissingFieldAdded() {
+        template.insert(new Person(1, "Ann", 30, null, null));
+        removeField(1, "name2");
+        Assert.assertNull(getJson(1).get("name2"));
+
+        Assert.assertEquals(1, template.updateFields(personInfo, 1L,
+            Update.update("name2", "Annie")));
+        Assert.assertEquals("Annie", template.findById(1L, Person.class).name2);
+    }
+
+    @Test
+    public void testSetNull() {
+        template.insert(new Person(1, "Ann", 30, "ACTIVE",
+            new Address("Paris", null)));
+
+        Assert.assertEquals(1, template.updateFields(personInfo, 1L,
+            new Update().set("name", null).set("status", null)));
+        Person p = template.findById(1L, Person.class);
+        Assert.assertNull(p.name);
+        Assert.assertNull(p.status);
+        Assert.assertEquals(30, p.age);
+    }
+
+    @Test
+    public void testStatementDependsOnFieldSet() {
+        template.insert(new Person(1, "Ann", 30, null, null));
+        template.insert(new Person(2, "Bob", 40, null, null));
+        AtomicInteger prepares = new AtomicInteger();
+        handle.setRequestHook(req -> {
+            if (req instanceof PrepareRequest) {
+                prepares.incrementAndGet();
+            }
+        });
+
+        template.updateFields(personInfo, 1L,
+            new Update().set("age", 1).set("address.city", "A"));
+        template.updateFields(personInfo, 2L,
+            new Update().set("address.city", "B").set("age", 2));
+        Assert.assertEquals(1, prepares.get());
+        Assert.assertEquals("B", template.findById(2L, Person.class)
+            .address.city);
+    }
+
+    @Test
+    public void testInvalidFields() {
+        template.insert(new Person(1, "Ann", 30, null, null));
+        for (String field : new String[] {"id", "unknown"}) {
+            try {
+                template.updateFields(personInfo, 1L,
+                    Update.update(field, 2));
+                Assert.fail("Expected invalid field " + field);
+            } catch (RuntimeException re) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testRepository() {
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.registerBean(NosqlTemplate.class, () -> template);
+        context.refresh();
+        template.setApplicationContext(context);
+        try {
+            PersonRepository repo = new NosqlRepositoryFactory(template,
+                context).getRepository(PersonRepository.class);
+            repo.save(new Person(1, "Ann", 30, null, null));
+
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("age", 32);
+            fields.put("address.zip", "13001");
+            Assert.assertEquals(1, repo.updateFields(1L, fields));
+            Person p = repo.findById(1L).get();
+            Assert.assertEquals(32, p.age);
+            Assert.assertEquals("13001", p.address.zip);
+        } finally {
+            context.close();
+        }
+    }
+
+    private void removeField(long id, String field) {
+        template.runQuery(personInfo, "update Person t remove t.kv_json_." +
+            field + " where t.id = " + id).forEach(r -> { });
+    }
+
+    private MapValue getJson(long id) {
+        return template.getNosqlClient().get(new GetRequest()
+            .setTableName("Person").setKey(new MapValue().put("id", id)))
+            .getValue().get("kv_json_").asMap();
+    }
+
+    @NosqlTable
+    public static class Person {
+        @NosqlId
+        public long id;
+        public String name;
+        public String name2;
+        public int age;
+        @NosqlColumn
+        public String status;
+        public Address address;
+
+        public Person() {
+        }
+
+        Person(long id, String name, int age, String status,
+            Address address) {
+            this.id = id;
+            this.name = name;
+            this.age = age;
+            this.status = status;
+            this.address = address;
+        }
+    }
+
+    public static class Address {
+        public String city;
+        public String zip;
+        public Geo geo;
+
+        public Address() {
+        }
+
+        Address(String city, String zip) {
+            this.city = city;
+            this.zip = zip;
+        }
+    }
+
+    public static class Geo {
+        public double lat;
+        public double lon;
+    }
+
+    public interface PersonRepository extends NosqlRepository<Person, Long> {
+    }
+}
@@ -0,0 +1,414 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import oracle.nosql.driver.ops.PutRequest;
+import oracle.nosql.driver.ops.WriteMultipleRequest;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.config.WriteBehindConfig;
+import com.oracle.nosql.spring.data.config.WriteBehindOverflowPolicy;
+import com.oracle.nosql.spring.data.core.WriteBehindNosqlTemplate;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Buffered writes of the write behind template, run against the in-memory
+ * handle.
+ */
+public class TestWriteBehind {
+
+    private NosqlInMemoryHandle handle;
+    private WriteBehindNosqlTemplate template;
+    private AtomicInteger writes;
+
+    @After
+    public void tearDown() {
+        if (template != null) {
+            handle.setRequestHook(null);
+            template.destroy();
+        }
+    }
+
+    @Test
+    public void testCoalescing() throws ClassNotFoundException {
+        createTemplate(10, WriteBehindOverflowPolicy.BLOCK);
+
+        template.insert(new Reading(1, "a"));
+        template.insert(new Reading(1, "b"));
+        template.update(new Reading(1, "c"));
+        template.insert(new Reading(2, "x"));
+        Assert.assertEquals(2, template.getBufferedCount());
+        Assert.assertEquals(4, template.getBufferedWriteCount());
+        Assert.assertEquals(2, template.getCoalescedCount());
+        Assert.assertEquals(0, writes.get());
+
+        /* the buffered entities are returned until written */
+        Assert.assertEquals("c", template.findById(1L, Reading.class).value);
+        Assert.assertEquals(0, handle.getRowCount("Reading"));
+
+        template.flush();
+        Assert.assertEquals(2, writes.get());
+        Assert.assertEquals(0, template.getBufferedCount());
+        Assert.assertEquals(2, template.getFlushedCount());
+        Assert.assertEquals(1, template.getFlushCount());
+        Assert.assertEquals("c", template.findById(1L, Reading.class).value);
+        Assert.assertEquals("x", template.findById(2L, Reading.class).value);
+    }
+
+    @Test
+    public void testUpdateOnlyExistingRows() throws ClassNotFoundException {
+        createTemplate(10, WriteBehindOverflowPolicy.BLOCK);
+        template.insert(new Reading(1, "a"));
+        template.flush();
+
+        template.update(new Reading(1, "b"));
+        template.update(new Reading(2, "b"));
+        /* the update of a missing row is not visible */
+        Assert.assertNull(template.findById(2L, Reading.class));
+        template.flush();
+        Assert.assertEquals("b", template.findById(1L, Reading.class).value);
+        Assert.assertNull(template.findById(2L, Reading.class));
+        Assert.assertEquals(1, handle.getRowCount("Reading"));
+
+        /* an update replacing a buffered insert creates the row */
+        template.insert(new Reading(3, "a"));
+        template.update(new Reading(3, "b"));
+        template.flush();
+        Assert.assertEquals("b", template.findById(3L, Reading.class).value);
+    }
+
+    @Test
+    public void testRowsVisibleDuringFlush() throws Exception {
+        createTemplate(10, WriteBehindOverflowPolicy.BLOCK);
+        template.insert(new Reading(1, "a"));
+        template.flush();
+
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        blockWrites(writing, release);
+        template.insert(new Reading(1, "b"));
+        CompletableFuture<Void> flush =
+            CompletableFuture.runAsync(template::flush);
+        try {
+            Assert.assertTrue(writing.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals("b",
+                template.findById(1L, Reading.class).value);
+            Assert.assertEquals(1, template.getBufferedCount());
+
+            /* a write during the flush stays buffered */
+            template.insert(new Reading(1, "c"));
+        } finally {
+            release.countDown();
+        }
+        flush.get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(1, template.getBufferedCount());
+        Assert.assertEquals("c", template.findById(1L, Reading.class).value);
+        template.flush();
+        Assert.assertEquals(0, template.getBufferedCount());
+        Assert.assertEquals("c", template.findById(1L, Reading.class).value);
+    }
+
+    @Test
+    public void testDropPolicy() throws ClassNotFoundException {
+        createTemplate(2, WriteBehindOverflowPolicy.DROP);
+
+        template.insert(new Reading(1, "a"));
+        template.insert(new Reading(2, "a"));
+        template.insert(new Reading(3, "a"));
+        /* writes to buffered keys are still coalesced */
+        template.insert(new Reading(1, "b"));
+        Assert.assertEquals(1, template.getDroppedCount());
+        Assert.assertEquals(2, template.getBufferedCount());
+
+        template.flush();
+        Assert.assertEquals(2, handle.getRowCount("Reading"));
+        Assert.assertEquals("b", template.findById(1L, Reading.class).value);
+        Assert.assertNull(template.findById(3L, Reading.class));
+    }
+
+    @Test
+    public void testWriteThroughPolicy() throws ClassNotFoundException {
+        createTemplate(1, WriteBehindOverflowPolicy.WRITE_THROUGH);
+
+        template.insert(new Reading(1, "a"));
+        template.insert(new Reading(2, "a"));
+        Assert.assertEquals(1, template.getWriteThroughCount());
+        Assert.assertEquals(1, writes.get());
+        Assert.assertEquals(1, handle.getRowCount("Reading"));
+
+        /* an update written through is still applied to existing rows only */
+        template.update(new Reading(3, "a"));
+        Assert.assertEquals(1, handle.getRowCount("Reading"));
+    }
+
+    @Test
+    public void testBlockPolicy() throws Exception {
+        createTemplate(1, WriteBehindOverflowPolicy.BLOCK);
+        handle.setRequestHook(req -> {
+            if (req instanceof PutRequest) {
+                sleep(200);
+            }
+        });
+
+        template.insert(new Reading(1, "a"));
+        long start = System.nanoTime();
+        /* waits for the background flush of the full buffer */
+        CompletableFuture.runAsync(() -> template.insert(new Reading(2, "a")))
+            .get(5, TimeUnit.SECONDS);
+        Assert.assertTrue((System.nanoTime() - start) / 1_000_000 >= 150);
+        Assert.assertEquals(1, template.getBufferedCount());
+        Assert.assertEquals(1, handle.getRowCount("Reading"));
+        Assert.assertEquals("a", template.findById(2L, Reading.class).value);
+    }
+
+    @Test
+    public void testBlockedWriterFailsOnDestroy() throws Exception {
+        createTemplate(1, WriteBehindOverflowPolicy.BLOCK);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        blockWrites(writing, release);
+
+        template.insert(new Reading(1, "a"));
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(
+            () -> template.insert(new Reading(2, "a")));
+        CompletableFuture<Void> destroy;
+        try {
+            /* the background flush holds the row until it is written */
+            Assert.assertTrue(writing.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            Assert.assertFalse(blocked.isDone());
+
+            destroy = CompletableFuture.runAsync(template::destroy);
+            try {
+                blocked.get(5, TimeUnit.SECONDS);
+                Assert.fail("Expected the write to fail");
+            } catch (ExecutionException ee) {
+                Assert.assertTrue(ee.getCause() instanceof
+                    IllegalStateException);
+            }
+        } finally {
+            release.countDown();
+        }
+        destroy.get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(0, template.getBufferedCount());
+        Assert.assertEquals(1, handle.getRowCount("Reading"));
+
+        try {
+            template.insert(new Reading(3, "a"));
+            Assert.fail("Expected the template to be closed");
+        } catch (IllegalStateException ise) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testFlushFailure() throws ClassNotFoundException {
+        createTemplate(10, WriteBehindOverflowPolicy.BLOCK);
+        AtomicBoolean failing = failRow(2);
+
+        for (int i = 1; i <= 3; i++) {
+            template.insert(new Reading(i, "a"));
+        }
+        try {
+            template.flush();
+            Assert.fail("Expected the failure of row 2");
+        } catch (RuntimeException re) {
+            // expected
+        }
+        /* the other rows are written, the failed one stays buffered */
+        Assert.assertEquals(1, template.getFailedCount());
+        Assert.assertEquals(2, template.getFlushedCount());
+        Assert.assertEquals(1, template.getBufferedCount());
+        Assert.assertEquals(2, handle.getRowCount("Reading"));
+        Assert.assertEquals("a", template.findById(2L, Reading.class).value);
+
+        /* and is written by the next flush */
+        failing.set(false);
+        template.flush();
+        Assert.assertEquals(3, template.getFlushedCount());
+        Assert.assertEquals(0, template.getBufferedCount());
+        Assert.assertEquals(3, handle.getRowCount("Reading"));
+    }
+
+    @Test
+    public void testBackgroundFlushFailure() throws Exception {
+        handle = new NosqlInMemoryHandle();
+        template = WriteBehindNosqlTemplate.create(new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080"),
+            handle), new WriteBehindConfig().setFlushInterval(20));
+        template.createTableIfNotExists(
+            template.getNosqlEntityInformation(Reading.class));
+        AtomicBoolean failing = failRow(1);
+
+        template.insert(new Reading(1, "a"));
+        waitFor(() -> template.getFailedCount() >= 2);
+        Assert.assertEquals(1, template.getBufferedCount());
+        Assert.assertEquals(0, handle.getRowCount("Reading"));
+
+        /* the save is not lost once the outage is over */
+        failing.set(false);
+        waitFor(() -> template.getBufferedCount() == 0);
+        Assert.assertEquals(1, handle.getRowCount("Reading"));
+    }
+
+    @Test
+    public void testDropAfterMaxFlushAttempts()
+        throws ClassNotFoundException {
+        createTemplate(10, WriteBehindOverflowPolicy.DROP, 2);
+        failRow(2);
+
+        template.insert(new Reading(1, "a"));
+        template.insert(new Reading(2, "a"));
+        assertFlushFails();
+        Assert.assertEquals(1, template.getBufferedCount());
+        Assert.assertEquals(0, template.getDroppedCount());
+
+        /* a new value of the key gets its own attempts */
+        template.insert(new Reading(2, "b"));
+        assertFlushFails();
+        Assert.assertEquals(1, template.getBufferedCount());
+        assertFlushFails();
+        Assert.assertEquals(0, template.getBufferedCount());
+        Assert.assertEquals(1, template.getDroppedCount());
+        Assert.assertEquals(3, template.getFailedCount());
+        Assert.assertNull(template.findById(2L, Reading.class));
+    }
+
+    @Test
+    public void testBlockAfterMaxFlushAttempts() throws Exception {
+        createTemplate(1, WriteBehindOverflowPolicy.BLOCK, 1);
+        AtomicBoolean failing = failRow(1);
+
+        template.insert(new Reading(1, "a"));
+        assertFlushFails();
+        assertFlushFails();
+        /* the row is kept, the full buffer blocks new writes */
+        Assert.assertEquals(1, template.getBufferedCount());
+        Assert.assertEquals(0, template.getDroppedCount());
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(
+            () -> template.insert(new Reading(2, "a")));
+        Thread.sleep(100);
+        Assert.assertFalse(blocked.isDone());
+
+        failing.set(false);
+        template.flush();
+        blocked.get(5, TimeUnit.SECONDS);
+        template.flush();
+        Assert.assertEquals(2, handle.getRowCount("Reading"));
+    }
+
+    private void createTemplate(int capacity,
+        WriteBehindOverflowPolicy policy) throws ClassNotFoundException {
+        createTemplate(capacity, policy,
+            new WriteBehindConfig().getMaxFlushAttempts());
+    }
+
+    private void createTemplate(int capacity,
+        WriteBehindOverflowPolicy policy, int maxFlushAttempts)
+        throws ClassNotFoundException {
+        handle = new NosqlInMemoryHandle();
+        template = WriteBehindNosqlTemplate.create(new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080"),
+            handle), new WriteBehindConfig()
+            .setCapacity(capacity)
+            .setBatchSize(10)
+            .setFlushInterval(60_000)
+            .setOverflowPolicy(policy)
+            .setMaxFlushAttempts(maxFlushAttempts));
+        template.createTableIfNotExists(
+            template.getNosqlEntityInformation(Reading.class));
+
+        writes = new AtomicInteger();
+        handle.setRequestHook(req -> {
+            if (req instanceof PutRequest ||
+                req instanceof WriteMultipleRequest) {
+                writes.incrementAndGet();
+            }
+        });
+    }
+
+    /* Fails the writes of row id until the returned flag is cleared. */
+    private AtomicBoolean failRow(long id) {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        handle.setRequestHook(req -> {
+            if (failing.get() && req instanceof PutRequest &&
+                ((PutRequest) req).getValue().getLong("id") == id) {
+                throw new IllegalArgumentException("injected");
+            }
+        });
+        return failing;
+    }
+
+    private void assertFlushFails() {
+        try {
+            template.flush();
+            Assert.fail("Expected the flush to fail");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition)
+        throws InterruptedException {
+        long end = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue(System.currentTimeMillis() < end);
+            Thread.sleep(10);
+        }
+    }
+
+    private void blockWrites(CountDownLatch writing, CountDownLatch release) {
+        handle.setRequestHook(req -> {
+            if (req instanceof PutRequest) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @NosqlTable
+    public static class Reading {
+        @NosqlId
+        public long id;
+        public String value;
+
+        public Reading() {
+        }
+
+        Reading(long id, String value) {
+            this.id = id;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test.benchmark;
+
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+
+/* Document written and read by the benchmark workloads. */
+@NosqlTable(tableName = "BenchDocument", readUnits = 1000,
+    writeUnits = 1000, storageGB = 1)
+public class BenchDocument {
+
+    @NosqlId
+    public long id;
+
+    public String group;
+    public int counter;
+    public String payload;
+
+    public BenchDocument() {
+    }
+
+    public BenchDocument(long id, String group, String payload) {
+        this.id = id;
+        this.group = group;
+        this.payload = payload;
+    }
+}
@@ -0,0 +1,17 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test.benchmark;
+
+import java.util.List;
+
+import com.oracle.nosql.spring.data.repository.NosqlRepository;
+
+public interface BenchDocumentRepository
+    extends NosqlRepository<BenchDocument, Long> {
+
+    List<BenchDocument> findByGroup(String group);
+}
@@ -0,0 +1,53 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test.benchmark;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.repository.config.EnableNosqlRepositories;
+import com.oracle.nosql.spring.data.repository.config.EnableReactiveNosqlRepositories;
+import com.oracle.nosql.spring.data.test.app.AppConfig;
+import com.oracle.nosql.spring.data.test.app.AppConfigBase;
+import com.oracle.nosql.spring.data.test.benchmark.reactive.ReactiveBenchDocumentRepository;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+
+/*
+ * Runs the benchmark against the server given by the test.endpoint and
+ * test.serverType properties, like the other tests, or against the
+ * in-memory handle if test.endpoint is not set.
+ */
+@Configuration
+@EnableNosqlRepositories(basePackageClasses = BenchDocumentRepository.class,
+    excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+        classes = ReactiveBenchDocumentRepository.class))
+@EnableReactiveNosqlRepositories(basePackageClasses =
+    ReactiveBenchDocumentRepository.class)
+public class BenchmarkAppConfig extends AppConfigBase {
+
+    static boolean isInMemory() {
+        String endpoint = System.getProperty(ENDPOINT);
+        return endpoint == null || endpoint.isEmpty();
+    }
+
+    @Bean
+    public NosqlDbConfig nosqlDbConfig() {
+        return isInMemory() ? NosqlDbConfig.createProxyConfig(
+            "http://localhost:8080") : AppConfig.nosqlDBConfig;
+    }
+
+    @Override
+    @Bean
+    public NosqlDbFactory nosqlDbFactory(NosqlDbConfig nosqlDBConfig) {
+        return isInMemory() ? NosqlInMemoryHandle.createFactory() :
+            super.nosqlDbFactory(nosqlDBConfig);
+    }
+}
@@ -0,0 +1,543 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.oracle.nosql.spring.data.test.benchmark.Workload.Operation;
+import com.oracle.nosql.spring.data.test.benchmark.reactive.ReactiveBenchDocumentRepository;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/*
+ * End-to-end throughput benchmark of the blocking and reactive
+ * repositories, not run with the other tests. Run it with the benchmark
+ * profile, against the in-memory handle by default or against a server with
+ * the test.endpoint and test.serverType properties of the test profiles:
+ *
+ *   mvn -Pbenchmark test -Dbenchmark.concurrency=1,16 \
+ *       -Dbenchmark.mix=findById:50,save:50
+ *
+ * Each combination of mode, batch size and concurrency is a scenario run
+ * for warmupSeconds and then measured for durationSeconds. Reported for
+ * each scenario: operations and documents per second, latency percentiles
+ * in microseconds and bytes allocated per operation by all threads of the
+ * JVM. Results are written to the output file as properties, which can be
+ * used as the baseline of a later run.
+ *
+ * Workload properties, all prefixed by "benchmark.":
+ *   keys            number of documents loaded, default 10000
+ *   groups          number of groups queried by findByGroup, default 100
+ *   documentSize    payload size in characters, default 1024
+ *   distribution    uniform, zipfian or sequential, default uniform
+ *   mix             operation:weight pairs of findById, findByGroup,
+ *                   findAll and save, default findById:80,save:15,
+ *                   findByGroup:5
+ *   modes           blocking and/or reactive, default both
+ *   batchSizes      keys per findAllById and documents per saveAll, 1
+ *                   uses findById and save, default 1,10
+ *   concurrency     threads of the blocking mode and operations in flight
+ *                   of the reactive mode, default 1,8
+ *   warmupSeconds   default 2
+ *   durationSeconds default 5
+ *   seed            seed of the workers random generators, default 42
+ *
+ * Regression thresholds, the run fails if any scenario breaks one:
+ *   output          results file, default benchmark-results.properties in
+ *                   target/test-run
+ *   baseline        results file of a previous run, scenarios slower or
+ *                   with a higher p99 latency by more than tolerance fail
+ *   tolerance       allowed regression from the baseline, default 0.1
+ *   minThroughput   minimum operations per second
+ *   maxP99Millis    maximum p99 latency
+ *   maxAllocBytesPerOp maximum bytes allocated per operation
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = BenchmarkAppConfig.class)
+public class RepositoryBenchmark {
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private BenchDocumentRepository repo;
+
+    @Autowired
+    private ReactiveBenchDocumentRepository reactiveRepo;
+
+    private final com.sun.management.ThreadMXBean threadBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    public void run() {
+        Workload workload = new Workload();
+        System.out.println("Benchmark " + (BenchmarkAppConfig.isInMemory() ?
+            "in-memory" : "server") + " workload: " + workload);
+        load(workload);
+
+        List<Result> results = new ArrayList<>();
+        for (String mode : workload.modes) {
+            for (int batchSize : workload.batchSizes) {
+                for (int concurrency : workload.concurrencies) {
+                    String name = mode + "-b" + batchSize + "-c" +
+                        concurrency;
+                    Result result = mode.equals("blocking") ?
+                        runBlocking(name, workload, batchSize, concurrency) :
+                        runReactive(name, workload, batchSize, concurrency);
+                    System.out.println(result);
+                    results.add(result);
+                }
+            }
+        }
+
+        Properties output = new Properties();
+        results.forEach(r -> r.store(output));
+        Path path = Paths.get(Workload.get("output",
+            "benchmark-results.properties"));
+        try (OutputStream out = Files.newOutputStream(path)) {
+            output.store(out, "Repository benchmark results, " + workload);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+        System.out.println("Benchmark results written to " +
+            path.toAbsolutePath());
+
+        List<String> regressions = checkThresholds(results);
+        if (!regressions.isEmpty()) {
+            Assert.fail("Benchmark thresholds not met:\n  " +
+                String.join("\n  ", regressions));
+        }
+    }
+
+    private void load(Workload workload) {
+        repo.deleteAll();
+        Random random = new Random(workload.seed);
+        List<BenchDocument> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+        for (long key = 0; key < workload.keys; key++) {
+            batch.add(workload.document(key, random));
+            if (batch.size() == LOAD_BATCH_SIZE) {
+                repo.saveAll(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            repo.saveAll(batch);
+        }
+    }
+
+    private Result runBlocking(String name, Workload workload,
+        int batchSize, int concurrency) {
+
+        CustomizableThreadFactory threadFactory =
+            new CustomizableThreadFactory("nosql-benchmark-");
+        threadFactory.setDaemon(true);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency,
+            threadFactory);
+        try {
+            runBlockingPhase(null, workload, batchSize, concurrency,
+                workload.warmupMs, executor);
+            Result result = new Result(name);
+            result.start(threadBean);
+            runBlockingPhase(result, workload, batchSize, concurrency,
+                workload.durationMs, executor);
+            result.stop(threadBean);
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /* Runs the workers until the end of the phase, result is null during
+     * warmup. */
+    private void runBlockingPhase(Result result, Workload workload,
+        int batchSize, int concurrency, long durationMs,
+        ExecutorService executor) {
+
+        long end = System.nanoTime() + durationMs * 1_000_000L;
+        List<Future<Worker>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Worker worker = new Worker(new Random(workload.seed + i));
+            futures.add(executor.submit(() -> {
+                long seq = 0;
+                while (System.nanoTime() < end) {
+                    Operation op = workload.nextOperation(worker.random);
+                    long start = System.nanoTime();
+                    try {
+                        long docs = execute(workload, op, batchSize,
+                            worker.random, seq);
+                        worker.histogram.record(System.nanoTime() - start);
+                        worker.docs += docs;
+                    } catch (RuntimeException re) {
+                        worker.errors++;
+                    }
+                    seq += batchSize;
+                }
+                return worker;
+            }));
+        }
+        try {
+            for (Future<Worker> future : futures) {
+                Worker worker = future.get();
+                if (result != null) {
+                    result.add(worker.histogram, worker.docs, worker.errors);
+                }
+            }
+        } catch (ExecutionException ee) {
+            throw new IllegalStateException("Benchmark worker failed.",
+                ee.getCause());
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Benchmark was interrupted.",
+                ie);
+        }
+    }
+
+    private long execute(Workload workload, Operation op, int batchSize,
+        Random random, long seq) {
+        switch (op) {
+        case FIND_BY_ID:
+            if (batchSize == 1) {
+                return repo.findById(workload.nextKey(random, seq))
+                    .isPresent() ? 1 : 0;
+            }
+            return count(repo.findAllById(keys(workload, batchSize, random,
+                seq)));
+        case FIND_BY_GROUP:
+            return repo.findByGroup(workload.group(
+                workload.nextKey(random, seq))).size();
+        case FIND_ALL:
+            return count(repo.findAll());
+        default:
+            if (batchSize == 1) {
+                repo.save(workload.document(workload.nextKey(random, seq),
+                    random));
+                return 1;
+            }
+            repo.saveAll(documents(workload, batchSize, random, seq));
+            return batchSize;
+        }
+    }
+
+    private Result runReactive(String name, Workload workload,
+        int batchSize, int concurrency) {
+
+        runReactivePhase(null, workload, batchSize, concurrency,
+            workload.warmupMs);
+        Result result = new Result(name);
+        result.start(threadBean);
+        runReactivePhase(result, workload, batchSize, concurrency,
+            workload.durationMs);
+        result.stop(threadBean);
+        return result;
+    }
+
+    /* Keeps concurrency operations in flight until the end of the phase,
+     * result is null during warmup. */
+    private void runReactivePhase(Result result, Workload workload,
+        int batchSize, int concurrency, long durationMs) {
+
+        long end = System.nanoTime() + durationMs * 1_000_000L;
+        Random random = new Random(workload.seed);
+        LatencyHistogram histogram = new LatencyHistogram();
+        AtomicLong docs = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+
+        /*
+         * Operations, keys and documents are chosen by the single generator.
+         * Repository methods are only called at subscription, reactive
+         * templates may do part of the work when called.
+         */
+        Flux.<Request, Long>generate(() -> 0L, (seq, sink) -> {
+            if (System.nanoTime() >= end) {
+                sink.complete();
+            } else {
+                sink.next(new Request(workload, workload.nextOperation(random),
+                    batchSize, random, seq));
+            }
+            return seq + batchSize;
+        })
+            .flatMap(request -> Mono.defer(() -> {
+                long start = System.nanoTime();
+                return executeReactive(request).doOnNext(n -> {
+                    long latency = System.nanoTime() - start;
+                    synchronized (histogram) {
+                        histogram.record(latency);
+                    }
+                    docs.addAndGet(n);
+                });
+            }).onErrorResume(e -> {
+                errors.incrementAndGet();
+                return Mono.empty();
+            }), concurrency)
+            .blockLast();
+
+        if (result != null) {
+            result.add(histogram, docs.get(), errors.get());
+        }
+    }
+
+    private Mono<Long> executeReactive(Request request) {
+        switch (request.op) {
+        case FIND_BY_ID:
+            if (request.keys.size() == 1) {
+                return reactiveRepo.findById(request.keys.get(0))
+                    .map(d -> 1L).defaultIfEmpty(0L);
+            }
+            return reactiveRepo.findAllById(request.keys).count();
+        case FIND_BY_GROUP:
+            return reactiveRepo.findByGroup(request.group).count();
+        case FIND_ALL:
+            return reactiveRepo.findAll().count();
+        default:
+            if (request.docs.size() == 1) {
+                return reactiveRepo.save(request.docs.get(0))
+                    .thenReturn(1L);
+            }
+            return reactiveRepo.saveAll(request.docs).count();
+        }
+    }
+
+    private static long count(Iterable<BenchDocument> docs) {
+        long count = 0;
+        for (BenchDocument ignored : docs) {
+            count++;
+        }
+        return count;
+    }
+
+    private static List<Long> keys(Workload workload, int batchSize,
+        Random random, long seq) {
+        List<Long> keys = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            keys.add(workload.nextKey(random, seq + i));
+        }
+        return keys;
+    }
+
+    private static List<BenchDocument> documents(Workload workload,
+        int batchSize, Random random, long seq) {
+        List<BenchDocument> docs = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            docs.add(workload.document(workload.nextKey(random, seq + i),
+                random));
+        }
+        return docs;
+    }
+
+    private static List<String> checkThresholds(List<Result> results) {
+        List<String> failures = new ArrayList<>();
+        double minThroughput = Workload.getDouble("minThroughput", 0);
+        double maxP99Millis = Workload.getDouble("maxP99Millis", 0);
+        double maxAlloc = Workload.getDouble("maxAllocBytesPerOp", 0);
+        double tolerance = Workload.getDouble("tolerance", 0.1);
+        Properties baseline = loadBaseline();
+
+        for (Result r : results) {
+            if (r.errors > 0) {
+                failures.add(r.name + ": " + r.errors + " failed operations");
+            }
+            if (minThroughput > 0 && r.throughput() < minThroughput) {
+                failures.add(String.format("%s: throughput %.1f ops/s " +
+                    "below %.1f", r.name, r.throughput(), minThroughput));
+            }
+            if (maxP99Millis > 0 && r.p99Micros() > maxP99Millis * 1000) {
+                failures.add(String.format("%s: p99 %.3f ms above %.3f",
+                    r.name, r.p99Micros() / 1000.0, maxP99Millis));
+            }
+            if (maxAlloc > 0 && r.allocPerOp() > maxAlloc) {
+                failures.add(String.format("%s: %d bytes allocated per " +
+                    "operation, above %.0f", r.name, r.allocPerOp(),
+                    maxAlloc));
+            }
+            if (baseline == null) {
+                continue;
+            }
+            String base = baseline.getProperty(r.name + ".throughput");
+            if (base != null &&
+                r.throughput() < Double.parseDouble(base) * (1 - tolerance)) {
+                failures.add(String.format("%s: throughput %.1f ops/s " +
+                    "regressed from baseline %s", r.name, r.throughput(),
+                    base));
+            }
+            base = baseline.getProperty(r.name + ".p99Micros");
+            if (base != null &&
+                r.p99Micros() > Double.parseDouble(base) * (1 + tolerance)) {
+                failures.add(String.format("%s: p99 %d us regressed from " +
+                    "baseline %s us", r.name, r.p99Micros(), base));
+            }
+        }
+        return failures;
+    }
+
+    private static Properties loadBaseline() {
+        String file = Workload.get("baseline", null);
+        if (file == null) {
+            return null;
+        }
+        Properties baseline = new Properties();
+        try (InputStream in = Files.newInputStream(Paths.get(file))) {
+            baseline.load(in);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Can't read benchmark baseline " +
+                file, ioe);
+        }
+        return baseline;
+    }
+
+    /* Arguments of a reactive operation. */
+    private static final class Request {
+        private final Operation op;
+        private List<Long> keys;
+        private String group;
+        private List<BenchDocument> docs;
+
+        Request(Workload workload, Operation op, int batchSize,
+            Random random, long seq) {
+            this.op = op;
+            switch (op) {
+            case FIND_BY_ID:
+                keys = keys(workload, batchSize, random, seq);
+                break;
+            case FIND_BY_GROUP:
+                group = workload.group(workload.nextKey(random, seq));
+                break;
+            case SAVE:
+                docs = documents(workload, batchSize, random, seq);
+                break;
+            default:
+                break;
+            }
+        }
+    }
+
+    private static final class Worker {
+        private final Random random;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private long docs;
+        private long errors;
+
+        Worker(Random random) {
+            this.random = random;
+        }
+    }
+
+    private static final class Result {
+        private final String name;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private long docs;
+        private long errors;
+        private long startNanos;
+        private long elapsedNanos;
+        private long startAllocated;
+        private long allocated;
+
+        Result(String name) {
+            this.name = name;
+        }
+
+        void start(com.sun.management.ThreadMXBean threadBean) {
+            startAllocated = allocatedBytes(threadBean);
+            startNanos = System.nanoTime();
+        }
+
+        void stop(com.sun.management.ThreadMXBean threadBean) {
+            elapsedNanos = System.nanoTime() - startNanos;
+            allocated = allocatedBytes(threadBean) - startAllocated;
+        }
+
+        /* Threads ending during the run are not counted. */
+        private static long allocatedBytes(
+            com.sun.management.ThreadMXBean threadBean) {
+            long total = 0;
+            for (long bytes : threadBean.getThreadAllocatedBytes(
+                threadBean.getAllThreadIds())) {
+                if (bytes > 0) {
+                    total += bytes;
+                }
+            }
+            return total;
+        }
+
+        void add(LatencyHistogram h, long d, long e) {
+            histogram.add(h);
+            docs += d;
+            errors += e;
+        }
+
+        double throughput() {
+            return histogram.getCount() * 1e9 / elapsedNanos;
+        }
+
+        long p99Micros() {
+            return histogram.getValueAtPercentile(99) / 1000;
+        }
+
+        long allocPerOp() {
+            return histogram.getCount() == 0 ? 0 :
+                allocated / histogram.getCount();
+        }
+
+        void store(Properties props) {
+            props.setProperty(name + ".operations",
+                String.valueOf(histogram.getCount()));
+            props.setProperty(name + ".errors", String.valueOf(errors));
+            props.setProperty(name + ".throughput",
+                String.format(Locale.ROOT, "%.1f", throughput()));
+            props.setProperty(name + ".documentsPerSecond",
+                String.format(Locale.ROOT, "%.1f", docs * 1e9 / elapsedNanos));
+            props.setProperty(name + ".meanMicros",
+                String.format(Locale.ROOT, "%.1f", histogram.getMean() / 1000));
+            for (double p : new double[] {50, 90, 99, 99.9}) {
+                String key = p == 99.9 ? "p999Micros" :
+                    "p" + (int) p + "Micros";
+                props.setProperty(name + "." + key, String.valueOf(
+                    histogram.getValueAtPercentile(p) / 1000));
+            }
+            props.setProperty(name + ".maxMicros",
+                String.valueOf(histogram.getMax() / 1000));
+            props.setProperty(name + ".allocBytesPerOp",
+                String.valueOf(allocPerOp()));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-22s %10.1f ops/s %10.1f docs/s " +
+                    "p50=%dus p90=%dus p99=%dus p99.9=%dus max=%dus " +
+                    "alloc=%dB/op errors=%d", name, throughput(),
+                docs * 1e9 / elapsedNanos,
+                histogram.getValueAtPercentile(50) / 1000,
+                histogram.getValueAtPercentile(90) / 1000,
+                p99Micros(), histogram.getValueAtPercentile(99.9) / 1000,
+                histogram.getMax() / 1000, allocPerOp(), errors);
+        }
+    }
+}
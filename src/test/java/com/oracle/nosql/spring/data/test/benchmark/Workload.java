@@ -0,0 +1,282 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/*
+ * Benchmark workload read from system properties, see RepositoryBenchmark
+ * for the list. Chooses the operations, in the configured mix, and the
+ * keys they use, following the configured key distribution.
+ */
+class Workload {
+
+    static final String PREFIX = "benchmark.";
+
+    enum Operation {
+        /* findById, or findAllById when the batch size is more than 1 */
+        FIND_BY_ID(false),
+        /* derived query returning the documents of a group */
+        FIND_BY_GROUP(false),
+        FIND_ALL(false),
+        /* save, or saveAll when the batch size is more than 1 */
+        SAVE(true);
+
+        private final boolean write;
+
+        Operation(boolean write) {
+            this.write = write;
+        }
+
+        boolean isWrite() {
+            return write;
+        }
+    }
+
+    enum Distribution {
+        UNIFORM,
+        /* few keys get most of the requests */
+        ZIPFIAN,
+        /* keys in order, wrapping around */
+        SEQUENTIAL
+    }
+
+    final int keys;
+    final int groups;
+    final int documentSize;
+    final Distribution distribution;
+    final Map<Operation, Integer> mix;
+    final List<String> modes;
+    final List<Integer> batchSizes;
+    final List<Integer> concurrencies;
+    final long warmupMs;
+    final long durationMs;
+    final long seed;
+
+    private final int totalWeight;
+    private final ZipfianGenerator zipfian;
+
+    Workload() {
+        keys = getInt("keys", 10000);
+        groups = getInt("groups", 100);
+        documentSize = getInt("documentSize", 1024);
+        distribution = Distribution.valueOf(
+            get("distribution", "uniform").toUpperCase(Locale.ROOT));
+        mix = parseMix(get("mix", "findById:80,save:15,findByGroup:5"));
+        modes = parseList(get("modes", "blocking,reactive"));
+        batchSizes = parseInts(get("batchSizes", "1,10"));
+        concurrencies = parseInts(get("concurrency", "1,8"));
+        warmupMs = getInt("warmupSeconds", 2) * 1000L;
+        durationMs = getInt("durationSeconds", 5) * 1000L;
+        seed = getInt("seed", 42);
+
+        if (keys <= 0 || groups <= 0 || documentSize < 0 ||
+            durationMs <= 0 || warmupMs < 0) {
+            throw new IllegalArgumentException("Invalid benchmark " +
+                "workload: keys, groups and durationSeconds must be " +
+                "greater than 0, documentSize and warmupSeconds must not " +
+                "be negative.");
+        }
+        for (String mode : modes) {
+            if (!mode.equals("blocking") && !mode.equals("reactive")) {
+                throw new IllegalArgumentException("Unknown benchmark " +
+                    "mode: " + mode + ", must be blocking or reactive.");
+            }
+        }
+        totalWeight = mix.values().stream().mapToInt(i -> i).sum();
+        zipfian = distribution == Distribution.ZIPFIAN ?
+            new ZipfianGenerator(keys) : null;
+    }
+
+    /* Picks the next operation following the mix. */
+    Operation nextOperation(Random random) {
+        int r = random.nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> e : mix.entrySet()) {
+            r -= e.getValue();
+            if (r < 0) {
+                return e.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty operation mix.");
+    }
+
+    /* Picks the next key, sequence is a per worker counter. */
+    long nextKey(Random random, long sequence) {
+        switch (distribution) {
+        case ZIPFIAN:
+            return zipfian.next(random);
+        case SEQUENTIAL:
+            return sequence % keys;
+        default:
+            return random.nextInt(keys);
+        }
+    }
+
+    String group(long key) {
+        return "g" + (key % groups);
+    }
+
+    String payload(Random random) {
+        char[] chars = new char[documentSize];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    BenchDocument document(long key, Random random) {
+        return new BenchDocument(key, group(key), payload(random));
+    }
+
+    @Override
+    public String toString() {
+        return "keys=" + keys + " groups=" + groups + " documentSize=" +
+            documentSize + " distribution=" + distribution + " mix=" + mix +
+            " warmupMs=" + warmupMs + " durationMs=" + durationMs;
+    }
+
+    static String get(String name, String defaultValue) {
+        String value = System.getProperty(PREFIX + name);
+        return value == null || value.trim().isEmpty() ? defaultValue :
+            value.trim();
+    }
+
+    static int getInt(String name, int defaultValue) {
+        try {
+            return Integer.parseInt(get(name, String.valueOf(defaultValue)));
+        } catch (NumberFormatException nfe) {
+            throw new IllegalArgumentException("Invalid value of " + PREFIX +
+                name + ": " + get(name, null), nfe);
+        }
+    }
+
+    static double getDouble(String name, double defaultValue) {
+        try {
+            return Double.parseDouble(get(name,
+                String.valueOf(defaultValue)));
+        } catch (NumberFormatException nfe) {
+            throw new IllegalArgumentException("Invalid value of " + PREFIX +
+                name + ": " + get(name, null), nfe);
+        }
+    }
+
+    private static List<String> parseList(String value) {
+        List<String> list = new ArrayList<>();
+        for (String item : value.split(",")) {
+            if (!item.trim().isEmpty()) {
+                list.add(item.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    private static List<Integer> parseInts(String value) {
+        List<Integer> list = new ArrayList<>();
+        for (String item : parseList(value)) {
+            int i = Integer.parseInt(item);
+            if (i <= 0) {
+                throw new IllegalArgumentException("Batch sizes and " +
+                    "concurrency levels must be greater than 0: " + value);
+            }
+            list.add(i);
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /* Parses operation:weight pairs, e.g. findById:80,save:20. */
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String item : value.split(",")) {
+            String[] pair = item.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid operation mix " +
+                    "entry: " + item + ", expected operation:weight.");
+            }
+            Operation op;
+            switch (pair[0].trim()) {
+            case "findById":
+                op = Operation.FIND_BY_ID;
+                break;
+            case "findByGroup":
+                op = Operation.FIND_BY_GROUP;
+                break;
+            case "findAll":
+                op = Operation.FIND_ALL;
+                break;
+            case "save":
+                op = Operation.SAVE;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation: " +
+                    pair[0] + ", must be findById, findByGroup, findAll " +
+                    "or save.");
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Operation weights " +
+                    "must not be negative: " + item);
+            }
+            if (weight > 0) {
+                mix.put(op, weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Operation mix must have " +
+                "at least one operation with a weight greater than 0.");
+        }
+        return mix;
+    }
+
+    /*
+     * Zipfian distribution over [0, items) with the usual 0.99 constant,
+     * using the rejection free method of Gray et al., "Quickly Generating
+     * Billion-Record Synthetic Databases". Key 0 is the most popular.
+     */
+    private static final class ZipfianGenerator {
+        private static final double THETA = 0.99;
+
+        private final long items;
+        private final double alpha;
+        private final double zetan;
+        private final double eta;
+
+        ZipfianGenerator(long items) {
+            this.items = items;
+            double zeta2 = zeta(2);
+            zetan = zeta(items);
+            alpha = 1 / (1 - THETA);
+            eta = (1 - Math.pow(2.0 / items, 1 - THETA)) / (1 - zeta2 / zetan);
+        }
+
+        private static double zeta(long n) {
+            double sum = 0;
+            for (long i = 1; i <= n; i++) {
+                sum += 1 / Math.pow(i, THETA);
+            }
+            return sum;
+        }
+
+        long next(Random random) {
+            double u = random.nextDouble();
+            double uz = u * zetan;
+            if (uz < 1) {
+                return 0;
+            }
+            if (uz < 1 + Math.pow(0.5, THETA)) {
+                return 1;
+            }
+            long key = (long) (items * Math.pow(eta * u - eta + 1, alpha));
+            return Math.min(key, items - 1);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test.benchmark.reactive;
+
+import com.oracle.nosql.spring.data.repository.ReactiveNosqlRepository;
+import com.oracle.nosql.spring.data.test.benchmark.BenchDocument;
+
+import reactor.core.publisher.Flux;
+
+public interface ReactiveBenchDocumentRepository
+    extends ReactiveNosqlRepository<BenchDocument, Long> {
+
+    Flux<BenchDocument> findByGroup(String group);
+}
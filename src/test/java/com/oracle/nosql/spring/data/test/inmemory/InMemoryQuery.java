@@ -0,0 +1,1762 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test.inmemory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import oracle.nosql.driver.values.ArrayValue;
+import oracle.nosql.driver.values.BooleanValue;
+import oracle.nosql.driver.values.DoubleValue;
+import oracle.nosql.driver.values.FieldValue;
+import oracle.nosql.driver.values.IntegerValue;
+import oracle.nosql.driver.values.JsonNullValue;
+import oracle.nosql.driver.values.LongValue;
+import oracle.nosql.driver.values.MapValue;
+import oracle.nosql.driver.values.NullValue;
+import oracle.nosql.driver.values.NumberValue;
+import oracle.nosql.driver.values.StringValue;
+import oracle.nosql.driver.values.TimestampValue;
+
+/**
+ * A parsed SELECT, UPDATE or DELETE statement run by
+ * {@link NosqlInMemoryHandle}. Covers the SQL generated by the templates and
+ * derived queries: paths, comparisons, AND/OR/NOT, IN, IS NULL, EXISTS,
+ * arithmetic, CASE, CAST, map constructors, the string functions and
+ * count(*), ORDER BY, LIMIT and OFFSET, and the SET, PUT, ADD, REMOVE and
+ * RETURNING clauses of updates. Statements outside this subset, like
+ * joins, GROUP BY or geo functions, fail to parse with an
+ * {@link IllegalArgumentException}.<p>
+ *
+ * Java null stands for the empty result of a path to a missing field.
+ */
+final class InMemoryQuery {
+
+    enum Kind { SELECT, UPDATE, DELETE }
+
+    /* name of unnamed projected expressions, as the server does */
+    private static final String COLUMN_PREFIX = "Column_";
+
+    private final String sql;
+    private Kind kind;
+    private String tableName;
+    private String alias;
+
+    private boolean distinct;
+    /* null for SELECT * */
+    private List<Projection> projections;
+    private Expr where;
+    private final List<Order> orderBy = new ArrayList<>();
+    private Expr limit;
+    private Expr offset;
+
+    private final List<UpdateClause> updates = new ArrayList<>();
+    private List<Projection> returning;
+    private boolean returningAll;
+
+    private InMemoryQuery(String sql) {
+        this.sql = sql;
+    }
+
+    static InMemoryQuery parse(String sql) {
+        InMemoryQuery query = new InMemoryQuery(sql);
+        new Parser(query, sql).parseStatement();
+        return query;
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    String getTableName() {
+        return tableName;
+    }
+
+    @Override
+    public String toString() {
+        return sql;
+    }
+
+    /**
+     * Runs the statement on table with the bound variables and returns all
+     * its results.
+     */
+    List<MapValue> execute(NosqlInMemoryHandle.Table table,
+        Map<String, FieldValue> variables) {
+        Map<String, FieldValue> vars = variables == null ?
+            Collections.emptyMap() : variables;
+        switch (kind) {
+        case SELECT:
+            return select(table, vars);
+        case UPDATE:
+            return update(table, vars);
+        default:
+            return delete(table, vars);
+        }
+    }
+
+    private List<MapValue> select(NosqlInMemoryHandle.Table table,
+        Map<String, FieldValue> vars) {
+        List<MapValue> rows = filter(table, vars);
+
+        if (projections != null && projections.size() == 1 &&
+            projections.get(0).expr instanceof Count) {
+            Count count = (Count) projections.get(0).expr;
+            long n = 0;
+            for (MapValue row : rows) {
+                if (count.arg == null ||
+                    count.arg.eval(new Ctx(row, vars)) != null) {
+                    n++;
+                }
+            }
+            MapValue res = new MapValue(true, 1);
+            res.put(projections.get(0).name, new LongValue(n));
+            return Collections.singletonList(res);
+        }
+
+        if (!orderBy.isEmpty()) {
+            rows.sort((r1, r2) -> {
+                for (Order order : orderBy) {
+                    int c = compareTotal(order.expr.eval(new Ctx(r1, vars)),
+                        order.expr.eval(new Ctx(r2, vars)));
+                    if (c != 0) {
+                        return order.ascending ? c : -c;
+                    }
+                }
+                return 0;
+            });
+        }
+
+        List<MapValue> results = new ArrayList<>(rows.size());
+        Set<String> seen = distinct ? new LinkedHashSet<>() : null;
+        for (MapValue row : rows) {
+            MapValue res = project(projections, row, vars);
+            if (seen == null || seen.add(res.toJson())) {
+                results.add(res);
+            }
+        }
+
+        int from = offset == null ? 0 : (int) Math.min(results.size(),
+            toLong(offset.eval(new Ctx(null, vars)), "OFFSET"));
+        int to = limit == null ? results.size() : (int) Math.min(
+            results.size(), from + toLong(limit.eval(new Ctx(null, vars)),
+                "LIMIT"));
+        return new ArrayList<>(results.subList(from, to));
+    }
+
+    private List<MapValue> update(NosqlInMemoryHandle.Table table,
+        Map<String, FieldValue> vars) {
+        List<MapValue> results = new ArrayList<>();
+        int[] updated = new int[1];
+        table.writeAll(candidates(table, vars), row -> matches(row, vars),
+            row -> {
+                MapValue copy = (MapValue) copy(row);
+                for (UpdateClause clause : updates) {
+                    clause.apply(copy, vars);
+                }
+                updated[0]++;
+                if (returningAll || returning != null) {
+                    results.add(project(returningAll ? null : returning, copy,
+                        vars));
+                }
+                return copy;
+            });
+        if (returningAll || returning != null) {
+            return results;
+        }
+        MapValue res = new MapValue(true, 1);
+        res.put("NumRowsUpdated", updated[0]);
+        return Collections.singletonList(res);
+    }
+
+    private List<MapValue> delete(NosqlInMemoryHandle.Table table,
+        Map<String, FieldValue> vars) {
+        List<MapValue> results = new ArrayList<>();
+        int[] deleted = new int[1];
+        table.writeAll(candidates(table, vars), row -> matches(row, vars),
+            row -> {
+                deleted[0]++;
+                if (returningAll || returning != null) {
+                    results.add(project(returningAll ? null : returning, row,
+                        vars));
+                }
+                return null;
+            });
+        if (returningAll || returning != null) {
+            return results;
+        }
+        MapValue res = new MapValue(true, 1);
+        res.put("numRowsDeleted", deleted[0]);
+        return Collections.singletonList(res);
+    }
+
+    /**
+     * Returns the rows matching the WHERE clause, looking up the rows by key
+     * when the clause fixes a prefix of the primary key or lists keys with
+     * IN, scanning the table otherwise.
+     */
+    private List<MapValue> filter(NosqlInMemoryHandle.Table table,
+        Map<String, FieldValue> vars) {
+        List<MapValue> rows = new ArrayList<>();
+        for (MapValue row : candidates(table, vars)) {
+            if (matches(row, vars)) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private boolean matches(MapValue row, Map<String, FieldValue> vars) {
+        return where == null ||
+            Boolean.TRUE.equals(toBoolean(where.eval(new Ctx(row, vars))));
+    }
+
+    private List<MapValue> candidates(NosqlInMemoryHandle.Table table,
+        Map<String, FieldValue> vars) {
+        if (where == null) {
+            return table.scan(null);
+        }
+        List<String> keyColumns = table.getPrimaryKey();
+        Map<String, FieldValue> fixed = new HashMap<>();
+        List<Expr> conjuncts = new ArrayList<>();
+        collectConjuncts(where, conjuncts);
+        Ctx noRow = new Ctx(null, vars);
+        for (Expr e : conjuncts) {
+            if (e instanceof Compare && ((Compare) e).op.equals("=")) {
+                Compare c = (Compare) e;
+                String column = keyColumn(c.left, keyColumns);
+                if (column != null && c.right.isConstant()) {
+                    fixed.put(column, c.right.eval(noRow));
+                }
+            } else if (e instanceof In && !((In) e).negated &&
+                ((In) e).items.stream().allMatch(Expr::isConstant)) {
+                In in = (In) e;
+                List<FieldValue> keys = new ArrayList<>();
+                in.items.forEach(item -> keys.addAll(item.evalSeq(noRow)));
+                List<MapValue> lookup = lookup(table, in.left, keys,
+                    keyColumns);
+                if (lookup != null) {
+                    return lookup;
+                }
+            }
+        }
+        List<FieldValue> prefix = new ArrayList<>();
+        for (String column : keyColumns) {
+            FieldValue value = fixed.get(column);
+            if (value == null) {
+                break;
+            }
+            prefix.add(value);
+        }
+        return table.scan(prefix.isEmpty() ? null : prefix);
+    }
+
+    /* Looks up the rows of the keys of an IN over the full primary key. */
+    private List<MapValue> lookup(NosqlInMemoryHandle.Table table, Expr left,
+        List<FieldValue> keys, List<String> keyColumns) {
+        List<Expr> columns = left instanceof Tuple ? ((Tuple) left).items :
+            Collections.singletonList(left);
+        if (columns.size() != keyColumns.size()) {
+            return null;
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            if (!keyColumns.get(i).equals(keyColumn(columns.get(i),
+                keyColumns))) {
+                return null;
+            }
+        }
+        List<MapValue> rows = new ArrayList<>(keys.size());
+        Set<String> seen = new HashSet<>();
+        for (FieldValue key : keys) {
+            if (!seen.add(key.toJson())) {
+                continue;
+            }
+            List<FieldValue> values = columns.size() == 1 ?
+                Collections.singletonList(key) : key instanceof ArrayValue ?
+                ((ArrayValue) key).getArrayInternal() : null;
+            if (values != null && values.size() == columns.size()) {
+                for (MapValue row : table.scan(values)) {
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    private String keyColumn(Expr e, List<String> keyColumns) {
+        if (!(e instanceof Path)) {
+            return null;
+        }
+        Path path = (Path) e;
+        String column;
+        if (path.isAliased() && path.steps.size() == 1) {
+            column = path.steps.get(0).name;
+        } else if (!path.isAliased() && path.steps.isEmpty()) {
+            column = path.root;
+        } else {
+            return null;
+        }
+        for (String key : keyColumns) {
+            if (key.equalsIgnoreCase(column)) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    private static void collectConjuncts(Expr e, List<Expr> conjuncts) {
+        if (e instanceof And) {
+            collectConjuncts(((And) e).left, conjuncts);
+            collectConjuncts(((And) e).right, conjuncts);
+        } else {
+            conjuncts.add(e);
+        }
+    }
+
+    private static MapValue project(List<Projection> projections,
+        MapValue row, Map<String, FieldValue> vars) {
+        if (projections == null) {
+            return (MapValue) copy(row);
+        }
+        MapValue res = new MapValue(true, projections.size());
+        Ctx ctx = new Ctx(row, vars);
+        for (Projection p : projections) {
+            FieldValue value = p.expr.eval(ctx);
+            res.put(p.name, value == null ? NullValue.getInstance() :
+                copy(value));
+        }
+        return res;
+    }
+
+    /*
+     * Values
+     */
+
+    static FieldValue copy(FieldValue value) {
+        if (value instanceof MapValue) {
+            MapValue map = (MapValue) value;
+            MapValue copy = new MapValue(true, map.size());
+            for (Map.Entry<String, FieldValue> e : map.entrySet()) {
+                copy.put(e.getKey(), copy(e.getValue()));
+            }
+            return copy;
+        }
+        if (value instanceof ArrayValue) {
+            ArrayValue array = (ArrayValue) value;
+            ArrayValue copy = new ArrayValue(array.size());
+            for (FieldValue v : array) {
+                copy.add(copy(v));
+            }
+            return copy;
+        }
+        return value;
+    }
+
+    /**
+     * Total order of values used to sort results and primary keys: values
+     * of the same kind by value, numbers before strings, timestamps,
+     * booleans, binaries, arrays and maps, then JSON null, SQL null and
+     * missing values.
+     */
+    static int compareTotal(FieldValue v1, FieldValue v2) {
+        int r1 = rank(v1);
+        int r2 = rank(v2);
+        if (r1 != r2) {
+            return Integer.compare(r1, r2);
+        }
+        switch (r1) {
+        case 0:
+            return toDecimal(v1).compareTo(toDecimal(v2));
+        case 1:
+            return v1.getString().compareTo(v2.getString());
+        case 2:
+            return v1.getTimestamp().compareTo(v2.getTimestamp());
+        case 3:
+            return Boolean.compare(v1.getBoolean(), v2.getBoolean());
+        case 4:
+            return Arrays.compare(v1.getBinary(), v2.getBinary());
+        case 5:
+        case 6:
+            return v1.toJson().compareTo(v2.toJson());
+        default:
+            return 0;
+        }
+    }
+
+    private static int rank(FieldValue v) {
+        if (v == null) {
+            return 9;
+        }
+        if (v.isNull()) {
+            return 8;
+        }
+        if (v.isJsonNull()) {
+            return 7;
+        }
+        switch (v.getType()) {
+        case INTEGER:
+        case LONG:
+        case DOUBLE:
+        case NUMBER:
+            return 0;
+        case STRING:
+            return 1;
+        case TIMESTAMP:
+            return 2;
+        case BOOLEAN:
+            return 3;
+        case BINARY:
+            return 4;
+        case ARRAY:
+            return 5;
+        default:
+            return 6;
+        }
+    }
+
+    /* Returns null if the values are not comparable. */
+    private static Integer compare(FieldValue v1, FieldValue v2) {
+        if (v1 == null || v2 == null || v1.isAnyNull() || v2.isAnyNull()) {
+            return null;
+        }
+        if (v1.isTimestamp() && v2.isString()) {
+            v2 = toTimestamp(v2);
+        } else if (v1.isString() && v2.isTimestamp()) {
+            v1 = toTimestamp(v1);
+        }
+        int r1 = rank(v1);
+        if (r1 != rank(v2) || r1 > 4) {
+            return null;
+        }
+        return compareTotal(v1, v2);
+    }
+
+    private static boolean valuesEqual(FieldValue v1, FieldValue v2) {
+        if (v1 instanceof ArrayValue && v2 instanceof ArrayValue) {
+            ArrayValue a1 = (ArrayValue) v1;
+            ArrayValue a2 = (ArrayValue) v2;
+            if (a1.size() != a2.size()) {
+                return false;
+            }
+            for (int i = 0; i < a1.size(); i++) {
+                if (!valuesEqual(a1.get(i), a2.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (v1 instanceof MapValue && v2 instanceof MapValue) {
+            MapValue m1 = (MapValue) v1;
+            MapValue m2 = (MapValue) v2;
+            if (m1.size() != m2.size()) {
+                return false;
+            }
+            for (Map.Entry<String, FieldValue> e : m1.entrySet()) {
+                if (!valuesEqual(e.getValue(), m2.get(e.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (v1 != null && v2 != null && v1.isJsonNull() && v2.isJsonNull()) {
+            return true;
+        }
+        Integer c = compare(v1, v2);
+        return c != null && c == 0;
+    }
+
+    private static BigDecimal toDecimal(FieldValue v) {
+        switch (v.getType()) {
+        case INTEGER:
+            return BigDecimal.valueOf(v.getInt());
+        case LONG:
+            return BigDecimal.valueOf(v.getLong());
+        case DOUBLE:
+            return BigDecimal.valueOf(v.getDouble());
+        default:
+            return v.getNumber();
+        }
+    }
+
+    private static FieldValue toTimestamp(FieldValue v) {
+        try {
+            return new TimestampValue(v.getString());
+        } catch (IllegalArgumentException iae) {
+            return v;
+        }
+    }
+
+    private static Boolean toBoolean(FieldValue v) {
+        return v == null || !v.isBoolean() ? null : v.getBoolean();
+    }
+
+    private static FieldValue fromBoolean(Boolean b) {
+        return b == null ? null : BooleanValue.getInstance(b);
+    }
+
+    private static long toLong(FieldValue v, String clause) {
+        if (v == null || !v.isNumeric()) {
+            throw new IllegalArgumentException(clause + " must be a " +
+                "number.");
+        }
+        return Math.max(0, toDecimal(v).longValue());
+    }
+
+    private static FieldValue arithmetic(char op, FieldValue v1,
+        FieldValue v2) {
+        if (v1 == null || v2 == null || !v1.isNumeric() || !v2.isNumeric()) {
+            return null;
+        }
+        boolean integral = (v1.isInteger() || v1.isLong()) &&
+            (v2.isInteger() || v2.isLong());
+        if (integral && op != '/') {
+            long l1 = v1.getLong();
+            long l2 = v2.getLong();
+            long r = op == '+' ? Math.addExact(l1, l2) :
+                op == '-' ? Math.subtractExact(l1, l2) :
+                Math.multiplyExact(l1, l2);
+            return v1.isInteger() && v2.isInteger() &&
+                r == (int) r ? new IntegerValue((int) r) : new LongValue(r);
+        }
+        if (v1.isNumber() || v2.isNumber()) {
+            BigDecimal d1 = toDecimal(v1);
+            BigDecimal d2 = toDecimal(v2);
+            return new NumberValue(op == '+' ? d1.add(d2) :
+                op == '-' ? d1.subtract(d2) : op == '*' ? d1.multiply(d2) :
+                d1.divide(d2, java.math.MathContext.DECIMAL128));
+        }
+        double d1 = v1.castAsDouble();
+        double d2 = v2.castAsDouble();
+        return new DoubleValue(op == '+' ? d1 + d2 : op == '-' ? d1 - d2 :
+            op == '*' ? d1 * d2 : d1 / d2);
+    }
+
+    static FieldValue cast(FieldValue v, String type) {
+        if (v == null || v.isAnyNull()) {
+            return v;
+        }
+        switch (type.toUpperCase()) {
+        case "TIMESTAMP":
+            return v.isTimestamp() ? v : v.isString() ?
+                new TimestampValue(v.getString()) :
+                new TimestampValue(v.getLong());
+        case "STRING":
+            return v.isString() ? v : new StringValue(v.isTimestamp() ?
+                v.getString() : v.toJson());
+        case "INTEGER":
+            return new IntegerValue(v.isString() ?
+                Integer.parseInt(v.getString()) : toDecimal(v).intValue());
+        case "LONG":
+            return new LongValue(v.isString() ?
+                Long.parseLong(v.getString()) : toDecimal(v).longValue());
+        case "DOUBLE":
+        case "FLOAT":
+            return new DoubleValue(v.isString() ?
+                Double.parseDouble(v.getString()) : v.castAsDouble());
+        case "NUMBER":
+            return new NumberValue(v.isString() ?
+                new BigDecimal(v.getString()) : toDecimal(v));
+        case "BOOLEAN":
+            return BooleanValue.getInstance(v.isBoolean() ? v.getBoolean() :
+                Boolean.parseBoolean(v.getString()));
+        default:
+            return v;
+        }
+    }
+
+    /*
+     * Expressions
+     */
+
+    /* evaluation context: the row, bound variables and the $ item */
+    private static final class Ctx {
+        private final MapValue row;
+        private final Map<String, FieldValue> vars;
+        private final FieldValue item;
+
+        Ctx(MapValue row, Map<String, FieldValue> vars) {
+            this(row, vars, null);
+        }
+
+        Ctx(MapValue row, Map<String, FieldValue> vars, FieldValue item) {
+            this.row = row;
+            this.vars = vars;
+            this.item = item;
+        }
+    }
+
+    private interface Expr {
+        FieldValue eval(Ctx ctx);
+
+        /* values of the expression, more than one for unnested arrays */
+        default List<FieldValue> evalSeq(Ctx ctx) {
+            FieldValue v = eval(ctx);
+            return v == null ? Collections.emptyList() :
+                Collections.singletonList(v);
+        }
+
+        /* true if the value doesn't depend on the row */
+        default boolean isConstant() {
+            return false;
+        }
+    }
+
+    private static final class Literal implements Expr {
+        private final FieldValue value;
+
+        Literal(FieldValue value) {
+            this.value = value;
+        }
+
+        @Override
+        public FieldValue eval(Ctx ctx) {
+            return value;
+        }
+
+        @Override
+        public boolean isConstant() {
+            return true;
+        }
+    }
+
+    private static final class Var implements Expr {
+        private final String name;
+
+        Var(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public FieldValue eval(Ctx ctx) {
+            if (name.equals("$")) {
+                return ctx.item;
+            }
+            FieldValue v = ctx.vars.get(name);
+            if (v == null) {
+                v = ctx.vars.get(name.substring(1));
+            }
+            if (v == null && !ctx.vars.containsKey(name) &&
+                !ctx.vars.containsKey(name.substring(1))) {
+                throw new IllegalArgumentException("Variable " + name +
+                    " is not bound.");
+            }
+            return v;
+        }
+
+        @Override
+        public boolean isConstant() {
+            return !name.equals("$");
+        }
+    }
+
+    private static final class Step {
+        /* field name, null for an array step */
+        private final String name;
+        /* array index, null to unnest all elements */
+        private final Expr index;
+
+        Step(String name, Expr index) {
+            this.name = name;
+            this.index = index;
+        }
+    }
+
+    /* A path from the table alias, a column, a variable or an expression. */
+    private static final class Path implements Expr {
+        private final InMemoryQuery query;
+        /* first identifier, null when the path starts with base */
+        private final String root;
+        private final Expr base;
+        private final List<Step> steps;
+
+        Path(InMemoryQuery query, String root, Expr base, List<Step> steps) {
+            this.query = query;
+            this.root = root;
+            this.base = base;
+            this.steps = steps;
+        }
+
+        boolean isAliased() {
+            return root != null && (root.equalsIgnoreCase(query.alias) ||
+                root.equalsIgnoreCase(query.tableName));
+        }
+
+        @Override
+        public FieldValue eval(Ctx ctx) {
+            List<FieldValue> values = evalSeq(ctx);
+            return values.size() == 1 ? values.get(0) : null;
+        }
+
+        @Override
+        public List<FieldValue> evalSeq(Ctx ctx) {
+            List<FieldValue> values = new ArrayList<>(1);
+            FieldValue start = startValue(ctx);
+            if (start != null) {
+                values.add(start);
+            }
+            for (Step step : steps) {
+                List<FieldValue> next = new ArrayList<>(values.size());
+                for (FieldValue v : values) {
+                    applyStep(step, v, ctx, next);
+                }
+                values = next;
+            }
+            return values;
+        }
+
+        private FieldValue startValue(Ctx ctx) {
+            if (base != null) {
+                return base.eval(ctx);
+            }
+            if (isAliased()) {
+                return ctx.row;
+            }
+            return ctx.row == null ? null : field(ctx.row, root, true);
+        }
+
+        /* The value holding the last step, for updates. */
+        FieldValue parent(Ctx ctx) {
+            FieldValue v = startValue(ctx);
+            for (int i = 0; i < steps.size() - 1 && v != null; i++) {
+                List<FieldValue> next = new ArrayList<>(1);
+                applyStep(steps.get(i), v, ctx, next);
+                v = next.size() == 1 ? next.get(0) : null;
+            }
+            return v;
+        }
+
+        private static void applyStep(Step step, FieldValue v, Ctx ctx,
+            List<FieldValue> out) {
+            if (step.name != null) {
+                if (v instanceof MapValue) {
+                    FieldValue f = field((MapValue) v, step.name,
+                        v == ctx.row);
+                    if (f != null) {
+                        out.add(f);
+                    }
+                } else if (v instanceof ArrayValue) {
+                    for (FieldValue e : (ArrayValue) v) {
+                        applyStep(step, e, ctx, out);
+                    }
+                }
+                return;
+            }
+            if (!(v instanceof ArrayValue)) {
+                if (step.index == null) {
+                    out.add(v);
+                }
+                return;
+            }
+            ArrayValue array = (ArrayValue) v;
+            if (step.index == null) {
+                array.forEach(out::add);
+                return;
+            }
+            FieldValue index = step.index.eval(ctx);
+            if (index != null && index.isNumeric()) {
+                int i = toDecimal(index).intValue();
+                if (i >= 0 && i < array.size()) {
+                    out.add(array.get(i));
+                }
+            }
+        }
+
+        /* columns are case insensitive, JSON fields are not */
+        private static FieldValue field(MapValue map, String name,
+            boolean column) {
+            FieldValue f = map.get(name);
+            if (f == null && column) {
+                for (Map.Entry<String, FieldValue> e : map.entrySet()) {
+                    if (e.getKey().equalsIgnoreCase(name)) {
+                        return e.getValue();
+                    }
+                }
+            }
+            return f;
+        }
+
+        String lastName() {
+            if (!steps.isEmpty()) {
+                return steps.get(steps.size() - 1).name;
+            }
+            return base == null && !isAliased() ? root : null;
+        }
+
+        @Override
+        public boolean isConstant() {
+            return base != null && base.isConstant() &&
+                steps.stream().allMatch(s -> s.index == null ||
+                    s.index.isConstant());
+        }
+    }
+
+    private static final class Tuple implements Expr {
+        private final List<Expr> items;
+
+        Tuple(List<Expr> items) {
+            this.items = items;
+        }
+
+        @Override
+        public FieldValue eval(Ctx ctx) {
+            ArrayValue array = new ArrayValue(items.size());
+            for (Expr item : items) {
+                FieldValue v = item.eval(ctx);
+                array.add(v == null ? NullValue.getInstance() : v);
+            }
+            return array;
+        }
+    }
+
+    private static final class And implements Expr {
+        private final Expr left;
+        private final Expr right;
+
+        And(Expr left, Expr right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public FieldValue eval(Ctx ctx) {
+            Boolean l = toBoolean(left.eval(ctx));
+            if (Boolean.FALSE.equals(l)) {
+                return BooleanValue.falseInstance();
+            }
+            Boolean r = toBoolean(right.eval(ctx));
+            if (Boolean.FALSE.equals(r)) {
+                return BooleanValue.falseInstance();
+            }
+            return l == null || r == null ? null :
+                BooleanValue.trueInstance();
+        }
+    }
+
+    private static final class Compare implements Expr {
+        private final String op;
+        private final Expr left;
+        private final Expr right;
+
+        Compare(String op, Expr left, Expr right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public FieldValue eval(Ctx ctx) {
+            FieldValue l = left.eval(ctx);
+            FieldValue r = right.eval(ctx);
+            if (l == null || r == null || l.isNull() || r.isNull()) {
+                return BooleanValue.falseInstance();
+            }
+            if (op.equals("=") || op.equals("!=")) {
+                boolean eq = valuesEqual(l, r);
+                return BooleanValue.getInstance(op.equals("=") == eq);
+            }
+            Integer c = compare(l, r);
+            if (c == null) {
+                return BooleanValue.falseInstance();
+            }
+            switch (op) {
+            case "<":
+                return BooleanValue.getInstance(c < 0);
+            case "<=":
+                return BooleanValue.getInstance(c <= 0);
+            case ">":
+                return BooleanValue.getInstance(c > 0);
+            default:
+                return BooleanValue.getInstance(c >= 0);
+            }
+        }
+    }
+
+    private static final class In implements Expr {
+        private final Expr left;
+        private final List<Expr> items;
+        private final boolean negated;
+
+        In(Expr left, List<Expr> items, boolean negated) {
+            this.left = left;
+            this.items = items;
+            this.negated = negated;
+        }
+
+        @Override
+        public FieldValue eval(Ctx ctx) {
+            FieldValue l = left.eval(ctx);
+            if (l == null) {
+                return BooleanValue.falseInstance();
+            }
+            for (Expr item : items) {
+                for (FieldValue v : item.evalSeq(ctx)) {
+                    if (valuesEqual(l, v)) {
+                        return BooleanValue.getInstance(!negated);
+                    }
+                }
+            }
+            return BooleanValue.getInstance(negated);
+        }
+    }
+
+    private static final class Count implements Expr {
+        /* null for count(*) */
+        private final Expr arg;
+
+        Count(Expr arg) {
+            this.arg = arg;
+        }
+
+        @Override
+        public FieldValue eval(Ctx ctx) {
+            throw new IllegalArgumentException("count() is only " +
+                "supported as the only projected expression.");
+        }
+    }
+
+    private static final class Projection {
+        private final Expr expr;
+        private final String name;
+
+        Projection(Expr expr, String name) {
+            this.expr = expr;
+            this.name = name;
+        }
+    }
+
+    private static final class Order {
+        private final Expr expr;
+        private final boolean ascending;
+
+        Order(Expr expr, boolean ascending) {
+            this.expr = expr;
+            this.ascending = ascending;
+        }
+    }
+
+    private static final class UpdateClause {
+        private final String type;
+        private final Path target;
+        private final Expr value;
+
+        UpdateClause(String type, Path target, Expr value) {
+            this.type = type;
+            this.target = target;
+            this.value = value;
+        }
+
+        void apply(MapValue row, Map<String, FieldValue> vars) {
+            Ctx ctx = new Ctx(row, vars);
+            FieldValue v = value == null ? null : value.eval(ctx);
+            if (type.equals("PUT") || type.equals("ADD")) {
+                FieldValue t = target.eval(ctx);
+                if (type.equals("PUT") && t instanceof MapValue &&
+                    v instanceof MapValue) {
+                    for (Map.Entry<String, FieldValue> e :
+                        ((MapValue) v).entrySet()) {
+                        ((MapValue) t).put(e.getKey(), copy(e.getValue()));
+                    }
+                } else if (type.equals("ADD") && t instanceof ArrayValue &&
+                    v != null) {
+                    ((ArrayValue) t).add(copy(v));
+                }
+                return;
+            }
+            FieldValue parent = target.parent(ctx);
+            String name = target.lastName();
+            if (name == null) {
+                throw new IllegalArgumentException(type + " target must be " +
+                    "a field.");
+            }
+            if (!(parent instanceof MapValue)) {
+                return;
+            }
+            MapValue map = (MapValue) parent;
+            if (type.equals("REMOVE")) {
+                map.remove(name);
+            } else if (v != null) {
+                // keep the case of existing columns
+                String key = name;
+                if (map == row) {
+                    for (String k : row.getMap().keySet()) {
+                        if (k.equalsIgnoreCase(name)) {
+                            key = k;
+                        }
+                    }
+                }
+                map.put(key, copy(v));
+            }
+        }
+    }
+
+    /*
+     * Parsing
+     */
+
+    private static final class Parser {
+        private final InMemoryQuery query;
+        private final String sql;
+        private final List<String> tokens = new ArrayList<>();
+        private int pos;
+
+        Parser(InMemoryQuery query, String sql) {
+            this.query = query;
+            this.sql = sql;
+            tokenize();
+        }
+
+        void parseStatement() {
+            if (acceptKeyword("DECLARE")) {
+                skipDeclarations();
+            }
+            if (acceptKeyword("SELECT")) {
+                parseSelect();
+            } else if (acceptKeyword("UPDATE")) {
+                parseUpdate();
+            } else if (acceptKeyword("DELETE")) {
+                parseDelete();
+            } else {
+                throw error("Only SELECT, UPDATE and DELETE statements are " +
+                    "supported");
+            }
+            accept(";");
+            if (pos < tokens.size()) {
+                throw error("Unexpected " + peek());
+            }
+        }
+
+        private void skipDeclarations() {
+            int depth = 0;
+            while (pos < tokens.size()) {
+                String t = next();
+                if (t.equals("(")) {
+                    depth++;
+                } else if (t.equals(")")) {
+                    depth--;
+                } else if (t.equals(";") && depth == 0 &&
+                    (peekKeyword("SELECT") || peekKeyword("UPDATE") ||
+                        peekKeyword("DELETE"))) {
+                    return;
+                }
+            }
+        }
+
+        private void parseSelect() {
+            query.kind = Kind.SELECT;
+            query.distinct = acceptKeyword("DISTINCT");
+            if (!accept("*")) {
+                query.projections = parseProjections();
+            } else if (query.distinct) {
+                throw new IllegalArgumentException("Distinct not supported " +
+                    "on full * projection.");
+            }
+            expectKeyword("FROM");
+            parseTable();
+            if (acceptKeyword("WHERE")) {
+                query.where = parseExpr();
+            }
+            if (peekKeyword("GROUP")) {
+                throw error("GROUP BY is not supported");
+            }
+            if (acceptKeyword("ORDER")) {
+                expectKeyword("BY");
+                do {
+                    Expr e = parseExpr();
+                    boolean asc = !acceptKeyword("DESC");
+                    if (asc) {
+                        acceptKeyword("ASC");
+                    }
+                    if (acceptKeyword("NULLS")) {
+                        next();
+                    }
+                    query.orderBy.add(new Order(e, asc));
+                } while (accept(","));
+            }
+            if (acceptKeyword("LIMIT")) {
+                query.limit = parseAdditive();
+            }
+            if (acceptKeyword("OFFSET")) {
+                query.offset = parseAdditive();
+            }
+        }
+
+        private void parseUpdate() {
+            query.kind = Kind.UPDATE;
+            parseTable();
+            String type = null;
+            do {
+                for (String t : new String[] {"SET", "PUT", "ADD",
+                    "REMOVE"}) {
+                    if (acceptKeyword(t)) {
+                        type = t;
+                    }
+                }
+                if (type == null) {
+                    throw error("Expected SET, PUT, ADD or REMOVE");
+                }
+                Expr target = parseUnary();
+                if (!(target instanceof Path)) {
+                    throw error(type + " target must be a path");
+                }
+                Expr value = null;
+                if (type.equals("SET")) {
+                    expect("=");
+                    value = parseExpr();
+                } else if (!type.equals("REMOVE")) {
+                    value = parseExpr();
+                }
+                query.updates.add(new UpdateClause(type, (Path) target,
+                    value));
+            } while (accept(","));
+            expectKeyword("WHERE");
+            query.where = parseExpr();
+            parseReturning();
+        }
+
+        private void parseDelete() {
+            query.kind = Kind.DELETE;
+            expectKeyword("FROM");
+            parseTable();
+            if (acceptKeyword("WHERE")) {
+                query.where = parseExpr();
+            }
+            parseReturning();
+        }
+
+        private void parseReturning() {
+            if (acceptKeyword("RETURNING")) {
+                if (accept("*")) {
+                    query.returningAll = true;
+                } else {
+                    query.returning = parseProjections();
+                }
+            }
+        }
+
+        private void parseTable() {
+            StringBuilder name = new StringBuilder(identifier());
+            while (accept(".")) {
+                name.append('.').append(identifier());
+            }
+            query.tableName = name.toString();
+            acceptKeyword("AS");
+            if (pos < tokens.size() && isIdentifier(peek()) &&
+                !isClauseKeyword(peek())) {
+                query.alias = next();
+            }
+        }
+
+        private List<Projection> parseProjections() {
+            List<Projection> projections = new ArrayList<>();
+            do {
+                Expr e = parseExpr();
+                String name = null;
+                if (acceptKeyword("AS")) {
+                    name = identifier();
+                } else if (e instanceof Path) {
+                    name = ((Path) e).lastName();
+                }
+                if (name == null) {
+                    name = COLUMN_PREFIX + (projections.size() + 1);
+                }
+                projections.add(new Projection(e, name));
+            } while (accept(","));
+            return projections;
+        }
+
+        private Expr parseExpr() {
+            Expr left = parseAnd();
+            while (acceptKeyword("OR")) {
+                Expr l = left;
+                Expr r = parseAnd();
+                left = ctx -> {
+                    Boolean b1 = toBoolean(l.eval(ctx));
+                    if (Boolean.TRUE.equals(b1)) {
+                        return BooleanValue.trueInstance();
+                    }
+                    Boolean b2 = toBoolean(r.eval(ctx));
+                    if (Boolean.TRUE.equals(b2)) {
+                        return BooleanValue.trueInstance();
+                    }
+                    return b1 == null || b2 == null ? null :
+                        BooleanValue.falseInstance();
+                };
+            }
+            return left;
+        }
+
+        private Expr parseAnd() {
+            Expr left = parseNot();
+            while (acceptKeyword("AND")) {
+                left = new And(left, parseNot());
+            }
+            return left;
+        }
+
+        private Expr parseNot() {
+            if (acceptKeyword("NOT")) {
+                Expr e = parseNot();
+                return ctx -> {
+                    Boolean b = toBoolean(e.eval(ctx));
+                    return fromBoolean(b == null ? null : !b);
+                };
+            }
+            return parseComparison();
+        }
+
+        private Expr parseComparison() {
+            if (acceptKeyword("EXISTS")) {
+                Expr e = parseAdditive();
+                return ctx -> BooleanValue.getInstance(
+                    !e.evalSeq(ctx).isEmpty());
+            }
+            Expr left = parseAdditive();
+            String t = pos < tokens.size() ? peek() : "";
+            switch (t) {
+            case "=":
+            case "!=":
+            case "<>":
+            case "<":
+            case "<=":
+            case ">":
+            case ">=":
+                next();
+                return new Compare(t.equals("<>") ? "!=" : t, left,
+                    parseAdditive());
+            default:
+                break;
+            }
+            if (acceptKeyword("IS")) {
+                boolean not = acceptKeyword("NOT");
+                expectKeyword("NULL");
+                return ctx -> {
+                    FieldValue v = left.eval(ctx);
+                    // JSON null is not SQL NULL
+                    return v == null ? BooleanValue.falseInstance() :
+                        BooleanValue.getInstance(v.isNull() != not);
+                };
+            }
+            boolean not = acceptKeyword("NOT");
+            if (acceptKeyword("IN")) {
+                List<Expr> items = new ArrayList<>();
+                if (accept("(")) {
+                    do {
+                        items.add(parseAdditive());
+                    } while (accept(","));
+                    expect(")");
+                } else {
+                    items.add(parseAdditive());
+                }
+                return new In(left, items, not);
+            }
+            if (acceptKeyword("BETWEEN")) {
+                Expr low = parseAdditive();
+                expectKeyword("AND");
+                Expr high = parseAdditive();
+                Expr between = new And(new Compare(">=", left, low),
+                    new Compare("<=", left, high));
+                return not ? ctx -> fromBoolean(Boolean.FALSE.equals(
+                    toBoolean(between.eval(ctx)))) : between;
+            }
+            if (not) {
+                throw error("Expected IN or BETWEEN after NOT");
+            }
+            return left;
+        }
+
+        private Expr parseAdditive() {
+            Expr left = parseMultiplicative();
+            while (peekSymbol("+") || peekSymbol("-") || peekSymbol("||")) {
+                String op = next();
+                Expr l = left;
+                Expr r = parseMultiplicative();
+                if (op.equals("||")) {
+                    left = ctx -> {
+                        FieldValue v1 = l.eval(ctx);
+                        FieldValue v2 = r.eval(ctx);
+                        return v1 == null || v2 == null ? null :
+                            new StringValue(v1.getString() + v2.getString());
+                    };
+                } else {
+                    left = ctx -> arithmetic(op.charAt(0), l.eval(ctx),
+                        r.eval(ctx));
+                }
+            }
+            return left;
+        }
+
+        private Expr parseMultiplicative() {
+            Expr left = parseUnary();
+            while (peekSymbol("*") || peekSymbol("/")) {
+                char op = next().charAt(0);
+                Expr l = left;
+                Expr r = parseUnary();
+                left = ctx -> arithmetic(op, l.eval(ctx), r.eval(ctx));
+            }
+            return left;
+        }
+
+        private Expr parseUnary() {
+            if (accept("-")) {
+                Expr e = parseUnary();
+                return ctx -> arithmetic('*', new IntegerValue(-1),
+                    e.eval(ctx));
+            }
+            accept("+");
+            return parsePrimary();
+        }
+
+        private Expr parsePrimary() {
+            String t = next();
+            char c = t.charAt(0);
+            if (Character.isDigit(c) || c == '.' && t.length() > 1) {
+                return new Literal(number(t));
+            }
+            if (c == '\'' || c == '"') {
+                return new Literal(new StringValue(t.substring(1)));
+            }
+            if (c == '$') {
+                return steps(null, new Var(t));
+            }
+            if (t.equals("(")) {
+                Expr e = parseExpr();
+                if (accept(",")) {
+                    List<Expr> items = new ArrayList<>();
+                    items.add(e);
+                    do {
+                        items.add(parseExpr());
+                    } while (accept(","));
+                    e = new Tuple(items);
+                }
+                expect(")");
+                return e instanceof Tuple ? e : steps(null, e);
+            }
+            if (t.equals("{")) {
+                return steps(null, parseMap());
+            }
+            if (t.equals("[")) {
+                List<Expr> items = new ArrayList<>();
+                if (!accept("]")) {
+                    do {
+                        items.add(parseExpr());
+                    } while (accept(","));
+                    expect("]");
+                }
+                return ctx -> {
+                    ArrayValue array = new ArrayValue(items.size());
+                    items.forEach(i -> i.evalSeq(ctx).forEach(array::add));
+                    return array;
+                };
+            }
+            if (!isIdentifier(t)) {
+                throw error("Unexpected " + t);
+            }
+            switch (t.toUpperCase()) {
+            case "TRUE":
+                return new Literal(BooleanValue.trueInstance());
+            case "FALSE":
+                return new Literal(BooleanValue.falseInstance());
+            case "NULL":
+                return new Literal(JsonNullValue.getInstance());
+            case "CASE":
+                return parseCase();
+            default:
+                break;
+            }
+            if (accept("(")) {
+                return steps(null, parseFunction(t));
+            }
+            return steps(t, null);
+        }
+
+        private Expr parseMap() {
+            List<String> names = new ArrayList<>();
+            List<Expr> values = new ArrayList<>();
+            if (!accept("}")) {
+                do {
+                    String name = next();
+                    if (name.charAt(0) == '\'' || name.charAt(0) == '"') {
+                        name = name.substring(1);
+                    } else if (!isIdentifier(name)) {
+                        throw error("Unexpected " + name);
+                    }
+                    expect(":");
+                    names.add(name);
+                    values.add(parseExpr());
+                } while (accept(","));
+                expect("}");
+            }
+            return ctx -> {
+                MapValue map = new MapValue(true, names.size());
+                for (int i = 0; i < names.size(); i++) {
+                    FieldValue v = values.get(i).eval(ctx);
+                    if (v != null) {
+                        map.put(names.get(i), v);
+                    }
+                }
+                return map;
+            };
+        }
+
+        private Expr parseCase() {
+            List<Expr> conditions = new ArrayList<>();
+            List<Expr> results = new ArrayList<>();
+            while (acceptKeyword("WHEN")) {
+                conditions.add(parseExpr());
+                expectKeyword("THEN");
+                results.add(parseExpr());
+            }
+            Expr otherwise = acceptKeyword("ELSE") ? parseExpr() : null;
+            expectKeyword("END");
+            return ctx -> {
+                for (int i = 0; i < conditions.size(); i++) {
+                    if (Boolean.TRUE.equals(toBoolean(
+                        conditions.get(i).eval(ctx)))) {
+                        return results.get(i).eval(ctx);
+                    }
+                }
+                return otherwise == null ? null : otherwise.eval(ctx);
+            };
+        }
+
+        private Expr parseFunction(String name) {
+            String fn = name.toLowerCase();
+            if (fn.equals("count")) {
+                Expr arg = accept("*") ? null : parseExpr();
+                expect(")");
+                return new Count(arg);
+            }
+            if (fn.equals("cast")) {
+                Expr e = parseExpr();
+                expectKeyword("AS");
+                String type = identifier();
+                if (accept("(")) {
+                    next();
+                    expect(")");
+                }
+                expect(")");
+                return ctx -> cast(e.eval(ctx), type);
+            }
+            List<Expr> args = new ArrayList<>();
+            if (!accept(")")) {
+                do {
+                    args.add(parseExpr());
+                } while (accept(","));
+                expect(")");
+            }
+            switch (fn) {
+            case "lower":
+            case "upper":
+                checkArgs(fn, args, 1);
+                return ctx -> {
+                    FieldValue v = args.get(0).eval(ctx);
+                    return v == null || !v.isString() ? v : new StringValue(
+                        fn.equals("lower") ? v.getString().toLowerCase() :
+                        v.getString().toUpperCase());
+                };
+            case "contains":
+            case "starts_with":
+            case "ends_with":
+                checkArgs(fn, args, 2);
+                return ctx -> {
+                    FieldValue s = args.get(0).eval(ctx);
+                    FieldValue p = args.get(1).eval(ctx);
+                    if (s == null || p == null || !s.isString() ||
+                        !p.isString()) {
+                        return BooleanValue.falseInstance();
+                    }
+                    return BooleanValue.getInstance(fn.equals("contains") ?
+                        s.getString().contains(p.getString()) :
+                        fn.equals("starts_with") ?
+                        s.getString().startsWith(p.getString()) :
+                        s.getString().endsWith(p.getString()));
+                };
+            case "regex_like":
+                if (args.size() < 2 || args.size() > 3) {
+                    throw error("regex_like takes 2 or 3 arguments");
+                }
+                return ctx -> {
+                    FieldValue s = args.get(0).eval(ctx);
+                    FieldValue p = args.get(1).eval(ctx);
+                    if (s == null || p == null || !s.isString() ||
+                        !p.isString()) {
+                        return BooleanValue.falseInstance();
+                    }
+                    FieldValue f = args.size() > 2 ? args.get(2).eval(ctx) :
+                        null;
+                    int flags = f != null && f.isString() &&
+                        f.getString().contains("i") ?
+                        Pattern.CASE_INSENSITIVE : 0;
+                    return BooleanValue.getInstance(Pattern.compile(
+                        p.getString(), flags).matcher(s.getString())
+                        .matches());
+                };
+            case "size":
+            case "length":
+                checkArgs(fn, args, 1);
+                return ctx -> {
+                    FieldValue v = args.get(0).eval(ctx);
+                    if (v instanceof ArrayValue) {
+                        return new IntegerValue(((ArrayValue) v).size());
+                    }
+                    if (v instanceof MapValue) {
+                        return new IntegerValue(((MapValue) v).size());
+                    }
+                    return v != null && v.isString() ?
+                        new IntegerValue(v.getString().length()) : null;
+                };
+            case "seq_transform":
+                checkArgs(fn, args, 2);
+                return new Expr() {
+                    @Override
+                    public FieldValue eval(Ctx ctx) {
+                        List<FieldValue> values = evalSeq(ctx);
+                        return values.size() == 1 ? values.get(0) : null;
+                    }
+
+                    @Override
+                    public List<FieldValue> evalSeq(Ctx ctx) {
+                        List<FieldValue> values = new ArrayList<>();
+                        for (FieldValue item : args.get(0).evalSeq(ctx)) {
+                            FieldValue v = args.get(1).eval(
+                                new Ctx(ctx.row, ctx.vars, item));
+                            if (v != null) {
+                                values.add(v);
+                            }
+                        }
+                        return values;
+                    }
+
+                    @Override
+                    public boolean isConstant() {
+                        return args.get(0).isConstant();
+                    }
+                };
+            default:
+                throw error("Function " + name + " is not supported");
+            }
+        }
+
+        private void checkArgs(String fn, List<Expr> args, int n) {
+            if (args.size() != n) {
+                throw error(fn + " takes " + n + " argument" +
+                    (n > 1 ? "s" : ""));
+            }
+        }
+
+        private Expr steps(String root, Expr base) {
+            List<Step> steps = new ArrayList<>();
+            while (true) {
+                if (accept(".")) {
+                    String name = next();
+                    if (name.charAt(0) == '\'' || name.charAt(0) == '"') {
+                        name = name.substring(1);
+                    } else if (!isIdentifier(name)) {
+                        throw error("Unexpected " + name);
+                    }
+                    steps.add(new Step(name, null));
+                } else if (accept("[")) {
+                    steps.add(new Step(null, accept("]") ? null :
+                        parseExprThen("]")));
+                } else {
+                    break;
+                }
+            }
+            if (root == null && steps.isEmpty()) {
+                return base;
+            }
+            return new Path(query, root, base, steps);
+        }
+
+        private Expr parseExprThen(String end) {
+            Expr e = parseExpr();
+            expect(end);
+            return e;
+        }
+
+        private static FieldValue number(String t) {
+            if (t.indexOf('.') < 0 && t.indexOf('e') < 0 &&
+                t.indexOf('E') < 0) {
+                long l = Long.parseLong(t);
+                return l == (int) l ? new IntegerValue((int) l) :
+                    new LongValue(l);
+            }
+            return new DoubleValue(Double.parseDouble(t));
+        }
+
+        /*
+         * Tokens
+         */
+
+        private void tokenize() {
+            int i = 0;
+            int n = sql.length();
+            while (i < n) {
+                char c = sql.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (c == '/' && i + 1 < n &&
+                    sql.charAt(i + 1) == '*') {
+                    int end = sql.indexOf("*/", i + 2);
+                    i = end < 0 ? n : end + 2;
+                } else if (c == '\'' || c == '"') {
+                    // strings keep their quote as first char
+                    StringBuilder s = new StringBuilder().append(c);
+                    i++;
+                    while (i < n) {
+                        char d = sql.charAt(i++);
+                        if (d == '\\' && i < n) {
+                            s.append(sql.charAt(i++));
+                        } else if (d == c) {
+                            if (i < n && sql.charAt(i) == c) {
+                                s.append(c);
+                                i++;
+                            } else {
+                                break;
+                            }
+                        } else {
+                            s.append(d);
+                        }
+                    }
+                    tokens.add(s.toString());
+                } else if (Character.isLetter(c) || c == '_' || c == '$') {
+                    int start = i++;
+                    while (i < n && (Character.isLetterOrDigit(sql.charAt(i))
+                        || sql.charAt(i) == '_')) {
+                        i++;
+                    }
+                    tokens.add(sql.substring(start, i));
+                } else if (Character.isDigit(c)) {
+                    int start = i++;
+                    while (i < n && (Character.isDigit(sql.charAt(i)) ||
+                        sql.charAt(i) == '.' && i + 1 < n &&
+                            Character.isDigit(sql.charAt(i + 1)) ||
+                        (sql.charAt(i) == 'e' || sql.charAt(i) == 'E'))) {
+                        i++;
+                    }
+                    tokens.add(sql.substring(start, i));
+                } else {
+                    String two = i + 1 < n ? sql.substring(i, i + 2) : "";
+                    if (two.equals("!=") || two.equals("<>") ||
+                        two.equals("<=") || two.equals(">=") ||
+                        two.equals("||")) {
+                        tokens.add(two);
+                        i += 2;
+                    } else {
+                        tokens.add(String.valueOf(c));
+                        i++;
+                    }
+                }
+            }
+        }
+
+        private static boolean isIdentifier(String t) {
+            char c = t.charAt(0);
+            return Character.isLetter(c) || c == '_';
+        }
+
+        private static boolean isClauseKeyword(String t) {
+            switch (t.toUpperCase()) {
+            case "WHERE":
+            case "ORDER":
+            case "GROUP":
+            case "LIMIT":
+            case "OFFSET":
+            case "SET":
+            case "PUT":
+            case "ADD":
+            case "REMOVE":
+            case "RETURNING":
+                return true;
+            default:
+                return false;
+            }
+        }
+
+        private String peek() {
+            return tokens.get(pos);
+        }
+
+        private String next() {
+            if (pos >= tokens.size()) {
+                throw error("Unexpected end of statement");
+            }
+            return tokens.get(pos++);
+        }
+
+        private boolean peekSymbol(String s) {
+            return pos < tokens.size() && tokens.get(pos).equals(s);
+        }
+
+        private boolean peekKeyword(String k) {
+            return pos < tokens.size() && tokens.get(pos).equalsIgnoreCase(k);
+        }
+
+        private boolean accept(String s) {
+            if (peekSymbol(s)) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean acceptKeyword(String k) {
+            if (peekKeyword(k)) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String s) {
+            if (!accept(s)) {
+                throw error("Expected " + s);
+            }
+        }
+
+        private void expectKeyword(String k) {
+            if (!acceptKeyword(k)) {
+                throw error("Expected " + k);
+            }
+        }
+
+        private String identifier() {
+            String t = next();
+            if (!isIdentifier(t)) {
+                throw error("Expected a name instead of " + t);
+            }
+            return t;
+        }
+
+        private IllegalArgumentException error(String msg) {
+            return new IllegalArgumentException(msg + " in statement " +
+                "not supported by the in-memory handle: " + sql);
+        }
+    }
+
+    /** Orders primary key values with {@link #compareTotal}. */
+    static final Comparator<List<FieldValue>> KEY_ORDER = (k1, k2) -> {
+        int n = Math.min(k1.size(), k2.size());
+        for (int i = 0; i < n; i++) {
+            int c = compareTotal(k1.get(i), k2.get(i));
+            if (c != 0) {
+                return c;
+            }
+        }
+        return Integer.compare(k1.size(), k2.size());
+    };
+}
@@ -0,0 +1,1043 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test.inmemory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import oracle.nosql.driver.IndexExistsException;
+import oracle.nosql.driver.IndexNotFoundException;
+import oracle.nosql.driver.NoSQLHandle;
+import oracle.nosql.driver.StatsControl;
+import oracle.nosql.driver.TableExistsException;
+import oracle.nosql.driver.TableNotFoundException;
+import oracle.nosql.driver.UserInfo;
+import oracle.nosql.driver.Version;
+import oracle.nosql.driver.ops.AddReplicaRequest;
+import oracle.nosql.driver.ops.DeleteRequest;
+import oracle.nosql.driver.ops.DeleteResult;
+import oracle.nosql.driver.ops.DropReplicaRequest;
+import oracle.nosql.driver.ops.GetIndexesRequest;
+import oracle.nosql.driver.ops.GetIndexesResult;
+import oracle.nosql.driver.ops.GetRequest;
+import oracle.nosql.driver.ops.GetResult;
+import oracle.nosql.driver.ops.GetTableRequest;
+import oracle.nosql.driver.ops.ListTablesRequest;
+import oracle.nosql.driver.ops.ListTablesResult;
+import oracle.nosql.driver.ops.MultiDeleteRequest;
+import oracle.nosql.driver.ops.MultiDeleteResult;
+import oracle.nosql.driver.ops.PrepareRequest;
+import oracle.nosql.driver.ops.PrepareResult;
+import oracle.nosql.driver.ops.PreparedStatement;
+import oracle.nosql.driver.ops.PutRequest;
+import oracle.nosql.driver.ops.PutResult;
+import oracle.nosql.driver.ops.QueryIterableResult;
+import oracle.nosql.driver.ops.QueryRequest;
+import oracle.nosql.driver.ops.QueryResult;
+import oracle.nosql.driver.ops.ReplicaStatsRequest;
+import oracle.nosql.driver.ops.Request;
+import oracle.nosql.driver.ops.ReplicaStatsResult;
+import oracle.nosql.driver.ops.SystemRequest;
+import oracle.nosql.driver.ops.SystemResult;
+import oracle.nosql.driver.ops.SystemStatusRequest;
+import oracle.nosql.driver.ops.TableLimits;
+import oracle.nosql.driver.ops.TableRequest;
+import oracle.nosql.driver.ops.TableResult;
+import oracle.nosql.driver.ops.TableUsageRequest;
+import oracle.nosql.driver.ops.TableUsageResult;
+import oracle.nosql.driver.ops.WriteMultipleRequest;
+import oracle.nosql.driver.ops.WriteMultipleResult;
+import oracle.nosql.driver.ops.WriteRequest;
+import oracle.nosql.driver.values.ArrayValue;
+import oracle.nosql.driver.values.FieldValue;
+import oracle.nosql.driver.values.IntegerValue;
+import oracle.nosql.driver.values.JsonNullValue;
+import oracle.nosql.driver.values.LongValue;
+import oracle.nosql.driver.values.MapValue;
+import oracle.nosql.driver.values.StringValue;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+
+/**
+ * A {@link NoSQLHandle} keeping tables in memory, standing in for a database
+ * in tests and benchmarks of the repositories and templates, see
+ * {@link #createFactory()}. Each table is a concurrent
+ * sorted map of rows by primary key. Gets, puts, deletes, multi deletes and
+ * atomic write multiples are supported with their version and existence
+ * conditions, as are CREATE TABLE, CREATE INDEX, DROP TABLE and DROP INDEX
+ * statements.<p>
+ *
+ * Queries support the SQL generated by the templates and derived queries,
+ * see {@link InMemoryQuery}. Lookups of the rows of a prefix of the primary
+ * key or of a list of keys don't scan the table, other queries do. Results
+ * are computed by the first batch and returned in batches of the request
+ * limit, {@link #DEFAULT_QUERY_BATCH_SIZE} if not set.<p>
+ *
+ * Gets are charged one read unit, other operations none. Not modeled:
+ * TTLs, throughput limits, consistency, durability, namespaces
+ * and the checks of the types of the columns. Operations on users, roles,
+ * replicas and usage throw {@link UnsupportedOperationException}. Closing
+ * the handle drops all tables.
+ */
+public class NosqlInMemoryHandle implements NoSQLHandle {
+
+    /** Number of query results returned per batch when there is no limit. */
+    public static final int DEFAULT_QUERY_BATCH_SIZE = 1000;
+
+    /* driver code of SELECT statements, others do writes */
+    private static final byte OPCODE_SELECT = 5;
+    private static final byte OPCODE_WRITE = 0;
+    /* the driver requires a serialized statement of at least 10 bytes */
+    private static final int MIN_STATEMENT_SIZE = 10;
+    private static final int MAX_CACHED_STATEMENTS = 1000;
+    private static final int MAX_CURSORS = 1024;
+
+    private static final Pattern CREATE_TABLE = Pattern.compile(
+        "\\s*CREATE\\s+TABLE\\s+(IF\\s+NOT\\s+EXISTS\\s+)?([\\w.]+)\\s*" +
+        "\\((.*)\\)\\s*(?:USING\\s+TTL\\s+(.+?))?\\s*",
+        Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern CREATE_INDEX = Pattern.compile(
+        "\\s*CREATE\\s+INDEX\\s+(IF\\s+NOT\\s+EXISTS\\s+)?(\\w+)\\s+ON\\s+" +
+        "([\\w.]+)\\s*\\((.*)\\)\\s*",
+        Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern DROP_TABLE = Pattern.compile(
+        "\\s*DROP\\s+TABLE\\s+(IF\\s+EXISTS\\s+)?([\\w.]+)\\s*",
+        Pattern.CASE_INSENSITIVE);
+    private static final Pattern DROP_INDEX = Pattern.compile(
+        "\\s*DROP\\s+INDEX\\s+(IF\\s+EXISTS\\s+)?(\\w+)\\s+ON\\s+([\\w.]+)\\s*",
+        Pattern.CASE_INSENSITIVE);
+    private static final Pattern SHARD_KEY = Pattern.compile(
+        "SHARD\\s*\\(([^)]*)\\)", Pattern.CASE_INSENSITIVE);
+
+    /* endpoint of the config of in-memory factories, never connected */
+    private static final String ENDPOINT = "http://localhost:8080";
+
+    private static final AtomicLong versions = new AtomicLong();
+
+    /* tables by lower case name */
+    private final Map<String, Table> tables = new ConcurrentHashMap<>();
+    private final Map<String, InMemoryQuery> statements =
+        new ConcurrentHashMap<>();
+    /* results of queries with more batches to return, by cursor id */
+    private final Map<Long, List<MapValue>> cursors = Collections
+        .synchronizedMap(new LinkedHashMap<Long, List<MapValue>>() {
+            @Override
+            protected boolean removeEldestEntry(
+                Map.Entry<Long, List<MapValue>> eldest) {
+                return size() > MAX_CURSORS;
+            }
+        });
+    private final AtomicLong nextCursor = new AtomicLong();
+    private volatile Consumer<Request> requestHook;
+    private volatile boolean lazyQueryResults;
+
+    /**
+     * Returns a factory whose templates and repositories keep their tables
+     * in a new in-memory handle.
+     */
+    public static NosqlDbFactory createFactory() {
+        return createFactory(NosqlDbConfig.createProxyConfig(ENDPOINT));
+    }
+
+    /**
+     * Returns a factory using config, whose handle configs are not used,
+     * and a new in-memory handle.
+     */
+    public static NosqlDbFactory createFactory(NosqlDbConfig config) {
+        return new NosqlDbFactory(config, new NosqlInMemoryHandle());
+    }
+
+    /**
+     * Sets a hook called with each get, put, delete, write multiple, multi
+     * delete, prepare, query batch, table, get table and get indexes request
+     * before it runs, null for none. It can count requests, add latency or
+     * throw to inject failures.
+     */
+    public void setRequestHook(Consumer<Request> hook) {
+        requestHook = hook;
+    }
+
+    /**
+     * Sets whether query results are computed on first access, like the
+     * results of advanced queries by the driver, instead of by
+     * {@link #query(QueryRequest)}. The request hook is then called when the
+     * results are computed.
+     */
+    public void setLazyQueryResults(boolean lazy) {
+        lazyQueryResults = lazy;
+    }
+
+    /**
+     * Returns the number of rows of the table.
+     */
+    public int getRowCount(String tableName) {
+        return getTable(tableName).rows.size();
+    }
+
+    @Override
+    public GetResult get(GetRequest request) {
+        beforeRequest(request);
+        Table table = getTable(request.getTableName());
+        Row row = table.rows.get(table.key(request.getKey()));
+        GetResult res = new GetResult();
+        /* charged like an eventually consistent get of a small row */
+        res.setReadUnits(1);
+        res.setReadKB(1);
+        if (row != null) {
+            res.setValue((MapValue) InMemoryQuery.copy(row.value))
+                .setVersion(row.version)
+                .setModificationTime(row.modificationTime);
+        }
+        return res;
+    }
+
+    @Override
+    public PutResult put(PutRequest request) {
+        beforeRequest(request);
+        Table table = getTable(request.getTableName());
+        table.lock.lock();
+        try {
+            Batch batch = new Batch();
+            PutResult res = put(batch, table, request);
+            batch.commit();
+            return res;
+        } finally {
+            table.lock.unlock();
+        }
+    }
+
+    @Override
+    public DeleteResult delete(DeleteRequest request) {
+        beforeRequest(request);
+        Table table = getTable(request.getTableName());
+        table.lock.lock();
+        try {
+            Batch batch = new Batch();
+            DeleteResult res = delete(batch, table, request);
+            batch.commit();
+            return res;
+        } finally {
+            table.lock.unlock();
+        }
+    }
+
+    /**
+     * Runs the operations atomically: none is applied if an operation
+     * aborting on failure fails.
+     */
+    @Override
+    public WriteMultipleResult writeMultiple(WriteMultipleRequest request) {
+        beforeRequest(request);
+        List<WriteMultipleRequest.OperationRequest> ops =
+            request.getOperations();
+        // tables are locked in name order to avoid deadlocks
+        Map<String, Table> locked = new TreeMap<>();
+        for (WriteMultipleRequest.OperationRequest op : ops) {
+            Table table = getTable(op.getRequest().getTableName());
+            locked.put(table.name.toLowerCase(), table);
+        }
+        locked.values().forEach(t -> t.lock.lock());
+        try {
+            Batch batch = new Batch();
+            WriteMultipleResult res = new WriteMultipleResult();
+            for (int i = 0; i < ops.size(); i++) {
+                WriteRequest w = ops.get(i).getRequest();
+                Table table = getTable(w.getTableName());
+                WriteMultipleResult.OperationResult opRes =
+                    new WriteMultipleResult.OperationResult();
+                if (w instanceof PutRequest) {
+                    PutResult put = put(batch, table, (PutRequest) w);
+                    opRes.setSuccess(put.getVersion() != null)
+                        .setVersion(put.getVersion())
+                        .setGeneratedValue(put.getGeneratedValue());
+                    opRes.setExistingValue(put.getExistingValueInternal())
+                        .setExistingVersion(put.getExistingVersionInternal());
+                } else {
+                    DeleteResult del = delete(batch, table,
+                        (DeleteRequest) w);
+                    opRes.setSuccess(del.getSuccess());
+                    opRes.setExistingValue(del.getExistingValueInternal())
+                        .setExistingVersion(del.getExistingVersionInternal());
+                }
+                if (!opRes.getSuccess() && ops.get(i).isAbortIfUnsuccessful()) {
+                    WriteMultipleResult failed = new WriteMultipleResult();
+                    failed.setFailedOperationIndex(i);
+                    failed.addResult(opRes);
+                    return failed;
+                }
+                res.addResult(opRes);
+            }
+            batch.commit();
+            return res;
+        } finally {
+            locked.values().forEach(t -> t.lock.unlock());
+        }
+    }
+
+    /**
+     * Deletes the rows matching the fields of the request key. Ranges are
+     * not supported.
+     */
+    @Override
+    public MultiDeleteResult multiDelete(MultiDeleteRequest request) {
+        beforeRequest(request);
+        if (request.getRange() != null) {
+            throw new UnsupportedOperationException("Multi delete ranges " +
+                "are not supported by the in-memory handle.");
+        }
+        Table table = getTable(request.getTableName());
+        MapValue key = request.getKey();
+        int deleted = table.writeAll(table.scan(null), row -> {
+            for (Map.Entry<String, FieldValue> e : key.entrySet()) {
+                FieldValue v = row.get(e.getKey());
+                if (v == null ||
+                    InMemoryQuery.compareTotal(v, e.getValue()) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }, row -> null);
+        return new MultiDeleteResult().setNumDeletions(deleted);
+    }
+
+    @Override
+    public PrepareResult prepare(PrepareRequest request) {
+        beforeRequest(request);
+        String sql = request.getStatement();
+        InMemoryQuery query = getStatement(sql);
+        Table table = getTable(query.getTableName());
+        byte[] statement = Arrays.copyOf(sql.getBytes(StandardCharsets.UTF_8),
+            Math.max(MIN_STATEMENT_SIZE, sql.length()));
+        return new PrepareResult().setPreparedStatement(new PreparedStatement(
+            sql, null, null, statement, null, 0, 0, null, null, table.name,
+            query.getKind() == InMemoryQuery.Kind.SELECT ? OPCODE_SELECT :
+            OPCODE_WRITE));
+    }
+
+    @Override
+    public QueryResult query(QueryRequest request) {
+        if (lazyQueryResults) {
+            return new LazyQueryResult(request);
+        }
+        beforeRequest(request);
+        return doQuery(request);
+    }
+
+    private QueryResult doQuery(QueryRequest request) {
+        byte[] contKey = request.getContKey();
+        List<MapValue> results;
+        long cursor = 0;
+        int from = 0;
+        if (contKey == null) {
+            PreparedStatement ps = request.getPreparedStatement();
+            InMemoryQuery query = getStatement(ps != null ?
+                ps.getSQLText() : request.getStatement());
+            results = query.execute(getTable(query.getTableName()),
+                ps != null ? ps.getVariables() : null);
+        } else {
+            ByteBuffer buffer = ByteBuffer.wrap(contKey);
+            cursor = buffer.getLong();
+            from = buffer.getInt();
+            results = cursors.get(cursor);
+            if (results == null) {
+                throw new IllegalArgumentException("Unknown or expired " +
+                    "query continuation key.");
+            }
+        }
+
+        int batchSize = request.getLimit() > 0 ? request.getLimit() :
+            DEFAULT_QUERY_BATCH_SIZE;
+        int to = (int) Math.min(results.size(), (long) from + batchSize);
+        byte[] next = null;
+        if (to < results.size()) {
+            if (cursor == 0) {
+                cursor = nextCursor.incrementAndGet();
+                cursors.put(cursor, results);
+            }
+            next = ByteBuffer.allocate(Long.BYTES + Integer.BYTES)
+                .putLong(cursor).putInt(to).array();
+        } else if (cursor != 0) {
+            cursors.remove(cursor);
+        }
+        request.setContKey(next);
+        return new QueryResult(request, true)
+            .setResults(new ArrayList<>(results.subList(from, to)))
+            .setContinuationKey(next);
+    }
+
+    @Override
+    public QueryIterableResult queryIterable(QueryRequest request) {
+        return new QueryIterableResult(request, this);
+    }
+
+    @Override
+    public TableResult tableRequest(TableRequest request) {
+        beforeRequest(request);
+        String ddl = request.getStatement();
+        if (ddl == null) {
+            // limits or tags change
+            Table table = getTable(request.getTableName());
+            if (request.getTableLimits() != null) {
+                table.limits = request.getTableLimits();
+            }
+            return table.toResult(TableResult.State.ACTIVE);
+        }
+
+        Matcher m = CREATE_TABLE.matcher(ddl);
+        if (m.matches()) {
+            Table table = new Table(m.group(2), ddl, m.group(3), m.group(4),
+                request.getTableLimits());
+            Table prev = tables.putIfAbsent(table.name.toLowerCase(), table);
+            if (prev != null) {
+                if (m.group(1) == null) {
+                    throw new TableExistsException("Table " + table.name +
+                        " already exists.");
+                }
+                return prev.toResult(TableResult.State.ACTIVE);
+            }
+            return table.toResult(TableResult.State.ACTIVE);
+        }
+        m = DROP_TABLE.matcher(ddl);
+        if (m.matches()) {
+            Table table = tables.remove(m.group(2).toLowerCase());
+            if (table == null) {
+                if (m.group(1) == null) {
+                    throw new TableNotFoundException("Table " + m.group(2) +
+                        " not found.");
+                }
+                return new TableResult().setTableName(m.group(2))
+                    .setState(TableResult.State.DROPPED);
+            }
+            return table.toResult(TableResult.State.DROPPED);
+        }
+        m = CREATE_INDEX.matcher(ddl);
+        if (m.matches()) {
+            Table table = getTable(m.group(3));
+            List<String> fields = new ArrayList<>();
+            List<String> types = new ArrayList<>();
+            for (String field : splitTopLevel(m.group(4))) {
+                String[] parts = field.trim().split("(?i)\\s+as\\s+");
+                fields.add(parts[0].trim());
+                types.add(parts.length > 1 ? parts[1].trim() : null);
+            }
+            GetIndexesResult.IndexInfo index = new GetIndexesResult.IndexInfo(
+                m.group(2), fields.toArray(new String[0]),
+                types.toArray(new String[0]));
+            if (table.indexes.putIfAbsent(m.group(2).toLowerCase(),
+                index) != null && m.group(1) == null) {
+                throw new IndexExistsException("Index " + m.group(2) +
+                    " already exists.");
+            }
+            return table.toResult(TableResult.State.ACTIVE);
+        }
+        m = DROP_INDEX.matcher(ddl);
+        if (m.matches()) {
+            Table table = getTable(m.group(3));
+            if (table.indexes.remove(m.group(2).toLowerCase()) == null &&
+                m.group(1) == null) {
+                throw new IndexNotFoundException("Index " + m.group(2) +
+                    " not found.");
+            }
+            return table.toResult(TableResult.State.ACTIVE);
+        }
+        throw new IllegalArgumentException("DDL statement not supported by " +
+            "the in-memory handle: " + ddl);
+    }
+
+    /**
+     * Runs the statement right away, tables being active as soon as
+     * created.
+     */
+    @Override
+    public TableResult doTableRequest(TableRequest request, int timeoutMs,
+        int pollIntervalMs) {
+        return tableRequest(request);
+    }
+
+    @Override
+    public TableResult getTable(GetTableRequest request) {
+        beforeRequest(request);
+        return getTable(request.getTableName())
+            .toResult(TableResult.State.ACTIVE);
+    }
+
+    @Override
+    public ListTablesResult listTables(ListTablesRequest request) {
+        String[] names = tables.values().stream()
+            .map(t -> t.name)
+            .sorted()
+            .toArray(String[]::new);
+        return new ListTablesResult().setTables(names)
+            .setLastIndexReturned(names.length);
+    }
+
+    @Override
+    public GetIndexesResult getIndexes(GetIndexesRequest request) {
+        beforeRequest(request);
+        Table table = getTable(request.getTableName());
+        if (request.getIndexName() == null) {
+            return new GetIndexesResult().setIndexes(table.indexes.values()
+                .toArray(new GetIndexesResult.IndexInfo[0]));
+        }
+        GetIndexesResult.IndexInfo index =
+            table.indexes.get(request.getIndexName().toLowerCase());
+        if (index == null) {
+            throw new IndexNotFoundException("Index " +
+                request.getIndexName() + " not found.");
+        }
+        return new GetIndexesResult().setIndexes(
+            new GetIndexesResult.IndexInfo[] {index});
+    }
+
+    @Override
+    public SystemResult systemRequest(SystemRequest request) {
+        throw unsupported("System requests");
+    }
+
+    @Override
+    public SystemResult systemStatus(SystemStatusRequest request) {
+        throw unsupported("System requests");
+    }
+
+    @Override
+    public SystemResult doSystemRequest(String statement, int timeoutMs,
+        int pollIntervalMs) {
+        throw unsupported("System requests");
+    }
+
+    @Override
+    public TableUsageResult getTableUsage(TableUsageRequest request) {
+        throw unsupported("Table usage");
+    }
+
+    @Override
+    public String[] listNamespaces() {
+        throw unsupported("Namespaces");
+    }
+
+    @Override
+    public String[] listRoles() {
+        throw unsupported("Roles");
+    }
+
+    @Override
+    public UserInfo[] listUsers() {
+        throw unsupported("Users");
+    }
+
+    @Override
+    public TableResult addReplica(AddReplicaRequest request) {
+        throw unsupported("Replicas");
+    }
+
+    @Override
+    public TableResult dropReplica(DropReplicaRequest request) {
+        throw unsupported("Replicas");
+    }
+
+    @Override
+    public ReplicaStatsResult getReplicaStats(ReplicaStatsRequest request) {
+        throw unsupported("Replicas");
+    }
+
+    /**
+     * Returns null, the handle collects no statistics.
+     */
+    @Override
+    public StatsControl getStatsControl() {
+        return null;
+    }
+
+    /**
+     * Drops all tables.
+     */
+    @Override
+    public void close() {
+        tables.clear();
+        statements.clear();
+        cursors.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "NosqlInMemoryHandle{tables=" + tables.size() + "}";
+    }
+
+    private void beforeRequest(Request request) {
+        Consumer<Request> hook = requestHook;
+        if (hook != null) {
+            hook.accept(request);
+        }
+    }
+
+    private Table getTable(String tableName) {
+        Table table = tableName == null ? null :
+            tables.get(tableName.toLowerCase());
+        if (table == null) {
+            throw new TableNotFoundException("Table " + tableName +
+                " not found.");
+        }
+        return table;
+    }
+
+    private InMemoryQuery getStatement(String sql) {
+        InMemoryQuery query = statements.get(sql);
+        if (query == null) {
+            query = InMemoryQuery.parse(sql);
+            if (statements.size() >= MAX_CACHED_STATEMENTS) {
+                statements.clear();
+            }
+            statements.put(sql, query);
+        }
+        return query;
+    }
+
+    private static PutResult put(Batch batch, Table table,
+        PutRequest request) {
+        MapValue value = (MapValue) InMemoryQuery.copy(request.getValue());
+        FieldValue generated = table.generate(value);
+        table.coerce(value);
+        List<FieldValue> key = table.key(value);
+        Row existing = batch.get(table, key);
+
+        boolean success;
+        Version match = request.getMatchVersion();
+        PutRequest.Option option = request.getOption();
+        if (match != null || option == PutRequest.Option.IfVersion) {
+            success = existing != null && existing.version.equals(match);
+        } else if (option == PutRequest.Option.IfAbsent) {
+            success = existing == null;
+        } else if (option == PutRequest.Option.IfPresent) {
+            success = existing != null;
+        } else {
+            success = true;
+        }
+
+        PutResult res = new PutResult();
+        if (success) {
+            Row row = new Row(value);
+            batch.set(table, key, row);
+            res.setVersion(row.version).setGeneratedValue(generated);
+        }
+        if (existing != null && request.getReturnRow()) {
+            res.setExistingValue((MapValue) InMemoryQuery.copy(
+                existing.value))
+                .setExistingVersion(existing.version)
+                .setExistingModificationTime(existing.modificationTime);
+        }
+        return res;
+    }
+
+    private static DeleteResult delete(Batch batch, Table table,
+        DeleteRequest request) {
+        List<FieldValue> key = table.key(request.getKey());
+        Row existing = batch.get(table, key);
+        Version match = request.getMatchVersion();
+        boolean success = existing != null &&
+            (match == null || existing.version.equals(match));
+
+        DeleteResult res = new DeleteResult().setSuccess(success);
+        if (success) {
+            batch.set(table, key, null);
+        }
+        if (existing != null && request.getReturnRow()) {
+            res.setExistingValue((MapValue) InMemoryQuery.copy(
+                existing.value))
+                .setExistingVersion(existing.version)
+                .setExistingModificationTime(existing.modificationTime);
+        }
+        return res;
+    }
+
+    /* Splits on the commas outside of parentheses. */
+    private static List<String> splitTopLevel(String s) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                parts.add(s.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(s.substring(start));
+        return parts;
+    }
+
+    private static UnsupportedOperationException unsupported(String what) {
+        return new UnsupportedOperationException(what + " are not " +
+            "supported by the in-memory handle.");
+    }
+
+    /* Query result computed on first access of its results. */
+    private final class LazyQueryResult extends QueryResult {
+        private final QueryRequest request;
+        private QueryResult computed;
+
+        LazyQueryResult(QueryRequest request) {
+            super(request, false);
+            this.request = request;
+        }
+
+        private synchronized QueryResult compute() {
+            if (computed == null) {
+                beforeRequest(request);
+                computed = doQuery(request);
+            }
+            return computed;
+        }
+
+        @Override
+        public List<MapValue> getResults() {
+            return compute().getResults();
+        }
+
+        @Override
+        public List<MapValue> getResultsInternal() {
+            return compute().getResultsInternal();
+        }
+
+        @Override
+        public byte[] getContinuationKey() {
+            return compute().getContinuationKey();
+        }
+
+        @Override
+        public int getReadUnits() {
+            return compute().getReadUnits();
+        }
+
+        @Override
+        public int getWriteUnits() {
+            return compute().getWriteUnits();
+        }
+
+        @Override
+        public int getReadKB() {
+            return compute().getReadKB();
+        }
+
+        @Override
+        public int getWriteKB() {
+            return compute().getWriteKB();
+        }
+    }
+
+    private static final class Row {
+        private final MapValue value;
+        private final Version version;
+        private final long modificationTime;
+
+        Row(MapValue value) {
+            this.value = value;
+            this.version = Version.createVersion(ByteBuffer
+                .allocate(Long.BYTES).putLong(versions.incrementAndGet())
+                .array());
+            this.modificationTime = System.currentTimeMillis();
+        }
+    }
+
+    /* Writes of a request, applied to the tables by commit. */
+    private static final class Batch {
+        private final Map<Table, Map<List<FieldValue>, Row>> writes =
+            new LinkedHashMap<>();
+
+        Row get(Table table, List<FieldValue> key) {
+            Map<List<FieldValue>, Row> rows = writes.get(table);
+            if (rows != null && rows.containsKey(key)) {
+                return rows.get(key);
+            }
+            return table.rows.get(key);
+        }
+
+        /* a null row deletes the key */
+        void set(Table table, List<FieldValue> key, Row row) {
+            writes.computeIfAbsent(table,
+                t -> new TreeMap<>(InMemoryQuery.KEY_ORDER)).put(key, row);
+        }
+
+        void commit() {
+            writes.forEach((table, rows) -> rows.forEach((key, row) -> {
+                if (row == null) {
+                    table.rows.remove(key);
+                } else {
+                    table.rows.put(key, row);
+                }
+            }));
+        }
+    }
+
+    /**
+     * A table: its schema parsed from the CREATE TABLE statement and its
+     * rows sorted by primary key. Writes hold the lock of the table, reads
+     * don't.
+     */
+    static final class Table {
+        private final String name;
+        private final String ddl;
+        private final String ttl;
+        /* column types by name, in declaration order */
+        private final Map<String, String> columns = new LinkedHashMap<>();
+        private final List<String> primaryKey = new ArrayList<>();
+        private final List<String> shardKey = new ArrayList<>();
+        private String identity;
+        private String uuid;
+        private volatile TableLimits limits;
+
+        private final AtomicLong identitySequence = new AtomicLong();
+        private final Map<String, GetIndexesResult.IndexInfo> indexes =
+            Collections.synchronizedMap(new LinkedHashMap<>());
+        private final ConcurrentSkipListMap<List<FieldValue>, Row> rows =
+            new ConcurrentSkipListMap<>(InMemoryQuery.KEY_ORDER);
+        private final ReentrantLock lock = new ReentrantLock();
+
+        Table(String name, String ddl, String body, String ttl,
+            TableLimits limits) {
+            this.name = name;
+            this.ddl = ddl;
+            this.ttl = ttl;
+            this.limits = limits;
+            for (String def : splitTopLevel(body)) {
+                def = def.trim();
+                if (def.toUpperCase().startsWith("PRIMARY")) {
+                    parsePrimaryKey(def);
+                    continue;
+                }
+                String[] parts = def.split("\\s+", 3);
+                if (parts.length < 2) {
+                    throw new IllegalArgumentException("Invalid column " +
+                        "definition: " + def);
+                }
+                String column = parts[0];
+                String type = parts[1].replaceAll("\\(.*", "").toUpperCase();
+                columns.put(column, type);
+                String rest = parts.length > 2 ? parts[2].toUpperCase() : "";
+                if (rest.contains("IDENTITY")) {
+                    identity = column;
+                } else if (rest.contains("UUID")) {
+                    uuid = column;
+                }
+            }
+            if (primaryKey.isEmpty()) {
+                throw new IllegalArgumentException("Table " + name +
+                    " has no primary key.");
+            }
+        }
+
+        private void parsePrimaryKey(String def) {
+            String keys = def.substring(def.indexOf('(') + 1,
+                def.lastIndexOf(')'));
+            Matcher m = SHARD_KEY.matcher(keys);
+            if (m.find()) {
+                for (String key : m.group(1).split(",")) {
+                    shardKey.add(key.trim());
+                }
+                keys = m.replaceFirst(m.group(1));
+            }
+            for (String key : keys.split(",")) {
+                if (!key.trim().isEmpty()) {
+                    primaryKey.add(key.trim());
+                }
+            }
+            if (shardKey.isEmpty()) {
+                shardKey.addAll(primaryKey);
+            }
+        }
+
+        List<String> getPrimaryKey() {
+            return primaryKey;
+        }
+
+        /* Returns the primary key of row, in primary key order. */
+        List<FieldValue> key(MapValue row) {
+            List<FieldValue> key = new ArrayList<>(primaryKey.size());
+            for (String column : primaryKey) {
+                FieldValue v = row.get(column);
+                if (v == null) {
+                    for (Map.Entry<String, FieldValue> e : row.entrySet()) {
+                        if (e.getKey().equalsIgnoreCase(column)) {
+                            v = e.getValue();
+                        }
+                    }
+                }
+                if (v == null || v.isAnyNull()) {
+                    throw new IllegalArgumentException("Primary key column " +
+                        column + " of table " + name + " is missing.");
+                }
+                key.add(InMemoryQuery.cast(v, columns.get(column)));
+            }
+            return key;
+        }
+
+        /* Sets the generated value of the identity or UUID column. */
+        FieldValue generate(MapValue row) {
+            if (identity != null) {
+                FieldValue v = row.get(identity);
+                if (v == null || v.isAnyNull()) {
+                    long next = identitySequence.incrementAndGet();
+                    v = "INTEGER".equals(columns.get(identity)) ?
+                        new IntegerValue((int) next) : new LongValue(next);
+                    row.put(identity, v);
+                    return v;
+                }
+                if (v.isNumeric()) {
+                    identitySequence.accumulateAndGet(v.getLong(), Math::max);
+                }
+            } else if (uuid != null) {
+                FieldValue v = row.get(uuid);
+                if (v == null || v.isAnyNull()) {
+                    v = new StringValue(UUID.randomUUID().toString());
+                    row.put(uuid, v);
+                    return v;
+                }
+            }
+            return null;
+        }
+
+        /* Converts the values of typed columns to the column type. */
+        void coerce(MapValue row) {
+            for (Map.Entry<String, FieldValue> e : row.entrySet()) {
+                String type = columns.get(e.getKey());
+                if (type == null) {
+                    continue;
+                }
+                e.setValue(type.equals("JSON") ? toJson(e.getValue()) :
+                    InMemoryQuery.cast(e.getValue(), type));
+            }
+        }
+
+        /* Nulls inside JSON values are stored as JSON nulls. */
+        private static FieldValue toJson(FieldValue value) {
+            if (value instanceof MapValue) {
+                for (Map.Entry<String, FieldValue> e :
+                    ((MapValue) value).entrySet()) {
+                    e.setValue(toJson(e.getValue()));
+                }
+            } else if (value instanceof ArrayValue) {
+                ArrayValue array = (ArrayValue) value;
+                for (int i = 0; i < array.size(); i++) {
+                    array.set(i, toJson(array.get(i)));
+                }
+            } else if (value != null && value.isNull()) {
+                return JsonNullValue.getInstance();
+            }
+            return value;
+        }
+
+        /* Returns the rows with the key prefix, all rows if it is null. */
+        List<MapValue> scan(List<FieldValue> prefix) {
+            List<MapValue> res = new ArrayList<>();
+            if (prefix == null) {
+                rows.values().forEach(row -> res.add(row.value));
+                return res;
+            }
+            List<FieldValue> from = new ArrayList<>(prefix.size());
+            for (int i = 0; i < prefix.size(); i++) {
+                from.add(InMemoryQuery.cast(prefix.get(i),
+                    columns.get(primaryKey.get(i))));
+            }
+            for (Map.Entry<List<FieldValue>, Row> e :
+                rows.tailMap(from, true).entrySet()) {
+                if (InMemoryQuery.KEY_ORDER.compare(
+                    e.getKey().subList(0, from.size()), from) != 0) {
+                    break;
+                }
+                res.add(e.getValue().value);
+            }
+            return res;
+        }
+
+        /**
+         * Replaces the candidate rows matching filter with the result of
+         * update, deleting them if it is null. Returns the number of rows
+         * written.
+         */
+        int writeAll(List<MapValue> candidates, Predicate<MapValue> filter,
+            UnaryOperator<MapValue> update) {
+            List<List<FieldValue>> keys = new ArrayList<>(candidates.size());
+            candidates.forEach(row -> keys.add(key(row)));
+            int count = 0;
+            lock.lock();
+            try {
+                for (List<FieldValue> key : keys) {
+                    Row row = rows.get(key);
+                    if (row == null || !filter.test(row.value)) {
+                        continue;
+                    }
+                    MapValue value = update.apply(row.value);
+                    if (value == null) {
+                        rows.remove(key);
+                    } else {
+                        coerce(value);
+                        rows.put(key, new Row(value));
+                    }
+                    count++;
+                }
+            } finally {
+                lock.unlock();
+            }
+            return count;
+        }
+
+        TableResult toResult(TableResult.State state) {
+            return new TableResult().setTableName(name)
+                .setState(state)
+                .setDdl(ddl)
+                .setSchema(getSchema())
+                .setTableLimits(limits);
+        }
+
+        /* the JSON schema of the table, in the format of the server */
+        private String getSchema() {
+            MapValue schema = new MapValue(true, 8);
+            schema.put("json_version", 1);
+            schema.put("type", "table");
+            schema.put("name", name);
+            if (ttl != null) {
+                schema.put("ttl", ttl.trim());
+            }
+            ArrayValue shard = new ArrayValue();
+            shardKey.forEach(shard::add);
+            schema.put("shardKey", shard);
+            ArrayValue primary = new ArrayValue();
+            primaryKey.forEach(primary::add);
+            schema.put("primaryKey", primary);
+            ArrayValue fields = new ArrayValue();
+            columns.forEach((column, type) -> fields.add(new MapValue(true, 2)
+                .put("name", column).put("type", type)));
+            schema.put("fields", fields);
+            if (identity != null) {
+                schema.put("identity", new MapValue(true, 1)
+                    .put("name", identity));
+            }
+            return schema.toJson();
+        }
+    }
+}
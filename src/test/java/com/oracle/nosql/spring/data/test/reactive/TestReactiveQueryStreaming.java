@@ -0,0 +1,145 @@
+/*-
+ * Copyright (c) 2020, 2025 Oracle and/or its affiliates.  All rights reserved.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at
+ *  https://oss.oracle.com/licenses/upl/
+ */
+package com.oracle.nosql.spring.data.test.reactive;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import oracle.nosql.driver.TableNotFoundException;
+import oracle.nosql.driver.ops.QueryRequest;
+
+import com.oracle.nosql.spring.data.NosqlDbFactory;
+import com.oracle.nosql.spring.data.config.NosqlDbConfig;
+import com.oracle.nosql.spring.data.core.NosqlTemplate;
+import com.oracle.nosql.spring.data.core.ReactiveNosqlTemplate;
+import com.oracle.nosql.spring.data.core.mapping.NosqlId;
+import com.oracle.nosql.spring.data.core.mapping.NosqlTable;
+import com.oracle.nosql.spring.data.test.inmemory.NosqlInMemoryHandle;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataAccessException;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+/*
+ * Demand driven fetching of reactive query results, run against the
+ * in-memory handle.
+ */
+public class TestReactiveQueryStreaming {
+
+    private NosqlInMemoryHandle handle;
+    private ReactiveNosqlTemplate template;
+    private AtomicInteger batches;
+    private Set<String> fetchThreads;
+
+    @Before
+    public void setup() throws ClassNotFoundException {
+        handle = new NosqlInMemoryHandle();
+        NosqlDbFactory factory = new NosqlDbFactory(
+            NosqlDbConfig.createProxyConfig("http://localhost:8080"),
+            handle);
+        NosqlTemplate blocking = NosqlTemplate.create(factory);
+        blocking.createTableIfNotExists(
+            blocking.getNosqlEntityInformation(Event.class));
+        for (int i = 0; i < 20; i++) {
+            blocking.insert(new Event(i));
+        }
+        template = ReactiveNosqlTemplate.create(factory);
+
+        batches = new AtomicInteger();
+        fetchThreads = ConcurrentHashMap.newKeySet();
+        handle.setRequestHook(req -> {
+            if (req instanceof QueryRequest) {
+                batches.incrementAndGet();
+                fetchThreads.add(Thread.currentThread().getName());
+            }
+        });
+    }
+
+    @Test
+    public void testAllResults() {
+        StepVerifier.create(template.findAll(Event.class))
+            .expectNextCount(20)
+            .verifyComplete();
+        /* 4 rows per batch */
+        Assert.assertEquals(5, batches.get());
+        for (String name : fetchThreads) {
+            Assert.assertTrue(name, name.startsWith("boundedElastic"));
+        }
+    }
+
+    @Test
+    public void testBatchesFetchedOnDemand() throws InterruptedException {
+        /* at most one batch is fetched ahead of the demand */
+        StepVerifier.create(template.findAll(Event.class), 0)
+            .expectSubscription()
+            .expectNoEvent(Duration.ofMillis(100))
+            .then(() -> Assert.assertTrue(batches.get() <= 2))
+            .thenRequest(3)
+            .expectNextCount(3)
+            .thenCancel()
+            .verify();
+
+        /* nothing is fetched once cancelled */
+        int fetched = batches.get();
+        Assert.assertTrue("batches " + fetched, fetched >= 1 && fetched <= 2);
+        Thread.sleep(100);
+        Assert.assertEquals(fetched, batches.get());
+    }
+
+    @Test
+    public void testErrorInLaterBatch() {
+        handle.setRequestHook(req -> {
+            if (req instanceof QueryRequest &&
+                batches.incrementAndGet() == 2) {
+                throw new TableNotFoundException("injected");
+            }
+        });
+
+        StepVerifier.create(template.findAll(Event.class))
+            .expectNextCount(4)
+            .expectError(DataAccessException.class)
+            .verify();
+    }
+
+    @Test
+    public void testResultScheduler() {
+        Scheduler scheduler = Schedulers.newSingle("results");
+        try {
+            template.setResultScheduler(scheduler);
+            Set<String> threads = ConcurrentHashMap.newKeySet();
+            StepVerifier.create(template.findAll(Event.class)
+                    .doOnNext(e -> threads.add(
+                        Thread.currentThread().getName())))
+                .expectNextCount(20)
+                .verifyComplete();
+            Assert.assertEquals(1, threads.size());
+            Assert.assertTrue(threads.iterator().next().startsWith("results"));
+        } finally {
+            scheduler.dispose();
+        }
+    }
+
+    /* 4 rows per query batch */
+    @NosqlTable(queryBatchSize = 4)
+    public static class Event {
+        @NosqlId
+        public long id;
+
+        public Event() {
+        }
+
+        Event(long id) {
+            this.id = id;
+        }
+    }
+}